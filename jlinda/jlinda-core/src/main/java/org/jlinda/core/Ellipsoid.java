@@ -125,6 +125,24 @@ public class Ellipsoid {
                 (Nph - e2 * N) * FastMath.sin(phi));
     }
 
+    public static void ell2xyz(final double[] phiLambdaHeight, final double[] xyz) throws IllegalArgumentException {
+
+        final double phi = phiLambdaHeight[0];
+        final double lambda = phiLambdaHeight[1];
+        final double height = phiLambdaHeight[2];
+
+        if (phi > Math.PI || phi < -Math.PI || lambda > Math.PI || lambda < -Math.PI) {
+            throw new IllegalArgumentException("Ellipsoid.ell2xyz(): phi/lambda values has to be in radians!");
+        }
+
+        final double N = computeEllipsoidNormal(phi);
+        final double Nph = N + height;
+        final double A = Nph * FastMath.cos(phi);
+        xyz[0] = A * FastMath.cos(lambda);
+        xyz[1] = A * FastMath.sin(lambda);
+        xyz[2] = (Nph - e2 * N) * FastMath.sin(phi);
+    }
+
     public static Point ell2xyz(final GeoPoint geoPoint, final double height) {
         return ell2xyz(geoPoint.lat * DTOR, geoPoint.lon * DTOR, height);
     }
@@ -377,6 +377,92 @@ public final class Orbit {
     }
 
 
+    /**
+     * Allocation free xyz2t starting the iteration from a time hint. Neighbouring DEM posts have nearly the same
+     * azimuth time, so with the solution of the previous post as hint one or two iterations suffice.
+     *
+     * @param xyz        point on ellipsoid
+     * @param slcimage   image metadata
+     * @param azTimeHint initial azimuth time, NaN to start from the scene centre
+     * @param rgAzTime   output range time and azimuth time
+     */
+    public void xyz2t(final double[] xyz, final SLCImage slcimage, final double azTimeHint, final double[] rgAzTime) {
+
+        double timeAzimuth = Double.isNaN(azTimeHint) ?
+                slcimage.line2ta(0.5 * slcimage.getApproxRadarCentreOriginal().y) : azTimeHint;
+
+        final int degree = coeff_X.length - 1;
+        final double t0 = time[time.length / 2];
+        for (int iter = 0; iter <= MAXITER; ++iter) {
+
+            // satellite position, velocity and acceleration by Horner's scheme
+            final double t = (timeAzimuth - t0) / 10.0;
+            double px = coeff_X[degree], py = coeff_Y[degree], pz = coeff_Z[degree];
+            double vx = 0, vy = 0, vz = 0;
+            double ax = 0, ay = 0, az = 0;
+            for (int i = degree - 1; i >= 0; --i) {
+                ax = ax * t + 2 * vx;
+                ay = ay * t + 2 * vy;
+                az = az * t + 2 * vz;
+                vx = vx * t + px;
+                vy = vy * t + py;
+                vz = vz * t + pz;
+                px = px * t + coeff_X[i];
+                py = py * t + coeff_Y[i];
+                pz = pz * t + coeff_Z[i];
+            }
+            vx /= 10.0;
+            vy /= 10.0;
+            vz /= 10.0;
+            ax /= 100.0;
+            ay /= 100.0;
+            az /= 100.0;
+
+            final double dx = xyz[0] - px;
+            final double dy = xyz[1] - py;
+            final double dz = xyz[2] - pz;
+
+            // update solution
+            final double doppler = vx * dx + vy * dy + vz * dz;
+            final double dopplerDt = ax * dx + ay * dy + az * dz - vx * vx - vy * vy - vz * vz;
+            final double solution = -doppler / dopplerDt;
+            timeAzimuth += solution;
+
+            if (Math.abs(solution) < CRITERTIM) {
+                break;
+            }
+        }
+
+        // Compute range time
+        final double t = (timeAzimuth - t0) / 10.0;
+        final double dx = xyz[0] - PolyUtils.polyVal1D(t, coeff_X);
+        final double dy = xyz[1] - PolyUtils.polyVal1D(t, coeff_Y);
+        final double dz = xyz[2] - PolyUtils.polyVal1D(t, coeff_Z);
+
+        rgAzTime[0] = Math.sqrt(dx * dx + dy * dy + dz * dz) / SOL;
+        rgAzTime[1] = timeAzimuth;
+    }
+
+    /**
+     * Allocation free ell2lp starting the iteration from a time hint, see xyz2t.
+     *
+     * @param phi_lam_height latitude, longitude and height
+     * @param slcimage       image metadata
+     * @param azTimeHint     initial azimuth time, NaN to start from the scene centre
+     * @param xyz            output point on ellipsoid
+     * @param rgAzTime       output range time and azimuth time
+     * @param pixelLine      output pixel and line
+     */
+    public void ell2lp(final double[] phi_lam_height, final SLCImage slcimage, final double azTimeHint,
+                       final double[] xyz, final double[] rgAzTime, final double[] pixelLine) {
+
+        Ellipsoid.ell2xyz(phi_lam_height, xyz);
+        xyz2t(xyz, slcimage, azTimeHint, rgAzTime);
+
+        pixelLine[0] = slcimage.tr2pix(rgAzTime[0]);
+        pixelLine[1] = slcimage.ta2line(rgAzTime[1]);
+    }
+
     public Point xyz2lp(final Point pointOnEllips, final SLCImage slcimage) {
 
         // Compute tazi, tran
@@ -0,0 +1,373 @@
+package org.jlinda.core.delaunay;
+
+/**
+ * Fast Delaunay Triangulator over primitive arrays.
+ * <p>
+ * Same algorithm as FastDelaunayTriangulator, and so the same triangles in the same order, but vertices are
+ * indices into a coordinate array and triangles are records in an int array, so no object is created per point
+ * or per triangle.
+ */
+
+public final class ArrayDelaunayTriangulator {
+
+    // per triangle the vertices A, B, C and the neighbours BAO, CBO, ACO along the sides AB, BC, CA
+    private static final int A = 0, B = 1, C = 2, BAO = 3, CBO = 4, ACO = 5, STRIDE = 6;
+    private int[] tri;
+    private int numSlots;
+
+    // sorted unique vertices as x, y pairs, the last one is the horizon
+    private double[] vxy;
+    private int[] vPoint;
+    private int horizon;
+
+    private int[] triangles = new int[0];
+    private int numTriangles;
+
+    private int currentExternalTriangle;
+
+    private int[] stack = new int[64];
+
+    /**
+     * Triangulate points. Points with equal x and y are triangulated once, as the first of them.
+     *
+     * @param x         x coordinates
+     * @param y         y coordinates
+     * @param numPoints number of points to triangulate from the start of x and y
+     */
+    public void triangulate(final double[] x, final double[] y, final int numPoints) throws TriangulationException {
+
+        numTriangles = 0;
+        final int numVertices = extractUniqueVertices(x, y, numPoints);
+        if (numVertices < 3) {
+            throw new TriangulationException("A minimum of three distinct " +
+                                                     "points is necessary to triangulate a set of geometries");
+        }
+
+        final int maxSlots = 2 * numVertices + 2;
+        tri = new int[STRIDE * maxSlots];
+        numSlots = 0;
+        if (triangles.length < 3 * maxSlots) {
+            triangles = new int[3 * maxSlots];
+        }
+
+        initTriangulation(0, 1);
+        for (int v = 2; v < numVertices; v++) {
+            addExternalVertex(v);
+        }
+
+        // vertices as indices of the input points
+        final int n = 3 * numTriangles;
+        for (int k = 0; k < n; k += 3) {
+            final int t = triangles[k];
+            triangles[k] = vPoint[tri[t + A]];
+            triangles[k + 1] = vPoint[tri[t + B]];
+            triangles[k + 2] = vPoint[tri[t + C]];
+        }
+
+        tri = null;
+        vxy = null;
+        vPoint = null;
+    }
+
+    /**
+     * @return number of triangles of the triangulation, phantom triangles out of the convex hull excluded
+     */
+    public int getNumTriangles() {
+        return numTriangles;
+    }
+
+    /**
+     * @return the vertices A, B and C of each triangle, as indices of the triangulated points
+     */
+    public int[] getTriangles() {
+        return triangles;
+    }
+
+    private int extractUniqueVertices(final double[] x, final double[] y, final int numPoints) {
+
+        int[] order = new int[numPoints];
+        for (int i = 0; i < numPoints; i++) {
+            order[i] = i;
+        }
+        order = sort(order, x, y);
+
+        vxy = new double[2 * numPoints + 2];
+        vPoint = new int[numPoints + 1];
+        int n = 0;
+        for (int k = 0; k < numPoints; k++) {
+            final int p = order[k];
+            if (n > 0 && compare(x[p], y[p], vxy[2 * n - 2], vxy[2 * n - 1]) == 0) {
+                continue;
+            }
+            vxy[2 * n] = x[p];
+            vxy[2 * n + 1] = y[p];
+            vPoint[n] = p;
+            n++;
+        }
+        horizon = n;
+        vxy[2 * horizon] = Double.NaN;
+        vxy[2 * horizon + 1] = Double.NaN;
+        vPoint[horizon] = -1;
+        return n;
+    }
+
+    // compare as Coordinate.compareTo
+    private static int compare(final double x0, final double y0, final double x1, final double y1) {
+        if (x0 < x1) return -1;
+        if (x0 > x1) return 1;
+        if (y0 < y1) return -1;
+        if (y0 > y1) return 1;
+        return 0;
+    }
+
+    // stable bottom up merge sort of point indices by x then y
+    private static int[] sort(int[] order, final double[] x, final double[] y) {
+        final int n = order.length;
+        int[] tmp = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                final int mid = Math.min(lo + width, n);
+                final int hi = Math.min(lo + 2 * width, n);
+                if (mid >= hi || compare(x[order[mid - 1]], y[order[mid - 1]], x[order[mid]], y[order[mid]]) <= 0) {
+                    System.arraycopy(order, lo, tmp, lo, hi - lo);
+                    continue;
+                }
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    tmp[k++] = compare(x[order[j]], y[order[j]], x[order[i]], y[order[i]]) < 0 ? order[j++] : order[i++];
+                }
+                while (i < mid) tmp[k++] = order[i++];
+                while (j < hi) tmp[k++] = order[j++];
+            }
+            final int[] swap = order;
+            order = tmp;
+            tmp = swap;
+        }
+        return order;
+    }
+
+    // triangles are the offsets of their records in tri
+    private int newTriangle(final int a, final int b, final int c) {
+        final int t = STRIDE * numSlots++;
+        setABC(t, a, b, c);
+        return t;
+    }
+
+    private void initTriangulation(final int c0, final int c1) {
+        final int t0 = newTriangle(c0, c1, horizon);
+        final int t1 = newTriangle(c1, c0, horizon);
+        tri[t0 + BAO] = tri[t0 + CBO] = tri[t0 + ACO] = t1;
+        tri[t1 + BAO] = tri[t1 + CBO] = tri[t1 + ACO] = t0;
+        currentExternalTriangle = t1;
+    }
+
+    private void addExternalVertex(final int vertex) {
+        final int first = numTriangles;
+        buildTrianglesBetweenNewVertexAndConvexHull(vertex);
+        for (int k = first; k < numTriangles; k++) {
+            final int t = triangles[3 * k];
+            if (tri[t + C] != horizon) delaunay(t, 0);
+        }
+    }
+
+    private void buildTrianglesBetweenNewVertexAndConvexHull(final int c) {
+
+        int currentT = currentExternalTriangle;
+        int nextExternalTriangle = tri[currentExternalTriangle + ACO];
+
+        int lastCCW = ccw(currentT, c);
+        int currentCCW;
+        int beforeFirstVisibleT = currentExternalTriangle;
+        int firstVisibleT = -1;
+        int lastVisibleT = -1;
+        int afterLastVisibleT = nextExternalTriangle;
+        boolean oneCycleCompleted = false;
+        while (true) {
+            currentT = tri[currentT + ACO];
+            currentCCW = ccw(currentT, c);
+            if (currentCCW > 0) {
+                if (lastCCW <= 0) {
+                    firstVisibleT = currentT;
+                    beforeFirstVisibleT = tri[currentT + CBO];
+                }
+                if (firstVisibleT != -1) {
+                    tri[currentT + C] = c;
+                    triangles[3 * numTriangles++] = currentT;
+                }
+            } else if (firstVisibleT != -1 && lastCCW > 0) {
+                lastVisibleT = tri[currentT + CBO];
+                afterLastVisibleT = currentT;
+            }
+            lastCCW = currentCCW;
+            if (firstVisibleT != -1 && lastVisibleT != -1) break;
+            if (oneCycleCompleted && firstVisibleT == -1 && lastVisibleT == -1) break;
+            if (currentT == currentExternalTriangle) oneCycleCompleted = true;
+        }
+
+        currentExternalTriangle = newTriangle(c, tri[beforeFirstVisibleT + A], horizon);
+        nextExternalTriangle = newTriangle(tri[afterLastVisibleT + B], c, horizon);
+        linkExteriorTriangles(beforeFirstVisibleT, currentExternalTriangle);
+        if (firstVisibleT != -1 || lastVisibleT != -1) {
+            link(currentExternalTriangle, 0, firstVisibleT, 1);
+            link(nextExternalTriangle, 0, lastVisibleT, 2);
+        } else link(currentExternalTriangle, 0, nextExternalTriangle, 0);
+        linkExteriorTriangles(nextExternalTriangle, afterLastVisibleT);
+
+        linkExteriorTriangles(currentExternalTriangle, nextExternalTriangle);
+    }
+
+    private void linkExteriorTriangles(final int t1, final int t2) {
+        tri[t1 + ACO] = t2;
+        tri[t2 + CBO] = t1;
+    }
+
+    /**
+     * Check the delaunay property of triangle sides, flipping the triangles forming the quadrilateral if the
+     * circumcircle contains the opposite vertex. Checks are taken from a stack in the order of the recursion
+     * of FastDelaunayTriangulator.
+     */
+    private void delaunay(final int triangle, final int triangleSide) {
+
+        int top = 0;
+        stack[top++] = triangle;
+        stack[top++] = triangleSide;
+        while (top > 0) {
+            final int side = stack[--top];
+            final int t = stack[--top];
+
+            final int opp = getNeighbour(t, side);
+            if (tri[opp + C] == horizon) continue;
+            final int i = getOpposite(t, side);
+
+            if (inCircle(t, getVertex(opp, i)) > 0) {
+                flip(t, side, opp, (i + 1) % 3);
+                if (top + 8 > stack.length) {
+                    final int[] newStack = new int[2 * stack.length];
+                    System.arraycopy(stack, 0, newStack, 0, top);
+                    stack = newStack;
+                }
+                stack[top++] = opp;
+                stack[top++] = 1;
+                stack[top++] = opp;
+                stack[top++] = 0;
+                stack[top++] = t;
+                stack[top++] = 2;
+                stack[top++] = t;
+                stack[top++] = 1;
+            }
+        }
+    }
+
+    private void flip(final int t0, final int side0, final int t1, final int side1) {
+        final int side0_1 = (side0 + 1) % 3;
+        final int side0_2 = (side0 + 2) % 3;
+        final int side1_1 = (side1 + 1) % 3;
+        final int side1_2 = (side1 + 2) % 3;
+
+        final int t0A = getVertex(t1, side1_2);
+        final int t0B = getVertex(t0, side0_2);
+        final int t1B = getVertex(t0, side0_1);
+        final int t0C = getVertex(t0, side0);
+        // New neighbours
+        final int newt0N1 = getNeighbour(t0, side0_2);
+        final int newt0N2 = getNeighbour(t1, side1_1);
+        final int newt1N0 = getNeighbour(t1, side1_2);
+        final int newt1N1 = getNeighbour(t0, side0_1);
+        setABC(t0, t0A, t0B, t0C);
+        tri[t0 + BAO] = t1;
+        link(t0, 1, newt0N1);
+        link(t0, 2, newt0N2);
+        setABC(t1, t0A, t1B, t0B);
+        link(t1, 0, newt1N0);
+        link(t1, 1, newt1N1);
+        tri[t1 + ACO] = t0;
+    }
+
+    private void link(final int t1, final int side1, final int t2, final int side2) {
+        setNeighbour(t1, side1, t2);
+        setNeighbour(t2, side2, t1);
+    }
+
+    private void link(final int t1, final int side1, final int t2) {
+        final int p1 = getVertex(t1, side1);
+        if (p1 == getVertex(t2, side1)) {
+            setNeighbour(t1, side1, t2);
+            setNeighbour(t2, (side1 + 2) % 3, t1);
+        } else {
+            final int side2 = (side1 + 1) % 3;
+            if (p1 == getVertex(t2, side2)) {
+                setNeighbour(t1, side1, t2);
+                setNeighbour(t2, side1, t1);
+            } else {
+                final int side3 = (side1 + 2) % 3;
+                if (p1 == getVertex(t2, side3)) {
+                    setNeighbour(t1, side1, t2);
+                    setNeighbour(t2, side2, t1);
+                }
+            }
+        }
+    }
+
+    private int getVertex(final int t, final int i) {
+        return tri[t + i];
+    }
+
+    private void setABC(final int t, final int a, final int b, final int c) {
+        tri[t + A] = a;
+        tri[t + B] = b;
+        tri[t + C] = c;
+    }
+
+    private int getNeighbour(final int t, final int side) {
+        return tri[t + BAO + side];
+    }
+
+    private void setNeighbour(final int t, final int side, final int n) {
+        tri[t + BAO + side] = n;
+    }
+
+    // position of the vertex of the neighbour on the given side which is not a vertex of t
+    private int getOpposite(final int t, final int side) {
+        return getOppSide(tri[t + BAO + side], tri[t + side]);
+    }
+
+    private int getOppSide(final int t, final int p) {
+        return tri[t + A] == p ? 1 : tri[t + B] == p ? 2 : tri[t + C] == p ? 0 : -1;
+    }
+
+    // positive if p4 lies inside the circumcircle of the counterclockwise triangle t
+    private double inCircle(final int t, final int p4) {
+        final double x4 = vxy[2 * p4];
+        final double y4 = vxy[2 * p4 + 1];
+        final int a = 2 * tri[t + A];
+        final int b = 2 * tri[t + B];
+        final int c = 2 * tri[t + C];
+
+        final double adx = vxy[a] - x4;
+        final double ady = vxy[a + 1] - y4;
+        final double bdx = vxy[b] - x4;
+        final double bdy = vxy[b + 1] - y4;
+        final double cdx = vxy[c] - x4;
+        final double cdy = vxy[c + 1] - y4;
+
+        final double abdet = adx * bdy - bdx * ady;
+        final double bcdet = bdx * cdy - cdx * bdy;
+        final double cadet = cdx * ady - adx * cdy;
+        final double alift = adx * adx + ady * ady;
+        final double blift = bdx * bdx + bdy * bdy;
+        final double clift = cdx * cdx + cdy * cdy;
+
+        return alift * bcdet + blift * cadet + clift * abdet;
+    }
+
+    // orientation of vertex c relative to side AB of triangle t
+    private int ccw(final int t, final int c) {
+        final int a = 2 * tri[t + A];
+        final int b = 2 * tri[t + B];
+        final double ax = vxy[a];
+        final double ay = vxy[a + 1];
+        final double dx1dy2 = (vxy[b] - ax) * (vxy[2 * c + 1] - ay);
+        final double dy1dx2 = (vxy[b + 1] - ay) * (vxy[2 * c] - ax);
+        return dx1dy2 > dy1dx2 ? 1 : dx1dy2 < dy1dx2 ? -1 : 0;
+    }
+}
@@ -3,6 +3,7 @@ package org.jlinda.core.delaunay;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryFactory;
+import org.esa.snap.core.util.SystemUtils;
 import org.jlinda.core.Window;
 
 import java.util.ArrayList;
@@ -33,20 +34,69 @@ public class TriangleInterpolator {
                                       final Window window, final double xyRatio, final int xScale,
                                       final int yScale, final double invalidIndex, final int offset) throws Exception {
 
-        final FastDelaunayTriangulator FDT = triangulate(x_in, y_in, xyRatio, invalidIndex);
-        if(FDT != null) {
-            interpolate(xyRatio, window, xScale, yScale, offset, invalidIndex, FDT, zList);
+        final int numColumns = x_in[0].length;
+        final double[] x = new double[x_in.length * numColumns];
+        final double[] y = new double[x.length];
+        final int[] index = new int[x.length];
+        int n = 0;
+        for (int i = 0; i < x_in.length; i++) {
+            for (int j = 0; j < numColumns; j++) {
+                if (x_in[i][j] == invalidIndex || y_in[i][j] == invalidIndex) {
+                    continue;
+                }
+                x[n] = x_in[i][j];
+                y[n] = y_in[i][j] * xyRatio;
+                index[n++] = i * numColumns + j;
+            }
         }
+        gridDataLinear(x, y, index, n, zList, window, xyRatio, xScale, yScale, invalidIndex, offset);
     }
 
     public static void gridDataLinear(final double[] x_in, final double[] y_in, final ZData[] zList,
                                       final Window window, final double xyRatio, final int xScale,
                                       final int yScale, final double invalidIndex, final int offset) throws Exception {
 
-        final FastDelaunayTriangulator FDT = triangulate(x_in, y_in, xyRatio, invalidIndex);
-        if(FDT != null) {
-            interpolate(xyRatio, window, xScale, yScale, offset, invalidIndex, FDT, zList);
+        final double[] x = new double[x_in.length];
+        final double[] y = new double[x.length];
+        final int[] index = new int[x.length];
+        int n = 0;
+        for (int i = 0; i < x_in.length; i++) {
+            if (x_in[i] == invalidIndex || y_in[i] == invalidIndex) {
+                continue;
+            }
+            x[n] = x_in[i];
+            y[n] = y_in[i] * xyRatio;
+            index[n++] = i;
+        }
+        gridDataLinear(x, y, index, n, zList, window, xyRatio, xScale, yScale, invalidIndex, offset);
+    }
+
+    /**
+     * Triangulate the valid points and interpolate the triangles onto the window. As with
+     * FastDelaunayTriangulator, if the triangulation fails the triangles built before the failure are still
+     * interpolated and the rest of the window is left as it is.
+     *
+     * @param x         x coordinates of the valid points
+     * @param y         y coordinates of the valid points, scaled by xyRatio
+     * @param index     index of each valid point in the input z data
+     * @param numPoints number of valid points
+     */
+    private static void gridDataLinear(final double[] x, final double[] y, final int[] index, final int numPoints,
+                                       final ZData[] zList, final Window window, final double xyRatio,
+                                       final int xScale, final int yScale, final double invalidIndex,
+                                       final int offset) {
+
+        if (numPoints < 3) {
+            return;
+        }
+
+        final ArrayDelaunayTriangulator ADT = new ArrayDelaunayTriangulator();
+        try {
+            ADT.triangulate(x, y, numPoints);
+        } catch (TriangulationException te) {
+            SystemUtils.LOG.warning("TriangleInterpolator: " + te.getMessage());
         }
+        interpolate(xyRatio, window, xScale, yScale, offset, invalidIndex, x, y, index, ADT, zList);
     }
 
     public static FastDelaunayTriangulator triangulate(final double[][] x_in, final double[][] y_in,
@@ -231,6 +281,172 @@ public class TriangleInterpolator {
         //SystemUtils.LOG.info("Data set interpolated in " + (0.001 * (t5 - t4)) + " sec");
     }
 
+    /**
+     * Interpolate the triangles of ArrayDelaunayTriangulator. The grid points are the same as those of
+     * interpolate(FastDelaunayTriangulator), but each grid line is only tested across the span of the triangle.
+     */
+    private static void interpolate(final double xyRatio, final Window tileWindow,
+                                    final double xScale, final double yScale,
+                                    final double offset, final double invalidIndex,
+                                    final double[] x, final double[] y, final int[] index,
+                                    final ArrayDelaunayTriangulator ADT, final ZData[] zList) {
+
+        final double x_min = tileWindow.linelo;
+        final double y_min = tileWindow.pixlo;
+
+        long i_min, i_max, j_min, j_max; // minimas/maximas
+        double xp, yp;
+        double xkj, ykj, xlj, ylj;
+        double f; // function
+
+        // containers for xy coordinates of Triangles: p1-p2-p3-p1
+        final double[] vx = new double[4];
+        final double[] vy = new double[4];
+        final int[] vz = new int[3];
+
+        final int nx = (int) tileWindow.lines();
+        final int ny = (int) tileWindow.pixels();
+
+        final int[] triangles = ADT.getTriangles();
+        final int numVertices = 3 * ADT.getNumTriangles();
+        for (int k = 0; k < numVertices; k += 3) {
+
+            final int pa = triangles[k];
+            final int pb = triangles[k + 1];
+            final int pc = triangles[k + 2];
+
+            // store triangle coordinates in local variables
+            vx[0] = vx[3] = x[pa];
+            vy[0] = vy[3] = y[pa] / xyRatio;
+
+            vx[1] = x[pb];
+            vy[1] = y[pb] / xyRatio;
+
+            vx[2] = x[pc];
+            vy[2] = y[pc] / xyRatio;
+
+            // skip invalid indices
+            if (vx[0] == invalidIndex || vx[1] == invalidIndex || vx[2] == invalidIndex ||
+                    vy[0] == invalidIndex || vy[1] == invalidIndex || vy[2] == invalidIndex) {
+                continue;
+            }
+
+            // Compute grid indices the current triangle may cover
+            xp = Math.min(Math.min(vx[0], vx[1]), vx[2]);
+            i_min = coordToIndex(xp, x_min, xScale, offset);
+
+            xp = Math.max(Math.max(vx[0], vx[1]), vx[2]);
+            i_max = coordToIndex(xp, x_min, xScale, offset);
+
+            yp = Math.min(Math.min(vy[0], vy[1]), vy[2]);
+            j_min = coordToIndex(yp, y_min, yScale, offset);
+
+            yp = Math.max(Math.max(vy[0], vy[1]), vy[2]);
+            j_max = coordToIndex(yp, y_min, yScale, offset);
+
+            // skip triangle that is outside the region
+            if ((i_max < 0) || (i_min >= nx) || (j_max < 0) || (j_min >= ny)) {
+                continue;
+            }
+
+            // clip to the region
+            i_min = Math.max(i_min, 0);
+            i_max = Math.min(i_max, nx - 1);
+            j_min = Math.max(j_min, 0);
+            j_max = Math.min(j_max, ny - 1);
+
+            // compute plane defined by the three vertices of the triangle: z = ax + by + c
+            xkj = vx[1] - vx[0];
+            ykj = vy[1] - vy[0];
+            xlj = vx[2] - vx[0];
+            ylj = vy[2] - vy[0];
+
+            f = 1.0 / (xkj * ylj - ykj * xlj);
+
+            vz[0] = index[pa];
+            vz[1] = index[pb];
+            vz[2] = index[pc];
+
+            for (ZData data : zList) {
+                getABC(vx, vy, vz, data, f, xkj, ykj, xlj, ylj);
+            }
+
+            // point in triangle test as PointInTriangle
+            final double xtd0 = vx[2] - vx[0];
+            final double xtd1 = vx[0] - vx[1];
+            final double xtd2 = vx[1] - vx[2];
+            final double ytd0 = vy[2] - vy[0];
+            final double ytd1 = vy[0] - vy[1];
+            final double ytd2 = vy[1] - vy[2];
+
+            for (int i = (int) i_min; i <= i_max; i++) {
+                xp = x_min + i * xScale + offset;
+
+                // span of the triangle along the grid line, widened by a grid point for rounding
+                double yLo = Double.POSITIVE_INFINITY;
+                double yHi = Double.NEGATIVE_INFINITY;
+                for (int e = 0; e < 3; e++) {
+                    final double x0 = vx[e], x1 = vx[e + 1];
+                    if ((xp < x0 && xp < x1) || (xp > x0 && xp > x1)) {
+                        continue;
+                    }
+                    if (x0 == x1) {
+                        yLo = Math.min(yLo, Math.min(vy[e], vy[e + 1]));
+                        yHi = Math.max(yHi, Math.max(vy[e], vy[e + 1]));
+                    } else {
+                        final double ye = vy[e] + (xp - x0) * (vy[e + 1] - vy[e]) / (x1 - x0);
+                        yLo = Math.min(yLo, ye);
+                        yHi = Math.max(yHi, ye);
+                    }
+                }
+                if (yLo > yHi) {
+                    continue;
+                }
+                final long jLo = Math.max(j_min, (long) Math.floor((yLo - y_min - offset) / yScale) - 1);
+                final long jHi = Math.min(j_max, (long) Math.ceil((yHi - y_min - offset) / yScale) + 1);
+
+                for (int j = (int) jLo; j <= jHi; j++) {
+                    yp = y_min + j * yScale + offset;
+
+                    final boolean in0 = (xtd0 * (yp - vy[0])) > ((xp - vx[0]) * ytd0);
+                    final boolean in1 = (xtd1 * (yp - vy[1])) > ((xp - vx[1]) * ytd1);
+                    final boolean in2 = (xtd2 * (yp - vy[2])) > ((xp - vx[2]) * ytd2);
+                    if (!(in0 && in1 && in2) && (in0 || in1 || in2)) {
+                        continue;
+                    }
+
+                    for (ZData d : zList) {
+                        d.z_out[i][j] = d.a * xp + d.b * yp + d.c;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void getABC(
+            final double[] vx, final double[] vy, final int[] vz, final ZData data,
+            final double f, final double xkj, final double ykj, final double xlj, final double ylj) {
+
+        final double zj, zk, zl;
+        if (data.z_1d_in != null) {
+            zj = data.z_1d_in[vz[0]];
+            zk = data.z_1d_in[vz[1]];
+            zl = data.z_1d_in[vz[2]];
+        } else {
+            final int numColumns = data.z_in[0].length;
+            zj = data.z_in[vz[0] / numColumns][vz[0] % numColumns];
+            zk = data.z_in[vz[1] / numColumns][vz[1] % numColumns];
+            zl = data.z_in[vz[2] / numColumns][vz[2] % numColumns];
+        }
+
+        final double zkj = zk - zj;
+        final double zlj = zl - zj;
+
+        data.a = -f * (ykj * zlj - zkj * ylj);
+        data.b = -f * (zkj * xlj - xkj * zlj);
+        data.c = -data.a * vx[1] - data.b * vy[1] + zk;
+    }
+
     private static void getABC(
             final double[] vx, final double[] vy, final double[] vz, final ZData data,
             final double f, final double  xkj, final double ykj, final double xlj, final double ylj) {
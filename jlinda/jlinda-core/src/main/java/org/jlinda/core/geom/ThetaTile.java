@@ -118,13 +118,19 @@ public class ThetaTile {
         final double upperLeftPhi = dem.lat0 - dem.indexPhi0DEM * dem.latitudeDelta;
         final double upperLeftLambda = dem.lon0 + dem.indexLambda0DEM * dem.longitudeDelta;
 
-        Point pointOnDem;
+        // neighbouring posts have nearly the same azimuth times, each post starts from the solution of the last
+        final double[] phi_lam_height = new double[3];
+        final double[] xyz = new double[3];
+        final double[] sarPointTime = new double[2];
+        final double[] sarPoint = new double[2];
+        double rowHint = Double.NaN;
 
         phi = upperLeftPhi;
         for (int i = 0; i < nRows; i++) {
 
             lambda = upperLeftLambda;
             double[] heightArray = dem.data[i];
+            double hint = rowHint;
 
             for (int j = 0; j < nCols; j++) {
 
@@ -133,19 +139,23 @@ public class ThetaTile {
                 if (height != dem.noDataValue) {
 
                     // starts at the upper left corner
-                    double[] phi_lam_height = {phi, lambda, height};
-                    Point sarPoint = masterOrbit.ell2lp(phi_lam_height, masterMeta);
-
-                    line = sarPoint.y;
-                    pix = sarPoint.x;
+                    phi_lam_height[0] = phi;
+                    phi_lam_height[1] = lambda;
+                    phi_lam_height[2] = height;
+                    masterOrbit.ell2lp(phi_lam_height, masterMeta, hint, xyz, sarPointTime, sarPoint);
+                    hint = sarPointTime[1];
+                    if (Double.isNaN(rowHint) || j == 0) {
+                        rowHint = hint;
+                    }
+
+                    line = sarPoint[1];
+                    pix = sarPoint[0];
 
                     demRadarCode_y[i][j] = line;
                     demRadarCode_x[i][j] = pix;
 
-                    pointOnDem = Ellipsoid.ell2xyz(phi_lam_height);
-
-                    Point sarPointTime = masterOrbit.xyz2t(pointOnDem, masterMeta);
-                    Point satellitePosition = masterOrbit.getXYZ(sarPointTime.y);
+                    final Point pointOnDem = new Point(xyz);
+                    Point satellitePosition = masterOrbit.getXYZ(sarPointTime[1]);
                     Point rangeDistance = satellitePosition.min(pointOnDem);
 
                     demRadarCode_theta[i][j] = pointOnDem.angle(rangeDistance);;
@@ -130,8 +130,16 @@ public class TopoPhase {
         final double upperLeftPhi = dem.lat0;// - dem.indexPhi0DEM * dem.latitudeDelta;
         final double upperLeftLambda = dem.lon0;// + dem.indexLambda0DEM * dem.longitudeDelta;
 
-        Point pointOnDem;
-        Point slaveTime;
+        // neighbouring posts have nearly the same azimuth times, each post starts from the solution of the last
+        final double[] phi_lam_height = new double[3];
+        final double[] pointOnDem = new double[3];
+        final double[] masterXYZPos = new double[3];
+        final double[] masterTime = new double[2];
+        final double[] slaveTime = new double[2];
+        final double[] flatEarthTime = new double[2];
+        final double[] sarPoint = new double[2];
+        double masterRowHint = Double.NaN;
+        double slaveRowHint = Double.NaN;
 
         phi = upperLeftPhi;
         for (int i = 0; i < nRows; i++) {
@@ -142,6 +150,8 @@ public class TopoPhase {
 
             lambda = upperLeftLambda;
             double[] heightArray = dem.data[i];
+            double masterHint = masterRowHint;
+            double slaveHint = slaveRowHint;
 
             for (int j = 0; j < nCols; j++) {
 
@@ -152,17 +162,20 @@ public class TopoPhase {
 
                 if (height != dem.noDataValue) {
 
-                    double[] phi_lam_height = {phi, lambda, height};
-                    Point sarPoint = masterOrbit.ell2lp(phi_lam_height, masterMeta);
+                    phi_lam_height[0] = phi;
+                    phi_lam_height[1] = lambda;
+                    phi_lam_height[2] = height;
+                    masterOrbit.ell2lp(phi_lam_height, masterMeta, masterHint, pointOnDem, masterTime, sarPoint);
+                    masterHint = masterTime[1];
 
-                    line = sarPoint.y;
-                    pix = sarPoint.x;
+                    line = sarPoint[1];
+                    pix = sarPoint[0];
 
                     demRadarCode_y[i][j] = line;
                     demRadarCode_x[i][j] = pix;
 
-                    pointOnDem = Ellipsoid.ell2xyz(phi_lam_height);
-                    slaveTime = slaveOrbit.xyz2t(pointOnDem, slaveMeta);
+                    slaveOrbit.xyz2t(pointOnDem, slaveMeta, slaveHint, slaveTime);
+                    slaveHint = slaveTime[1];
 /*
                 if (outH2PH == true) {
 
@@ -185,27 +198,33 @@ public class TopoPhase {
 */
                     // do not include flat earth phase
                     if (onlyTopoRefPhase) {
-                        Point masterXYZPos = masterOrbit.lp2xyz(line, pix, masterMeta);
-                        Point flatEarthTime = slaveOrbit.xyz2t(masterXYZPos, slaveMeta);
+                        final Point masterXYZ = masterOrbit.lp2xyz(line, pix, masterMeta);
+                        masterXYZPos[0] = masterXYZ.x;
+                        masterXYZPos[1] = masterXYZ.y;
+                        masterXYZPos[2] = masterXYZ.z;
+                        slaveOrbit.xyz2t(masterXYZPos, slaveMeta, slaveTime[1], flatEarthTime);
                         if (isBiStaticStack) {
-                            ref_phase = slaveMin4piCDivLam * (flatEarthTime.x - slaveTime.x) * 0.5;
+                            ref_phase = slaveMin4piCDivLam * (flatEarthTime[0] - slaveTime[0]) * 0.5;
                         } else {
-                            ref_phase = slaveMin4piCDivLam * (flatEarthTime.x - slaveTime.x);
+                            ref_phase = slaveMin4piCDivLam * (flatEarthTime[0] - slaveTime[0]);
                         }
                     } else {
                         // include flatearth, ref.pha = phi_topo+phi_flatearth
-                        ref_phase = masterMin4piCDivLam * masterMeta.pix2tr(pix) - slaveMin4piCDivLam * slaveTime.x;
+                        ref_phase = masterMin4piCDivLam * masterMeta.pix2tr(pix) - slaveMin4piCDivLam * slaveTime[0];
                     }
 
                     demRadarCode_phase[i][j] = ref_phase;
 
                 } else {
 
-                    double[] phi_lam_height = {phi, lambda, 0};
-                    Point sarPoint = masterOrbit.ell2lp(phi_lam_height, masterMeta);
+                    phi_lam_height[0] = phi;
+                    phi_lam_height[1] = lambda;
+                    phi_lam_height[2] = 0;
+                    masterOrbit.ell2lp(phi_lam_height, masterMeta, masterHint, pointOnDem, masterTime, sarPoint);
+                    masterHint = masterTime[1];
 
-                    line = sarPoint.y;
-                    pix = sarPoint.x;
+                    line = sarPoint[1];
+                    pix = sarPoint[0];
 
                     if (useInvalidIndex) {
                         demRadarCode_y[i][j] = invalidIndex;//line;
@@ -217,6 +236,10 @@ public class TopoPhase {
                     demRadarCode_phase[i][j] = 0;
                 }
 
+                if (j == 0) {
+                    masterRowHint = masterHint;
+                    slaveRowHint = slaveHint;
+                }
                 lambda += dem.longitudeDelta;
             }
             phi -= dem.latitudeDelta;
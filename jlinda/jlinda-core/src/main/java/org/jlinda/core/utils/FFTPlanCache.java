@@ -0,0 +1,98 @@
+package org.jlinda.core.utils;
+
+import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
+import edu.emory.mathcs.jtransforms.fft.DoubleFFT_2D;
+import edu.emory.mathcs.jtransforms.fft.FloatFFT_1D;
+import edu.emory.mathcs.jtransforms.fft.FloatFFT_2D;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of FFT plans and work buffers keyed by transform size.
+ * <p>
+ * Creating a JTransforms plan computes its twiddle factors, which costs about as much as a transform of the
+ * same size, so filters working block by block should not create a plan per block. Plans and buffers are
+ * kept per thread, so no plan is ever used by two threads at once, and the least recently used plans are
+ * dropped when a thread has used more than MAX_PLANS sizes.
+ * <p>
+ * The float plans halve the memory traffic of filters which do not need double precision.
+ */
+public final class FFTPlanCache {
+
+    private static final int MAX_PLANS = 16;
+
+    private static final ThreadLocal<FFTPlanCache> threadCache = ThreadLocal.withInitial(FFTPlanCache::new);
+
+    private final Map<Long, DoubleFFT_1D> doubleFFT1D = new PlanMap<>();
+    private final Map<Long, DoubleFFT_2D> doubleFFT2D = new PlanMap<>();
+    private final Map<Long, FloatFFT_1D> floatFFT1D = new PlanMap<>();
+    private final Map<Long, FloatFFT_2D> floatFFT2D = new PlanMap<>();
+
+    private double[] doubleBuffer = new double[0];
+    private float[] floatBuffer = new float[0];
+
+    private FFTPlanCache() {
+    }
+
+    private static long key(final int rows, final int columns) {
+        return ((long) rows << 32) | (columns & 0xFFFFFFFFL);
+    }
+
+    public static DoubleFFT_1D getDoubleFFT_1D(final int n) {
+        return threadCache.get().doubleFFT1D.computeIfAbsent(key(0, n), k -> new DoubleFFT_1D(n));
+    }
+
+    public static DoubleFFT_2D getDoubleFFT_2D(final int rows, final int columns) {
+        return threadCache.get().doubleFFT2D.computeIfAbsent(key(rows, columns), k -> new DoubleFFT_2D(rows, columns));
+    }
+
+    public static FloatFFT_1D getFloatFFT_1D(final int n) {
+        return threadCache.get().floatFFT1D.computeIfAbsent(key(0, n), k -> new FloatFFT_1D(n));
+    }
+
+    public static FloatFFT_2D getFloatFFT_2D(final int rows, final int columns) {
+        return threadCache.get().floatFFT2D.computeIfAbsent(key(rows, columns), k -> new FloatFFT_2D(rows, columns));
+    }
+
+    /**
+     * Get a work buffer of the calling thread. The buffer is shared by all callers on the thread, so it is only
+     * valid until the next call to getDoubleBuffer and must not be held across calls to other code that may use it.
+     *
+     * @param length the minimum length
+     * @return the buffer, not cleared
+     */
+    public static double[] getDoubleBuffer(final int length) {
+        final FFTPlanCache cache = threadCache.get();
+        if (cache.doubleBuffer.length < length) {
+            cache.doubleBuffer = new double[length];
+        }
+        return cache.doubleBuffer;
+    }
+
+    /**
+     * Get a work buffer of the calling thread, see getDoubleBuffer.
+     *
+     * @param length the minimum length
+     * @return the buffer, not cleared
+     */
+    public static float[] getFloatBuffer(final int length) {
+        final FFTPlanCache cache = threadCache.get();
+        if (cache.floatBuffer.length < length) {
+            cache.floatBuffer = new float[length];
+        }
+        return cache.floatBuffer;
+    }
+
+    private static class PlanMap<T> extends LinkedHashMap<Long, T> {
+
+        PlanMap() {
+            super(MAX_PLANS, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, T> eldest) {
+            return size() > MAX_PLANS;
+        }
+    }
+}
@@ -2,8 +2,11 @@ package org.jlinda.core.utils;
 
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_2D;
+import edu.emory.mathcs.jtransforms.fft.FloatFFT_1D;
+import edu.emory.mathcs.jtransforms.fft.FloatFFT_2D;
 import org.esa.snap.core.util.SystemUtils;
 import org.jblas.ComplexDoubleMatrix;
+import org.jblas.ComplexFloatMatrix;
 import org.jblas.DoubleMatrix;
 
 import java.util.logging.Logger;
@@ -26,23 +29,23 @@ public class SpectralUtils {
     }
 
     public static void fft1D_inplace(ComplexDoubleMatrix vector, final int fftLength) {
-        DoubleFFT_1D fft = new DoubleFFT_1D(fftLength);
+        DoubleFFT_1D fft = FFTPlanCache.getDoubleFFT_1D(fftLength);
         fft.complexForward(vector.data);
     }
 
     public static void invfft1D_inplace(ComplexDoubleMatrix vector, final int fftLength) {
-        DoubleFFT_1D fft = new DoubleFFT_1D(fftLength);
+        DoubleFFT_1D fft = FFTPlanCache.getDoubleFFT_1D(fftLength);
         fft.complexInverse(vector.data, true);
     }
 
     public static ComplexDoubleMatrix fft1D(ComplexDoubleMatrix vector, final int fftLength) {
-        DoubleFFT_1D fft = new DoubleFFT_1D(fftLength);
+        DoubleFFT_1D fft = FFTPlanCache.getDoubleFFT_1D(fftLength);
         fft.complexForward(vector.data);
         return vector;
     }
 
     public static ComplexDoubleMatrix invfft1D(ComplexDoubleMatrix vector, final int fftLength) {
-        DoubleFFT_1D fft = new DoubleFFT_1D(fftLength);
+        DoubleFFT_1D fft = FFTPlanCache.getDoubleFFT_1D(fftLength);
         fft.complexInverse(vector.data, true);
         return vector;
     }
@@ -101,7 +104,7 @@ public class SpectralUtils {
 
     public static void fft2D_inplace(ComplexDoubleMatrix A) {
         ComplexDoubleMatrix aTemp = A.transpose();
-        DoubleFFT_2D fft2d = new DoubleFFT_2D(aTemp.rows, aTemp.columns);
+        DoubleFFT_2D fft2d = FFTPlanCache.getDoubleFFT_2D(aTemp.rows, aTemp.columns);
 //        fft2d.complexForward(A.data);
         fft2d.complexForward(aTemp.data);
         A.data = aTemp.transpose().data;
@@ -114,12 +117,12 @@ public class SpectralUtils {
     }
 
     public static void fft2D_inplace(DoubleMatrix A) {
-        DoubleFFT_2D fft2d = new DoubleFFT_2D(A.rows, A.columns);
+        DoubleFFT_2D fft2d = FFTPlanCache.getDoubleFFT_2D(A.rows, A.columns);
         fft2d.realForwardFull(A.data);
     }
 
     public static void invfft2D_inplace(ComplexDoubleMatrix A) {
-        DoubleFFT_2D fft2d = new DoubleFFT_2D(A.rows, A.columns);
+        DoubleFFT_2D fft2d = FFTPlanCache.getDoubleFFT_2D(A.rows, A.columns);
 //        fft2d.complexInverse(A.data, true);
         ComplexDoubleMatrix aTemp = A.transpose();
         fft2d.complexInverse(aTemp.data, true);
@@ -132,6 +135,32 @@ public class SpectralUtils {
         return outMatrix;
     }
 
+    // single precision variants for filters which do not need double precision
+
+    public static void fft1D_inplace(ComplexFloatMatrix vector, final int fftLength) {
+        FloatFFT_1D fft = FFTPlanCache.getFloatFFT_1D(fftLength);
+        fft.complexForward(vector.data);
+    }
+
+    public static void invfft1D_inplace(ComplexFloatMatrix vector, final int fftLength) {
+        FloatFFT_1D fft = FFTPlanCache.getFloatFFT_1D(fftLength);
+        fft.complexInverse(vector.data, true);
+    }
+
+    public static void fft2D_inplace(ComplexFloatMatrix A) {
+        ComplexFloatMatrix aTemp = A.transpose();
+        FloatFFT_2D fft2d = FFTPlanCache.getFloatFFT_2D(aTemp.rows, aTemp.columns);
+        fft2d.complexForward(aTemp.data);
+        A.data = aTemp.transpose().data;
+    }
+
+    public static void invfft2D_inplace(ComplexFloatMatrix A) {
+        ComplexFloatMatrix aTemp = A.transpose();
+        FloatFFT_2D fft2d = FFTPlanCache.getFloatFFT_2D(aTemp.rows, aTemp.columns);
+        fft2d.complexInverse(aTemp.data, true);
+        A.data = aTemp.transpose().data;
+    }
+
     public static ComplexDoubleMatrix fftshift(ComplexDoubleMatrix inMatrix) {
         if (!inMatrix.isVector()) {
             logger.severe("ifftshift: only vectors");
@@ -278,6 +278,30 @@ public class OrbitTest {
         Assert.assertEquals(subPixel_EXPECTED.x,lp_ACTUAL.x,  eps_03);
     }
 
+    @Test
+    public void testEll2lpWithTimeHint() throws Exception {
+        double[] phi_lam_height = new double[]{crGEO_EXPECTED[0] * Constants.DTOR, crGEO_EXPECTED[1] * Constants.DTOR, crGEO_EXPECTED[2]};
+        final Point lp_EXPECTED = orbit_ACTUAL.ell2lp(phi_lam_height, slcimage);
+
+        final double[] xyz = new double[3];
+        final double[] rgAzTime = new double[2];
+        final double[] pixelLine = new double[2];
+        for (double hint : new double[]{Double.NaN, pixelTime_EXPECTED.y, pixelTime_EXPECTED.y + 1.0}) {
+            orbit_ACTUAL.ell2lp(phi_lam_height, slcimage, hint, xyz, rgAzTime, pixelLine);
+            Assert.assertEquals(lp_EXPECTED.x, pixelLine[0], eps_06);
+            Assert.assertEquals(lp_EXPECTED.y, pixelLine[1], eps_06);
+        }
+    }
+
+    @Test
+    public void testXyz2tWithTimeHint() throws Exception {
+        final Point time_EXPECTED = orbit_ACTUAL.xyz2t(crXYZ_EXPECTED, slcimage);
+        final double[] rgAzTime = new double[2];
+        orbit_ACTUAL.xyz2t(crXYZ_EXPECTED.toArray(), slcimage, time_EXPECTED.y - 0.5, rgAzTime);
+        Assert.assertEquals(time_EXPECTED.x, rgAzTime[0], eps_06);
+        Assert.assertEquals(time_EXPECTED.y, rgAzTime[1], eps_06);
+    }
+
     @Test
     public void testLph2ell() throws Exception {
         final double[] crGEO_ACTUAL = orbit_ACTUAL.lph2ell(subPixel_EXPECTED.y, subPixel_EXPECTED.x, subPixel_EXPECTED.z, slcimage);
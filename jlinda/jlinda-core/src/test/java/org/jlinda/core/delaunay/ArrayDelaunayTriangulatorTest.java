@@ -0,0 +1,218 @@
+package org.jlinda.core.delaunay;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import org.jlinda.core.Window;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class ArrayDelaunayTriangulatorTest {
+
+    @Test
+    public void testSameTrianglesAsFastDelaunayTriangulator() throws Exception {
+
+        final Random random = new Random(17);
+        final int numPoints = 2000;
+        final double[] x = new double[numPoints];
+        final double[] y = new double[numPoints];
+        final List<Geometry> list = new ArrayList<>();
+        final GeometryFactory gf = new GeometryFactory();
+        for (int i = 0; i < numPoints; i++) {
+            // a noisy grid with some duplicated points
+            x[i] = (i / 40) * 3.0 + random.nextGaussian() * 0.5;
+            y[i] = (i % 40) * 2.0 + random.nextGaussian() * 0.5;
+            if (i % 97 == 0 && i > 0) {
+                x[i] = x[i - 1];
+                y[i] = y[i - 1];
+            }
+            list.add(gf.createPoint(new Coordinate(x[i], y[i], i)));
+        }
+
+        final FastDelaunayTriangulator FDT = new FastDelaunayTriangulator();
+        FDT.triangulate(list.iterator());
+
+        final ArrayDelaunayTriangulator ADT = new ArrayDelaunayTriangulator();
+        ADT.triangulate(x, y, numPoints);
+
+        Assert.assertEquals(FDT.triangles.size(), ADT.getNumTriangles());
+        final int[] triangles = ADT.getTriangles();
+        for (int k = 0; k < ADT.getNumTriangles(); k++) {
+            final Triangle triangle = FDT.triangles.get(k);
+            Assert.assertEquals((int) triangle.getA().z, triangles[3 * k]);
+            Assert.assertEquals((int) triangle.getB().z, triangles[3 * k + 1]);
+            Assert.assertEquals((int) triangle.getC().z, triangles[3 * k + 2]);
+        }
+    }
+
+    @Test(expected = TriangulationException.class)
+    public void testTooFewPoints() throws Exception {
+        new ArrayDelaunayTriangulator().triangulate(new double[]{0, 1, 0}, new double[]{0, 1, 0}, 3);
+    }
+
+    @Test
+    public void testFailedTriangulationHasNoTriangles() throws Exception {
+        final ArrayDelaunayTriangulator ADT = new ArrayDelaunayTriangulator();
+        ADT.triangulate(new double[]{0, 1, 0, 1}, new double[]{0, 0, 1, 1}, 4);
+        Assert.assertEquals(2, ADT.getNumTriangles());
+
+        try {
+            ADT.triangulate(new double[]{0, 1, 0}, new double[]{0, 1, 0}, 3);
+            Assert.fail("TriangulationException expected");
+        } catch (TriangulationException e) {
+            Assert.assertEquals(0, ADT.getNumTriangles());
+        }
+    }
+
+    /**
+     * If the triangulation fails the window is left as it is, as with FastDelaunayTriangulator
+     */
+    @Test
+    public void testGridDataLinearTooFewDistinctPoints() throws Exception {
+
+        final double invalidIndex = -32768;
+        final double xyRatio = 4.0;
+        final double[][] x_in = {{2, 2, invalidIndex}, {7, 7, 2}};
+        final double[][] y_in = {{3, 3, 5}, {1, 1, 3}};
+        final double[][] z_in = {{10, 20, 30}, {40, 50, 60}};
+        final Window window = new Window(0, 9, 0, 9);
+
+        final FastDelaunayTriangulator FDT = TriangleInterpolator.triangulate(x_in, y_in, xyRatio, invalidIndex);
+        final TriangleInterpolator.ZData[] expected = {
+                new TriangleInterpolator.ZData(z_in, createGrid(10, 10, invalidIndex))};
+        TriangleInterpolator.interpolate(xyRatio, window, 1, 1, 0, invalidIndex, FDT, expected);
+
+        final TriangleInterpolator.ZData[] actual = {
+                new TriangleInterpolator.ZData(z_in, createGrid(10, 10, invalidIndex))};
+        TriangleInterpolator.gridDataLinear(x_in, y_in, actual, window, xyRatio, 1, 1, invalidIndex, 0);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertArrayEquals(createGrid(10, 10, invalidIndex)[i], actual[0].z_out[i], 0.0);
+            Assert.assertArrayEquals(expected[0].z_out[i], actual[0].z_out[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testGridDataLinearPlane() throws Exception {
+
+        final Random random = new Random(3);
+        final int rows = 40, cols = 50;
+        final double[][] x_in = new double[rows][cols];
+        final double[][] y_in = new double[rows][cols];
+        final double[][] z_in = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                x_in[i][j] = i + random.nextDouble() * 0.4;
+                y_in[i][j] = j + random.nextDouble() * 0.4;
+                z_in[i][j] = 2.0 * x_in[i][j] - 3.0 * y_in[i][j] + 5.0;
+            }
+        }
+
+        final Window window = new Window(5, 34, 5, 44);
+        final double[][] z_out = new double[30][40];
+        TriangleInterpolator.gridDataLinear(x_in, y_in,
+                new TriangleInterpolator.ZData[]{new TriangleInterpolator.ZData(z_in, z_out)},
+                window, 4.0, 1, 1, -32768, 0);
+
+        // a plane is interpolated exactly
+        for (int i = 0; i < z_out.length; i++) {
+            for (int j = 0; j < z_out[0].length; j++) {
+                Assert.assertEquals(2.0 * (5 + i) - 3.0 * (5 + j) + 5.0, z_out[i][j], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testGridDataLinearSameAsFastDelaunayTriangulator() throws Exception {
+
+        final double invalidIndex = -32768;
+        final double xyRatio = 4.0;
+        final Random random = new Random(11);
+        final int rows = 60, cols = 70;
+        final double[][] x_in = new double[rows][cols];
+        final double[][] y_in = new double[rows][cols];
+        final double[][] z1_in = new double[rows][cols];
+        final double[][] z2_in = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                // a distorted grid as the DEM posts mapped into the master geometry, with some invalid posts
+                x_in[i][j] = 1.7 * i + 0.1 * j + random.nextDouble() * 0.8;
+                y_in[i][j] = 1.3 * j - 0.05 * i + random.nextDouble() * 0.6;
+                if (random.nextDouble() < 0.03) {
+                    if (random.nextBoolean()) {
+                        x_in[i][j] = invalidIndex;
+                    } else {
+                        y_in[i][j] = invalidIndex;
+                    }
+                }
+                z1_in[i][j] = 1000.0 * random.nextDouble();
+                z2_in[i][j] = random.nextGaussian();
+            }
+        }
+        final double[] x_1d = new double[rows * cols];
+        final double[] y_1d = new double[rows * cols];
+        final double[] z_1d = new double[rows * cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                x_1d[i * cols + j] = x_in[i][j];
+                y_1d[i * cols + j] = y_in[i][j];
+                z_1d[i * cols + j] = z1_in[i][j];
+            }
+        }
+
+        // windows inside and across the edges of the data, with grid steps of 1 and 2
+        final Window[] windows = {new Window(10, 59, 5, 64), new Window(-5, 110, -8, 95), new Window(40, 70, 60, 100)};
+        final int[] scales = {1, 2};
+        final int[] offsets = {0, 1};
+        for (Window window : windows) {
+            for (int scale : scales) {
+                for (int offset : offsets) {
+                    final int numLines = (int) window.lines();
+                    final int numPixels = (int) window.pixels();
+
+                    final TriangleInterpolator.ZData[] expected = {
+                            new TriangleInterpolator.ZData(z1_in, createGrid(numLines, numPixels, invalidIndex)),
+                            new TriangleInterpolator.ZData(z2_in, createGrid(numLines, numPixels, invalidIndex))};
+                    final FastDelaunayTriangulator FDT = TriangleInterpolator.triangulate(x_in, y_in, xyRatio, invalidIndex);
+                    TriangleInterpolator.interpolate(xyRatio, window, scale, scale, offset, invalidIndex, FDT, expected);
+
+                    final TriangleInterpolator.ZData[] actual = {
+                            new TriangleInterpolator.ZData(z1_in, createGrid(numLines, numPixels, invalidIndex)),
+                            new TriangleInterpolator.ZData(z2_in, createGrid(numLines, numPixels, invalidIndex))};
+                    TriangleInterpolator.gridDataLinear(x_in, y_in, actual, window, xyRatio, scale, scale,
+                            invalidIndex, offset);
+
+                    final TriangleInterpolator.ZData[] expected1d = {
+                            new TriangleInterpolator.ZData(z_1d, createGrid(numLines, numPixels, invalidIndex))};
+                    final FastDelaunayTriangulator FDT1d = TriangleInterpolator.triangulate(x_1d, y_1d, xyRatio, invalidIndex);
+                    TriangleInterpolator.interpolate(xyRatio, window, scale, scale, offset, invalidIndex, FDT1d, expected1d);
+
+                    final TriangleInterpolator.ZData[] actual1d = {
+                            new TriangleInterpolator.ZData(z_1d, createGrid(numLines, numPixels, invalidIndex))};
+                    TriangleInterpolator.gridDataLinear(x_1d, y_1d, actual1d, window, xyRatio, scale, scale,
+                            invalidIndex, offset);
+
+                    for (int i = 0; i < numLines; i++) {
+                        Assert.assertArrayEquals(expected[0].z_out[i], actual[0].z_out[i], 0.0);
+                        Assert.assertArrayEquals(expected[1].z_out[i], actual[1].z_out[i], 0.0);
+                        Assert.assertArrayEquals(expected1d[0].z_out[i], actual1d[0].z_out[i], 0.0);
+                        Assert.assertArrayEquals(expected[0].z_out[i], actual1d[0].z_out[i], 0.0);
+                    }
+                }
+            }
+        }
+    }
+
+    private static double[][] createGrid(final int rows, final int cols, final double value) {
+        final double[][] grid = new double[rows][cols];
+        for (double[] row : grid) {
+            Arrays.fill(row, value);
+        }
+        return grid;
+    }
+}
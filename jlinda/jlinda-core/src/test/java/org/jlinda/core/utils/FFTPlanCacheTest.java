@@ -0,0 +1,55 @@
+package org.jlinda.core.utils;
+
+import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
+import edu.emory.mathcs.jtransforms.fft.FloatFFT_1D;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FFTPlanCacheTest {
+
+    @Test
+    public void testPlansAreReused() throws Exception {
+        Assert.assertSame(FFTPlanCache.getDoubleFFT_1D(64), FFTPlanCache.getDoubleFFT_1D(64));
+        Assert.assertNotSame(FFTPlanCache.getDoubleFFT_1D(64), FFTPlanCache.getDoubleFFT_1D(128));
+        Assert.assertSame(FFTPlanCache.getDoubleFFT_2D(16, 32), FFTPlanCache.getDoubleFFT_2D(16, 32));
+        Assert.assertNotSame(FFTPlanCache.getDoubleFFT_2D(16, 32), FFTPlanCache.getDoubleFFT_2D(32, 16));
+        Assert.assertSame(FFTPlanCache.getFloatFFT_1D(64), FFTPlanCache.getFloatFFT_1D(64));
+    }
+
+    @Test
+    public void testPlansArePerThread() throws Exception {
+        final DoubleFFT_1D plan = FFTPlanCache.getDoubleFFT_1D(256);
+        final DoubleFFT_1D[] otherPlan = new DoubleFFT_1D[1];
+        final Thread thread = new Thread(() -> otherPlan[0] = FFTPlanCache.getDoubleFFT_1D(256));
+        thread.start();
+        thread.join();
+        Assert.assertNotNull(otherPlan[0]);
+        Assert.assertNotSame(plan, otherPlan[0]);
+    }
+
+    @Test
+    public void testFloatTransform() throws Exception {
+        final int n = 8;
+        final double[] expected = new double[2 * n];
+        final float[] actual = new float[2 * n];
+        for (int i = 0; i < n; i++) {
+            expected[2 * i] = actual[2 * i] = i + 1;
+            expected[2 * i + 1] = actual[2 * i + 1] = n - i;
+        }
+        final DoubleFFT_1D doubleFFT = FFTPlanCache.getDoubleFFT_1D(n);
+        final FloatFFT_1D floatFFT = FFTPlanCache.getFloatFFT_1D(n);
+        doubleFFT.complexForward(expected);
+        floatFFT.complexForward(actual);
+        for (int i = 0; i < 2 * n; i++) {
+            Assert.assertEquals(expected[i], actual[i], 1e-4);
+        }
+    }
+
+    @Test
+    public void testBufferGrows() throws Exception {
+        final double[] small = FFTPlanCache.getDoubleBuffer(16);
+        Assert.assertTrue(small.length >= 16);
+        Assert.assertSame(small, FFTPlanCache.getDoubleBuffer(8));
+        Assert.assertTrue(FFTPlanCache.getDoubleBuffer(1024).length >= 1024);
+    }
+}
@@ -182,9 +182,11 @@ public class SnaphuExportOp extends Operator {
     }
 
     @Override
-    public synchronized void computeTile(Band targetBand, Tile targetTile, ProgressMonitor pm) throws OperatorException {
+    public void computeTile(Band targetBand, Tile targetTile, ProgressMonitor pm) throws OperatorException {
         try {
-            writeHeader(subsetInfo);
+            if (!subsetInfo.written) {
+                writeHeader(subsetInfo);
+            }
 
             final Rectangle trgRect = targetTile.getRectangle();
             final Tile sourceTile = getSourceTile(sourceProduct.getBand(targetBand.getName()), trgRect);
@@ -226,7 +228,7 @@ public class SnaphuExportOp extends Operator {
         Product subsetProduct;
         File file;
         ProductWriter productWriter;
-        boolean written = false;
+        volatile boolean written = false;
     }
 
     public static class Spi extends OperatorSpi {
@@ -1,7 +1,7 @@
 package org.jlinda.nest.dataio;
 
 import com.bc.ceres.core.ProgressMonitor;
-import org.esa.s1tbx.commons.io.FileImageOutputStreamExtImpl;
+import org.esa.s1tbx.commons.io.FlatBinaryFile;
 import org.esa.snap.core.dataio.AbstractProductWriter;
 import org.esa.snap.core.dataio.ProductReader;
 import org.esa.snap.core.dataio.ProductWriterPlugIn;
@@ -21,7 +21,6 @@ import org.jlinda.core.Window;
 import org.jlinda.core.unwrapping.snaphu.SnaphuConfigFile;
 import org.jlinda.core.unwrapping.snaphu.SnaphuParameters;
 
-import javax.imageio.stream.ImageOutputStream;
 import java.io.*;
 import java.nio.ByteOrder;
 import java.util.HashMap;
@@ -36,7 +35,7 @@ public class SnaphuWriter extends AbstractProductWriter {
 
     private File _outputDir;
     private File _outputFile;
-    private Map _bandOutputStreams;
+    private Map<Band, FlatBinaryFile> _bandFiles;
     private boolean _incremental = true;
 
     public static final String SNAPHU_HEADER_EXTENSION = ".snaphu"+EnviHeader.FILE_EXTENSION;
@@ -158,15 +157,10 @@ public class SnaphuWriter extends AbstractProductWriter {
         final int sourceBandHeight = sourceBand.getRasterHeight();
         checkSourceRegionInsideBandRegion(sourceWidth, sourceBandWidth, sourceHeight, sourceBandHeight, sourceOffsetX,
                 sourceOffsetY);
-        final ImageOutputStream outputStream = getOrCreateImageOutputStream(sourceBand);
-        long outputPos = sourceOffsetY * sourceBandWidth + sourceOffsetX;
+        final FlatBinaryFile bandFile = getOrCreateBandFile(sourceBand);
         pm.beginTask("Writing band '" + sourceBand.getName() + "'...", 1);//sourceHeight);
         try {
-            final long max = sourceHeight * sourceWidth;
-            for (int sourcePos = 0; sourcePos < max; sourcePos += sourceWidth) {
-                sourceBuffer.writeTo(sourcePos, sourceWidth, outputStream, outputPos);
-                outputPos += sourceBandWidth;
-            }
+            bandFile.writeRect(sourceBuffer, sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight, sourceBandWidth);
             pm.worked(1);
         } finally {
             pm.done();
@@ -205,12 +199,9 @@ public class SnaphuWriter extends AbstractProductWriter {
      * @throws java.io.IOException on failure
      */
     public void flush() throws IOException {
-        if (_bandOutputStreams == null) {
+        if (_bandFiles == null) {
             return;
         }
-        for (Object o : _bandOutputStreams.values()) {
-            ((ImageOutputStream) o).flush();
-        }
 
         // at the very end also save SnaphuConfig file
         try {
@@ -225,62 +216,31 @@ public class SnaphuWriter extends AbstractProductWriter {
      *
      * @throws java.io.IOException on failure
      */
-    public void close() throws IOException {
-        if (_bandOutputStreams == null) {
+    public synchronized void close() throws IOException {
+        if (_bandFiles == null) {
             return;
         }
-        for (Object o : _bandOutputStreams.values()) {
-            ((ImageOutputStream) o).close();
+        for (FlatBinaryFile bandFile : _bandFiles.values()) {
+            bandFile.close();
         }
-        _bandOutputStreams.clear();
-        _bandOutputStreams = null;
+        _bandFiles.clear();
+        _bandFiles = null;
     }
 
     /**
-     * Returns the data output stream associated with the given <code>Band</code>. If no stream exists, one is created
+     * Returns the band file associated with the given <code>Band</code>. If no file is open, one is created
      * and fed into the hash map
      */
-    private ImageOutputStream getOrCreateImageOutputStream(Band band) throws IOException {
-        ImageOutputStream outputStream = getImageOutputStream(band);
-        if (outputStream == null) {
-            outputStream = createImageOutputStream(band);
-            if (_bandOutputStreams == null) {
-                _bandOutputStreams = new HashMap();
-            }
-
-            outputStream.setByteOrder(byteOrder);
-            _bandOutputStreams.put(band, outputStream);
-        }
-        return outputStream;
-    }
-
-    private ImageOutputStream getImageOutputStream(Band band) {
-        if (_bandOutputStreams != null) {
-            return (ImageOutputStream) _bandOutputStreams.get(band);
+    private synchronized FlatBinaryFile getOrCreateBandFile(Band band) throws IOException {
+        if (_bandFiles == null) {
+            _bandFiles = new HashMap<>();
         }
-        return null;
-    }
-
-    /**
-     * Returns a file associated with the given <code>Band</code>. The method ensures that the file exists and have the
-     * right size. Also ensures a recreate if the file not exists or the file have a different file size. A new envi
-     * header file was written every call.
-     */
-    private File getValidImageFile(Band band) throws IOException {
-        writeEnviHeader(band); // always (re-)write ENVI header
-        final File file = getImageFile(band);
-        if (file.exists()) {
-            if (file.length() != getImageFileSize(band)) {
-                createPhysicalImageFile(band, file);
-            }
-        } else {
-            createPhysicalImageFile(band, file);
+        FlatBinaryFile bandFile = _bandFiles.get(band);
+        if (bandFile == null) {
+            bandFile = createBandFile(band);
+            _bandFiles.put(band, bandFile);
         }
-        return file;
-    }
-
-    private static void createPhysicalImageFile(Band band, File file) throws IOException {
-        createPhysicalFile(file, getImageFileSize(band));
+        return bandFile;
     }
 
     private void writeEnviHeader(Band band) throws IOException {
@@ -290,8 +250,9 @@ public class SnaphuWriter extends AbstractProductWriter {
                 band.getRasterHeight());
     }
 
-    private ImageOutputStream createImageOutputStream(Band band) throws IOException {
-        return new FileImageOutputStreamExtImpl(getValidImageFile(band));
+    private FlatBinaryFile createBandFile(Band band) throws IOException {
+        writeEnviHeader(band); // always (re-)write ENVI header
+        return new FlatBinaryFile(getImageFile(band), getImageFileSize(band), byteOrder);
     }
 
     private static long getImageFileSize(RasterDataNode band) {
@@ -316,18 +277,6 @@ public class SnaphuWriter extends AbstractProductWriter {
         return band.getName() + SNAPHU_IMAGE_EXTENSION;
     }
 
-    private static void createPhysicalFile(File file, long fileSize) throws IOException {
-        final File parentDir = file.getParentFile();
-        if (parentDir != null) {
-            if(!parentDir.exists() && !parentDir.mkdirs()) {
-                SystemUtils.LOG.severe("Unable to create folders in "+parentDir);
-            }
-        }
-        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
-        randomAccessFile.setLength(fileSize);
-        randomAccessFile.close();
-    }
-
     @Override
     public boolean shouldWrite(ProductNode node) {
         if (node instanceof VirtualBand) {
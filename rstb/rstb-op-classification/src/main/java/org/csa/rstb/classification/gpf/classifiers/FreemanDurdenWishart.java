@@ -18,6 +18,7 @@ package org.csa.rstb.classification.gpf.classifiers;
 import org.csa.rstb.classification.gpf.PolarimetricClassificationOp;
 import org.csa.rstb.polarimetric.gpf.PolOpUtils;
 import org.csa.rstb.polarimetric.gpf.decompositions.FreemanDurden;
+import org.esa.s1tbx.commons.OperatorExecutor;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.IndexCoding;
@@ -30,6 +31,7 @@ import org.esa.snap.engine_utilities.gpf.ThreadManager;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
 
 import java.awt.*;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
@@ -172,8 +174,17 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
         computeInitialTerrainClusterCenters(
                 fdd, pvCenterList, pdCenterList, psCenterList, srcBandList, tileRectangles, op);
 
-        computeFinalTerrainClusterCenters(
-                fdd, pvCenterList, pdCenterList, psCenterList, srcBandList, tileRectangles, op);
+        // the mean T3 of each pixel is computed once in the first iteration and reused by the others
+        try (final MeanMatrixCache cache = new MeanMatrixCache(3, tileRectangles)) {
+            final MeanMatrixCache.Loader loader =
+                    (rectangle, features) -> computeMeanT3(srcBandList, rectangle, false, cache, features);
+
+            computeFinalTerrainClusterCenters(
+                    fdd, pvCenterList, pdCenterList, psCenterList, cache, loader, tileRectangles, op);
+
+        } catch (IOException e) {
+            throw new OperatorException(e);
+        }
 
         clusterCentersComputed = true;
     }
@@ -729,7 +740,8 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
     /**
      * Compute final cluster centers for all clusters using K-mean clustering method
      *
-     * @param srcBandList    the input bands
+     * @param cache          the mean T3 of each pixel
+     * @param loader         computes the mean T3 of a tile
      * @param tileRectangles Array of rectangles for all source tiles of the image
      * @param op             the operator
      */
@@ -737,7 +749,8 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
                                                    final java.util.List<ClusterInfo> pvCenterList,
                                                    final java.util.List<ClusterInfo> pdCenterList,
                                                    final java.util.List<ClusterInfo> psCenterList,
-                                                   final PolBandUtils.PolSourceBand srcBandList,
+                                                   final MeanMatrixCache cache,
+                                                   final MeanMatrixCache.Loader loader,
                                                    final Rectangle[] tileRectangles,
                                                    final PolarimetricClassificationOp op) {
 
@@ -753,7 +766,7 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
         final int maxNumClusters = Math.max(pvNumClusters, Math.max(pdNumClusters, psNumClusters));
         final int[][] clusterCounter = new int[3][maxNumClusters];
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("FreemanDurdenWishart", op::checkIfCancelled);
 
         try {
             for (int it = 0; (it < maxIterations && !endIteration); ++it) {
@@ -761,122 +774,107 @@ public class FreemanDurdenWishart extends PolClassifierBase implements PolClassi
 
 //                final long startTime = System.nanoTime();
 //                final long endTime;
-                final double[][][] pvSumRe = new double[pvNumClusters][3][3];
-                final double[][][] pvSumIm = new double[pvNumClusters][3][3];
-                final double[][][] pdSumRe = new double[pdNumClusters][3][3];
-                final double[][][] pdSumIm = new double[pdNumClusters][3][3];
-                final double[][][] psSumRe = new double[psNumClusters][3][3];
-                final double[][][] psSumIm = new double[psNumClusters][3][3];
-
-                java.util.Arrays.fill(clusterCounter[0], 0);
-                java.util.Arrays.fill(clusterCounter[1], 0);
-                java.util.Arrays.fill(clusterCounter[2], 0);
+                // sums of the vol, dbl and suf clusters of each tile
+                final ClusterSums[][] partialSums = new ClusterSums[3][tileRectangles.length];
 
-                for (final Rectangle rectangle : tileRectangles) {
+                for (int t = 0; t < tileRectangles.length; ++t) {
+                    final int tileIndex = t;
 
-                    final Thread worker = new Thread() {
-
-                        final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
-                        final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
+                    final Runnable worker = new Runnable() {
 
                         final double[][] Tr = new double[3][3];
                         final double[][] Ti = new double[3][3];
 
                         @Override
                         public void run() {
-                            op.checkIfCancelled();
-
+                            final float[] features = getCachedTile(cache, tileIndex, loader);
+                            final Rectangle rectangle = tileRectangles[tileIndex];
                             final int x0 = rectangle.x;
                             final int y0 = rectangle.y;
-                            final int w = rectangle.width;
-                            final int h = rectangle.height;
-                            final int xMax = x0 + w;
-                            final int yMax = y0 + h;
-
-                            final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-                            for (int i = 0; i < sourceTiles.length; ++i) {
-                                sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-                                dataBuffers[i] = sourceTiles[i].getDataBuffer();
-                            }
-                            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+                            final int xMax = x0 + rectangle.width;
+                            final int yMax = y0 + rectangle.height;
+
+                            final ClusterSums pvSums = new ClusterSums(pvNumClusters, 3);
+                            final ClusterSums pdSums = new ClusterSums(pdNumClusters, 3);
+                            final ClusterSums psSums = new ClusterSums(psNumClusters, 3);
 
+                            int pixel = 0;
                             for (int y = y0; y < yMax; ++y) {
-                                for (int x = x0; x < xMax; ++x) {
-
-                                    PolOpUtils.getMeanCoherencyMatrix(
-                                            x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                                            sourceProductType, srcIndex, dataBuffers, Tr, Ti);
-
-                                    synchronized (clusterCounter) {
-
-                                        if (category[y][x] == Categories.vol) { // pv
-                                            cluster[y][x] = findClosestCluster(Tr, Ti, pvCenterList);
-                                            computeSummationOfT3(cluster[y][x] + 1, Tr, Ti, pvSumRe, pvSumIm);
-                                            clusterCounter[0][cluster[y][x]] += 1;
-
-                                        } else if (category[y][x] == Categories.dbl) { // pd
-                                            cluster[y][x] = findClosestCluster(Tr, Ti, pdCenterList);
-                                            computeSummationOfT3(cluster[y][x] + 1, Tr, Ti, pdSumRe, pdSumIm);
-                                            clusterCounter[1][cluster[y][x]] += 1;
-
-                                        } else if (category[y][x] == Categories.suf) { // ps
-                                            cluster[y][x] = findClosestCluster(Tr, Ti, psCenterList);
-                                            computeSummationOfT3(cluster[y][x] + 1, Tr, Ti, psSumRe, psSumIm);
-                                            clusterCounter[2][cluster[y][x]] += 1;
-
-                                        } else { // mixed
-
-                                            final int nearestPvCluster = findClosestCluster(Tr, Ti, pvCenterList);
-                                            final int nearestPdCluster = findClosestCluster(Tr, Ti, pdCenterList);
-                                            final int nearestPsCluster = findClosestCluster(Tr, Ti, psCenterList);
-
-                                            final double dPv = HAlphaWishart.computeWishartDistance(
-                                                    Tr, Ti, pvCenterList.get(nearestPvCluster));
-
-                                            final double dPd = HAlphaWishart.computeWishartDistance(
-                                                    Tr, Ti, pdCenterList.get(nearestPdCluster));
-
-                                            final double dPs = HAlphaWishart.computeWishartDistance(
-                                                    Tr, Ti, psCenterList.get(nearestPsCluster));
-
-                                            if (dPv <= dPd && dPv <= dPs) { // pv
-                                                cluster[y][x] = nearestPvCluster;
-                                                computeSummationOfT3(cluster[y][x] + 1, Tr, Ti, pvSumRe, pvSumIm);
-                                                clusterCounter[0][cluster[y][x]] += 1;
-                                                category[y][x] = Categories.vol;
-
-                                            } else if (dPd <= dPv && dPd <= dPs) { // pd
-                                                cluster[y][x] = nearestPdCluster;
-                                                computeSummationOfT3(cluster[y][x] + 1, Tr, Ti, pdSumRe, pdSumIm);
-                                                clusterCounter[1][cluster[y][x]] += 1;
-                                                category[y][x] = Categories.dbl;
-
-                                            } else { // ps
-                                                cluster[y][x] = nearestPsCluster;
-                                                computeSummationOfT3(cluster[y][x] + 1, Tr, Ti, psSumRe, psSumIm);
-                                                clusterCounter[2][cluster[y][x]] += 1;
-                                                category[y][x] = Categories.suf;
-                                            }
+                                for (int x = x0; x < xMax; ++x, ++pixel) {
+
+                                    cache.get(features, pixel, Tr, Ti);
+
+                                    if (category[y][x] == Categories.vol) { // pv
+                                        cluster[y][x] = findClosestCluster(Tr, Ti, pvCenterList);
+                                        pvSums.add(cluster[y][x], Tr, Ti);
+
+                                    } else if (category[y][x] == Categories.dbl) { // pd
+                                        cluster[y][x] = findClosestCluster(Tr, Ti, pdCenterList);
+                                        pdSums.add(cluster[y][x], Tr, Ti);
+
+                                    } else if (category[y][x] == Categories.suf) { // ps
+                                        cluster[y][x] = findClosestCluster(Tr, Ti, psCenterList);
+                                        psSums.add(cluster[y][x], Tr, Ti);
+
+                                    } else { // mixed
+
+                                        final int nearestPvCluster = findClosestCluster(Tr, Ti, pvCenterList);
+                                        final int nearestPdCluster = findClosestCluster(Tr, Ti, pdCenterList);
+                                        final int nearestPsCluster = findClosestCluster(Tr, Ti, psCenterList);
+
+                                        final double dPv = HAlphaWishart.computeWishartDistance(
+                                                Tr, Ti, pvCenterList.get(nearestPvCluster));
+
+                                        final double dPd = HAlphaWishart.computeWishartDistance(
+                                                Tr, Ti, pdCenterList.get(nearestPdCluster));
+
+                                        final double dPs = HAlphaWishart.computeWishartDistance(
+                                                Tr, Ti, psCenterList.get(nearestPsCluster));
+
+                                        if (dPv <= dPd && dPv <= dPs) { // pv
+                                            cluster[y][x] = nearestPvCluster;
+                                            pvSums.add(cluster[y][x], Tr, Ti);
+                                            category[y][x] = Categories.vol;
+
+                                        } else if (dPd <= dPv && dPd <= dPs) { // pd
+                                            cluster[y][x] = nearestPdCluster;
+                                            pdSums.add(cluster[y][x], Tr, Ti);
+                                            category[y][x] = Categories.dbl;
+
+                                        } else { // ps
+                                            cluster[y][x] = nearestPsCluster;
+                                            psSums.add(cluster[y][x], Tr, Ti);
+                                            category[y][x] = Categories.suf;
                                         }
                                     }
                                 }
                             }
+                            partialSums[0][tileIndex] = pvSums;
+                            partialSums[1][tileIndex] = pdSums;
+                            partialSums[2][tileIndex] = psSums;
                         }
                     };
-                    threadManager.add(worker);
+                    executor.execute(worker);
 
                     status.worked(1);
                 }
-                threadManager.finish();
+                executor.finish();
+
+                final ClusterSums pvSums = ClusterSums.sum(partialSums[0], pvNumClusters, 3);
+                final ClusterSums pdSums = ClusterSums.sum(partialSums[1], pdNumClusters, 3);
+                final ClusterSums psSums = ClusterSums.sum(partialSums[2], psNumClusters, 3);
+                System.arraycopy(pvSums.counter, 0, clusterCounter[0], 0, pvNumClusters);
+                System.arraycopy(pdSums.counter, 0, clusterCounter[1], 0, pdNumClusters);
+                System.arraycopy(psSums.counter, 0, clusterCounter[2], 0, psNumClusters);
 
                 /*
                 endTime = System.nanoTime();
                 final long duration = endTime - startTime;
                 System.out.println("duration = " + duration);
                 */
-                updateClusterCenter(pvCenterList, clusterCounter[0], pvSumRe, pvSumIm);
-                updateClusterCenter(pdCenterList, clusterCounter[1], pdSumRe, pdSumIm);
-                updateClusterCenter(psCenterList, clusterCounter[2], psSumRe, psSumIm);
+                updateClusterCenter(pvCenterList, clusterCounter[0], pvSums.sumRe, pvSums.sumIm);
+                updateClusterCenter(pdCenterList, clusterCounter[1], pdSums.sumRe, pdSums.sumIm);
+                updateClusterCenter(psCenterList, clusterCounter[2], psSums.sumRe, psSums.sumIm);
             }
             /*
             System.out.println("# of clusters in Pv: " + pvNumClusters);
@@ -19,6 +19,7 @@ import org.csa.rstb.classification.gpf.PolarimetricClassificationOp;
 import org.csa.rstb.polarimetric.gpf.PolOpUtils;
 import org.csa.rstb.polarimetric.gpf.PolarimetricDecompositionOp;
 import org.csa.rstb.polarimetric.gpf.decompositions.*;
+import org.esa.s1tbx.commons.OperatorExecutor;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.IndexCoding;
@@ -31,6 +32,7 @@ import org.esa.snap.engine_utilities.gpf.ThreadManager;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
 
 import java.awt.*;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
@@ -220,7 +222,16 @@ public class GeneralWishart extends PolClassifierBase implements PolClassifier {
 
         computeInitialTerrainClusterCenters(dominantPower, clusterCenterList, srcBandList, tileRectangles, op);
 
-        computeFinalTerrainClusterCenters(dominantPower, clusterCenterList, srcBandList, tileRectangles, op);
+        // the mean T3 of each pixel is computed once in the first iteration and reused by the others
+        try (final MeanMatrixCache cache = new MeanMatrixCache(3, tileRectangles)) {
+            final MeanMatrixCache.Loader loader =
+                    (rectangle, features) -> computeMeanT3(srcBandList, rectangle, false, cache, features);
+
+            computeFinalTerrainClusterCenters(dominantPower, clusterCenterList, cache, loader, tileRectangles, op);
+
+        } catch (IOException e) {
+            throw new OperatorException(e);
+        }
 
         clusterCentersComputed = true;
     }
@@ -740,13 +751,15 @@ public class GeneralWishart extends PolClassifierBase implements PolClassifier {
     /**
      * Compute final cluster centers for all clusters using K-mean clustering method
      *
-     * @param srcBandList    the input bands
+     * @param cache          the mean T3 of each pixel
+     * @param loader         computes the mean T3 of a tile
      * @param tileRectangles Array of rectangles for all source tiles of the image
      * @param op             the operator
      */
     private void computeFinalTerrainClusterCenters(final double[][] dominantPower,
                                                    final ArrayList<ArrayList<ClusterInfo>> clusterCenterList,
-                                                   final PolBandUtils.PolSourceBand srcBandList,
+                                                   final MeanMatrixCache cache,
+                                                   final MeanMatrixCache.Loader loader,
                                                    final Rectangle[] tileRectangles,
                                                    final PolarimetricClassificationOp op) {
 
@@ -755,7 +768,7 @@ public class GeneralWishart extends PolClassifierBase implements PolClassifier {
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Computing Final Cluster Centres... ", tileRectangles.length * maxIterations);
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("GeneralWishart", op::checkIfCancelled);
 
         try {
             for (int it = 0; (it < maxIterations && !endIteration); ++it) {
@@ -763,74 +776,59 @@ public class GeneralWishart extends PolClassifierBase implements PolClassifier {
 //                final long startTime = System.nanoTime();
 //                final long endTime;
 
-                ArrayList<ArrayList<ClusterCenter>> newClusterCenters =
-                        new ArrayList<ArrayList<ClusterCenter>>(numCategories);
-
-                for (int i = 0; i < numCategories; ++i) {
-                    ArrayList<ClusterCenter> newCenters = new ArrayList<>();
-                    for (int j = 0; j < clusterCenterList.get(i).size(); ++j) {
-                        newCenters.add(new ClusterCenter());
-                    }
-                    newClusterCenters.add(newCenters);
-                }
-
-                for (final Rectangle rectangle : tileRectangles) {
+                // sums of the clusters in each category of each tile
+                final ClusterSums[][] partialSums = new ClusterSums[numCategories][tileRectangles.length];
 
-                    final Thread worker = new Thread() {
+                for (int t = 0; t < tileRectangles.length; ++t) {
+                    final int tileIndex = t;
 
-                        final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
-                        final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
+                    final Runnable worker = new Runnable() {
 
                         final double[][] Tr = new double[3][3];
                         final double[][] Ti = new double[3][3];
 
                         @Override
                         public void run() {
-                            op.checkIfCancelled();
-
+                            final float[] features = getCachedTile(cache, tileIndex, loader);
+                            final Rectangle rectangle = tileRectangles[tileIndex];
                             final int x0 = rectangle.x;
                             final int y0 = rectangle.y;
-                            final int w = rectangle.width;
-                            final int h = rectangle.height;
-                            final int xMax = x0 + w;
-                            final int yMax = y0 + h;
-
-                            final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-                            for (int i = 0; i < sourceTiles.length; ++i) {
-                                sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-                                dataBuffers[i] = sourceTiles[i].getDataBuffer();
+                            final int xMax = x0 + rectangle.width;
+                            final int yMax = y0 + rectangle.height;
+
+                            final ClusterSums[] sums = new ClusterSums[numCategories];
+                            for (int i = 0; i < numCategories; ++i) {
+                                sums[i] = new ClusterSums(clusterCenterList.get(i).size(), 3);
                             }
-                            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
 
+                            int pixel = 0;
                             for (int y = y0; y < yMax; ++y) {
-                                for (int x = x0; x < xMax; ++x) {
-
-                                    PolOpUtils.getMeanCoherencyMatrix(
-                                            x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                                            sourceProductType, srcIndex, dataBuffers, Tr, Ti);
+                                for (int x = x0; x < xMax; ++x, ++pixel) {
 
-                                    synchronized (newClusterCenters) {
+                                    cache.get(features, pixel, Tr, Ti);
 
-                                        if (category[y][x] != numCategories) {
-                                            cluster[y][x] = findClosestCluster(Tr, Ti, clusterCenterList.get(category[y][x]));
-                                        } else { // mixed
-                                            final int[] CategoryCluster =
-                                                    findNearestCategoryCluster(Tr, Ti, clusterCenterList);
+                                    if (category[y][x] != numCategories) {
+                                        cluster[y][x] = findClosestCluster(Tr, Ti, clusterCenterList.get(category[y][x]));
+                                    } else { // mixed
+                                        final int[] CategoryCluster =
+                                                findNearestCategoryCluster(Tr, Ti, clusterCenterList);
 
-                                            category[y][x] = CategoryCluster[0];
-                                            cluster[y][x] = CategoryCluster[1];
-                                        }
-                                        newClusterCenters.get(category[y][x]).get(cluster[y][x]).addElem(Tr, Ti);
+                                        category[y][x] = CategoryCluster[0];
+                                        cluster[y][x] = CategoryCluster[1];
                                     }
+                                    sums[category[y][x]].add(cluster[y][x], Tr, Ti);
                                 }
                             }
+                            for (int i = 0; i < numCategories; ++i) {
+                                partialSums[i][tileIndex] = sums[i];
+                            }
                         }
                     };
-                    threadManager.add(worker);
+                    executor.execute(worker);
 
                     status.worked(1);
                 }
-                threadManager.finish();
+                executor.finish();
 
                 /*
                 endTime = System.nanoTime();
@@ -840,11 +838,17 @@ public class GeneralWishart extends PolClassifierBase implements PolClassifier {
                 double[][] centerRe = new double[3][3];
                 double[][] centerIm = new double[3][3];
                 for (int i = 0; i < numCategories; ++i) {
+                    final ClusterSums sums = ClusterSums.sum(partialSums[i], clusterCenterList.get(i).size(), 3);
                     for (int j = 0; j < clusterCenterList.get(i).size(); ++j) {
-                        if (newClusterCenters.get(i).get(j).size > 0) {
-                            newClusterCenters.get(i).get(j).getCenter(centerRe, centerIm);
-                            clusterCenterList.get(i).get(j).setClusterCenter(
-                                    j, centerRe, centerIm, newClusterCenters.get(i).get(j).size);
+                        final int size = sums.counter[j];
+                        if (size > 0) {
+                            for (int m = 0; m < 3; ++m) {
+                                for (int n = 0; n < 3; ++n) {
+                                    centerRe[m][n] = sums.sumRe[j][m][n] / size;
+                                    centerIm[m][n] = sums.sumIm[j][m][n] / size;
+                                }
+                            }
+                            clusterCenterList.get(i).get(j).setClusterCenter(j, centerRe, centerIm, size);
                         }
                     }
                 }
@@ -17,8 +17,9 @@ package org.csa.rstb.classification.gpf.classifiers;
 
 import org.csa.rstb.classification.gpf.PolarimetricClassificationOp;
 import org.csa.rstb.polarimetric.gpf.HaAlphaDescriptor;
-import org.csa.rstb.polarimetric.gpf.PolOpUtils;
+import org.csa.rstb.polarimetric.gpf.WindowedMeanMatrix;
 import org.csa.rstb.polarimetric.gpf.decompositions.hAAlpha;
+import org.esa.s1tbx.commons.OperatorExecutor;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.ProductData;
@@ -27,10 +28,10 @@ import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.core.util.SystemUtils;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
-import org.esa.snap.engine_utilities.gpf.ThreadManager;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
 
 import java.awt.*;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Map;
 
@@ -103,7 +104,7 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier {
 
         final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
         final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
-        final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
+        final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h, windowSizeX, windowSizeY, srcWidth, srcHeight);
         for (int i = 0; i < sourceTiles.length; ++i) {
             sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
             dataBuffers[i] = sourceTiles[i].getDataBuffer();
@@ -111,6 +112,8 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier {
         final ProductData targetData = targetTile.getDataBuffer();
         final TileIndex trgIndex = new TileIndex(targetTile);
         final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+        final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.T3,
+                sourceProductType, sourceTiles, dataBuffers, halfWindowSizeX, halfWindowSizeY);
 
         final Double noDataValue = srcBandList.srcBands[0].getNoDataValue();
 
@@ -125,8 +128,7 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier {
                 if (noDataValue.equals(dataBuffers[0].getElemDoubleAt(srcIndex.getIndex(x)))) {
                     targetData.setElemIntAt(index, NODATACLASS);
                 } else {
-                    PolOpUtils.getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                            sourceProductType, srcIndex, dataBuffers, Tr, Ti);
+                    meanMatrix.getMeanMatrix(x, y, Tr, Ti);
 
                     targetData.setElemIntAt(index, findZoneIndex(Tr, Ti, clusterCenters[targetBandIndex]));
                 }
@@ -158,9 +160,18 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier {
         final Dimension tileSize = new Dimension(256, 256);
         final Rectangle[] tileRectangles = OperatorUtils.getAllTileRectangles(op.getSourceProduct(), tileSize, 0);
 
-        computeInitialClusterCenters(targetBandIndex, srcBandList, tileRectangles, op);
+        // the mean T3 of each pixel is computed once in the first pass and reused by all iterations
+        try (final MeanMatrixCache cache = new MeanMatrixCache(3, tileRectangles)) {
+            final MeanMatrixCache.Loader loader =
+                    (rectangle, features) -> computeMeanT3(srcBandList, rectangle, true, cache, features);
 
-        computeFinalClusterCenters(targetBandIndex, srcBandList, tileRectangles, op);
+            computeInitialClusterCenters(targetBandIndex, cache, loader, tileRectangles, op);
+
+            computeFinalClusterCenters(targetBandIndex, cache, loader, tileRectangles, op);
+
+        } catch (IOException e) {
+            throw new OperatorException(e);
+        }
 
         clusterCentersComputed[targetBandIndex] = true;
     }
@@ -168,96 +179,75 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier {
     /**
      * Compute initial cluster centers for all 9 zones using H-Alpha
      *
-     * @param srcBandList    the input bands
-     * @param op             the operator
+     * @param cache          the mean T3 of each pixel
+     * @param loader         computes the mean T3 of a tile
      * @param tileRectangles Array of rectangles for all source tiles of the image
+     * @param op             the operator
      */
     private void computeInitialClusterCenters(final int targetBandIndex,
-                                              final PolBandUtils.PolSourceBand srcBandList,
+                                              final MeanMatrixCache cache, final MeanMatrixCache.Loader loader,
                                               final Rectangle[] tileRectangles, final PolarimetricClassificationOp op) {
 
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Computing Initial Cluster Centres... ", tileRectangles.length);
 
-        final double[][][] sumRe = new double[9][3][3];
-        final double[][][] sumIm = new double[9][3][3];
         final double[][][] centerRe = new double[9][3][3];
         final double[][][] centerIm = new double[9][3][3];
-        final int[] counter = new int[9];
-        final Double noDataValue = srcBandList.srcBands[0].getNoDataValue();
+        final ClusterSums[] partialSums = new ClusterSums[tileRectangles.length];
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("HAlphaWishart", op::checkIfCancelled);
 
         try {
-            for (final Rectangle rectangle : tileRectangles) {
-                op.checkIfCancelled();
-
-                final Thread worker = new Thread() {
+            for (int t = 0; t < tileRectangles.length; ++t) {
+                final int tileIndex = t;
 
-                    final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
-                    final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
+                final Runnable worker = new Runnable() {
 
                     final double[][] Tr = new double[3][3];
                     final double[][] Ti = new double[3][3];
 
                     @Override
                     public void run() {
-                        final int x0 = rectangle.x;
-                        final int y0 = rectangle.y;
-                        final int w = rectangle.width;
-                        final int h = rectangle.height;
-                        final int xMax = x0 + w;
-                        final int yMax = y0 + h;
-                        //System.out.println("x0 = " + x0 + ", y0 = " + y0 + ", w = " + w + ", h = " + h);
-
-                        final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-                        for (int i = 0; i < sourceTiles.length; ++i) {
-                            sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-                            dataBuffers[i] = sourceTiles[i].getDataBuffer();
-                        }
-                        final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+                        final float[] features = getCachedTile(cache, tileIndex, loader);
+                        final int numPixels = tileRectangles[tileIndex].width * tileRectangles[tileIndex].height;
+                        final ClusterSums sums = new ClusterSums(9, 3);
 
-                        for (int y = y0; y < yMax; ++y) {
-                            srcIndex.calculateStride(y);
-                            for (int x = x0; x < xMax; ++x) {
-                                if (noDataValue.equals(dataBuffers[0].getElemDoubleAt(srcIndex.getIndex(x))))
-                                    continue;
+                        for (int pixel = 0; pixel < numPixels; ++pixel) {
+                            if (cache.isNoData(features, pixel))
+                                continue;
+
+                            cache.get(features, pixel, Tr, Ti);
 
-                                PolOpUtils.getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                                        sourceProductType, srcIndex, dataBuffers, Tr, Ti);
-
-                                final hAAlpha.HAAlpha data = hAAlpha.computeHAAlpha(Tr, Ti);
-                                if (!Double.isNaN(data.entropy) && !Double.isNaN(data.anisotropy) && !Double.isNaN(data.alpha)) {
-                                    synchronized (counter) {
-                                        final int zoneIndex = HaAlphaDescriptor.getZoneIndex(data.entropy, data.alpha,
-                                                useLeeHAlphaPlaneDefinition);
-                                        counter[zoneIndex - 1] += 1;
-                                        computeSummationOfT3(zoneIndex, Tr, Ti, sumRe, sumIm);
-                                    }
-                                }
+                            final hAAlpha.HAAlpha data = hAAlpha.computeHAAlpha(Tr, Ti);
+                            if (!Double.isNaN(data.entropy) && !Double.isNaN(data.anisotropy) && !Double.isNaN(data.alpha)) {
+                                final int zoneIndex = HaAlphaDescriptor.getZoneIndex(data.entropy, data.alpha,
+                                        useLeeHAlphaPlaneDefinition);
+                                sums.add(zoneIndex - 1, Tr, Ti);
                             }
                         }
+                        partialSums[tileIndex] = sums;
                     }
                 };
-                threadManager.add(worker);
+                executor.execute(worker);
 
                 status.worked(1);
             }
 
-            threadManager.finish();
+            executor.finish();
 
+            final ClusterSums sums = ClusterSums.sum(partialSums, 9, 3);
             for (int z = 0; z < 9; ++z) {
-                final int count = counter[z];
+                final int count = sums.counter[z];
                 //System.out.println("z = " + z + ", counter[z] = " + count);
                 if (count > 0) {
                     for (int i = 0; i < 3; ++i) {
                         for (int j = 0; j < 3; ++j) {
-                            centerRe[z][i][j] = sumRe[z][i][j] / count;
-                            centerIm[z][i][j] = sumIm[z][i][j] / count;
+                            centerRe[z][i][j] = sums.sumRe[z][i][j] / count;
+                            centerIm[z][i][j] = sums.sumIm[z][i][j] / count;
                         }
                     }
                     clusterCenters[targetBandIndex][z] = new ClusterInfo();
-                    clusterCenters[targetBandIndex][z].setClusterCenter(z + 1, centerRe[z], centerIm[z], counter[z]);
+                    clusterCenters[targetBandIndex][z].setClusterCenter(z + 1, centerRe[z], centerIm[z], count);
                 }
             }
 
@@ -271,100 +261,81 @@ public class HAlphaWishart extends PolClassifierBase implements PolClassifier {
     /**
      * Compute final cluster centers for all 9 zones using K-mean clustering method
      *
-     * @param srcBandList    the input bands
-     * @param op             the operator
+     * @param cache          the mean T3 of each pixel
+     * @param loader         computes the mean T3 of a tile
      * @param tileRectangles Array of rectangles for all source tiles of the image
+     * @param op             the operator
      */
     private void computeFinalClusterCenters(final int targetBandIndex,
-                                            final PolBandUtils.PolSourceBand srcBandList,
+                                            final MeanMatrixCache cache, final MeanMatrixCache.Loader loader,
                                             final Rectangle[] tileRectangles,
                                             final PolarimetricClassificationOp op) {
 
         final double[][][] centerRe = new double[9][3][3];
         final double[][][] centerIm = new double[9][3][3];
         boolean endIteration = false;
-        final Double noDataValue = srcBandList.srcBands[0].getNoDataValue();
 
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Computing Final Cluster Centres... ", tileRectangles.length * maxIterations);
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("HAlphaWishart", op::checkIfCancelled);
 
         try {
             for (int it = 0; (it < maxIterations && !endIteration); ++it) {
                 //System.out.println("Iteration: " + it);
 
-                final double[][][] sumRe = new double[9][3][3];
-                final double[][][] sumIm = new double[9][3][3];
-                final int[] counter = new int[9];
+                final ClusterSums[] partialSums = new ClusterSums[tileRectangles.length];
 
-                for (final Rectangle rectangle : tileRectangles) {
+                for (int t = 0; t < tileRectangles.length; ++t) {
+                    final int tileIndex = t;
 
-                    final Thread worker = new Thread() {
-
-                        final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
-                        final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
+                    final Runnable worker = new Runnable() {
 
                         final double[][] Tr = new double[3][3];
                         final double[][] Ti = new double[3][3];
 
                         @Override
                         public void run() {
-                            op.checkIfCancelled();
-
-                            final int x0 = rectangle.x;
-                            final int y0 = rectangle.y;
-                            final int w = rectangle.width;
-                            final int h = rectangle.height;
-                            final int xMax = x0 + w;
-                            final int yMax = y0 + h;
-
-                            final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-                            for (int i = 0; i < sourceTiles.length; ++i) {
-                                sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-                                dataBuffers[i] = sourceTiles[i].getDataBuffer();
-                            }
-                            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
-
-                            for (int y = y0; y < yMax; ++y) {
-                                srcIndex.calculateStride(y);
-                                for (int x = x0; x < xMax; ++x) {
-                                    if (noDataValue.equals(dataBuffers[0].getElemDoubleAt(srcIndex.getIndex(x))))
-                                        continue;
-
-                                    PolOpUtils.getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth, srcHeight,
-                                            sourceProductType, srcIndex, dataBuffers, Tr, Ti);
-
-                                    synchronized (counter) {
-                                        final int zoneIdx = findZoneIndex(Tr, Ti, clusterCenters[targetBandIndex]);
-                                        counter[zoneIdx - 1]++;
-                                        computeSummationOfT3(zoneIdx, Tr, Ti, sumRe, sumIm);
-                                    }
-                                }
+                            final float[] features = getCachedTile(cache, tileIndex, loader);
+                            final int numPixels = tileRectangles[tileIndex].width * tileRectangles[tileIndex].height;
+                            final ClusterSums sums = new ClusterSums(9, 3);
+
+                            for (int pixel = 0; pixel < numPixels; ++pixel) {
+                                if (cache.isNoData(features, pixel))
+                                    continue;
+
+                                cache.get(features, pixel, Tr, Ti);
+
+                                final int zoneIdx = findZoneIndex(Tr, Ti, clusterCenters[targetBandIndex]);
+                                sums.add(zoneIdx - 1, Tr, Ti);
                             }
+                            partialSums[tileIndex] = sums;
                         }
                     };
-                    threadManager.add(worker);
+                    executor.execute(worker);
 
                     status.worked(1);
                 }
 
+                executor.finish();
+
+                final ClusterSums sums = ClusterSums.sum(partialSums, 9, 3);
                 double diff = 0.0;
                 for (int z = 0; z < 9; ++z) {
-                    final int count = counter[z];
+                    final int count = sums.counter[z];
                     //System.out.println("counter[" + z + "] = " + count);
-                    if (counter[z] > 0) {
+                    if (count > 0) {
                         for (int i = 0; i < 3; ++i) {
                             for (int j = 0; j < 3; ++j) {
-                                centerRe[z][i][j] = sumRe[z][i][j] / count;
-                                centerIm[z][i][j] = sumIm[z][i][j] / count;
+                                centerRe[z][i][j] = sums.sumRe[z][i][j] / count;
+                                centerIm[z][i][j] = sums.sumIm[z][i][j] / count;
                                 diff += (clusterCenters[targetBandIndex][z].centerRe[i][j] - centerRe[z][i][j]) *
                                         (clusterCenters[targetBandIndex][z].centerRe[i][j] - centerRe[z][i][j]) +
                                         (clusterCenters[targetBandIndex][z].centerIm[i][j] - centerIm[z][i][j]) *
                                                 (clusterCenters[targetBandIndex][z].centerIm[i][j] - centerIm[z][i][j]);
                             }
                         }
-                        clusterCenters[targetBandIndex][z].setClusterCenter(z + 1, centerRe[z], centerIm[z], counter[z]);
+                        clusterCenters[targetBandIndex][z].setClusterCenter(z + 1, centerRe[z], centerIm[z], count);
                     }
                 }
 
@@ -19,6 +19,7 @@ import org.csa.rstb.classification.gpf.PolarimetricClassificationOp;
 import org.csa.rstb.polarimetric.gpf.DualPolOpUtils;
 import org.csa.rstb.polarimetric.gpf.HaAlphaDescriptor;
 import org.csa.rstb.polarimetric.gpf.decompositions.HAlphaC2;
+import org.esa.s1tbx.commons.OperatorExecutor;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.ProductData;
@@ -27,10 +28,10 @@ import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.core.util.SystemUtils;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
-import org.esa.snap.engine_utilities.gpf.ThreadManager;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
 
 import java.awt.*;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Map;
 
@@ -177,107 +178,138 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier
         final Dimension tileSize = new Dimension(256, 256);
         final Rectangle[] tileRectangles = OperatorUtils.getAllTileRectangles(op.getSourceProduct(), tileSize, 0);
 
-        computeInitialClusterCenters(targetBandIndex, srcBandList, tileRectangles, op);
+        // the mean C2 of each pixel is computed once in the first pass and reused by all iterations
+        try (final MeanMatrixCache cache = new MeanMatrixCache(2, tileRectangles)) {
+            final MeanMatrixCache.Loader loader =
+                    (rectangle, features) -> computeMeanC2(srcBandList, rectangle, cache, features);
 
-        computeFinalClusterCenters(targetBandIndex, srcBandList, tileRectangles, op);
+            computeInitialClusterCenters(targetBandIndex, cache, loader, tileRectangles, op);
+
+            computeFinalClusterCenters(targetBandIndex, cache, loader, tileRectangles, op);
+
+        } catch (IOException e) {
+            throw new OperatorException(e);
+        }
 
         clusterCentersComputed[targetBandIndex] = true;
 
     }
 
+    /**
+     * Compute the windowed mean C2 of every pixel in a tile for the feature cache.
+     *
+     * @param srcBandList the input bands
+     * @param rectangle   the tile rectangle
+     * @param cache       the feature cache
+     * @param features    the packed mean C2 of the tile pixels
+     */
+    private void computeMeanC2(final PolBandUtils.PolSourceBand srcBandList, final Rectangle rectangle,
+                               final MeanMatrixCache cache, final float[] features) {
+
+        final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
+        final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
+        final Rectangle sourceRectangle = getSourceRectangle(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+        for (int i = 0; i < sourceTiles.length; ++i) {
+            sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
+            dataBuffers[i] = sourceTiles[i].getDataBuffer();
+        }
+        final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+        final double noDataValue = srcBandList.srcBands[0].getNoDataValue();
+
+        final double[][] Cr = new double[2][2]; // real part of covariance matrix
+        final double[][] Ci = new double[2][2]; // imaginary part of covariance matrix
+        final int xMax = rectangle.x + rectangle.width;
+        final int yMax = rectangle.y + rectangle.height;
+        int pixel = 0;
+        for (int y = rectangle.y; y < yMax; ++y) {
+            srcIndex.calculateStride(y);
+            for (int x = rectangle.x; x < xMax; ++x, ++pixel) {
+                if (noData(noDataValue, dataBuffers, srcIndex.getIndex(x))) {
+                    cache.putNoData(features, pixel);
+                } else {
+                    DualPolOpUtils.getMeanCovarianceMatrixC2(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth,
+                            srcHeight, sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
+                    cache.put(Cr, Ci, features, pixel);
+                }
+            }
+        }
+    }
+
     /**
      * Compute initial cluster centers for all 9 zones using H-Alpha
      *
      * @param targetBandIndex Target band index
-     * @param srcBandList     the input bands
+     * @param cache           the mean C2 of each pixel
+     * @param loader          computes the mean C2 of a tile
      * @param tileRectangles  Array of rectangles for all source tiles of the image
      * @param op              the operator
      */
     protected void computeInitialClusterCenters(final int targetBandIndex,
-                                              final PolBandUtils.PolSourceBand srcBandList,
+                                              final MeanMatrixCache cache, final MeanMatrixCache.Loader loader,
                                               final Rectangle[] tileRectangles,
                                               final PolarimetricClassificationOp op) {
 
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Computing Initial Cluster Centres... ", tileRectangles.length);
 
-        final double[][][] sumRe = new double[9][2][2];
-        final double[][][] sumIm = new double[9][2][2];
         final double[][][] centerRe = new double[9][2][2];
         final double[][][] centerIm = new double[9][2][2];
-        final int[] counter = new int[9];
-        final double noDataValue = srcBandList.srcBands[0].getNoDataValue();
+        final ClusterSums[] partialSums = new ClusterSums[tileRectangles.length];
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("HAlphaWishartC2", op::checkIfCancelled);
 
         try {
-            for (final Rectangle rectangle : tileRectangles) {
-                op.checkIfCancelled();
-
-                final Thread worker = new Thread() {
+            for (int t = 0; t < tileRectangles.length; ++t) {
+                final int tileIndex = t;
 
-                    final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
-                    final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
+                final Runnable worker = new Runnable() {
 
                     final double[][] Cr = new double[2][2]; // real part of covariance matrix
                     final double[][] Ci = new double[2][2]; // imaginary part of covariance matrix
 
                     @Override
                     public void run() {
-                        final int x0 = rectangle.x, y0 = rectangle.y;
-                        final int w = rectangle.width, h = rectangle.height;
-                        final int xMax = x0 + w, yMax = y0 + h;
-                        //System.out.println("x0 = " + x0 + ", y0 = " + y0 + ", w = " + w + ", h = " + h);
-
-                        final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-                        for (int i = 0; i < sourceTiles.length; ++i) {
-                            sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-                            dataBuffers[i] = sourceTiles[i].getDataBuffer();
-                        }
-                        final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+                        final float[] features = getCachedTile(cache, tileIndex, loader);
+                        final int numPixels = tileRectangles[tileIndex].width * tileRectangles[tileIndex].height;
+                        final ClusterSums sums = new ClusterSums(9, 2);
 
-                        for (int y = y0; y < yMax; ++y) {
-                            srcIndex.calculateStride(y);
-                            for (int x = x0; x < xMax; ++x) {
-                                if (noData(noDataValue, dataBuffers, srcIndex.getIndex(x)))
-                                    continue;
+                        for (int pixel = 0; pixel < numPixels; ++pixel) {
+                            if (cache.isNoData(features, pixel))
+                                continue;
 
-                                DualPolOpUtils.getMeanCovarianceMatrixC2(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth,
-                                        srcHeight, sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
+                            cache.get(features, pixel, Cr, Ci);
 
-                                HAlphaC2.HAAlpha data = HAlphaC2.computeHAAlphaByC2(Cr, Ci);
+                            HAlphaC2.HAAlpha data = HAlphaC2.computeHAAlphaByC2(Cr, Ci);
 
-                                if (!Double.isNaN(data.entropy) && !Double.isNaN(data.anisotropy) && !Double.isNaN(data.alpha)) {
-                                    synchronized (counter) {
-                                        final int zoneIndex = HaAlphaDescriptor.getZoneIndex(data.entropy, data.alpha,
-                                                useLeeHAlphaPlaneDefinition);
-                                        counter[zoneIndex - 1] += 1;
-                                        computeSummationOfC2(zoneIndex, Cr, Ci, sumRe, sumIm);
-                                    }
-                                }
+                            if (!Double.isNaN(data.entropy) && !Double.isNaN(data.anisotropy) && !Double.isNaN(data.alpha)) {
+                                final int zoneIndex = HaAlphaDescriptor.getZoneIndex(data.entropy, data.alpha,
+                                        useLeeHAlphaPlaneDefinition);
+                                sums.add(zoneIndex - 1, Cr, Ci);
                             }
                         }
+                        partialSums[tileIndex] = sums;
                     }
                 };
-                threadManager.add(worker);
+                executor.execute(worker);
 
                 status.worked(1);
             }
 
-            threadManager.finish();
+            executor.finish();
 
+            final ClusterSums sums = ClusterSums.sum(partialSums, 9, 2);
             for (int z = 0; z < 9; ++z) {
-                final int count = counter[z];
+                final int count = sums.counter[z];
                 //System.out.println("z = " + z + ", counter[z] = " + count);
                 if (count > 0) {
                     for (int i = 0; i < 2; ++i) {
                         for (int j = 0; j < 2; ++j) {
-                            centerRe[z][i][j] = sumRe[z][i][j] / count;
-                            centerIm[z][i][j] = sumIm[z][i][j] / count;
+                            centerRe[z][i][j] = sums.sumRe[z][i][j] / count;
+                            centerIm[z][i][j] = sums.sumIm[z][i][j] / count;
                         }
                     }
                     clusterCenters[targetBandIndex][z] = new ClusterInfo();
-                    clusterCenters[targetBandIndex][z].setClusterCenter(z + 1, centerRe[z], centerIm[z], counter[z]);
+                    clusterCenters[targetBandIndex][z].setClusterCenter(z + 1, centerRe[z], centerIm[z], count);
                 }
             }
 
@@ -293,100 +325,81 @@ public class HAlphaWishartC2 extends PolClassifierBase implements PolClassifier
      * Compute final cluster centers for all 9 zones using K-mean clustering method
      *
      * @param targetBandIndex Target band index
-     * @param srcBandList     the input bands
+     * @param cache           the mean C2 of each pixel
+     * @param loader          computes the mean C2 of a tile
      * @param tileRectangles  Array of rectangles for all source tiles of the image
      * @param op              the operator
      */
     private void computeFinalClusterCenters(final int targetBandIndex,
-                                            final PolBandUtils.PolSourceBand srcBandList,
+                                            final MeanMatrixCache cache, final MeanMatrixCache.Loader loader,
                                             final Rectangle[] tileRectangles,
                                             final PolarimetricClassificationOp op) {
 
         final double[][][] centerRe = new double[9][2][2];
         final double[][][] centerIm = new double[9][2][2];
         boolean endIteration = false;
-        final double noDataValue = srcBandList.srcBands[0].getNoDataValue();
 
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Computing Final Cluster Centres... ", tileRectangles.length * maxIterations);
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("HAlphaWishartC2", op::checkIfCancelled);
 
         try {
             for (int it = 0; (it < maxIterations && !endIteration); ++it) {
                 //System.out.println("Iteration: " + it);
 
-                final double[][][] sumRe = new double[9][2][2];
-                final double[][][] sumIm = new double[9][2][2];
-                final int[] counter = new int[9];
-
-                for (final Rectangle rectangle : tileRectangles) {
+                final ClusterSums[] partialSums = new ClusterSums[tileRectangles.length];
 
-                    final Thread worker = new Thread() {
+                for (int t = 0; t < tileRectangles.length; ++t) {
+                    final int tileIndex = t;
 
-                        final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
-                        final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
+                    final Runnable worker = new Runnable() {
 
                         final double[][] Cr = new double[2][2];
                         final double[][] Ci = new double[2][2];
 
                         @Override
                         public void run() {
-                            op.checkIfCancelled();
-
-                            final int x0 = rectangle.x;
-                            final int y0 = rectangle.y;
-                            final int w = rectangle.width;
-                            final int h = rectangle.height;
-                            final int xMax = x0 + w;
-                            final int yMax = y0 + h;
-
-                            final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
-                            for (int i = 0; i < sourceTiles.length; ++i) {
-                                sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
-                                dataBuffers[i] = sourceTiles[i].getDataBuffer();
-                            }
-                            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
-
-                            for (int y = y0; y < yMax; ++y) {
-                                srcIndex.calculateStride(y);
-                                for (int x = x0; x < xMax; ++x) {
-                                    if (noData(noDataValue, dataBuffers, srcIndex.getIndex(x)))
-                                        continue;
-
-                                    DualPolOpUtils.getMeanCovarianceMatrixC2(x, y, halfWindowSizeX, halfWindowSizeY, srcWidth,
-                                            srcHeight, sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
-
-                                    synchronized (counter) {
-                                        final int zoneIdx = findZoneIndex(Cr, Ci, clusterCenters[targetBandIndex]);
-                                        counter[zoneIdx - 1]++;
-                                        computeSummationOfC2(zoneIdx, Cr, Ci, sumRe, sumIm);
-                                    }
-                                }
+                            final float[] features = getCachedTile(cache, tileIndex, loader);
+                            final int numPixels = tileRectangles[tileIndex].width * tileRectangles[tileIndex].height;
+                            final ClusterSums sums = new ClusterSums(9, 2);
+
+                            for (int pixel = 0; pixel < numPixels; ++pixel) {
+                                if (cache.isNoData(features, pixel))
+                                    continue;
+
+                                cache.get(features, pixel, Cr, Ci);
+
+                                final int zoneIdx = findZoneIndex(Cr, Ci, clusterCenters[targetBandIndex]);
+                                sums.add(zoneIdx - 1, Cr, Ci);
                             }
+                            partialSums[tileIndex] = sums;
                         }
                     };
-                    threadManager.add(worker);
+                    executor.execute(worker);
 
                     status.worked(1);
                 }
 
+                executor.finish();
+
+                final ClusterSums sums = ClusterSums.sum(partialSums, 9, 2);
                 double diff = 0.0;
                 for (int z = 0; z < 9; ++z) {
-                    final int count = counter[z];
+                    final int count = sums.counter[z];
                     //System.out.println("counter[" + z + "] = " + count);
-                    if (counter[z] > 0) {
+                    if (count > 0) {
                         for (int i = 0; i < 2; ++i) {
                             for (int j = 0; j < 2; ++j) {
-                                centerRe[z][i][j] = sumRe[z][i][j] / count;
-                                centerIm[z][i][j] = sumIm[z][i][j] / count;
+                                centerRe[z][i][j] = sums.sumRe[z][i][j] / count;
+                                centerIm[z][i][j] = sums.sumIm[z][i][j] / count;
                                 diff += (clusterCenters[targetBandIndex][z].centerRe[i][j] - centerRe[z][i][j]) *
                                         (clusterCenters[targetBandIndex][z].centerRe[i][j] - centerRe[z][i][j]) +
                                         (clusterCenters[targetBandIndex][z].centerIm[i][j] - centerIm[z][i][j]) *
                                                 (clusterCenters[targetBandIndex][z].centerIm[i][j] - centerIm[z][i][j]);
                             }
                         }
-                        clusterCenters[targetBandIndex][z].setClusterCenter(z + 1, centerRe[z], centerIm[z], counter[z]);
+                        clusterCenters[targetBandIndex][z].setClusterCenter(z + 1, centerRe[z], centerIm[z], count);
                     }
                 }
 
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.classification.gpf.classifiers;
+
+import org.esa.snap.core.util.SystemUtils;
+import org.esa.snap.runtime.Config;
+
+import java.awt.*;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Cache of the windowed mean T3 or C2 matrix of every pixel for the iterations of the Wishart classifiers.
+ * <p>
+ * The mean matrices of a tile are computed by a loader the first time the tile is requested and kept as
+ * floats, the diagonal and the upper triangle of each matrix packed into dimension * dimension values.
+ * The cache is held in memory if it fits in s1tbx.classification.featureCacheSizeMB, by default a quarter
+ * of the maximum heap, otherwise it is spilled to a temporary file.
+ * <p>
+ * Different tiles may be requested concurrently but a tile should not be requested by two threads at once.
+ */
+public final class MeanMatrixCache implements Closeable {
+
+    private static final long MB = 1024L * 1024L;
+    private static final long DEFAULT_MAX_MEMORY = Config.instance().preferences().getLong(
+            "s1tbx.classification.featureCacheSizeMB", Runtime.getRuntime().maxMemory() / 4 / MB) * MB;
+
+    public interface Loader {
+        /**
+         * Compute the packed mean matrices of a tile
+         *
+         * @param rectangle the tile rectangle
+         * @param features  the packed matrices of the tile pixels row by row
+         */
+        void load(final Rectangle rectangle, final float[] features);
+    }
+
+    private final int dimension;
+    private final int numElems;
+    private final Rectangle[] tileRectangles;
+    private final long[] tileOffsets;       // in bytes in the spill file
+    private final boolean[] loaded;
+
+    private final float[][] tiles;
+    private final File spillFile;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+
+    /**
+     * @param dimension      the matrix dimension, 3 for T3 or 2 for C2
+     * @param tileRectangles the tiles of the image
+     * @throws IOException if the spill file could not be created
+     */
+    public MeanMatrixCache(final int dimension, final Rectangle[] tileRectangles) throws IOException {
+        this(dimension, tileRectangles, DEFAULT_MAX_MEMORY);
+    }
+
+    MeanMatrixCache(final int dimension, final Rectangle[] tileRectangles, final long maxMemory) throws IOException {
+        this.dimension = dimension;
+        this.numElems = dimension * dimension;
+        this.tileRectangles = tileRectangles;
+        this.tileOffsets = new long[tileRectangles.length];
+        this.loaded = new boolean[tileRectangles.length];
+
+        long size = 0;
+        for (int t = 0; t < tileRectangles.length; ++t) {
+            tileOffsets[t] = size;
+            size += (long) tileRectangles[t].width * tileRectangles[t].height * numElems * 4;
+        }
+
+        if (size <= maxMemory) {
+            tiles = new float[tileRectangles.length][];
+            spillFile = null;
+            raf = null;
+            channel = null;
+        } else {
+            tiles = null;
+            final File cacheDir = new File(SystemUtils.getCacheDir(), "temp");
+            if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+                throw new IOException("Failed to create directory '" + cacheDir + "'.");
+            }
+            spillFile = File.createTempFile("wishart_features", ".bin", cacheDir);
+            spillFile.deleteOnExit();
+            raf = new RandomAccessFile(spillFile, "rw");
+            channel = raf.getChannel();
+            SystemUtils.LOG.fine("Spilling " + size / MB + "MB of classifier features to " + spillFile);
+        }
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public boolean isInMemory() {
+        return tiles != null;
+    }
+
+    /**
+     * Get the packed mean matrices of a tile, loading them on the first request
+     *
+     * @param tileIndex the index of the tile in the tile rectangles
+     * @param loader    computes the mean matrices if the tile is not yet cached
+     * @return the packed matrices of the tile pixels row by row, not to be modified
+     * @throws IOException if the spill file could not be read or written
+     */
+    public float[] getTile(final int tileIndex, final Loader loader) throws IOException {
+        final Rectangle rect = tileRectangles[tileIndex];
+        final int length = rect.width * rect.height * numElems;
+
+        if (tiles != null) {
+            if (tiles[tileIndex] == null) {
+                final float[] features = new float[length];
+                loader.load(rect, features);
+                tiles[tileIndex] = features;
+            }
+            return tiles[tileIndex];
+        }
+
+        final float[] features = new float[length];
+        final ByteBuffer buffer = ByteBuffer.allocate(length * 4).order(ByteOrder.nativeOrder());
+        final long position = tileOffsets[tileIndex];
+        if (!loaded[tileIndex]) {
+            loader.load(rect, features);
+            buffer.asFloatBuffer().put(features);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+            loaded[tileIndex] = true;
+        } else {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException(spillFile.getPath());
+                }
+            }
+            buffer.flip();
+            buffer.asFloatBuffer().get(features);
+        }
+        return features;
+    }
+
+    /**
+     * Pack the diagonal and upper triangle of a Hermitian matrix
+     *
+     * @param Mr       Real part of the matrix
+     * @param Mi       Imaginary part of the matrix
+     * @param features the packed matrices
+     * @param pixel    the pixel index in the tile
+     */
+    public void put(final double[][] Mr, final double[][] Mi, final float[] features, final int pixel) {
+        int k = pixel * numElems;
+        for (int i = 0; i < dimension; ++i) {
+            features[k++] = (float) Mr[i][i];
+            for (int j = i + 1; j < dimension; ++j) {
+                features[k++] = (float) Mr[i][j];
+                features[k++] = (float) Mi[i][j];
+            }
+        }
+    }
+
+    /**
+     * Mark a pixel as no data
+     */
+    public void putNoData(final float[] features, final int pixel) {
+        features[pixel * numElems] = Float.NaN;
+    }
+
+    public boolean isNoData(final float[] features, final int pixel) {
+        return Float.isNaN(features[pixel * numElems]);
+    }
+
+    /**
+     * Unpack the Hermitian matrix of a pixel
+     *
+     * @param features the packed matrices
+     * @param pixel    the pixel index in the tile
+     * @param Mr       Real part of the matrix
+     * @param Mi       Imaginary part of the matrix
+     */
+    public void get(final float[] features, final int pixel, final double[][] Mr, final double[][] Mi) {
+        int k = pixel * numElems;
+        for (int i = 0; i < dimension; ++i) {
+            Mr[i][i] = features[k++];
+            Mi[i][i] = 0.0;
+            for (int j = i + 1; j < dimension; ++j) {
+                final double re = features[k++];
+                final double im = features[k++];
+                Mr[i][j] = re;
+                Mi[i][j] = im;
+                Mr[j][i] = re;
+                Mi[j][i] = -im;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (raf != null) {
+            raf.close();
+            if (!spillFile.delete()) {
+                SystemUtils.LOG.warning("Unable to delete " + spillFile);
+            }
+        }
+    }
+}
@@ -17,11 +17,17 @@ package org.csa.rstb.classification.gpf.classifiers;
 
 import org.csa.rstb.classification.gpf.PolarimetricClassificationOp;
 import org.csa.rstb.polarimetric.gpf.PolOpUtils;
+import org.csa.rstb.polarimetric.gpf.WindowedMeanMatrix;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.IndexCoding;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.gpf.OperatorException;
+import org.esa.snap.core.gpf.Tile;
+import org.esa.snap.engine_utilities.gpf.TileIndex;
 
 import java.awt.*;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -101,6 +107,58 @@ public abstract class PolClassifierBase {
         return new Rectangle(x0, y0, w, h);
     }
 
+    /**
+     * Compute the windowed mean T3 of every pixel in a tile for the feature cache.
+     *
+     * @param srcBandList the input bands
+     * @param rectangle   the tile rectangle
+     * @param checkNoData true to mark pixels with no data in the first source band
+     * @param cache       the feature cache
+     * @param features    the packed mean T3 of the tile pixels
+     */
+    protected void computeMeanT3(final PolBandUtils.PolSourceBand srcBandList, final Rectangle rectangle,
+                                 final boolean checkNoData, final MeanMatrixCache cache, final float[] features) {
+
+        final Tile[] sourceTiles = new Tile[srcBandList.srcBands.length];
+        final ProductData[] dataBuffers = new ProductData[srcBandList.srcBands.length];
+        final Rectangle sourceRectangle = getSourceRectangle(rectangle.x, rectangle.y, rectangle.width,
+                rectangle.height, windowSizeX, windowSizeY, srcWidth, srcHeight);
+        for (int i = 0; i < sourceTiles.length; ++i) {
+            sourceTiles[i] = op.getSourceTile(srcBandList.srcBands[i], sourceRectangle);
+            dataBuffers[i] = sourceTiles[i].getDataBuffer();
+        }
+        final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+        final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.T3,
+                sourceProductType, sourceTiles, dataBuffers, halfWindowSizeX, halfWindowSizeY);
+        final Double noDataValue = srcBandList.srcBands[0].getNoDataValue();
+
+        final double[][] Tr = new double[3][3];
+        final double[][] Ti = new double[3][3];
+        final int xMax = rectangle.x + rectangle.width;
+        final int yMax = rectangle.y + rectangle.height;
+        int pixel = 0;
+        for (int y = rectangle.y; y < yMax; ++y) {
+            srcIndex.calculateStride(y);
+            for (int x = rectangle.x; x < xMax; ++x, ++pixel) {
+                if (checkNoData && noDataValue.equals(dataBuffers[0].getElemDoubleAt(srcIndex.getIndex(x)))) {
+                    cache.putNoData(features, pixel);
+                } else {
+                    meanMatrix.getMeanMatrix(x, y, Tr, Ti);
+                    cache.put(Tr, Ti, features, pixel);
+                }
+            }
+        }
+    }
+
+    protected static float[] getCachedTile(final MeanMatrixCache cache, final int tileIndex,
+                                           final MeanMatrixCache.Loader loader) {
+        try {
+            return cache.getTile(tileIndex, loader);
+        } catch (IOException e) {
+            throw new OperatorException("Unable to read the feature cache", e);
+        }
+    }
+
     protected static void computeSummationOfC2(final int zoneIdx, final double[][] Cr, final double[][] Ci,
                                                double[][][] sumRe, double[][][] sumIm) {
 
@@ -294,6 +352,55 @@ public abstract class PolClassifierBase {
         return indexCoding;
     }
 
+    /**
+     * Sums of the matrices and counts of the pixels in each cluster, one per task and added together at the end
+     */
+    protected static class ClusterSums {
+        final double[][][] sumRe;
+        final double[][][] sumIm;
+        final int[] counter;
+
+        public ClusterSums(final int numClusters, final int dimension) {
+            sumRe = new double[numClusters][dimension][dimension];
+            sumIm = new double[numClusters][dimension][dimension];
+            counter = new int[numClusters];
+        }
+
+        public void add(final int clusterIdx, final double[][] Mr, final double[][] Mi) {
+            final double[][] re = sumRe[clusterIdx];
+            final double[][] im = sumIm[clusterIdx];
+            for (int i = 0; i < re.length; ++i) {
+                for (int j = 0; j < re.length; ++j) {
+                    re[i][j] += Mr[i][j];
+                    im[i][j] += Mi[i][j];
+                }
+            }
+            counter[clusterIdx]++;
+        }
+
+        public void add(final ClusterSums other) {
+            for (int c = 0; c < counter.length; ++c) {
+                for (int i = 0; i < sumRe[c].length; ++i) {
+                    for (int j = 0; j < sumRe[c].length; ++j) {
+                        sumRe[c][i][j] += other.sumRe[c][i][j];
+                        sumIm[c][i][j] += other.sumIm[c][i][j];
+                    }
+                }
+                counter[c] += other.counter[c];
+            }
+        }
+
+        public static ClusterSums sum(final ClusterSums[] partials, final int numClusters, final int dimension) {
+            final ClusterSums total = new ClusterSums(numClusters, dimension);
+            for (ClusterSums partial : partials) {
+                if (partial != null) {
+                    total.add(partial);
+                }
+            }
+            return total;
+        }
+    }
+
     public static class ClusterInfo {
         int zoneIndex;
         int size;
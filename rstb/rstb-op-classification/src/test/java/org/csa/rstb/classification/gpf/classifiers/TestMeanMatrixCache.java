@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.classification.gpf.classifiers;
+
+import org.junit.Test;
+
+import java.awt.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for MeanMatrixCache.
+ */
+public class TestMeanMatrixCache {
+
+    private static final Rectangle[] tileRectangles = {
+            new Rectangle(0, 0, 4, 3), new Rectangle(4, 0, 2, 3)
+    };
+
+    @Test
+    public void testInMemory() throws Exception {
+        try (MeanMatrixCache cache = new MeanMatrixCache(3, tileRectangles, Long.MAX_VALUE)) {
+            assertTrue(cache.isInMemory());
+            checkCache(cache);
+        }
+    }
+
+    @Test
+    public void testSpillFile() throws Exception {
+        try (MeanMatrixCache cache = new MeanMatrixCache(3, tileRectangles, 0)) {
+            assertFalse(cache.isInMemory());
+            checkCache(cache);
+        }
+    }
+
+    private static void checkCache(final MeanMatrixCache cache) throws Exception {
+        final int[] numLoads = new int[tileRectangles.length];
+
+        for (int pass = 0; pass < 2; ++pass) {
+            for (int t = 0; t < tileRectangles.length; ++t) {
+                final int tileIndex = t;
+                final float[] features = cache.getTile(t, (rectangle, f) -> {
+                    numLoads[tileIndex]++;
+                    final int numPixels = rectangle.width * rectangle.height;
+                    for (int pixel = 0; pixel < numPixels; ++pixel) {
+                        if (pixel == 1) {
+                            cache.putNoData(f, pixel);
+                        } else {
+                            final double[][] Mr = new double[3][3];
+                            final double[][] Mi = new double[3][3];
+                            createMatrix(rectangle.x + pixel, Mr, Mi);
+                            cache.put(Mr, Mi, f, pixel);
+                        }
+                    }
+                });
+
+                final Rectangle rectangle = tileRectangles[t];
+                final double[][] Mr = new double[3][3];
+                final double[][] Mi = new double[3][3];
+                final double[][] expectedRe = new double[3][3];
+                final double[][] expectedIm = new double[3][3];
+                for (int pixel = 0; pixel < rectangle.width * rectangle.height; ++pixel) {
+                    if (pixel == 1) {
+                        assertTrue(cache.isNoData(features, pixel));
+                        continue;
+                    }
+                    assertFalse(cache.isNoData(features, pixel));
+                    cache.get(features, pixel, Mr, Mi);
+                    createMatrix(rectangle.x + pixel, expectedRe, expectedIm);
+                    for (int i = 0; i < 3; ++i) {
+                        for (int j = 0; j < 3; ++j) {
+                            assertEquals(expectedRe[i][j], Mr[i][j], 1e-5);
+                            assertEquals(expectedIm[i][j], Mi[i][j], 1e-5);
+                        }
+                    }
+                }
+            }
+        }
+
+        // each tile is computed only once
+        for (int numLoad : numLoads) {
+            assertEquals(1, numLoad);
+        }
+    }
+
+    private static void createMatrix(final int seed, final double[][] Mr, final double[][] Mi) {
+        for (int i = 0; i < 3; ++i) {
+            Mr[i][i] = seed + i + 1.0;
+            Mi[i][i] = 0.0;
+            for (int j = i + 1; j < 3; ++j) {
+                Mr[i][j] = Mr[j][i] = 0.5 * seed - i + j;
+                Mi[i][j] = 0.25 * seed + i * j + 1.0;
+                Mi[j][i] = -Mi[i][j];
+            }
+        }
+    }
+}
@@ -183,6 +183,8 @@ public final class CrossChannelSNRCorrectionOp extends Operator {
                     dataBuffers[j] = sourceTiles[j].getDataBuffer();
                 }
                 final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+                final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.C4,
+                        sourceProductType, sourceTiles, dataBuffers, halfWindowSize, halfWindowSize);
 
                 for (int y = y0; y < maxY; ++y) {
                     trgIndex.calculateStride(y);
@@ -190,8 +192,7 @@ public final class CrossChannelSNRCorrectionOp extends Operator {
                     for (int x = x0; x < maxX; ++x) {
                         final int tgtIdx = trgIndex.getIndex(x);
 
-                        PolOpUtils.getMeanCovarianceMatrixC4(x, y, halfWindowSize, halfWindowSize,
-                                sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
+                        meanMatrix.getMeanMatrix(x, y, Cr, Ci);
 
                         final double gamma = Math.sqrt((Cr[1][2]*Cr[1][2] + Ci[1][2]*Ci[1][2]) / (Cr[1][1]*Cr[2][2]));
 
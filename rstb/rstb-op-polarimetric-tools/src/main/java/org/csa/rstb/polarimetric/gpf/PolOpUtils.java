@@ -28,6 +28,7 @@ import org.esa.snap.engine_utilities.gpf.TileIndex;
 import org.jblas.DoubleMatrix;
 
 import java.awt.*;
+import java.util.Arrays;
 
 /*
 import Jama.Matrix;
@@ -1130,8 +1131,7 @@ public final class PolOpUtils {
         final int yEd = FastMath.min(y + halfWindowSizeY, sourceImageHeight - 1);
         final int num = (yEd - ySt + 1) * (xEd - xSt + 1);
 
-        final Matrix TrMat = new Matrix(3, 3);
-        final Matrix TiMat = new Matrix(3, 3);
+        clearMatrix(3, Tr, Ti);
 
         if (sourceProductType == PolBandUtils.MATRIX.T3) {
 
@@ -1139,8 +1139,7 @@ public final class PolOpUtils {
                 srcIndex.calculateStride(yy);
                 for (int xx = xSt; xx <= xEd; ++xx) {
                     getCoherencyMatrixT3(srcIndex.getIndex(xx), dataBuffers, tempTr, tempTi);
-                    TrMat.plusEquals(new Matrix(tempTr));
-                    TiMat.plusEquals(new Matrix(tempTi));
+                    addMatrix(3, tempTr, tempTi, Tr, Ti);
                 }
             }
 
@@ -1151,8 +1150,7 @@ public final class PolOpUtils {
                 for (int xx = xSt; xx <= xEd; ++xx) {
                     getCovarianceMatrixC3(srcIndex.getIndex(xx), dataBuffers, tempCr, tempCi);
                     c3ToT3(tempCr, tempCi, tempTr, tempTi);
-                    TrMat.plusEquals(new Matrix(tempTr));
-                    TiMat.plusEquals(new Matrix(tempTi));
+                    addMatrix(3, tempTr, tempTi, Tr, Ti);
                 }
             }
 
@@ -1163,20 +1161,12 @@ public final class PolOpUtils {
                 for (int xx = xSt; xx <= xEd; ++xx) {
                     getComplexScatterMatrix(srcIndex.getIndex(xx), dataBuffers, tempSr, tempSi);
                     computeCoherencyMatrixT3(tempSr, tempSi, tempTr, tempTi);
-                    TrMat.plusEquals(new Matrix(tempTr));
-                    TiMat.plusEquals(new Matrix(tempTi));
+                    addMatrix(3, tempTr, tempTi, Tr, Ti);
                 }
             }
         }
 
-        TrMat.timesEquals(1.0 / num);
-        TiMat.timesEquals(1.0 / num);
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                Tr[i][j] = TrMat.get(i, j);
-                Ti[i][j] = TiMat.get(i, j);
-            }
-        }
+        scaleMatrix(3, Tr, Ti, 1.0 / num);
     }
 
     /**
@@ -1208,8 +1198,7 @@ public final class PolOpUtils {
 
         final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
 
-        final Matrix CrMat = new Matrix(3, 3);
-        final Matrix CiMat = new Matrix(3, 3);
+        clearMatrix(3, Cr, Ci);
 
         if (sourceProductType == PolBandUtils.MATRIX.C3) {
 
@@ -1217,8 +1206,7 @@ public final class PolOpUtils {
                 srcIndex.calculateStride(yy);
                 for (int xx = xSt; xx <= xEd; ++xx) {
                     getCovarianceMatrixC3(srcIndex.getIndex(xx), dataBuffers, tempCr, tempCi);
-                    CrMat.plusEquals(new Matrix(tempCr));
-                    CiMat.plusEquals(new Matrix(tempCi));
+                    addMatrix(3, tempCr, tempCi, Cr, Ci);
                 }
             }
 
@@ -1231,8 +1219,7 @@ public final class PolOpUtils {
                 for (int xx = xSt; xx <= xEd; ++xx) {
                     getCoherencyMatrixT3(srcIndex.getIndex(xx), dataBuffers, tempTr, tempTi);
                     t3ToC3(tempTr, tempTi, tempCr, tempCi);
-                    CrMat.plusEquals(new Matrix(tempCr));
-                    CiMat.plusEquals(new Matrix(tempCi));
+                    addMatrix(3, tempCr, tempCi, Cr, Ci);
                 }
             }
 
@@ -1245,24 +1232,12 @@ public final class PolOpUtils {
                 for (int xx = xSt; xx <= xEd; ++xx) {
                     getComplexScatterMatrix(srcIndex.getIndex(xx), dataBuffers, tempSr, tempSi);
                     computeCovarianceMatrixC3(tempSr, tempSi, tempCr, tempCi);
-                    CrMat.plusEquals(new Matrix(tempCr));
-                    CiMat.plusEquals(new Matrix(tempCi));
+                    addMatrix(3, tempCr, tempCi, Cr, Ci);
                 }
             }
         }
 
-        CrMat.timesEquals(1.0 / num);
-        CiMat.timesEquals(1.0 / num);
-        for (int i = 0; i < 3; i++) {
-            Cr[i][0] = CrMat.get(i, 0);
-            Ci[i][0] = CiMat.get(i, 0);
-
-            Cr[i][1] = CrMat.get(i, 1);
-            Ci[i][1] = CiMat.get(i, 1);
-
-            Cr[i][2] = CrMat.get(i, 2);
-            Ci[i][2] = CiMat.get(i, 2);
-        }
+        scaleMatrix(3, Cr, Ci, 1.0 / num);
     }
 
     public static void getMeanCovarianceMatrixC4(
@@ -1281,32 +1256,42 @@ public final class PolOpUtils {
 
         final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
 
-        final Matrix CrMat = new Matrix(4, 4);
-        final Matrix CiMat = new Matrix(4, 4);
+        clearMatrix(4, Cr, Ci);
 
         for (int yy = ySt; yy <= yEd; ++yy) {
             srcIndex.calculateStride(yy);
             for (int xx = xSt; xx <= xEd; ++xx) {
                 getCovarianceMatrixC4(srcIndex.getIndex(xx), sourceProductType, dataBuffers, tempCr, tempCi);
-                CrMat.plusEquals(new Matrix(tempCr));
-                CiMat.plusEquals(new Matrix(tempCi));
+                addMatrix(4, tempCr, tempCi, Cr, Ci);
             }
         }
 
-        CrMat.timesEquals(1.0 / num);
-        CiMat.timesEquals(1.0 / num);
-        for (int i = 0; i < 4; i++) {
-            Cr[i][0] = CrMat.get(i, 0);
-            Ci[i][0] = CiMat.get(i, 0);
+        scaleMatrix(4, Cr, Ci, 1.0 / num);
+    }
 
-            Cr[i][1] = CrMat.get(i, 1);
-            Ci[i][1] = CiMat.get(i, 1);
+    private static void clearMatrix(final int n, final double[][] Mr, final double[][] Mi) {
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(Mr[i], 0, n, 0.0);
+            Arrays.fill(Mi[i], 0, n, 0.0);
+        }
+    }
 
-            Cr[i][2] = CrMat.get(i, 2);
-            Ci[i][2] = CiMat.get(i, 2);
+    private static void addMatrix(final int n, final double[][] Ar, final double[][] Ai,
+                                  final double[][] Mr, final double[][] Mi) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                Mr[i][j] += Ar[i][j];
+                Mi[i][j] += Ai[i][j];
+            }
+        }
+    }
 
-            Cr[i][3] = CrMat.get(i, 3);
-            Ci[i][3] = CiMat.get(i, 3);
+    private static void scaleMatrix(final int n, final double[][] Mr, final double[][] Mi, final double scale) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                Mr[i][j] *= scale;
+                Mi[i][j] *= scale;
+            }
         }
     }
 
@@ -314,6 +314,10 @@ public final class PolarimetricParametersOp extends Operator {
                     dataBuffers[j] = sourceTiles[j].getDataBuffer();
                 }
                 final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+                final WindowedMeanMatrix meanMatrix = computePolarimetricParam && useMeanMatrix ?
+                        new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.T3, sourceProductType, sourceTiles,
+                                               dataBuffers, window.getHalfWindowSizeX(), window.getHalfWindowSizeY()) :
+                        null;
                 PolarimetricParameters param = null;
 
                 for (int y = y0; y < maxY; ++y) {
@@ -324,10 +328,7 @@ public final class PolarimetricParametersOp extends Operator {
 
                         if (computePolarimetricParam) {
                             if (useMeanMatrix) {
-                                PolOpUtils.getMeanCoherencyMatrix(x, y,
-                                                                  window.getHalfWindowSizeX(), window.getHalfWindowSizeY(),
-                                                                  sourceImageWidth, sourceImageHeight, sourceProductType,
-                                                                  srcIndex, dataBuffers, Tr, Ti);
+                                meanMatrix.getMeanMatrix(x, y, Tr, Ti);
                             } else {
                                 PolOpUtils.getCoherencyMatrixT3(srcIndex.getIndex(x), sourceProductType, dataBuffers, Tr, Ti);
                             }
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.polarimetric.gpf;
+
+import org.esa.s1tbx.commons.polsar.PolBandUtils;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.gpf.Tile;
+import org.esa.snap.engine_utilities.gpf.TileIndex;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Mean coherency or covariance matrix over a sliding window in a source tile.
+ * <p>
+ * Keeps the sum of the matrix elements of each column over the window rows and the sum over the window
+ * columns, and updates them as the window moves, so that each pixel costs a constant amount of work
+ * whatever the window size. Pixels should be visited row by row from left to right as in computeTile.
+ * Windows are clipped to the source tile and, as in PolOpUtils.getMean*, no-data pixels are averaged in.
+ * Pixels with a NaN or infinite matrix element are left out of the sums and counted instead, so that only
+ * the windows containing them give a NaN mean matrix.
+ * <p>
+ * Create one per source tile. Not thread safe.
+ */
+public final class WindowedMeanMatrix {
+
+    public enum MatrixType {T3, C3, C4}
+
+    private final MatrixType matrixType;
+    private final PolBandUtils.MATRIX sourceProductType;
+    private final ProductData[] dataBuffers;
+    private final TileIndex srcIndex;
+    private final int halfWindowSizeX;
+    private final int halfWindowSizeY;
+
+    private final int sx0, sy0, sxMax, syMax;   // inclusive bounds of the source tile
+    private final int size;                      // matrix dimension
+    private final int numElems;                  // real values of the upper triangle
+
+    private final double[][] tempRe, tempIm;
+    private final double[][] convRe = new double[3][3], convIm = new double[3][3];
+    private final double[][] scatterRe = new double[2][2], scatterIm = new double[2][2];
+    private final double[] pixelElems;
+    private final double[] colSums;             // per column of the source tile, numElems each
+    private final double[] winSums;
+    private final int[] colNonFinite;           // per column of the source tile, pixels left out of colSums
+    private int winNonFinite = 0;
+
+    // rows summed into colSums, empty if rowEnd < rowStart
+    private int rowStart = 0, rowEnd = -1;
+    // columns summed into winSums
+    private int colStart = 0, colEnd = -1;
+    private boolean winValid = false;
+
+    /**
+     * @param matrixType        The matrix to average.
+     * @param sourceProductType The source product type.
+     * @param sourceTiles       The source tiles for all bands.
+     * @param dataBuffers       Source tile data buffers.
+     * @param halfWindowSizeX   The sliding window width / 2.
+     * @param halfWindowSizeY   The sliding window height / 2.
+     */
+    public WindowedMeanMatrix(final MatrixType matrixType, final PolBandUtils.MATRIX sourceProductType,
+                              final Tile[] sourceTiles, final ProductData[] dataBuffers,
+                              final int halfWindowSizeX, final int halfWindowSizeY) {
+        this.matrixType = matrixType;
+        this.sourceProductType = sourceProductType;
+        this.dataBuffers = dataBuffers;
+        this.halfWindowSizeX = halfWindowSizeX;
+        this.halfWindowSizeY = halfWindowSizeY;
+        this.srcIndex = new TileIndex(sourceTiles[0]);
+
+        final Rectangle srcRect = sourceTiles[0].getRectangle();
+        sx0 = srcRect.x;
+        sy0 = srcRect.y;
+        sxMax = srcRect.x + srcRect.width - 1;
+        syMax = srcRect.y + srcRect.height - 1;
+
+        size = matrixType == MatrixType.C4 ? 4 : 3;
+        numElems = size * size;
+        tempRe = new double[size][size];
+        tempIm = new double[size][size];
+        pixelElems = new double[numElems];
+        colSums = new double[srcRect.width * numElems];
+        colNonFinite = new int[srcRect.width];
+        winSums = new double[numElems];
+    }
+
+    /**
+     * Get the mean matrix for the window centred at the given pixel.
+     *
+     * @param x  X coordinate of the given pixel.
+     * @param y  Y coordinate of the given pixel.
+     * @param Mr The real part of the mean matrix.
+     * @param Mi The imaginary part of the mean matrix.
+     */
+    public void getMeanMatrix(final int x, final int y, final double[][] Mr, final double[][] Mi) {
+
+        final int ySt = Math.max(y - halfWindowSizeY, sy0);
+        final int yEd = Math.min(y + halfWindowSizeY, syMax);
+        final int xSt = Math.max(x - halfWindowSizeX, sx0);
+        final int xEd = Math.min(x + halfWindowSizeX, sxMax);
+
+        if (ySt != rowStart || yEd != rowEnd) {
+            if (rowStart <= ySt && rowEnd <= yEd && ySt <= rowEnd + 1) {
+                for (int yy = rowStart; yy < ySt; ++yy) {
+                    addRow(yy, -1.0);
+                }
+                for (int yy = rowEnd + 1; yy <= yEd; ++yy) {
+                    addRow(yy, 1.0);
+                }
+            } else {
+                Arrays.fill(colSums, 0.0);
+                Arrays.fill(colNonFinite, 0);
+                for (int yy = ySt; yy <= yEd; ++yy) {
+                    addRow(yy, 1.0);
+                }
+            }
+            rowStart = ySt;
+            rowEnd = yEd;
+            winValid = false;
+        }
+
+        if (!winValid || xSt != colStart || xEd != colEnd) {
+            if (winValid && colStart <= xSt && colEnd <= xEd && xSt <= colEnd + 1) {
+                for (int xx = colStart; xx < xSt; ++xx) {
+                    addColumn(xx, -1.0);
+                }
+                for (int xx = colEnd + 1; xx <= xEd; ++xx) {
+                    addColumn(xx, 1.0);
+                }
+            } else {
+                Arrays.fill(winSums, 0.0);
+                winNonFinite = 0;
+                for (int xx = xSt; xx <= xEd; ++xx) {
+                    addColumn(xx, 1.0);
+                }
+            }
+            colStart = xSt;
+            colEnd = xEd;
+            winValid = true;
+        }
+
+        if (winNonFinite > 0) {
+            for (int i = 0; i < size; ++i) {
+                Arrays.fill(Mr[i], 0, size, Double.NaN);
+                Arrays.fill(Mi[i], 0, size, Double.NaN);
+            }
+            return;
+        }
+
+        final double scale = 1.0 / ((yEd - ySt + 1) * (xEd - xSt + 1));
+        int k = 0;
+        for (int i = 0; i < size; ++i) {
+            Mr[i][i] = winSums[k++] * scale;
+            Mi[i][i] = 0.0;
+            for (int j = i + 1; j < size; ++j) {
+                final double re = winSums[k++] * scale;
+                final double im = winSums[k++] * scale;
+                Mr[i][j] = re;
+                Mi[i][j] = im;
+                Mr[j][i] = re;
+                Mi[j][i] = -im;
+            }
+        }
+    }
+
+    private void addColumn(final int x, final double sign) {
+        final int offset = (x - sx0) * numElems;
+        if (sign > 0) {
+            for (int e = 0; e < numElems; ++e) {
+                winSums[e] += colSums[offset + e];
+            }
+            winNonFinite += colNonFinite[x - sx0];
+        } else {
+            for (int e = 0; e < numElems; ++e) {
+                winSums[e] -= colSums[offset + e];
+            }
+            winNonFinite -= colNonFinite[x - sx0];
+        }
+    }
+
+    private void addRow(final int y, final double sign) {
+        srcIndex.calculateStride(y);
+        int offset = 0;
+        for (int x = sx0; x <= sxMax; ++x) {
+            if (!getPixelElements(srcIndex.getIndex(x))) {
+                colNonFinite[x - sx0] += sign > 0 ? 1 : -1;
+            } else if (sign > 0) {
+                for (int e = 0; e < numElems; ++e) {
+                    colSums[offset + e] += pixelElems[e];
+                }
+            } else {
+                for (int e = 0; e < numElems; ++e) {
+                    colSums[offset + e] -= pixelElems[e];
+                }
+            }
+            offset += numElems;
+        }
+    }
+
+    /**
+     * Pack the diagonal and the upper triangle of the pixel's matrix row by row as re, or re and im off the diagonal
+     *
+     * @return false if an element is NaN or infinite
+     */
+    private boolean getPixelElements(final int index) {
+        switch (matrixType) {
+            case T3:
+                if (sourceProductType == PolBandUtils.MATRIX.T3) {
+                    PolOpUtils.getCoherencyMatrixT3(index, dataBuffers, tempRe, tempIm);
+                } else if (sourceProductType == PolBandUtils.MATRIX.C3) {
+                    PolOpUtils.getCovarianceMatrixC3(index, dataBuffers, convRe, convIm);
+                    PolOpUtils.c3ToT3(convRe, convIm, tempRe, tempIm);
+                } else if (sourceProductType == PolBandUtils.MATRIX.FULL) {
+                    PolOpUtils.getComplexScatterMatrix(index, dataBuffers, scatterRe, scatterIm);
+                    PolOpUtils.computeCoherencyMatrixT3(scatterRe, scatterIm, tempRe, tempIm);
+                } else {
+                    PolOpUtils.getCoherencyMatrixT3(index, sourceProductType, dataBuffers, tempRe, tempIm);
+                }
+                break;
+            case C3:
+                if (sourceProductType == PolBandUtils.MATRIX.C3) {
+                    PolOpUtils.getCovarianceMatrixC3(index, dataBuffers, tempRe, tempIm);
+                } else if (sourceProductType == PolBandUtils.MATRIX.T3) {
+                    PolOpUtils.getCoherencyMatrixT3(index, dataBuffers, convRe, convIm);
+                    PolOpUtils.t3ToC3(convRe, convIm, tempRe, tempIm);
+                } else if (sourceProductType == PolBandUtils.MATRIX.FULL) {
+                    PolOpUtils.getComplexScatterMatrix(index, dataBuffers, scatterRe, scatterIm);
+                    PolOpUtils.computeCovarianceMatrixC3(scatterRe, scatterIm, tempRe, tempIm);
+                } else {
+                    PolOpUtils.getCovarianceMatrixC3(index, sourceProductType, dataBuffers, tempRe, tempIm);
+                }
+                break;
+            case C4:
+                if (sourceProductType == PolBandUtils.MATRIX.C4) {
+                    PolOpUtils.getCovarianceMatrixC4(index, dataBuffers, tempRe, tempIm);
+                } else if (sourceProductType == PolBandUtils.MATRIX.FULL) {
+                    PolOpUtils.getComplexScatterMatrix(index, dataBuffers, scatterRe, scatterIm);
+                    PolOpUtils.computeCovarianceMatrixC4(scatterRe, scatterIm, tempRe, tempIm);
+                } else {
+                    PolOpUtils.getCovarianceMatrixC4(index, sourceProductType, dataBuffers, tempRe, tempIm);
+                }
+                break;
+        }
+
+        int k = 0;
+        for (int i = 0; i < size; ++i) {
+            pixelElems[k++] = tempRe[i][i];
+            for (int j = i + 1; j < size; ++j) {
+                pixelElems[k++] = tempRe[i][j];
+                pixelElems[k++] = tempIm[i][j];
+            }
+        }
+
+        for (int e = 0; e < numElems; ++e) {
+            if (Double.isNaN(pixelElems[e]) || Double.isInfinite(pixelElems[e])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -16,6 +16,7 @@
 package org.csa.rstb.polarimetric.gpf.decompositions;
 
 import org.csa.rstb.polarimetric.gpf.PolOpUtils;
+import org.csa.rstb.polarimetric.gpf.WindowedMeanMatrix;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.ProductData;
@@ -103,7 +104,8 @@ public class Cloude extends DecompositionBase implements Decomposition {
             final ProductData[] dataBuffers = new ProductData[bandList.srcBands.length];
             final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
             PolOpUtils.getDataBuffer(op, bandList.srcBands, sourceRectangle, sourceProductType, sourceTiles, dataBuffers);
-            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+            final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.T3,
+                    sourceProductType, sourceTiles, dataBuffers, halfWindowSizeX, halfWindowSizeY);
 
             final double[][] EigenVectRe = new double[3][3];
             final double[][] EigenVectIm = new double[3][3];
@@ -114,8 +116,7 @@ public class Cloude extends DecompositionBase implements Decomposition {
                 trgIndex.calculateStride(y);
                 for (int x = x0; x < maxX; ++x) {
 
-                    PolOpUtils.getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY, sourceImageWidth, sourceImageHeight,
-                            sourceProductType, srcIndex, dataBuffers, Tr, Ti);
+                    meanMatrix.getMeanMatrix(x, y, Tr, Ti);
 
                     PolOpUtils.eigenDecomposition(3, Tr, Ti, EigenVectRe, EigenVectIm, EigenVal);
 
@@ -16,6 +16,7 @@
 package org.csa.rstb.polarimetric.gpf.decompositions;
 
 import org.csa.rstb.polarimetric.gpf.PolOpUtils;
+import org.csa.rstb.polarimetric.gpf.WindowedMeanMatrix;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.dataop.downloadable.StatusProgressMonitor;
@@ -89,9 +90,6 @@ public class DecompositionBase {
         final MinMax minMaxValue = new MinMax();
         final Dimension tileSize = new Dimension(256, 256);
         final Rectangle[] tileRectangles = OperatorUtils.getAllTileRectangles(op.getSourceProduct(), tileSize, 25);
-        final double[][] Cr = new double[3][3];
-        final double[][] Ci = new double[3][3];
-
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Computing min max span... ", tileRectangles.length);
 
@@ -112,6 +110,8 @@ public class DecompositionBase {
 
                     final Tile[] sourceTiles = new Tile[bandList.srcBands.length];
                     final ProductData[] dataBuffers = new ProductData[bandList.srcBands.length];
+                    final double[][] Cr = new double[3][3];
+                    final double[][] Ci = new double[3][3];
 
                     @Override
                     public void run() {
@@ -120,12 +120,15 @@ public class DecompositionBase {
                             PolOpUtils.getDataBuffer(
                                     op, bandList.srcBands, rectangle, sourceProductType, sourceTiles, dataBuffers);
 
+                            final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(
+                                    WindowedMeanMatrix.MatrixType.C3, sourceProductType, sourceTiles, dataBuffers,
+                                    halfWindowSizeX, halfWindowSizeX);
+
                             for (int y = rectangle.y; y < yMax; ++y) {
 
                                 for (int x = rectangle.x; x < xMax; ++x) {
 
-                                    PolOpUtils.getMeanCovarianceMatrix(x, y, halfWindowSizeX, halfWindowSizeX,
-                                            sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
+                                    meanMatrix.getMeanMatrix(x, y, Cr, Ci);
 
                                     span = Cr[0][0] + Cr[1][1] + Cr[2][2];
 
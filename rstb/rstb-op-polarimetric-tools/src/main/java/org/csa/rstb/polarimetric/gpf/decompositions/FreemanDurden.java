@@ -16,6 +16,7 @@
 package org.csa.rstb.polarimetric.gpf.decompositions;
 
 import org.csa.rstb.polarimetric.gpf.PolOpUtils;
+import org.csa.rstb.polarimetric.gpf.WindowedMeanMatrix;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.ProductData;
@@ -107,18 +108,15 @@ public class FreemanDurden extends DecompositionBase implements Decomposition {
             final ProductData[] dataBuffers = new ProductData[bandList.srcBands.length];
             final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
             PolOpUtils.getDataBuffer(op, bandList.srcBands, sourceRectangle, sourceProductType, sourceTiles, dataBuffers);
-
-            //final MeanCovariance covariance = new MeanCovariance(sourceProductType, sourceTiles,
-            //    dataBuffers, halfWindowSizeX, halfWindowSizeY);
+            final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.C3,
+                    sourceProductType, sourceTiles, dataBuffers, halfWindowSizeX, halfWindowSizeY);
 
             double pd, pv, ps;
             for (int y = y0; y < maxY; ++y) {
                 trgIndex.calculateStride(y);
                 for (int x = x0; x < maxX; ++x) {
 
-                    PolOpUtils.getMeanCovarianceMatrix(x, y, halfWindowSizeX, halfWindowSizeY,
-                            sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
-                    //covariance.getMeanCovarianceMatrix(x, y, Cr, Ci);
+                    meanMatrix.getMeanMatrix(x, y, Cr, Ci);
 
                     final FDD data = getFreemanDurdenDecomposition(Cr, Ci);
 
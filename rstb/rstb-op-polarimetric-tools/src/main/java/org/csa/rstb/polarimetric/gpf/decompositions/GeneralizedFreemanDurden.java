@@ -16,6 +16,7 @@
 package org.csa.rstb.polarimetric.gpf.decompositions;
 
 import org.csa.rstb.polarimetric.gpf.PolOpUtils;
+import org.csa.rstb.polarimetric.gpf.WindowedMeanMatrix;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.ProductData;
@@ -111,15 +112,15 @@ public class GeneralizedFreemanDurden extends DecompositionBase implements Decom
             final ProductData[] dataBuffers = new ProductData[bandList.srcBands.length];
             final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
             PolOpUtils.getDataBuffer(op, bandList.srcBands, sourceRectangle, sourceProductType, sourceTiles, dataBuffers);
-            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+            final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.T3,
+                    sourceProductType, sourceTiles, dataBuffers, halfWindowSizeX, halfWindowSizeY);
 
             double pd, pv, ps;
             for (int y = y0; y < maxY; ++y) {
                 trgIndex.calculateStride(y);
                 for (int x = x0; x < maxX; ++x) {
 
-                    PolOpUtils.getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY,srcImageWidth,
-                            srcImageHeight, sourceProductType, srcIndex, dataBuffers, Tr, Ti);
+                    meanMatrix.getMeanMatrix(x, y, Tr, Ti);
 
                     final FDD data = getGeneralizedFreemanDurdenDecomposition(Tr, Ti);
 
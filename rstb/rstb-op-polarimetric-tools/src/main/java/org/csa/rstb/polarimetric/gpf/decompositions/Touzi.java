@@ -17,6 +17,7 @@ package org.csa.rstb.polarimetric.gpf.decompositions;
 
 import org.apache.commons.math3.util.FastMath;
 import org.csa.rstb.polarimetric.gpf.PolOpUtils;
+import org.csa.rstb.polarimetric.gpf.WindowedMeanMatrix;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.s1tbx.commons.polsar.PolBandUtils.MATRIX;
 import org.esa.snap.core.datamodel.Band;
@@ -140,15 +141,15 @@ public class Touzi extends DecompositionBase implements Decomposition {
             final ProductData[] dataBuffers = new ProductData[bandList.srcBands.length];
             final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
             PolOpUtils.getDataBuffer(op, bandList.srcBands, sourceRectangle, sourceProductType, sourceTiles, dataBuffers);
-            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+            final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.T3,
+                    sourceProductType, sourceTiles, dataBuffers, halfWindowSizeX, halfWindowSizeY);
 
             for (int y = y0; y < maxY; ++y) {
                 trgIndex.calculateStride(y);
                 for (int x = x0; x < maxX; ++x) {
                     final int idx = trgIndex.getIndex(x);
 
-                    PolOpUtils.getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY, sourceImageWidth, sourceImageHeight,
-                            sourceProductType, srcIndex, dataBuffers, Tr, Ti);
+                    meanMatrix.getMeanMatrix(x, y, Tr, Ti);
 
                     final TDD data = getTouziDecomposition(Tr, Ti);
 
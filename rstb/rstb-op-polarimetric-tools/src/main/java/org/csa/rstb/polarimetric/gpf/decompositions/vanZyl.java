@@ -16,6 +16,7 @@
 package org.csa.rstb.polarimetric.gpf.decompositions;
 
 import org.csa.rstb.polarimetric.gpf.PolOpUtils;
+import org.csa.rstb.polarimetric.gpf.WindowedMeanMatrix;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.s1tbx.commons.polsar.PolBandUtils.MATRIX;
 import org.esa.snap.core.datamodel.Band;
@@ -99,8 +100,6 @@ public class vanZyl extends DecompositionBase implements Decomposition {
 
             final double[][] Cr = new double[3][3];
             final double[][] Ci = new double[3][3];
-            final double[][] Tr = new double[3][3];
-            final double[][] Ti = new double[3][3];
 
             if (!bandList.spanMinMaxSet) {
                 setSpanMinMax(op, bandList);
@@ -110,7 +109,8 @@ public class vanZyl extends DecompositionBase implements Decomposition {
             final ProductData[] dataBuffers = new ProductData[bandList.srcBands.length];
             final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h);
             PolOpUtils.getDataBuffer(op, bandList.srcBands, sourceRectangle, sourceProductType, sourceTiles, dataBuffers);
-            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+            final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.C3,
+                    sourceProductType, sourceTiles, dataBuffers, halfWindowSizeX, halfWindowSizeY);
 
             double C11, C22, C33, ratio, HHHHv, VVVVv, HVHVv, HHVVvre, C13_re, C13_im, sq_rt, alp1, alp2, alp3, alpmin, FV;
             double alpha, mu, rhoRe, rhoIm, rho2, eta, delta, lambda1, lambda2, tmp1, tmp2;
@@ -119,19 +119,7 @@ public class vanZyl extends DecompositionBase implements Decomposition {
                 trgIndex.calculateStride(y);
                 for (int x = x0; x < maxX; ++x) {
 
-                    if (sourceProductType == MATRIX.FULL ||
-                            sourceProductType == MATRIX.C3) {
-
-                        PolOpUtils.getMeanCovarianceMatrix(x, y, halfWindowSizeX, halfWindowSizeY,
-                                sourceProductType, sourceTiles, dataBuffers, Cr, Ci);
-
-                    } else if (sourceProductType == MATRIX.T3) {
-
-                        PolOpUtils.getMeanCoherencyMatrix(x, y, halfWindowSizeX, halfWindowSizeY,
-                              sourceImageWidth, sourceImageHeight, sourceProductType, srcIndex, dataBuffers, Tr, Ti);
-
-                        PolOpUtils.t3ToC3(Tr, Ti, Cr, Ci);
-                    }
+                    meanMatrix.getMeanMatrix(x, y, Cr, Ci);
 
                     final VDD data = getVanZylDecomposition(Cr, Ci);
 
@@ -16,8 +16,8 @@
 package org.csa.rstb.polarimetric.gpf.specklefilters;
 
 import org.csa.rstb.polarimetric.gpf.DualPolOpUtils;
-import org.csa.rstb.polarimetric.gpf.PolOpUtils;
 import org.csa.rstb.polarimetric.gpf.PolarimetricSpeckleFilterOp;
+import org.csa.rstb.polarimetric.gpf.WindowedMeanMatrix;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
@@ -135,8 +135,6 @@ public class BoxCar implements SpeckleFilter {
         final int x0 = targetRectangle.x, y0 = targetRectangle.y;
         final int w = targetRectangle.width,  h = targetRectangle.height;
         final int maxY = y0 + h, maxX = x0 + w;
-        final int sourceImageWidth = sourceProduct.getSceneRasterWidth();
-        final int sourceImageHeight = sourceProduct.getSceneRasterHeight();
         //System.out.println("boxcar x0 = " + x0 + ", y0 = " + y0 + ", w = " + w + ", h = " + h);
 
         final TileIndex trgIndex = new TileIndex(targetTiles.get(targetProduct.getBandAt(0)));
@@ -150,7 +148,8 @@ public class BoxCar implements SpeckleFilter {
                 dataBuffers[i] = sourceTiles[i].getDataBuffer();
             }
 
-            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+            final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.T3,
+                    sourceProductType, sourceTiles, dataBuffers, halfFilterSize, halfFilterSize);
             final double[][] Tr = new double[3][3];
             final double[][] Ti = new double[3][3];
 
@@ -159,9 +158,7 @@ public class BoxCar implements SpeckleFilter {
                 for (int x = x0; x < maxX; ++x) {
                     final int idx = trgIndex.getIndex(x);
 
-                    // todo: Here for every pixel T3 is computed 5 times if the filter size is 5, should save some result
-                    PolOpUtils.getMeanCoherencyMatrix(x, y, halfFilterSize, halfFilterSize, sourceImageWidth, sourceImageHeight,
-                                                      sourceProductType, srcIndex, dataBuffers, Tr, Ti);
+                    meanMatrix.getMeanMatrix(x, y, Tr, Ti);
 
                     for (Band targetBand : bandList.targetBands) {
                         final String targetBandName = targetBand.getName();
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.csa.rstb.polarimetric.gpf;
+
+import org.esa.s1tbx.commons.polsar.PolBandUtils;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.gpf.Tile;
+import org.esa.snap.core.gpf.internal.TileImpl;
+import org.esa.snap.engine_utilities.gpf.TileIndex;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BandedSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares WindowedMeanMatrix with the per window mean matrices of PolOpUtils
+ */
+public class TestWindowedMeanMatrix {
+
+    private static final int width = 47;
+    private static final int height = 39;
+    private static final int[][] halfSizes = {{0, 0}, {1, 1}, {2, 3}, {5, 5}, {30, 2}};
+
+    @Test
+    public void testMeanCoherencyMatrix() {
+        final Rectangle srcRect = new Rectangle(0, 0, width, height);
+        final PolBandUtils.MATRIX[] sourceTypes = {PolBandUtils.MATRIX.T3, PolBandUtils.MATRIX.C3,
+                PolBandUtils.MATRIX.FULL};
+
+        final double[][] expRe = new double[3][3], expIm = new double[3][3];
+        for (PolBandUtils.MATRIX sourceType : sourceTypes) {
+            final Tile[] sourceTiles = createTiles(srcRect, getNumBands(sourceType), 21);
+            final ProductData[] dataBuffers = getDataBuffers(sourceTiles);
+            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+
+            for (int[] half : halfSizes) {
+                final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.T3,
+                        sourceType, sourceTiles, dataBuffers, half[0], half[1]);
+                compare(meanMatrix, srcRect, 3, (x, y) -> PolOpUtils.getMeanCoherencyMatrix(
+                        x, y, half[0], half[1], width, height, sourceType, srcIndex, dataBuffers, expRe, expIm),
+                        expRe, expIm);
+            }
+        }
+    }
+
+    @Test
+    public void testMeanCovarianceMatrix() {
+        final Rectangle srcRect = new Rectangle(120, 64, width, height);
+        final PolBandUtils.MATRIX[] sourceTypes = {PolBandUtils.MATRIX.C3, PolBandUtils.MATRIX.T3,
+                PolBandUtils.MATRIX.FULL};
+
+        final double[][] expRe = new double[3][3], expIm = new double[3][3];
+        for (PolBandUtils.MATRIX sourceType : sourceTypes) {
+            final Tile[] sourceTiles = createTiles(srcRect, getNumBands(sourceType), 22);
+            final ProductData[] dataBuffers = getDataBuffers(sourceTiles);
+
+            for (int[] half : halfSizes) {
+                final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.C3,
+                        sourceType, sourceTiles, dataBuffers, half[0], half[1]);
+                compare(meanMatrix, srcRect, 3, (x, y) -> PolOpUtils.getMeanCovarianceMatrix(
+                        x, y, half[0], half[1], sourceType, sourceTiles, dataBuffers, expRe, expIm),
+                        expRe, expIm);
+            }
+        }
+    }
+
+    @Test
+    public void testMeanCovarianceMatrixC4() {
+        final Rectangle srcRect = new Rectangle(7, 300, width, height);
+        final PolBandUtils.MATRIX[] sourceTypes = {PolBandUtils.MATRIX.C4, PolBandUtils.MATRIX.FULL};
+
+        final double[][] expRe = new double[4][4], expIm = new double[4][4];
+        for (PolBandUtils.MATRIX sourceType : sourceTypes) {
+            final Tile[] sourceTiles = createTiles(srcRect, getNumBands(sourceType), 23);
+            final ProductData[] dataBuffers = getDataBuffers(sourceTiles);
+
+            for (int[] half : halfSizes) {
+                final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.C4,
+                        sourceType, sourceTiles, dataBuffers, half[0], half[1]);
+                compare(meanMatrix, srcRect, 4, (x, y) -> PolOpUtils.getMeanCovarianceMatrixC4(
+                        x, y, half[0], half[1], sourceType, sourceTiles, dataBuffers, expRe, expIm),
+                        expRe, expIm);
+            }
+        }
+    }
+
+    /**
+     * A NaN or infinite pixel must only spoil the windows that contain it
+     */
+    @Test
+    public void testNonFinitePixels() {
+        final Rectangle srcRect = new Rectangle(0, 0, width, height);
+        final PolBandUtils.MATRIX[] sourceTypes = {PolBandUtils.MATRIX.T3, PolBandUtils.MATRIX.FULL};
+
+        final double[][] expRe = new double[3][3], expIm = new double[3][3];
+        for (PolBandUtils.MATRIX sourceType : sourceTypes) {
+            final Tile[] sourceTiles = createTiles(srcRect, getNumBands(sourceType), 24);
+            sourceTiles[0].setSample(srcRect.x + 10, srcRect.y + 8, Double.NaN);
+            sourceTiles[5].setSample(srcRect.x + 30, srcRect.y + 20, Double.POSITIVE_INFINITY);
+            sourceTiles[2].setSample(srcRect.x, srcRect.y + height - 1, Double.NEGATIVE_INFINITY);
+            final ProductData[] dataBuffers = getDataBuffers(sourceTiles);
+            final TileIndex srcIndex = new TileIndex(sourceTiles[0]);
+
+            for (int[] half : halfSizes) {
+                final WindowedMeanMatrix meanMatrix = new WindowedMeanMatrix(WindowedMeanMatrix.MatrixType.T3,
+                        sourceType, sourceTiles, dataBuffers, half[0], half[1]);
+                compare(meanMatrix, srcRect, 3, (x, y) -> PolOpUtils.getMeanCoherencyMatrix(
+                        x, y, half[0], half[1], width, height, sourceType, srcIndex, dataBuffers, expRe, expIm),
+                        expRe, expIm);
+            }
+        }
+    }
+
+    private interface MeanFunction {
+        void compute(int x, int y);
+    }
+
+    /**
+     * Visits a target rectangle inside the source tile and then the whole source tile row by row as computeTile
+     * does, so the windows clipped at all four edges are included. Where the expected matrix is not finite the
+     * window holds a NaN or infinite pixel and the whole mean matrix must be NaN.
+     */
+    private static void compare(final WindowedMeanMatrix meanMatrix, final Rectangle srcRect, final int size,
+                                final MeanFunction expected, final double[][] expRe, final double[][] expIm) {
+        final double[][] Mr = new double[size][size];
+        final double[][] Mi = new double[size][size];
+        final Rectangle[] targets = {new Rectangle(srcRect.x + 5, srcRect.y + 4, 20, 17), srcRect};
+        for (Rectangle target : targets) {
+            for (int y = target.y; y < target.y + target.height; ++y) {
+                for (int x = target.x; x < target.x + target.width; ++x) {
+                    expected.compute(x, y);
+                    meanMatrix.getMeanMatrix(x, y, Mr, Mi);
+                    final double nonFinite = isFinite(expRe, expIm) ? 0.0 : Double.NaN;
+                    for (int i = 0; i < size; ++i) {
+                        for (int j = 0; j < size; ++j) {
+                            assertEquals(expRe[i][j] + nonFinite, Mr[i][j], 1e-9);
+                            assertEquals(expIm[i][j] + nonFinite, Mi[i][j], 1e-9);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isFinite(final double[][] Mr, final double[][] Mi) {
+        for (int i = 0; i < Mr.length; ++i) {
+            for (int j = 0; j < Mr.length; ++j) {
+                if (Double.isNaN(Mr[i][j]) || Double.isInfinite(Mr[i][j]) ||
+                        Double.isNaN(Mi[i][j]) || Double.isInfinite(Mi[i][j])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int getNumBands(final PolBandUtils.MATRIX sourceType) {
+        switch (sourceType) {
+            case FULL:
+                return 8;
+            case C4:
+                return 16;
+            default:
+                return 9;
+        }
+    }
+
+    /**
+     * Random band values with a block of no data and scattered no data pixels, which are zero in all bands
+     */
+    private static Tile[] createTiles(final Rectangle srcRect, final int numBands, final long seed) {
+        final Random random = new Random(seed);
+        final boolean[] noData = new boolean[srcRect.width * srcRect.height];
+        for (int y = 0; y < srcRect.height; ++y) {
+            for (int x = 0; x < srcRect.width; ++x) {
+                noData[y * srcRect.width + x] = (x < 6 && y > 28) || random.nextDouble() < 0.05;
+            }
+        }
+
+        final Product product = new Product("test", "test",
+                                            srcRect.x + srcRect.width + 10, srcRect.y + srcRect.height + 10);
+        final Tile[] tiles = new Tile[numBands];
+        for (int b = 0; b < numBands; ++b) {
+            final Band band = product.addBand("band" + b, ProductData.TYPE_FLOAT32);
+            final WritableRaster raster = Raster.createWritableRaster(
+                    new BandedSampleModel(DataBuffer.TYPE_FLOAT, srcRect.width, srcRect.height, 1),
+                    new Point(srcRect.x, srcRect.y));
+            for (int y = 0; y < srcRect.height; ++y) {
+                for (int x = 0; x < srcRect.width; ++x) {
+                    final double value = noData[y * srcRect.width + x] ? 0.0 : random.nextGaussian();
+                    raster.setSample(srcRect.x + x, srcRect.y + y, 0, value);
+                }
+            }
+            tiles[b] = new TileImpl(band, raster);
+        }
+        return tiles;
+    }
+
+    private static ProductData[] getDataBuffers(final Tile[] tiles) {
+        final ProductData[] dataBuffers = new ProductData[tiles.length];
+        for (int b = 0; b < tiles.length; ++b) {
+            dataBuffers[b] = tiles[b].getDataBuffer();
+        }
+        return dataBuffers;
+    }
+}
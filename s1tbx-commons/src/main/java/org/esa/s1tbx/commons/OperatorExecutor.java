@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons;
+
+import org.esa.snap.core.gpf.OperatorException;
+import org.esa.snap.core.util.SystemUtils;
+import org.esa.snap.runtime.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the tasks of an operator, such as one per GCP, block or burst, on a work stealing pool shared by
+ * all operators instead of starting a thread per task.
+ * <p>
+ * Create one executor per batch of tasks, add the tasks with execute() and wait for them with finish().
+ * The cancellation check of the operator is polled while waiting and the remaining tasks are cancelled
+ * if the operator is cancelled. The first exception thrown by a task is rethrown by finish().
+ * <p>
+ * Tasks usually block in getSourceTile while an upstream tile is computed on another thread, so all workers
+ * of the pool may be blocked at once. finish() therefore runs any task of its batch not yet taken by a worker
+ * on the calling thread, and a batch always makes progress even if the pool is busy with the tasks of other
+ * operators. Waits inside the pool are managed blocks so that the pool may add a worker meanwhile.
+ * <p>
+ * The size of the shared pool can be set with s1tbx.operators.executorThreads.
+ */
+public class OperatorExecutor {
+
+    private static final int DEFAULT_NUM_THREADS = Config.instance().preferences().getInt(
+            "s1tbx.operators.executorThreads", Runtime.getRuntime().availableProcessors());
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static final ForkJoinPool pool = new ForkJoinPool(Math.max(1, DEFAULT_NUM_THREADS), p -> {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+        thread.setName("s1tbx-worker-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, null, false);
+
+    private static final Map<String, TaskMetrics> metricsMap = new ConcurrentHashMap<>();
+
+    private final String operatorName;
+    private final Runnable cancellationCheck;
+    private final TaskMetrics metrics;
+    private final List<Task> tasks = new ArrayList<>();
+
+    /**
+     * @param operatorName      name under which the task metrics are recorded
+     * @param cancellationCheck usually the checkForCancellation method of the operator
+     */
+    public OperatorExecutor(final String operatorName, final Runnable cancellationCheck) {
+        this.operatorName = operatorName;
+        this.cancellationCheck = cancellationCheck;
+        this.metrics = metricsMap.computeIfAbsent(operatorName, k -> new TaskMetrics());
+    }
+
+    public static int getNumThreads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @param operatorName the name given to the executors of an operator
+     * @return the task metrics accumulated by all executors of the operator or null if none have run
+     */
+    public static TaskMetrics getMetrics(final String operatorName) {
+        return metricsMap.get(operatorName);
+    }
+
+    /**
+     * Submit a task to the shared pool
+     *
+     * @param task the task
+     * @throws OperatorException if the operator has been cancelled
+     */
+    public void execute(final Runnable task) throws OperatorException {
+        checkForCancellation();
+
+        final Task t = new Task(task);
+        tasks.add(t);
+        pool.execute(t);
+    }
+
+    /**
+     * Wait for all submitted tasks to complete
+     *
+     * @throws OperatorException if the operator has been cancelled or a task failed
+     */
+    public void finish() throws OperatorException {
+        final long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            // run the tasks no worker has taken yet
+            for (Task task : tasks) {
+                checkForCancellation();
+                task.tryRun();
+            }
+            for (Task task : tasks) {
+                waitFor(task);
+                if (error == null) {
+                    error = task.error;
+                }
+            }
+        } catch (OperatorException | InterruptedException e) {
+            for (Task task : tasks) {
+                task.cancel();
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new OperatorException("Interrupted while waiting for tasks", e);
+            }
+            throw (OperatorException) e;
+        } finally {
+            metrics.waitTimeNanos.add(System.nanoTime() - start);
+            tasks.clear();
+            SystemUtils.LOG.finest(operatorName + ' ' + metrics);
+        }
+
+        if (error != null) {
+            if (error instanceof OperatorException) {
+                throw (OperatorException) error;
+            }
+            throw new OperatorException(error);
+        }
+    }
+
+    private void waitFor(final Task task) throws InterruptedException {
+        while (!task.isDone()) {
+            checkForCancellation();
+            if (ForkJoinTask.inForkJoinPool()) {
+                // let the pool compensate for the blocked worker
+                ForkJoinPool.managedBlock(task);
+            } else {
+                task.done.await(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void checkForCancellation() {
+        if (cancellationCheck != null) {
+            cancellationCheck.run();
+        }
+    }
+
+    /**
+     * A task run by whichever comes first, a worker of the pool or the thread calling finish()
+     */
+    private final class Task implements Runnable, ForkJoinPool.ManagedBlocker {
+        private final Runnable body;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Throwable error;
+
+        Task(final Runnable body) {
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            tryRun();
+        }
+
+        void tryRun() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            final long start = System.nanoTime();
+            try {
+                body.run();
+            } catch (Throwable e) {
+                metrics.numFailed.increment();
+                error = e;
+            } finally {
+                metrics.numTasks.increment();
+                metrics.taskTimeNanos.add(System.nanoTime() - start);
+                done.countDown();
+            }
+        }
+
+        void cancel() {
+            if (claimed.compareAndSet(false, true)) {
+                done.countDown();
+            }
+        }
+
+        boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            // return to poll the cancellation check
+            done.await(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return isDone();
+        }
+    }
+
+    /**
+     * Task counts and times of an operator
+     */
+    public static class TaskMetrics {
+        private final LongAdder numTasks = new LongAdder();
+        private final LongAdder numFailed = new LongAdder();
+        private final LongAdder taskTimeNanos = new LongAdder();
+        private final LongAdder waitTimeNanos = new LongAdder();
+
+        public long getNumTasks() {
+            return numTasks.sum();
+        }
+
+        public long getNumFailed() {
+            return numFailed.sum();
+        }
+
+        public long getTaskTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(taskTimeNanos.sum());
+        }
+
+        public long getWaitTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(waitTimeNanos.sum());
+        }
+
+        @Override
+        public String toString() {
+            return "tasks=" + getNumTasks() + " failed=" + getNumFailed() +
+                    " taskTime=" + getTaskTimeMillis() + "ms waitTime=" + getWaitTimeMillis() + "ms";
+        }
+    }
+}
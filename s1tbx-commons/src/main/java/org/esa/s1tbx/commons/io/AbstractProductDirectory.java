@@ -26,6 +26,7 @@ import org.esa.snap.engine_utilities.gpf.InputProductValidator;
 import org.esa.snap.engine_utilities.gpf.ReaderUtils;
 import org.esa.snap.engine_utilities.util.ZipUtils;
 
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -48,6 +49,7 @@ public abstract class AbstractProductDirectory {
 
     private boolean isSLC = false;
     private boolean isMapProjected;
+    private ZipEntryImageInputStream.Directory zipDirectory = null;
 
     protected transient final Map<String, ImageIOFile> bandImageFileMap = new TreeMap<>();
     protected transient final Map<Band, ImageIOFile.BandInfo> bandMap = new HashMap<>(3);
@@ -263,6 +265,35 @@ public abstract class AbstractProductDirectory {
         return inStream;
     }
 
+    /**
+     * Opens an image for random access. Images stored uncompressed in a zipped product are read in place
+     * from the zip, other zipped images are cached in memory or in the temp folder.
+     *
+     * @param path           the path of the image in the product
+     * @param bandDimensions the size of the image used to choose between memory and file caching
+     * @return the image stream
+     * @throws IOException if the image could not be opened
+     */
+    public ImageInputStream getImageInputStream(final String path, final Dimension bandDimensions) throws IOException {
+        if (isCompressed()) {
+            final ImageInputStream zipEntryStream = ZipEntryImageInputStream.open(getZipDirectory(), path);
+            if (zipEntryStream != null) {
+                return zipEntryStream;
+            }
+        }
+        return ImageIOFile.createImageInputStream(getInputStream(path), bandDimensions);
+    }
+
+    /**
+     * @return the stored entries of the product zip, read once per product
+     */
+    protected synchronized ZipEntryImageInputStream.Directory getZipDirectory() throws IOException {
+        if (zipDirectory == null) {
+            zipDirectory = ZipEntryImageInputStream.Directory.read(baseDir);
+        }
+        return zipDirectory;
+    }
+
     protected File getBaseDir() {
         return baseDir;
     }
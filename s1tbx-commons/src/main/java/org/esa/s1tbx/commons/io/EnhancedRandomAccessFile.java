@@ -36,6 +36,7 @@
 package org.esa.s1tbx.commons.io;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 
@@ -86,6 +87,11 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      */
     public static final int DEFAULT_BUFFER_SIZE = 32768;
 
+    /**
+     * The size of the direct buffer used to read large primitive arrays past the internal buffer.
+     */
+    private static final int DIRECT_BUFFER_SIZE = 1024 * 1024;
+
     /**
      * _more_
      */
@@ -152,6 +158,11 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      */
     protected long minLength = 0;
 
+    /**
+     * Direct buffer for large primitive array reads, allocated on first use.
+     */
+    private ByteBuffer directBuffer = null;
+
     /**
      * _more_
      *
@@ -866,8 +877,16 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      * @throws IOException _more_
      */
     public void readShort(short[] pa, int start, int n) throws IOException {
-        for (int i = start, end = n + start; i < end; i++) {
-            pa[i] = readShort();
+        final int end = n + start;
+        while (start < end) {
+            final ByteBuffer bb = nextBulkBuffer(end - start, 2);
+            if (bb == null) {
+                pa[start++] = readShort();
+                continue;
+            }
+            final int count = bb.remaining() / 2;
+            bb.asShortBuffer().get(pa, start, count);
+            start += count;
         }
     }
 
@@ -1020,8 +1039,16 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      * @throws IOException  if an I/O error occurs.
      */
     public void readInt(int[] pa, int start, int n) throws IOException {
-        for (int i = start, end = n + start; i < end; i++) {
-            pa[i] = readInt();
+        final int end = n + start;
+        while (start < end) {
+            final ByteBuffer bb = nextBulkBuffer(end - start, 4);
+            if (bb == null) {
+                pa[start++] = readInt();
+                continue;
+            }
+            final int count = bb.remaining() / 4;
+            bb.asIntBuffer().get(pa, start, count);
+            start += count;
         }
     }
 
@@ -1083,8 +1110,16 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      * @throws IOException _more_
      */
     public void readLong(long[] pa, int start, int n) throws IOException {
-        for (int i = start, end = n + start; i < end; i++) {
-            pa[i] = readLong();
+        final int end = n + start;
+        while (start < end) {
+            final ByteBuffer bb = nextBulkBuffer(end - start, 8);
+            if (bb == null) {
+                pa[start++] = readLong();
+                continue;
+            }
+            final int count = bb.remaining() / 8;
+            bb.asLongBuffer().get(pa, start, count);
+            start += count;
         }
     }
 
@@ -1117,8 +1152,16 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      * @throws IOException _more_
      */
     public void readFloat(float[] pa, int start, int n) throws IOException {
-        for (int i = start, end = n + start; i < end; i++) {
-            pa[i] = Float.intBitsToFloat(readInt());
+        final int end = n + start;
+        while (start < end) {
+            final ByteBuffer bb = nextBulkBuffer(end - start, 4);
+            if (bb == null) {
+                pa[start++] = Float.intBitsToFloat(readInt());
+                continue;
+            }
+            final int count = bb.remaining() / 4;
+            bb.asFloatBuffer().get(pa, start, count);
+            start += count;
         }
     }
 
@@ -1151,9 +1194,81 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      * @throws IOException _more_
      */
     public void readDouble(double[] pa, int start, int n) throws IOException {
-        for (int i = start, end = n + start; i < end; i++) {
-            pa[i] = Double.longBitsToDouble(readLong());
+        final int end = n + start;
+        while (start < end) {
+            final ByteBuffer bb = nextBulkBuffer(end - start, 8);
+            if (bb == null) {
+                pa[start++] = Double.longBitsToDouble(readLong());
+                continue;
+            }
+            final int count = bb.remaining() / 8;
+            bb.asDoubleBuffer().get(pa, start, count);
+            start += count;
+        }
+    }
+
+    /**
+     * Gives the bytes of the next whole elements of a primitive array read, in the current byte order,
+     * and moves the eraf position past them. Elements are taken from the internal buffer when it holds
+     * any. Large read only requests continue with direct reads from the channel into a direct buffer,
+     * bypassing the internal buffer.
+     *
+     * @param n        the number of elements still wanted
+     * @param elemSize the size of an element in bytes
+     * @return a buffer holding between 1 and n elements, or null if the next element straddles the end
+     * of the internal buffer and has to be read on its own
+     * @throws EOFException if the end of the eraf is reached
+     * @throws IOException  if an I/O error occurs.
+     */
+    private ByteBuffer nextBulkBuffer(final int n, final int elemSize) throws IOException {
+        if (filePosition < bufferStart || filePosition >= dataEnd) {
+            if (readonly && (long) n * elemSize >= buffer.length) {
+                return readDirect(n, elemSize);
+            }
+            seek(filePosition);
+            if (endOfFile) {
+                throw new EOFException();
+            }
+        }
+
+        final int available = (int) (dataEnd - filePosition);
+        if (available < elemSize) {
+            return null;
+        }
+        final int length = Math.min(available / elemSize, n) * elemSize;
+        final ByteBuffer bb = ByteBuffer.wrap(buffer, (int) (filePosition - bufferStart), length).slice();
+        bb.order(getByteOrder());
+        filePosition += length;
+        return bb;
+    }
+
+    private ByteBuffer readDirect(final int n, final int elemSize) throws IOException {
+        if (directBuffer == null) {
+            directBuffer = ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE);
+        }
+        final int length = (int) Math.min((long) n * elemSize, DIRECT_BUFFER_SIZE / elemSize * elemSize);
+        directBuffer.clear();
+        directBuffer.limit(length);
+
+        final FileChannel channel = eraf.getChannel();
+        long pos = filePosition;
+        while (directBuffer.hasRemaining()) {
+            final int count = channel.read(directBuffer, pos);
+            if (count < 0) {
+                break;
+            }
+            pos += count;
+        }
+
+        final int numRead = directBuffer.position() / elemSize * elemSize;
+        if (numRead == 0) {
+            throw new EOFException();
         }
+        filePosition += numRead;
+        directBuffer.flip();
+        directBuffer.limit(numRead);
+        directBuffer.order(getByteOrder());
+        return directBuffer;
     }
 
     /**
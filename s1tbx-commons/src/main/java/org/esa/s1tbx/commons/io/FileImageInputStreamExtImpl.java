@@ -83,6 +83,42 @@ public final class FileImageInputStreamExtImpl extends ImageInputStreamImpl
         eraf.readFully(b);
     }
 
+    @Override
+    public void readFully(short[] s, int off, int len) throws IOException {
+        checkBounds(s.length, off, len);
+        eraf.readShort(s, off, len);
+    }
+
+    @Override
+    public void readFully(int[] i, int off, int len) throws IOException {
+        checkBounds(i.length, off, len);
+        eraf.readInt(i, off, len);
+    }
+
+    @Override
+    public void readFully(long[] l, int off, int len) throws IOException {
+        checkBounds(l.length, off, len);
+        eraf.readLong(l, off, len);
+    }
+
+    @Override
+    public void readFully(float[] f, int off, int len) throws IOException {
+        checkBounds(f.length, off, len);
+        eraf.readFloat(f, off, len);
+    }
+
+    @Override
+    public void readFully(double[] d, int off, int len) throws IOException {
+        checkBounds(d.length, off, len);
+        eraf.readDouble(d, off, len);
+    }
+
+    private static void checkBounds(final int length, final int off, final int len) {
+        if (off < 0 || len < 0 || off + len > length || off + len < 0) {
+            throw new IndexOutOfBoundsException("off < 0 || len < 0 || off + len > length!");
+        }
+    }
+
     @Override
     public int readInt() throws IOException {
 
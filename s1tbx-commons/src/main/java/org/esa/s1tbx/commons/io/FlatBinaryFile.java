@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons.io;
+
+import org.esa.snap.core.datamodel.ProductData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * A band file of a flat binary format such as Gamma, PolSARPro or SNAPHU, holding the samples of a
+ * raster row after row with no header.
+ * <p>
+ * The file is preallocated to its full size when opened. Rectangles are converted to the byte order of
+ * the file in bulk and written with positional writes on a shared file channel, so tiles of the same band
+ * can be written from any thread without a lock.
+ */
+public class FlatBinaryFile {
+
+    // upper bound on the bytes converted at once
+    private static final int MAX_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private final File file;
+    private final ByteOrder byteOrder;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+
+    /**
+     * Opens a band file for writing, creating it or changing its length to fileSize if needed.
+     *
+     * @param file      the band file
+     * @param fileSize  the size of the band file in bytes
+     * @param byteOrder the byte order of the samples in the file
+     * @throws IOException if the file could not be created
+     */
+    public FlatBinaryFile(final File file, final long fileSize, final ByteOrder byteOrder) throws IOException {
+        this.file = file;
+        this.byteOrder = byteOrder;
+
+        final File parentDir = file.getParentFile();
+        if (parentDir != null && !parentDir.exists() && !parentDir.mkdirs()) {
+            throw new IOException("Unable to create folders in " + parentDir);
+        }
+        raf = new RandomAccessFile(file, "rw");
+        try {
+            if (raf.length() != fileSize) {
+                raf.setLength(fileSize);
+            }
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+        channel = raf.getChannel();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    /**
+     * Writes a rectangle of samples.
+     *
+     * @param data        the samples of the rectangle row after row
+     * @param x           the first column of the rectangle
+     * @param y           the first row of the rectangle
+     * @param width       the number of columns of the rectangle
+     * @param height      the number of rows of the rectangle
+     * @param rasterWidth the number of samples in a row of the file
+     * @throws IOException if the file could not be written
+     */
+    public void writeRect(final ProductData data, final int x, final int y, final int width, final int height,
+                          final int rasterWidth) throws IOException {
+        writeRect(data.getElems(), x, y, width, height, rasterWidth);
+    }
+
+    /**
+     * Writes a rectangle of samples.
+     *
+     * @param samples     a byte, short, int, long, float or double array of the samples of the rectangle
+     *                    row after row
+     * @param x           the first column of the rectangle
+     * @param y           the first row of the rectangle
+     * @param width       the number of columns of the rectangle
+     * @param height      the number of rows of the rectangle
+     * @param rasterWidth the number of samples in a row of the file
+     * @throws IOException if the file could not be written
+     */
+    public void writeRect(final Object samples, final int x, final int y, final int width, final int height,
+                          final int rasterWidth) throws IOException {
+        final int elemSize = getElemSize(samples);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        final int rowBytes = width * elemSize;
+        final int rowsPerBuffer = Math.max(1, Math.min(height, MAX_BUFFER_SIZE / rowBytes));
+        final ByteBuffer buffer = ByteBuffer.allocate(rowsPerBuffer * rowBytes);
+        buffer.order(byteOrder);
+
+        // whole rows are contiguous in the file and can be written at once
+        final boolean contiguous = (x == 0 && width == rasterWidth);
+
+        for (int r = 0; r < height; r += rowsPerBuffer) {
+            final int numRows = Math.min(rowsPerBuffer, height - r);
+            buffer.clear();
+            put(samples, r * width, numRows * width, buffer);
+
+            if (contiguous) {
+                buffer.limit(numRows * rowBytes);
+                writeFully(buffer, (long) (y + r) * rasterWidth * elemSize);
+            } else {
+                for (int l = 0; l < numRows; ++l) {
+                    buffer.limit((l + 1) * rowBytes);
+                    buffer.position(l * rowBytes);
+                    writeFully(buffer, ((long) (y + r + l) * rasterWidth + x) * elemSize);
+                }
+            }
+        }
+    }
+
+    private static int getElemSize(final Object samples) {
+        if (samples instanceof byte[]) {
+            return 1;
+        } else if (samples instanceof short[]) {
+            return 2;
+        } else if (samples instanceof int[] || samples instanceof float[]) {
+            return 4;
+        } else if (samples instanceof long[] || samples instanceof double[]) {
+            return 8;
+        }
+        throw new IllegalArgumentException("Unsupported sample array " + samples);
+    }
+
+    /**
+     * Converts samples into the buffer from its start in the byte order of the buffer
+     */
+    private static void put(final Object samples, final int offset, final int length, final ByteBuffer buffer) {
+        if (samples instanceof byte[]) {
+            buffer.duplicate().put((byte[]) samples, offset, length);
+        } else if (samples instanceof short[]) {
+            buffer.asShortBuffer().put((short[]) samples, offset, length);
+        } else if (samples instanceof int[]) {
+            buffer.asIntBuffer().put((int[]) samples, offset, length);
+        } else if (samples instanceof float[]) {
+            buffer.asFloatBuffer().put((float[]) samples, offset, length);
+        } else if (samples instanceof long[]) {
+            buffer.asLongBuffer().put((long[]) samples, offset, length);
+        } else {
+            buffer.asDoubleBuffer().put((double[]) samples, offset, length);
+        }
+    }
+
+    private void writeFully(final ByteBuffer buffer, long pos) throws IOException {
+        while (buffer.hasRemaining()) {
+            pos += channel.write(buffer, pos);
+        }
+    }
+
+    public void close() throws IOException {
+        raf.close();
+    }
+}
@@ -53,6 +53,7 @@ public class ImageIOFile {
 
     private ImageInputStream stream = null;
     private ImageReader reader;
+    private ImageIOReaderPool readerPool = null;
 
     private static final boolean useFileCache = Config.instance().preferences().getBoolean("s1tbx.readers.useFileCache", false);
 
@@ -143,6 +144,20 @@ public class ImageIOFile {
         return reader;
     }
 
+    /**
+     * Enables concurrent reading by giving each reading thread its own reader from the pool.
+     * Only possible when the image can be opened more than once, e.g. an uncompressed file on disk.
+     *
+     * @param pool the pool of readers over the same image
+     */
+    public void setReaderPool(final ImageIOReaderPool pool) {
+        this.readerPool = pool;
+    }
+
+    public boolean isConcurrentReadSupported() {
+        return readerPool != null;
+    }
+
     private static int bufferImageTypeToProductType(int biType) {
         switch (biType) {
             case BufferedImage.TYPE_CUSTOM:
@@ -194,6 +209,8 @@ public class ImageIOFile {
     }
 
     public void close() throws IOException {
+        if (readerPool != null)
+            readerPool.dispose();
         if (stream != null)
             stream.close();
         if (reader != null)
@@ -237,7 +254,7 @@ public class ImageIOFile {
         param.setSourceSubsampling(sourceStepX, sourceStepY,
                 sourceOffsetX % sourceStepX,
                 sourceOffsetY % sourceStepY);
-        final Raster data = getData(param, destOffsetX, destOffsetY, destWidth, destHeight);
+        final Raster data = getData(param, new Rectangle(destOffsetX, destOffsetY, destWidth, destHeight));
 
         final DataBuffer dataBuffer = data.getDataBuffer();
         final SampleModel sampleModel = data.getSampleModel();
@@ -281,12 +298,28 @@ public class ImageIOFile {
         }
     }
 
-    private synchronized Raster getData(final ImageReadParam param,
-                                        final int destOffsetX, final int destOffsetY,
-                                        final int destWidth, final int destHeight) throws IOException {
+    /**
+     * Reads a rectangle of the image. With a reader pool the read is done on a reader owned by the
+     * calling thread, otherwise reads are serialized on the single shared reader.
+     *
+     * @param param the read parameters
+     * @param rect  the rectangle to read
+     * @return the raster data
+     * @throws IOException if the data could not be read
+     */
+    public Raster getData(final ImageReadParam param, final Rectangle rect) throws IOException {
         try {
-            final RenderedImage image = reader.readAsRenderedImage(0, param);
-            return image.getData(new Rectangle(destOffsetX, destOffsetY, destWidth, destHeight));
+            if (readerPool != null) {
+                final ImageReader pooledReader = readerPool.acquire();
+                try {
+                    return readData(pooledReader, param, rect);
+                } finally {
+                    readerPool.release(pooledReader);
+                }
+            }
+            synchronized (this) {
+                return readData(reader, param, rect);
+            }
         } catch (Exception e) {
             if(ZipUtils.isZip(productInputFile) && !ZipUtils.isValid(productInputFile)) {
                 throw new IOException("Zip file is corrupt "+productInputFile.getName());
@@ -295,6 +328,12 @@ public class ImageIOFile {
         }
     }
 
+    private static Raster readData(final ImageReader imageReader, final ImageReadParam param,
+                                   final Rectangle rect) throws IOException {
+        final RenderedImage image = imageReader.readAsRenderedImage(0, param);
+        return image.getData(rect);
+    }
+
     public static class BandInfo {
         public final int imageID;
         public final int bandSampleOffset;
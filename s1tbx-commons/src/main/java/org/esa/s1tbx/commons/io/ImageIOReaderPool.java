@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons.io;
+
+import org.esa.snap.core.util.SystemUtils;
+import org.esa.snap.runtime.Config;
+
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A bounded pool of ImageReaders each with their own ImageInputStream over the same file.
+ * Allows several threads to decode tiles of one image concurrently without sharing a reader.
+ * <p>
+ * Disposing the pool closes the idle readers and wakes any thread waiting in acquire, which then fails.
+ * Readers still in use are closed when they are released.
+ */
+public class ImageIOReaderPool {
+
+    public static final int DEFAULT_MAX_READERS = Config.instance().preferences().getInt(
+            "s1tbx.readers.maxConcurrentReaders", Runtime.getRuntime().availableProcessors());
+
+    private final ReaderFactory factory;
+    private final int maxReaders;
+    private final Deque<ImageReader> idleReaders;
+    private final List<ImageReader> allReaders;
+    private boolean disposed = false;
+
+    /**
+     * Creates a new ImageReader with its own input stream already set
+     */
+    public interface ReaderFactory {
+        ImageReader createReader() throws IOException;
+    }
+
+    public ImageIOReaderPool(final ReaderFactory factory) {
+        this(factory, DEFAULT_MAX_READERS);
+    }
+
+    public ImageIOReaderPool(final ReaderFactory factory, final int maxReaders) {
+        this.factory = factory;
+        this.maxReaders = Math.max(1, maxReaders);
+        this.idleReaders = new ArrayDeque<>(this.maxReaders);
+        this.allReaders = new ArrayList<>(this.maxReaders);
+    }
+
+    public int getMaxReaders() {
+        return maxReaders;
+    }
+
+    public synchronized int getNumReaders() {
+        return allReaders.size();
+    }
+
+    /**
+     * Takes an idle reader from the pool, creating one if the pool is not yet full,
+     * otherwise waits for another thread to release one.
+     *
+     * @return an ImageReader owned by the calling thread until released
+     * @throws IOException if a reader could not be created or the pool is disposed
+     */
+    public synchronized ImageReader acquire() throws IOException {
+        while (true) {
+            if (disposed) {
+                throw new IOException("reader pool has been disposed");
+            }
+            final ImageReader reader = idleReaders.pollFirst();
+            if (reader != null) {
+                return reader;
+            }
+            if (allReaders.size() < maxReaders) {
+                final ImageReader newReader = factory.createReader();
+                allReaders.add(newReader);
+                return newReader;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while waiting for an image reader");
+            }
+        }
+    }
+
+    /**
+     * Returns a reader taken with acquire to the pool, or closes it if the pool has been disposed meanwhile.
+     *
+     * @param reader the reader
+     */
+    public synchronized void release(final ImageReader reader) {
+        if (reader == null || !allReaders.contains(reader)) {
+            return;
+        }
+        if (disposed) {
+            allReaders.remove(reader);
+            close(reader);
+        } else {
+            idleReaders.addFirst(reader);
+            notify();
+        }
+    }
+
+    public synchronized void dispose() {
+        disposed = true;
+        for (ImageReader reader : idleReaders) {
+            allReaders.remove(reader);
+            close(reader);
+        }
+        idleReaders.clear();
+        notifyAll();
+    }
+
+    private static void close(final ImageReader reader) {
+        final Object input = reader.getInput();
+        try {
+            if (input instanceof ImageInputStream) {
+                ((ImageInputStream) input).close();
+            }
+        } catch (IOException e) {
+            SystemUtils.LOG.warning("Unable to close image stream " + e.getMessage());
+        }
+        reader.dispose();
+    }
+}
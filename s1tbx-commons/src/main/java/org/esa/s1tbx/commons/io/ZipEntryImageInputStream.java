@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons.io;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A seekable ImageInputStream over an entry stored uncompressed in a zip file.
+ * The bytes are read in place from the zip through a FileChannel so the entry does not need to be
+ * cached in memory or copied to the temp folder.
+ * Zip64 archives larger than 4GB are supported.
+ * <p>
+ * Use a Directory to open several entries of the same zip without reading its central directory each time.
+ */
+public final class ZipEntryImageInputStream extends ImageInputStreamImpl {
+
+    private static final int END_OF_CENTRAL_DIR_SIG = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIR_SIG = 0x06064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIG = 0x07064b50;
+    private static final int CENTRAL_DIR_HEADER_SIG = 0x02014b50;
+    private static final int LOCAL_FILE_HEADER_SIG = 0x04034b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int END_OF_CENTRAL_DIR_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int LOCAL_FILE_HEADER_SIZE = 30;
+    private static final int STORED = 0;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final long dataOffset;
+    private final long length;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long bufferPos = 0;     // stream position of the first byte in the buffer
+    private int bufferLength = 0;
+
+    private ZipEntryImageInputStream(final RandomAccessFile raf, final long dataOffset, final long length) {
+        this.raf = raf;
+        this.channel = raf.getChannel();
+        this.dataOffset = dataOffset;
+        this.length = length;
+    }
+
+    /**
+     * Opens a stream over a zip entry if it is stored without compression
+     *
+     * @param zipFile   the zip file
+     * @param entryName the full name of the entry in the zip
+     * @return the stream or null if the entry does not exist or is compressed or encrypted
+     * @throws IOException if the zip could not be read
+     */
+    public static ZipEntryImageInputStream open(final File zipFile, final String entryName) throws IOException {
+        return open(Directory.read(zipFile), entryName);
+    }
+
+    /**
+     * Opens a stream over a zip entry if it is stored without compression, using a central directory
+     * read before so that opening many entries of one zip does not parse it each time
+     *
+     * @param directory the central directory of the zip file
+     * @param entryName the full name of the entry in the zip
+     * @return the stream or null if the entry does not exist or is compressed or encrypted
+     * @throws IOException if the zip could not be read
+     */
+    public static ZipEntryImageInputStream open(final Directory directory, final String entryName) throws IOException {
+        final long[] entry = directory.storedEntries.get(entryName);
+        if (entry == null) {
+            return null;
+        }
+        final RandomAccessFile raf = new RandomAccessFile(directory.zipFile, "r");
+        try {
+            final FileChannel channel = raf.getChannel();
+            final long localHeaderOffset = entry[0];
+            final long size = entry[1];
+            final ByteBuffer localHeader = readFully(channel, localHeaderOffset, LOCAL_FILE_HEADER_SIZE);
+            if (localHeader.getInt(0) != LOCAL_FILE_HEADER_SIG) {
+                throw new IOException("Invalid zip local file header for " + entryName);
+            }
+            final long dataOffset = localHeaderOffset + LOCAL_FILE_HEADER_SIZE +
+                    (localHeader.getShort(26) & 0xFFFF) + (localHeader.getShort(28) & 0xFFFF);
+            if (dataOffset + size > channel.size()) {
+                throw new IOException("Truncated zip entry " + entryName);
+            }
+            return new ZipEntryImageInputStream(raf, dataOffset, size);
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The entries of a zip file stored without compression, read from its central directory
+     */
+    public static final class Directory {
+
+        private final File zipFile;
+        // entry name to the offset of its local header and its size
+        private final Map<String, long[]> storedEntries;
+
+        private Directory(final File zipFile, final Map<String, long[]> storedEntries) {
+            this.zipFile = zipFile;
+            this.storedEntries = storedEntries;
+        }
+
+        /**
+         * Reads the central directory of a zip file
+         *
+         * @param zipFile the zip file
+         * @return the directory
+         * @throws IOException if the zip could not be read
+         */
+        public static Directory read(final File zipFile) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(zipFile, "r")) {
+                return new Directory(zipFile, findStoredEntries(raf.getChannel()));
+            }
+        }
+
+        public File getZipFile() {
+            return zipFile;
+        }
+    }
+
+    /**
+     * @return the offset of the local header and the size of each entry which is stored and not encrypted
+     */
+    private static Map<String, long[]> findStoredEntries(final FileChannel channel) throws IOException {
+        final Map<String, long[]> entries = new HashMap<>();
+        final long fileSize = channel.size();
+        if (fileSize < END_OF_CENTRAL_DIR_SIZE) {
+            return entries;
+        }
+
+        // the end of central directory record is followed by a comment of up to 64KB
+        final int tailSize = (int) Math.min(fileSize, END_OF_CENTRAL_DIR_SIZE + MAX_COMMENT_SIZE);
+        final ByteBuffer tail = readFully(channel, fileSize - tailSize, tailSize);
+        int eocd = -1;
+        for (int i = tailSize - END_OF_CENTRAL_DIR_SIZE; i >= 0; --i) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIR_SIG) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            throw new IOException("Not a zip file: end of central directory not found");
+        }
+
+        long numEntries = tail.getShort(eocd + 10) & 0xFFFF;
+        long cdSize = tail.getInt(eocd + 12) & 0xFFFFFFFFL;
+        long cdOffset = tail.getInt(eocd + 16) & 0xFFFFFFFFL;
+
+        final long eocdPos = fileSize - tailSize + eocd;
+        if (eocdPos >= 20 && (numEntries == 0xFFFF || cdSize == 0xFFFFFFFFL || cdOffset == 0xFFFFFFFFL)) {
+            final ByteBuffer locator = readFully(channel, eocdPos - 20, 20);
+            if (locator.getInt(0) == ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIG) {
+                final ByteBuffer zip64Eocd = readFully(channel, locator.getLong(8), 56);
+                if (zip64Eocd.getInt(0) != ZIP64_END_OF_CENTRAL_DIR_SIG) {
+                    throw new IOException("Invalid zip64 end of central directory");
+                }
+                numEntries = zip64Eocd.getLong(32);
+                cdSize = zip64Eocd.getLong(40);
+                cdOffset = zip64Eocd.getLong(48);
+            }
+        }
+        if (cdSize > Integer.MAX_VALUE || cdOffset + cdSize > fileSize) {
+            throw new IOException("Invalid zip central directory");
+        }
+
+        final ByteBuffer cd = readFully(channel, cdOffset, (int) cdSize);
+        int pos = 0;
+        for (long n = 0; n < numEntries && pos + 46 <= cd.limit(); ++n) {
+            if (cd.getInt(pos) != CENTRAL_DIR_HEADER_SIG) {
+                throw new IOException("Invalid zip central directory header");
+            }
+            final int flags = cd.getShort(pos + 8) & 0xFFFF;
+            final int method = cd.getShort(pos + 10) & 0xFFFF;
+            long compressedSize = cd.getInt(pos + 20) & 0xFFFFFFFFL;
+            long size = cd.getInt(pos + 24) & 0xFFFFFFFFL;
+            final int nameLength = cd.getShort(pos + 28) & 0xFFFF;
+            final int extraLength = cd.getShort(pos + 30) & 0xFFFF;
+            final int commentLength = cd.getShort(pos + 32) & 0xFFFF;
+            long localHeaderOffset = cd.getInt(pos + 42) & 0xFFFFFFFFL;
+
+            if (method == STORED && (flags & 1) == 0) {
+                // zip64 extra field holds the values which overflowed in the header, in this order
+                int extra = pos + 46 + nameLength;
+                final int extraEnd = extra + extraLength;
+                while (extra + 4 <= extraEnd) {
+                    final int id = cd.getShort(extra) & 0xFFFF;
+                    final int dataSize = cd.getShort(extra + 2) & 0xFFFF;
+                    if (id == ZIP64_EXTRA_ID) {
+                        int field = extra + 4;
+                        if (size == 0xFFFFFFFFL) {
+                            size = cd.getLong(field);
+                            field += 8;
+                        }
+                        if (compressedSize == 0xFFFFFFFFL) {
+                            compressedSize = cd.getLong(field);
+                            field += 8;
+                        }
+                        if (localHeaderOffset == 0xFFFFFFFFL) {
+                            localHeaderOffset = cd.getLong(field);
+                        }
+                        break;
+                    }
+                    extra += 4 + dataSize;
+                }
+
+                final byte[] nameBytes = new byte[nameLength];
+                for (int i = 0; i < nameLength; ++i) {
+                    nameBytes[i] = cd.get(pos + 46 + i);
+                }
+                entries.put(new String(nameBytes, StandardCharsets.UTF_8), new long[]{localHeaderOffset, size});
+            }
+            pos += 46 + nameLength + extraLength + commentLength;
+        }
+        return entries;
+    }
+
+    private static ByteBuffer readFully(final FileChannel channel, final long position, final int size) throws IOException {
+        final ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * @return the offset of the entry data within the zip file
+     */
+    public long getDataOffset() {
+        return dataOffset;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        if (streamPos >= length) {
+            return -1;
+        }
+        if (streamPos < bufferPos || streamPos >= bufferPos + bufferLength) {
+            fillBuffer(streamPos);
+        }
+        return buffer.get((int) (streamPos++ - bufferPos)) & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        checkClosed();
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        bitOffset = 0;
+        if (len == 0) {
+            return 0;
+        }
+        if (streamPos >= length) {
+            return -1;
+        }
+        final int n = (int) Math.min(len, length - streamPos);
+
+        if (streamPos >= bufferPos && streamPos + n <= bufferPos + bufferLength) {
+            // small read within the buffer such as TIFF tags
+            System.arraycopy(buffer.array(), (int) (streamPos - bufferPos), b, off, n);
+            streamPos += n;
+            return n;
+        }
+        if (n < BUFFER_SIZE) {
+            fillBuffer(streamPos);
+            final int count = Math.min(n, bufferLength);
+            System.arraycopy(buffer.array(), 0, b, off, count);
+            streamPos += count;
+            return count;
+        }
+
+        // large reads such as tile data go straight into the caller's array
+        final ByteBuffer dst = ByteBuffer.wrap(b, off, n);
+        while (dst.hasRemaining()) {
+            if (channel.read(dst, dataOffset + streamPos + dst.position() - off) < 0) {
+                break;
+            }
+        }
+        final int count = dst.position() - off;
+        if (count == 0) {
+            return -1;
+        }
+        streamPos += count;
+        return count;
+    }
+
+    private void fillBuffer(final long pos) throws IOException {
+        final int size = (int) Math.min(BUFFER_SIZE, length - pos);
+        buffer.clear();
+        buffer.limit(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, dataOffset + pos + buffer.position()) < 0) {
+                break;
+            }
+        }
+        bufferPos = pos;
+        bufferLength = buffer.position();
+        if (bufferLength == 0) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        raf.close();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons;
+
+import org.esa.snap.core.gpf.OperatorException;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * To test OperatorExecutor
+ */
+public class TestOperatorExecutor {
+
+    @Test
+    public void testRunsAllTasks() {
+        final OperatorExecutor executor = new OperatorExecutor("TestOperatorExecutor", null);
+        final AtomicInteger count = new AtomicInteger();
+        for (int i = 0; i < 100; ++i) {
+            executor.execute(count::incrementAndGet);
+        }
+        executor.finish();
+        assertEquals(100, count.get());
+
+        // the executor can be reused for another batch
+        executor.execute(count::incrementAndGet);
+        executor.finish();
+        assertEquals(101, count.get());
+    }
+
+    @Test
+    public void testTaskException() {
+        final OperatorExecutor executor = new OperatorExecutor("TestOperatorExecutor", null);
+        final AtomicInteger count = new AtomicInteger();
+        final IllegalStateException error = new IllegalStateException("task failed");
+        executor.execute(count::incrementAndGet);
+        executor.execute(() -> {
+            throw error;
+        });
+        executor.execute(count::incrementAndGet);
+        try {
+            executor.finish();
+            fail("exception expected");
+        } catch (OperatorException e) {
+            assertSame(error, e.getCause());
+        }
+        // the other tasks still complete
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    public void testOperatorExceptionIsRethrown() {
+        final OperatorExecutor executor = new OperatorExecutor("TestOperatorExecutor", null);
+        final OperatorException error = new OperatorException("task failed");
+        executor.execute(() -> {
+            throw error;
+        });
+        try {
+            executor.finish();
+            fail("exception expected");
+        } catch (OperatorException e) {
+            assertSame(error, e);
+        }
+    }
+
+    @Test
+    public void testCancellation() throws Exception {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final OperatorExecutor executor = new OperatorExecutor("TestOperatorExecutor", () -> {
+            if (cancelled.get()) {
+                throw new OperatorException("cancelled");
+            }
+        });
+
+        final CountDownLatch submitted = new CountDownLatch(1);
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger started = new AtomicInteger();
+        final int numTasks = OperatorExecutor.getNumThreads() + 10;
+        for (int i = 0; i < numTasks; ++i) {
+            executor.execute(() -> {
+                started.incrementAndGet();
+                try {
+                    submitted.await(10, TimeUnit.SECONDS);
+                    cancelled.set(true);
+                    running.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        submitted.countDown();
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        try {
+            executor.finish();
+            fail("cancellation expected");
+        } catch (OperatorException e) {
+            assertEquals("cancelled", e.getMessage());
+        } finally {
+            release.countDown();
+        }
+        // the tasks not yet started are dropped
+        assertTrue(started.get() < numTasks);
+
+        try {
+            executor.execute(() -> {
+            });
+            fail("cancellation expected");
+        } catch (OperatorException e) {
+            assertEquals("cancelled", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testNested() {
+        final OperatorExecutor outer = new OperatorExecutor("TestOperatorExecutor", null);
+        final AtomicInteger count = new AtomicInteger();
+        final int numOuter = 2 * OperatorExecutor.getNumThreads();
+        for (int i = 0; i < numOuter; ++i) {
+            outer.execute(() -> {
+                final OperatorExecutor inner = new OperatorExecutor("TestOperatorExecutor", null);
+                for (int j = 0; j < 10; ++j) {
+                    inner.execute(count::incrementAndGet);
+                }
+                inner.finish();
+            });
+        }
+        outer.finish();
+        assertEquals(numOuter * 10, count.get());
+    }
+
+    /**
+     * All workers are blocked on a result that only a task of another executor, queued behind them,
+     * can produce. That executor is finished from a thread outside the pool as for a tile computed on a JAI thread.
+     */
+    @Test(timeout = 30000)
+    public void testNoDeadlockWhenPoolIsBlocked() throws Exception {
+        final CountDownLatch upstream = new CountDownLatch(1);
+        final OperatorExecutor blocked = new OperatorExecutor("TestOperatorExecutor", null);
+        final int numBlocked = OperatorExecutor.getNumThreads();
+        final CountDownLatch allBlocked = new CountDownLatch(numBlocked);
+        for (int i = 0; i < numBlocked; ++i) {
+            blocked.execute(() -> {
+                allBlocked.countDown();
+                try {
+                    upstream.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(allBlocked.await(10, TimeUnit.SECONDS));
+
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final Thread tileThread = new Thread(() -> {
+            try {
+                final OperatorExecutor executor = new OperatorExecutor("TestOperatorExecutor", null);
+                executor.execute(upstream::countDown);
+                executor.finish();
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        tileThread.start();
+        tileThread.join(10000);
+        assertFalse(tileThread.isAlive());
+        assertEquals(null, error.get());
+
+        blocked.finish();
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons.io;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import javax.imageio.stream.ImageInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * To test the bulk primitive reads of EnhancedRandomAccessFile against reading one value at a time
+ */
+public class TestEnhancedRandomAccessFile {
+
+    private static final ByteOrder[] byteOrders = {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN};
+
+    // larger than the internal buffer so that reads continue past it
+    private static final int FILE_SIZE = 3 * EnhancedRandomAccessFile.DEFAULT_BUFFER_SIZE + 13;
+
+    private static File file;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        file = createFile(FILE_SIZE);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        file.delete();
+    }
+
+    @Test
+    public void testReadShort() throws IOException {
+        for (ByteOrder byteOrder : byteOrders) {
+            // small reads from the buffer and large reads past it, starting off element boundaries
+            for (int n : new int[]{1, 7, 1000, FILE_SIZE / 2 - 3}) {
+                final short[] expected = new short[n + 2];
+                final short[] actual = new short[n + 2];
+                try (Reader reader = new Reader(byteOrder, 3)) {
+                    for (int i = 1; i <= n; i++) {
+                        expected[i] = reader.single.readShort();
+                    }
+                    reader.bulk.readShort(actual, 1, n);
+                    assertEquals(reader.single.getFilePointer(), reader.bulk.getFilePointer());
+                    assertEquals(reader.single.readByte(), reader.bulk.readByte());
+                }
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testReadInt() throws IOException {
+        for (ByteOrder byteOrder : byteOrders) {
+            for (int n : new int[]{1, 1000, FILE_SIZE / 4 - 1}) {
+                final int[] expected = new int[n];
+                final int[] actual = new int[n];
+                try (Reader reader = new Reader(byteOrder, 1)) {
+                    for (int i = 0; i < n; i++) {
+                        expected[i] = reader.single.readInt();
+                    }
+                    reader.bulk.readInt(actual, 0, n);
+                    assertEquals(reader.single.getFilePointer(), reader.bulk.getFilePointer());
+                }
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testReadLong() throws IOException {
+        for (ByteOrder byteOrder : byteOrders) {
+            for (int n : new int[]{1, 1000, FILE_SIZE / 8 - 1}) {
+                final long[] expected = new long[n];
+                final long[] actual = new long[n];
+                try (Reader reader = new Reader(byteOrder, 5)) {
+                    for (int i = 0; i < n; i++) {
+                        expected[i] = reader.single.readLong();
+                    }
+                    reader.bulk.readLong(actual, 0, n);
+                    assertEquals(reader.single.getFilePointer(), reader.bulk.getFilePointer());
+                }
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testReadFloat() throws IOException {
+        for (ByteOrder byteOrder : byteOrders) {
+            for (int n : new int[]{1, 1000, FILE_SIZE / 4 - 1}) {
+                final float[] expected = new float[n];
+                final float[] actual = new float[n];
+                try (Reader reader = new Reader(byteOrder, 2)) {
+                    for (int i = 0; i < n; i++) {
+                        expected[i] = reader.single.readFloat();
+                    }
+                    reader.bulk.readFloat(actual, 0, n);
+                    assertEquals(reader.single.getFilePointer(), reader.bulk.getFilePointer());
+                }
+                // compare the bits as the test data holds NaNs
+                for (int i = 0; i < n; i++) {
+                    assertEquals(Float.floatToRawIntBits(expected[i]), Float.floatToRawIntBits(actual[i]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReadDouble() throws IOException {
+        for (ByteOrder byteOrder : byteOrders) {
+            for (int n : new int[]{1, 1000, FILE_SIZE / 8 - 1}) {
+                final double[] expected = new double[n];
+                final double[] actual = new double[n];
+                try (Reader reader = new Reader(byteOrder, 6)) {
+                    for (int i = 0; i < n; i++) {
+                        expected[i] = reader.single.readDouble();
+                    }
+                    reader.bulk.readDouble(actual, 0, n);
+                    assertEquals(reader.single.getFilePointer(), reader.bulk.getFilePointer());
+                }
+                for (int i = 0; i < n; i++) {
+                    assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]));
+                }
+            }
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void testReadPastEnd() throws IOException {
+        try (Reader reader = new Reader(ByteOrder.BIG_ENDIAN, 0)) {
+            reader.bulk.readShort(new short[FILE_SIZE], 0, FILE_SIZE);
+        }
+    }
+
+    @Test
+    public void testImageInputStream() throws IOException {
+        final int n = FILE_SIZE / 4 - 1;
+        final float[] expected = new float[n];
+        final float[] actual = new float[n];
+        try (Reader reader = new Reader(ByteOrder.LITTLE_ENDIAN, 3)) {
+            for (int i = 0; i < n; i++) {
+                expected[i] = reader.single.readFloat();
+            }
+        }
+        final ImageInputStream stream = new FileImageInputStreamExtImpl(file);
+        try {
+            stream.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+            stream.seek(3);
+            stream.readFully(actual, 0, n);
+            assertEquals(3 + 4L * n, stream.getStreamPosition());
+        } finally {
+            stream.close();
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(Float.floatToRawIntBits(expected[i]), Float.floatToRawIntBits(actual[i]));
+        }
+    }
+
+    /**
+     * Compares the throughput of reading one value at a time with the bulk reads. Run by hand as a benchmark.
+     */
+    @Ignore("Takes too long")
+    @Test
+    public void testReadThroughput() throws IOException {
+        final int numElems = 4 * 1024 * 1024;
+        final File largeFile = createFile(numElems * 4);
+        try {
+            for (ByteOrder byteOrder : byteOrders) {
+                final short[] shorts = new short[numElems * 2];
+                final float[] floats = new float[numElems];
+
+                long start = System.nanoTime();
+                try (Reader reader = new Reader(largeFile, byteOrder, 0)) {
+                    for (int i = 0; i < shorts.length; i++) {
+                        shorts[i] = reader.single.readShort();
+                    }
+                }
+                final long singleShorts = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                try (Reader reader = new Reader(largeFile, byteOrder, 0)) {
+                    for (int i = 0; i < floats.length; i++) {
+                        floats[i] = reader.single.readFloat();
+                    }
+                }
+                final long singleFloats = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                try (Reader reader = new Reader(largeFile, byteOrder, 0)) {
+                    reader.bulk.readShort(shorts, 0, shorts.length);
+                }
+                final long bulkShorts = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                try (Reader reader = new Reader(largeFile, byteOrder, 0)) {
+                    reader.bulk.readFloat(floats, 0, floats.length);
+                }
+                final long bulkFloats = System.nanoTime() - start;
+
+                System.out.println(byteOrder + " short: " + getRate(singleShorts, numElems * 4) + " MB/s single, " +
+                                           getRate(bulkShorts, numElems * 4) + " MB/s bulk");
+                System.out.println(byteOrder + " float: " + getRate(singleFloats, numElems * 4) + " MB/s single, " +
+                                           getRate(bulkFloats, numElems * 4) + " MB/s bulk");
+            }
+        } finally {
+            largeFile.delete();
+        }
+    }
+
+    private static long getRate(final long nanos, final long bytes) {
+        return bytes * 1000L / Math.max(1, nanos / 1000) / 1024 * 1000 / 1024;
+    }
+
+    private static File createFile(final int size) throws IOException {
+        final File file = File.createTempFile("eraf", ".bin");
+        final byte[] data = new byte[size];
+        int seed = 12345;
+        for (int i = 0; i < size; i++) {
+            seed = seed * 1103515245 + 12345;
+            data[i] = (byte) (seed >> 16);
+        }
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+        return file;
+    }
+
+    /**
+     * Two readers on the same data, one for reading a value at a time and one for bulk reads
+     */
+    private static class Reader implements AutoCloseable {
+        final EnhancedRandomAccessFile single;
+        final EnhancedRandomAccessFile bulk;
+
+        Reader(final ByteOrder byteOrder, final long pos) throws IOException {
+            this(file, byteOrder, pos);
+        }
+
+        Reader(final File file, final ByteOrder byteOrder, final long pos) throws IOException {
+            single = new EnhancedRandomAccessFile(file, "r");
+            bulk = new EnhancedRandomAccessFile(file, "r");
+            single.setByteOrder(byteOrder);
+            bulk.setByteOrder(byteOrder);
+            single.seek(pos);
+            bulk.seek(pos);
+        }
+
+        @Override
+        public void close() throws IOException {
+            single.close();
+            bulk.close();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons.io;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * To test FlatBinaryFile writing tiles from several threads
+ */
+public class TestFlatBinaryFile {
+
+    private static final int WIDTH = 301;
+    private static final int HEIGHT = 157;
+    private static final int TILE_SIZE = 64;
+
+    @Test
+    public void testWriteTilesConcurrently() throws Exception {
+        for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            final File file = File.createTempFile("flatBinary", ".bin");
+            try {
+                final FlatBinaryFile bandFile = new FlatBinaryFile(file, WIDTH * HEIGHT * 4L, byteOrder);
+                final ExecutorService executor = Executors.newFixedThreadPool(4);
+                try {
+                    final List<Future<?>> futures = new ArrayList<>();
+                    for (int y = 0; y < HEIGHT; y += TILE_SIZE) {
+                        for (int x = 0; x < WIDTH; x += TILE_SIZE) {
+                            final int tx = x, ty = y;
+                            futures.add(executor.submit(() -> writeTile(bandFile, tx, ty)));
+                        }
+                    }
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                } finally {
+                    executor.shutdown();
+                    bandFile.close();
+                }
+
+                assertEquals(WIDTH * HEIGHT * 4L, file.length());
+                final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).order(byteOrder);
+                for (int i = 0; i < WIDTH * HEIGHT; i++) {
+                    assertEquals(sample(i % WIDTH, i / WIDTH), buffer.getFloat(), 0);
+                }
+            } finally {
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testWriteFullRows() throws IOException {
+        final File file = File.createTempFile("flatBinary", ".bin");
+        try {
+            final FlatBinaryFile bandFile = new FlatBinaryFile(file, WIDTH * 4 * 2L, ByteOrder.BIG_ENDIAN);
+            try {
+                final short[] samples = new short[WIDTH * 3];
+                for (int i = 0; i < samples.length; i++) {
+                    samples[i] = (short) (i - 400);
+                }
+                bandFile.writeRect(samples, 0, 1, WIDTH, 3, WIDTH);
+            } finally {
+                bandFile.close();
+            }
+
+            final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            final short[] actual = new short[WIDTH * 4];
+            buffer.asShortBuffer().get(actual);
+            final short[] expected = new short[WIDTH * 4];
+            for (int i = WIDTH; i < expected.length; i++) {
+                expected[i] = (short) (i - WIDTH - 400);
+            }
+            assertArrayEquals(expected, actual);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static Void writeTile(final FlatBinaryFile bandFile, final int x, final int y) throws IOException {
+        final int w = Math.min(TILE_SIZE, WIDTH - x);
+        final int h = Math.min(TILE_SIZE, HEIGHT - y);
+        final float[] samples = new float[w * h];
+        for (int j = 0; j < h; j++) {
+            for (int i = 0; i < w; i++) {
+                samples[j * w + i] = sample(x + i, y + j);
+            }
+        }
+        bandFile.writeRect(samples, x, y, w, h, WIDTH);
+        return null;
+    }
+
+    private static float sample(final int x, final int y) {
+        return y * 1000.5f + x;
+    }
+}
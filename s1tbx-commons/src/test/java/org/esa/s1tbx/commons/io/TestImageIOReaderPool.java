@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons.io;
+
+import org.junit.Test;
+
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.metadata.IIOMetadata;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * To test ImageIOReaderPool
+ */
+public class TestImageIOReaderPool {
+
+    @Test
+    public void testAcquireRelease() throws IOException {
+        final AtomicInteger created = new AtomicInteger();
+        final ImageIOReaderPool pool = new ImageIOReaderPool(() -> {
+            created.incrementAndGet();
+            return new TestReader();
+        }, 2);
+
+        final ImageReader reader1 = pool.acquire();
+        final ImageReader reader2 = pool.acquire();
+        assertNotSame(reader1, reader2);
+        assertEquals(2, pool.getNumReaders());
+
+        pool.release(reader1);
+        assertSame(reader1, pool.acquire());
+        assertEquals(2, created.get());
+
+        pool.release(reader1);
+        pool.release(reader2);
+        pool.dispose();
+        assertTrue(((TestReader) reader1).disposed);
+        assertTrue(((TestReader) reader2).disposed);
+        assertEquals(0, pool.getNumReaders());
+    }
+
+    @Test
+    public void testMaxReaders() throws Exception {
+        final ImageIOReaderPool pool = new ImageIOReaderPool(TestReader::new, 2);
+        final ImageReader reader1 = pool.acquire();
+        pool.acquire();
+
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final AtomicReference<ImageReader> acquired = new AtomicReference<>();
+        final Thread thread = new Thread(() -> {
+            try {
+                waiting.countDown();
+                acquired.set(pool.acquire());
+            } catch (IOException e) {
+                // fails the test below
+            }
+        });
+        thread.start();
+        assertTrue(waiting.await(10, TimeUnit.SECONDS));
+        thread.join(200);
+        assertTrue(thread.isAlive());
+        assertEquals(2, pool.getNumReaders());
+
+        pool.release(reader1);
+        thread.join(10000);
+        assertFalse(thread.isAlive());
+        assertSame(reader1, acquired.get());
+        assertEquals(2, pool.getNumReaders());
+    }
+
+    @Test
+    public void testDisposeWakesWaitingThreads() throws Exception {
+        final ImageIOReaderPool pool = new ImageIOReaderPool(TestReader::new, 1);
+        final TestReader inUse = (TestReader) pool.acquire();
+
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final Thread thread = new Thread(() -> {
+            try {
+                waiting.countDown();
+                pool.acquire();
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        thread.start();
+        assertTrue(waiting.await(10, TimeUnit.SECONDS));
+        thread.join(200);
+        assertTrue(thread.isAlive());
+
+        pool.dispose();
+        thread.join(10000);
+        assertFalse(thread.isAlive());
+        assertTrue(error.get() instanceof IOException);
+
+        // a reader still in use is only closed when it is released
+        assertFalse(inUse.disposed);
+        pool.release(inUse);
+        assertTrue(inUse.disposed);
+        assertEquals(0, pool.getNumReaders());
+    }
+
+    @Test(expected = IOException.class)
+    public void testAcquireAfterDispose() throws IOException {
+        final ImageIOReaderPool pool = new ImageIOReaderPool(TestReader::new, 1);
+        pool.dispose();
+        pool.acquire();
+    }
+
+    private static class TestReader extends ImageReader {
+
+        private volatile boolean disposed = false;
+
+        TestReader() {
+            super(null);
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public int getNumImages(final boolean allowSearch) {
+            return 1;
+        }
+
+        @Override
+        public int getWidth(final int imageIndex) {
+            return 0;
+        }
+
+        @Override
+        public int getHeight(final int imageIndex) {
+            return 0;
+        }
+
+        @Override
+        public Iterator<ImageTypeSpecifier> getImageTypes(final int imageIndex) {
+            return null;
+        }
+
+        @Override
+        public IIOMetadata getStreamMetadata() {
+            return null;
+        }
+
+        @Override
+        public IIOMetadata getImageMetadata(final int imageIndex) {
+            return null;
+        }
+
+        @Override
+        public BufferedImage read(final int imageIndex, final ImageReadParam param) {
+            return null;
+        }
+    }
+}
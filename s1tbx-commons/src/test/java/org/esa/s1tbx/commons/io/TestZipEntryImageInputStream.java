@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * To test ZipEntryImageInputStream on zips written with java.util.zip
+ */
+public class TestZipEntryImageInputStream {
+
+    private File zipFile;
+
+    @Before
+    public void setUp() throws IOException {
+        zipFile = File.createTempFile("zipEntry", ".zip");
+    }
+
+    @After
+    public void tearDown() {
+        zipFile.delete();
+    }
+
+    @Test
+    public void testStoredEntry() throws IOException {
+        final byte[] data = createData(20000, 1);
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            putDeflated(zip, "product/manifest.safe", createData(500, 2));
+            putStored(zip, "product/measurement/s1a-iw1-slc-vv.tiff", data);
+        }
+
+        try (ZipEntryImageInputStream stream = ZipEntryImageInputStream.open(zipFile, "product/measurement/s1a-iw1-slc-vv.tiff")) {
+            assertNotNull(stream);
+            assertEquals(data.length, stream.length());
+
+            // large read straight into the array
+            final byte[] all = new byte[data.length];
+            stream.readFully(all);
+            assertArrayEquals(data, all);
+            assertEquals(-1, stream.read());
+
+            // small buffered reads after a seek
+            stream.seek(9000);
+            assertEquals(data[9000] & 0xFF, stream.read());
+            final byte[] part = new byte[100];
+            stream.readFully(part);
+            for (int i = 0; i < part.length; ++i) {
+                assertEquals(data[9001 + i], part[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testDeflatedEntry() throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            putDeflated(zip, "product/measurement/image.tiff", createData(5000, 3));
+        }
+        // compressed entries are left to the cached stream
+        assertNull(ZipEntryImageInputStream.open(zipFile, "product/measurement/image.tiff"));
+    }
+
+    @Test
+    public void testMissingEntry() throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            putStored(zip, "product/measurement/image.tiff", createData(100, 4));
+        }
+        assertNull(ZipEntryImageInputStream.open(zipFile, "product/measurement/other.tiff"));
+        assertNull(ZipEntryImageInputStream.open(zipFile, "measurement/image.tiff"));
+    }
+
+    @Test
+    public void testDirectory() throws IOException {
+        final byte[] data1 = createData(3000, 5);
+        final byte[] data2 = createData(4000, 6);
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            putStored(zip, "a.tiff", data1);
+            putDeflated(zip, "b.xml", createData(100, 7));
+            putStored(zip, "c.tiff", data2);
+        }
+
+        final ZipEntryImageInputStream.Directory directory = ZipEntryImageInputStream.Directory.read(zipFile);
+        assertEquals(zipFile, directory.getZipFile());
+        assertNull(ZipEntryImageInputStream.open(directory, "b.xml"));
+        try (ZipEntryImageInputStream stream = ZipEntryImageInputStream.open(directory, "c.tiff")) {
+            final byte[] actual = new byte[data2.length];
+            stream.readFully(actual);
+            assertArrayEquals(data2, actual);
+        }
+        try (ZipEntryImageInputStream stream = ZipEntryImageInputStream.open(directory, "a.tiff")) {
+            final byte[] actual = new byte[data1.length];
+            stream.readFully(actual);
+            assertArrayEquals(data1, actual);
+        }
+    }
+
+    /**
+     * More than 65535 entries make java.util.zip write the zip64 end of central directory records
+     */
+    @Test
+    public void testZip64() throws IOException {
+        final int numEntries = 0x10000 + 10;
+        final byte[] data = createData(10000, 8);
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            final byte[] small = new byte[1];
+            for (int i = 0; i < numEntries; ++i) {
+                putStored(zip, "e" + i, small);
+            }
+            putStored(zip, "last.tiff", data);
+        }
+
+        try (ZipEntryImageInputStream stream = ZipEntryImageInputStream.open(zipFile, "last.tiff")) {
+            assertNotNull(stream);
+            final byte[] actual = new byte[data.length];
+            stream.readFully(actual);
+            assertArrayEquals(data, actual);
+        }
+    }
+
+    private static byte[] createData(final int length, final long seed) {
+        final byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private static void putStored(final ZipOutputStream zip, final String name, final byte[] data) throws IOException {
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        final ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(data);
+        zip.closeEntry();
+    }
+
+    private static void putDeflated(final ZipOutputStream zip, final String name, final byte[] data) throws IOException {
+        final ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.DEFLATED);
+        zip.putNextEntry(entry);
+        zip.write(data);
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.orbits.sentinel1;
+
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.util.SystemUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent interval index of the Sentinel-1 orbit files in one month folder.
+ * <p>
+ * The validity start and stop of each file is parsed from its name once and stored with the
+ * folder modification time in the cache directory. A lookup only stats the folder; the folder
+ * is listed again when its modification time changes and only new file names are parsed.
+ */
+final class OrbitFileIndex {
+
+    private static final int MAGIC = 0x53314F49;
+    private static final int VERSION = 1;
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    // the modification time of a folder changed this recently may not yet reflect all changes
+    private static final long SETTLE_TIME = 2000L;
+
+    private static final Map<File, OrbitFileIndex> indexMap = new ConcurrentHashMap<>();
+
+    private final File folder;
+    private final File indexFile;
+
+    private long folderLastModified = UNKNOWN;
+    private boolean loaded = false;
+    private volatile Entry[] entries = new Entry[0];
+    private volatile double maxDuration = 0;
+
+    OrbitFileIndex(final File folder, final File indexFile) {
+        this.folder = folder;
+        this.indexFile = indexFile;
+    }
+
+    static File getIndexFolder() {
+        return new File(SystemUtils.getCacheDir(), "orbits" + File.separator + "index");
+    }
+
+    static OrbitFileIndex getIndex(final File folder) {
+        final File absFolder = folder.getAbsoluteFile();
+        return indexMap.computeIfAbsent(absFolder, f -> new OrbitFileIndex(f, new File(getIndexFolder(),
+                f.getName() + '_' + Integer.toHexString(f.getPath().hashCode()) + ".idx")));
+    }
+
+    /**
+     * Find an orbit file with the given name prefix whose validity period contains the given time.
+     *
+     * @param prefix upper case file name prefix e.g. S1A_OPER_AUX_POEORB_OPOD_
+     * @param mjd    the time in days
+     * @return the orbit file or null if none is found
+     */
+    File findOrbitFile(final String prefix, final double mjd) {
+        refresh();
+
+        final Entry[] entries = this.entries;
+        final double minStart = mjd - maxDuration;
+        for (int i = lastStartAtOrBefore(entries, mjd); i >= 0 && entries[i].start >= minStart; --i) {
+            final Entry entry = entries[i];
+            if (mjd < entry.stop && entry.name.toUpperCase().startsWith(prefix)) {
+                final File file = new File(folder, entry.name);
+                if (file.exists()) {
+                    return file;
+                }
+                invalidate();
+            }
+        }
+        return null;
+    }
+
+    int getNumEntries() {
+        refresh();
+        return entries.length;
+    }
+
+    synchronized void invalidate() {
+        folderLastModified = UNKNOWN;
+    }
+
+    private synchronized void refresh() {
+        final long lastModified = folder.lastModified();
+        if (lastModified == 0) {
+            entries = new Entry[0];
+            maxDuration = 0;
+            folderLastModified = UNKNOWN;
+            return;
+        }
+        if (lastModified == folderLastModified) {
+            return;
+        }
+        if (!loaded) {
+            loaded = true;
+            load();
+            if (lastModified == folderLastModified) {
+                return;
+            }
+        }
+
+        update(folder.list());
+        folderLastModified = System.currentTimeMillis() - lastModified < SETTLE_TIME ? UNKNOWN : lastModified;
+        save();
+    }
+
+    private void update(final String[] names) {
+        final Map<String, Entry> known = new HashMap<>();
+        for (Entry entry : entries) {
+            known.put(entry.name, entry);
+        }
+
+        final List<Entry> list = new ArrayList<>();
+        if (names != null) {
+            for (String name : names) {
+                Entry entry = known.get(name);
+                if (entry == null) {
+                    entry = parse(name);
+                }
+                if (entry != null) {
+                    list.add(entry);
+                }
+            }
+        }
+        setEntries(list.toArray(new Entry[list.size()]));
+    }
+
+    private void setEntries(final Entry[] newEntries) {
+        Arrays.sort(newEntries, (a, b) -> Double.compare(a.start, b.start));
+        double duration = 0;
+        for (Entry entry : newEntries) {
+            duration = Math.max(duration, entry.stop - entry.start);
+        }
+        maxDuration = duration;
+        entries = newEntries;
+    }
+
+    private static Entry parse(final String name) {
+        final String upperName = name.toUpperCase();
+        if (!upperName.endsWith(".ZIP") && !upperName.endsWith(".EOF")) {
+            return null;
+        }
+        try {
+            final ProductData.UTC utcStart = SentinelPODOrbitFile.getValidityStartFromFilenameUTC(name);
+            final ProductData.UTC utcEnd = SentinelPODOrbitFile.getValidityStopFromFilenameUTC(name);
+            if (utcStart != null && utcEnd != null) {
+                return new Entry(name, utcStart.getMJD(), utcEnd.getMJD());
+            }
+        } catch (Exception e) {
+            // not an orbit file name
+        }
+        return null;
+    }
+
+    private static int lastStartAtOrBefore(final Entry[] entries, final double mjd) {
+        int lo = 0, hi = entries.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (entries[mid].start <= mjd) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo - 1;
+    }
+
+    private void load() {
+        if (!indexFile.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            final long lastModified = in.readLong();
+            final int count = in.readInt();
+            final Entry[] loadedEntries = new Entry[count];
+            for (int i = 0; i < count; i++) {
+                loadedEntries[i] = new Entry(in.readUTF(), in.readDouble(), in.readDouble());
+            }
+            setEntries(loadedEntries);
+            folderLastModified = lastModified;
+        } catch (IOException e) {
+            SystemUtils.LOG.fine("OrbitFileIndex: unable to read " + indexFile + ": " + e.getMessage());
+        }
+    }
+
+    private void save() {
+        final Entry[] entries = this.entries;
+        try {
+            final File parent = indexFile.getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                return;
+            }
+            final File tmpFile = File.createTempFile(indexFile.getName(), ".tmp", parent);
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeLong(folderLastModified);
+                    out.writeInt(entries.length);
+                    for (Entry entry : entries) {
+                        out.writeUTF(entry.name);
+                        out.writeDouble(entry.start);
+                        out.writeDouble(entry.stop);
+                    }
+                }
+                moveReplacing(tmpFile, indexFile);
+            } finally {
+                tmpFile.delete();
+            }
+        } catch (IOException e) {
+            SystemUtils.LOG.fine("OrbitFileIndex: unable to write " + indexFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the target so that concurrent readers in other processes never see a partial file.
+     */
+    static void moveReplacing(final File source, final File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static final class Entry {
+        final String name;
+        final double start;
+        final double stop;
+
+        Entry(final String name, final double start, final double stop) {
+            this.name = name;
+            this.start = start;
+            this.stop = stop;
+        }
+    }
+}
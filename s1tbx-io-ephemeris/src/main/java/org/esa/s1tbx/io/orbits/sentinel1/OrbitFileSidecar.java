@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.orbits.sentinel1;
+
+import org.esa.snap.core.util.SystemUtils;
+import org.esa.snap.engine_utilities.datamodel.Orbits;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary copy of the fixed header and the state vectors of a parsed Sentinel-1 orbit file.
+ * <p>
+ * The sidecar records the length and modification time of the orbit file it was made from and is
+ * ignored once the orbit file changes.
+ */
+final class OrbitFileSidecar {
+
+    private static final int MAGIC = 0x53314F53;
+    private static final int VERSION = 1;
+
+    final String mission;
+    final String fileType;
+    final String validityStart;
+    final String validityStop;
+    final List<Orbits.OrbitVector> osvList;
+
+    OrbitFileSidecar(final String mission, final String fileType, final String validityStart,
+                     final String validityStop, final List<Orbits.OrbitVector> osvList) {
+        this.mission = mission;
+        this.fileType = fileType;
+        this.validityStart = validityStart;
+        this.validityStop = validityStop;
+        this.osvList = osvList;
+    }
+
+    static File getSidecarFolder() {
+        return new File(SystemUtils.getCacheDir(), "orbits" + File.separator + "osv");
+    }
+
+    private static File getSidecarFile(final File orbitFile, final File sidecarFolder) {
+        return new File(sidecarFolder, orbitFile.getName() + ".osv");
+    }
+
+    /**
+     * Read the sidecar of an orbit file.
+     *
+     * @param orbitFile     the orbit file
+     * @param sidecarFolder the folder holding the sidecars
+     * @return the sidecar or null if there is none or it is out of date
+     */
+    static OrbitFileSidecar read(final File orbitFile, final File sidecarFolder) {
+        final File sidecarFile = getSidecarFile(orbitFile, sidecarFolder);
+        if (!sidecarFile.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(sidecarFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION ||
+                    in.readLong() != orbitFile.length() || in.readLong() != orbitFile.lastModified()) {
+                return null;
+            }
+            final String mission = in.readUTF();
+            final String fileType = in.readUTF();
+            final String validityStart = in.readUTF();
+            final String validityStop = in.readUTF();
+
+            final int count = in.readInt();
+            final List<Orbits.OrbitVector> osvList = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                osvList.add(new Orbits.OrbitVector(in.readDouble(),
+                        in.readDouble(), in.readDouble(), in.readDouble(),
+                        in.readDouble(), in.readDouble(), in.readDouble()));
+            }
+            return new OrbitFileSidecar(mission, fileType, validityStart, validityStop, osvList);
+        } catch (IOException e) {
+            SystemUtils.LOG.fine("OrbitFileSidecar: unable to read " + sidecarFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write the sidecar of an orbit file. Failures are logged and otherwise ignored.
+     *
+     * @param orbitFile     the orbit file the sidecar was parsed from
+     * @param sidecarFolder the folder holding the sidecars
+     */
+    void write(final File orbitFile, final File sidecarFolder) {
+        final File sidecarFile = getSidecarFile(orbitFile, sidecarFolder);
+        try {
+            if (!sidecarFolder.exists() && !sidecarFolder.mkdirs()) {
+                return;
+            }
+            final File tmpFile = File.createTempFile(sidecarFile.getName(), ".tmp", sidecarFolder);
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeLong(orbitFile.length());
+                    out.writeLong(orbitFile.lastModified());
+                    out.writeUTF(mission);
+                    out.writeUTF(fileType);
+                    out.writeUTF(validityStart);
+                    out.writeUTF(validityStop);
+
+                    out.writeInt(osvList.size());
+                    for (Orbits.OrbitVector osv : osvList) {
+                        out.writeDouble(osv.utcMJD);
+                        out.writeDouble(osv.xPos);
+                        out.writeDouble(osv.yPos);
+                        out.writeDouble(osv.zPos);
+                        out.writeDouble(osv.xVel);
+                        out.writeDouble(osv.yVel);
+                        out.writeDouble(osv.zVel);
+                    }
+                }
+                OrbitFileIndex.moveReplacing(tmpFile, sidecarFile);
+            } finally {
+                tmpFile.delete();
+            }
+        } catch (IOException e) {
+            SystemUtils.LOG.fine("OrbitFileSidecar: unable to write " + sidecarFile + ": " + e.getMessage());
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.esa.snap.engine_utilities.download.downloadablecontent.DownloadableCo
 import org.esa.snap.engine_utilities.util.Maths;
 import org.esa.snap.engine_utilities.util.Settings;
 import org.esa.snap.engine_utilities.util.ZipUtils;
+import org.esa.snap.runtime.Config;
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.NodeList;
@@ -80,6 +81,10 @@ public class SentinelPODOrbitFile extends BaseOrbitFile implements OrbitFile {
 
     private static LoadingCache<File, List<Orbits.OrbitVector>> cache;
 
+    // keep a persistent index of the local orbit folders and binary copies of parsed orbit files
+    private static final boolean usePersistentCache =
+            Config.instance().preferences().getBoolean("s1tbx.orbits.persistentCache", true);
+
     public SentinelPODOrbitFile(final MetadataElement absRoot, final int polyDegree) throws Exception {
         super(absRoot);
         this.polyDegree = polyDegree;
@@ -230,6 +235,10 @@ public class SentinelPODOrbitFile extends BaseOrbitFile implements OrbitFile {
         }
         final File orbitFileFolder = getDestFolder(missionPrefix, orbitType, year, month);
 
+        if (usePersistentCache) {
+            return OrbitFileIndex.getIndex(orbitFileFolder).findOrbitFile(prefix, stateVectorTime);
+        }
+
         if (!orbitFileFolder.exists())
             return null;
         final File[] files = orbitFileFolder.listFiles(new S1OrbitFileFilter(prefix));
@@ -457,6 +466,20 @@ public class SentinelPODOrbitFile extends BaseOrbitFile implements OrbitFile {
             return;
         }
 
+        if (usePersistentCache) {
+            final OrbitFileSidecar sidecar = OrbitFileSidecar.read(orbitFile, OrbitFileSidecar.getSidecarFolder());
+            if (sidecar != null && !sidecar.osvList.isEmpty()) {
+                fixedHeader = new FixedHeader(sidecar.mission, sidecar.fileType,
+                                              sidecar.validityStart, sidecar.validityStop);
+                osvList = sidecar.osvList;
+
+                checkOrbitFileValidity();
+
+                getCache().put(orbitFile, osvList);
+                return;
+            }
+        }
+
         final DocumentBuilderFactory documentFactory = DocumentBuilderFactory.newInstance();
         final DocumentBuilder documentBuilder = documentFactory.newDocumentBuilder();
 
@@ -540,6 +563,11 @@ public class SentinelPODOrbitFile extends BaseOrbitFile implements OrbitFile {
 
         checkOrbitFileValidity();
 
+        if (usePersistentCache && fixedHeader != null) {
+            new OrbitFileSidecar(fixedHeader.mission, fixedHeader.fileType, fixedHeader.validityStart,
+                                 fixedHeader.validityStop, osvList).write(orbitFile, OrbitFileSidecar.getSidecarFolder());
+        }
+
         getCache().put(orbitFile, osvList);
     }
 
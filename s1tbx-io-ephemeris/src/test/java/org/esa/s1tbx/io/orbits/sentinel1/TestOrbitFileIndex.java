@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.orbits.sentinel1;
+
+import org.esa.snap.engine_utilities.datamodel.Orbits;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * To test OrbitFileIndex and OrbitFileSidecar
+ */
+public class TestOrbitFileIndex {
+
+    private static final String PREFIX = "S1A_OPER_AUX_POEORB_OPOD_";
+    private static final String FILE1 = PREFIX + "20140612T122944_V20140521T225944_20140523T005944.EOF";
+    private static final String FILE2 = PREFIX + "20140613T122944_V20140522T225944_20140524T005944.EOF.zip";
+    private static final String FILE3 = PREFIX + "20140614T122944_V20140523T225944_20140525T005944.EOF";
+
+    // 2014-05-22 12:00, 2014-05-23 12:00 and 2014-05-24 12:00 in MJD 2000
+    private static final double DAY1 = 5255.5;
+    private static final double DAY2 = 5256.5;
+    private static final double DAY3 = 5257.5;
+
+    private File tmpDir;
+    private File orbitFolder;
+    private File indexFile;
+    private int numSettles = 0;
+
+    @Before
+    public void setUp() throws IOException {
+        tmpDir = Files.createTempDirectory("orbitIndex").toFile();
+        orbitFolder = new File(tmpDir, "05");
+        orbitFolder.mkdirs();
+        indexFile = new File(tmpDir, "index" + File.separator + "05.idx");
+    }
+
+    @After
+    public void tearDown() {
+        deleteTree(tmpDir);
+    }
+
+    @Test
+    public void testFindOrbitFile() throws IOException {
+        createFile(FILE1);
+        createFile(FILE2);
+        createFile("readme.txt");
+        settle();
+
+        final OrbitFileIndex index = new OrbitFileIndex(orbitFolder, indexFile);
+        assertEquals(2, index.getNumEntries());
+        assertEquals(FILE1, index.findOrbitFile(PREFIX, DAY1).getName());
+        assertEquals(FILE2, index.findOrbitFile(PREFIX, DAY2).getName());
+        assertNull(index.findOrbitFile(PREFIX, DAY3));
+        assertNull(index.findOrbitFile("S1B_OPER_AUX_POEORB_OPOD_", DAY1));
+        assertTrue(indexFile.exists());
+
+        // incremental refresh picks up new and removed files
+        createFile(FILE3);
+        new File(orbitFolder, FILE1).delete();
+        settle();
+
+        assertEquals(FILE3, index.findOrbitFile(PREFIX, DAY3).getName());
+        assertNull(index.findOrbitFile(PREFIX, DAY1));
+        assertEquals(2, index.getNumEntries());
+
+        // a new index is loaded from the index file
+        final OrbitFileIndex reloaded = new OrbitFileIndex(orbitFolder, indexFile);
+        assertEquals(2, reloaded.getNumEntries());
+        assertEquals(FILE3, reloaded.findOrbitFile(PREFIX, DAY3).getName());
+    }
+
+    @Test
+    public void testMissingFolder() {
+        final OrbitFileIndex index = new OrbitFileIndex(new File(tmpDir, "missing"), indexFile);
+        assertNull(index.findOrbitFile(PREFIX, DAY1));
+        assertEquals(0, index.getNumEntries());
+    }
+
+    @Test
+    public void testSidecar() throws IOException {
+        final File orbitFile = createFile(FILE1);
+        final File sidecarFolder = new File(tmpDir, "osv");
+
+        assertNull(OrbitFileSidecar.read(orbitFile, sidecarFolder));
+
+        final List<Orbits.OrbitVector> osvList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            osvList.add(new Orbits.OrbitVector(DAY1 + i / 8640.0,
+                    7000000.0 + i, -1000000.5 * i, 2.0e6 / (i + 1), 1.25 * i, -7000.0 + i, 0.1 * i));
+        }
+        new OrbitFileSidecar("Sentinel-1A", "AUX_POEORB", "UTC=2014-05-21T22:59:44",
+                "UTC=2014-05-23T00:59:44", osvList).write(orbitFile, sidecarFolder);
+
+        final OrbitFileSidecar sidecar = OrbitFileSidecar.read(orbitFile, sidecarFolder);
+        assertNotNull(sidecar);
+        assertEquals("Sentinel-1A", sidecar.mission);
+        assertEquals("AUX_POEORB", sidecar.fileType);
+        assertEquals("UTC=2014-05-21T22:59:44", sidecar.validityStart);
+        assertEquals("UTC=2014-05-23T00:59:44", sidecar.validityStop);
+        assertEquals(osvList.size(), sidecar.osvList.size());
+        for (int i = 0; i < osvList.size(); i++) {
+            final Orbits.OrbitVector expected = osvList.get(i);
+            final Orbits.OrbitVector actual = sidecar.osvList.get(i);
+            assertEquals(expected.utcMJD, actual.utcMJD, 0);
+            assertEquals(expected.xPos, actual.xPos, 0);
+            assertEquals(expected.yPos, actual.yPos, 0);
+            assertEquals(expected.zPos, actual.zPos, 0);
+            assertEquals(expected.xVel, actual.xVel, 0);
+            assertEquals(expected.yVel, actual.yVel, 0);
+            assertEquals(expected.zVel, actual.zVel, 0);
+        }
+
+        // a changed orbit file invalidates the sidecar
+        try (FileOutputStream out = new FileOutputStream(orbitFile, true)) {
+            out.write(1);
+        }
+        assertNull(OrbitFileSidecar.read(orbitFile, sidecarFolder));
+    }
+
+    private File createFile(final String name) throws IOException {
+        final File file = new File(orbitFolder, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(name.getBytes());
+        }
+        return file;
+    }
+
+    private void settle() {
+        // move the folder time back so the index does not wait for it to settle
+        orbitFolder.setLastModified(System.currentTimeMillis() - 3600000 + 60000 * ++numSettles);
+    }
+
+    private static void deleteTree(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                deleteTree(f);
+            }
+        }
+        file.delete();
+    }
+}
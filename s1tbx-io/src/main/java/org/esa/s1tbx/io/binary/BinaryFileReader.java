@@ -15,7 +15,10 @@
  */
 package org.esa.s1tbx.io.binary;
 
+import org.esa.s1tbx.commons.io.FileImageInputStreamExtImpl;
+
 import javax.imageio.stream.ImageInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -44,6 +47,20 @@ public final class BinaryFileReader {
         stream.setByteOrder(order);
     }
 
+    public ByteOrder getByteOrder() {
+        return stream.getByteOrder();
+    }
+
+    /**
+     * @return the file being read or null if the stream is not directly backed by a file
+     */
+    public File getFile() {
+        if (stream instanceof FileImageInputStreamExtImpl) {
+            return ((FileImageInputStreamExtImpl) stream).getFile();
+        }
+        return null;
+    }
+
     public void seek(final long pos) throws IOException {
         stream.seek(pos);
     }
@@ -140,6 +157,22 @@ public final class BinaryFileReader {
         stream.readFully(array, 0, array.length);
     }
 
+    public void read(final byte[] array, final int off, final int len) throws IOException {
+        stream.readFully(array, off, len);
+    }
+
+    public void read(final short[] array, final int off, final int len) throws IOException {
+        stream.readFully(array, off, len);
+    }
+
+    public void read(final int[] array, final int off, final int len) throws IOException {
+        stream.readFully(array, off, len);
+    }
+
+    public void read(final float[] array, final int off, final int len) throws IOException {
+        stream.readFully(array, off, len);
+    }
+
     public long readIn(final int n) throws IOException, IllegalBinaryFormatException {
         final long streamPosition = stream.getStreamPosition();
         final String longStr = readAn(n).trim();
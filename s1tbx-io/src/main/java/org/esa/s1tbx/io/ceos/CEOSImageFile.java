@@ -20,8 +20,11 @@ import org.esa.s1tbx.io.binary.BinaryFileReader;
 import org.esa.s1tbx.io.binary.BinaryRecord;
 import org.esa.snap.core.datamodel.MetadataElement;
 import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.util.SystemUtils;
 import org.esa.snap.engine_utilities.eo.Constants;
+import org.esa.snap.runtime.Config;
 
+import java.io.File;
 import java.io.IOException;
 
 
@@ -40,6 +43,10 @@ public abstract class CEOSImageFile {
     protected long startPosImageRecords = 0;
     protected int imageHeaderLength = 0;
 
+    private static final boolean useMemoryMap = Config.instance().preferences().getBoolean("s1tbx.readers.ceos.useMemoryMap", true);
+    private volatile boolean mappedFileInitialized = false;
+    private CEOSMappedFile mappedFile = null;
+
     public BinaryRecord getImageFileDescriptor() {
         return imageFDR;
     }
@@ -143,6 +150,77 @@ public abstract class CEOSImageFile {
         }
     }
 
+    /**
+     * @return memory mapped access to the image records or null if the file cannot be mapped
+     */
+    private CEOSMappedFile getMappedFile() {
+        if (!mappedFileInitialized) {
+            synchronized (this) {
+                if (!mappedFileInitialized) {
+                    final File file = useMemoryMap ? binaryReader.getFile() : null;
+                    if (file != null && _imageRecordLength > 0) {
+                        try {
+                            mappedFile = new CEOSMappedFile(file, startPosImageRecords, _imageRecordLength,
+                                                            binaryReader.getByteOrder());
+                        } catch (IOException e) {
+                            SystemUtils.LOG.warning("Unable to memory map " + file.getName() + ": " + e.getMessage());
+                        }
+                    }
+                    mappedFileInitialized = true;
+                }
+            }
+        }
+        return mappedFile;
+    }
+
+    private void readLine(final int y, final long xpos, final byte[] dest, final int destPos, final int length)
+            throws IOException {
+        final CEOSMappedFile mapped = getMappedFile();
+        if (mapped != null && mapped.read(y, xpos - startPosImageRecords, dest, destPos, length)) {
+            return;
+        }
+        synchronized (binaryReader) {
+            binaryReader.seek(_imageRecordLength * y + xpos);
+            binaryReader.read(dest, destPos, length);
+        }
+    }
+
+    private void readLine(final int y, final long xpos, final short[] dest, final int destPos, final int length)
+            throws IOException {
+        final CEOSMappedFile mapped = getMappedFile();
+        if (mapped != null && mapped.read(y, xpos - startPosImageRecords, dest, destPos, length)) {
+            return;
+        }
+        synchronized (binaryReader) {
+            binaryReader.seek(_imageRecordLength * y + xpos);
+            binaryReader.read(dest, destPos, length);
+        }
+    }
+
+    private void readLine(final int y, final long xpos, final int[] dest, final int destPos, final int length)
+            throws IOException {
+        final CEOSMappedFile mapped = getMappedFile();
+        if (mapped != null && mapped.read(y, xpos - startPosImageRecords, dest, destPos, length)) {
+            return;
+        }
+        synchronized (binaryReader) {
+            binaryReader.seek(_imageRecordLength * y + xpos);
+            binaryReader.read(dest, destPos, length);
+        }
+    }
+
+    private void readLine(final int y, final long xpos, final float[] dest, final int destPos, final int length)
+            throws IOException {
+        final CEOSMappedFile mapped = getMappedFile();
+        if (mapped != null && mapped.read(y, xpos - startPosImageRecords, dest, destPos, length)) {
+            return;
+        }
+        synchronized (binaryReader) {
+            binaryReader.seek(_imageRecordLength * y + xpos);
+            binaryReader.read(dest, destPos, length);
+        }
+    }
+
     public void readBandRasterDataShort(final int sourceOffsetX, final int sourceOffsetY,
                                         final int sourceWidth, final int sourceHeight,
                                         final int sourceStepX, final int sourceStepY,
@@ -154,30 +232,27 @@ public abstract class CEOSImageFile {
 
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
-            final short[] srcLine = new short[sourceWidth];
+            final short[] destArray = (short[]) destBuffer.getElems();
+            short[] srcLine = null;
             short[] destLine = null;
-            if (sourceStepX != 1)
+            if (sourceStepX != 1) {
+                srcLine = new short[sourceWidth];
                 destLine = new short[destWidth];
+            }
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
                 if (pm.isCanceled()) {
                     break;
                 }
 
-                // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
-
-                // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
                 if (sourceStepX == 1) {
-
-                    System.arraycopy(srcLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    // Read source line straight into the destination buffer
+                    readLine(y, xpos, destArray, currentLineIndex, destWidth);
                 } else {
+                    readLine(y, xpos, srcLine, 0, sourceWidth);
                     copyLine(srcLine, destLine, sourceStepX);
 
-                    System.arraycopy(destLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    System.arraycopy(destLine, 0, destArray, currentLineIndex, destWidth);
                 }
 
                 pm.worked(1);
@@ -201,31 +276,29 @@ public abstract class CEOSImageFile {
 
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
-            final int[] srcLine = new int[sourceWidth];
+            final int[] destArray = (int[]) destBuffer.getElems();
+            int[] srcLine = null;
             int[] destLine = null;
-            if (sourceStepX != 1)
+            if (sourceStepX != 1) {
+                srcLine = new int[sourceWidth];
                 destLine = new int[destWidth];
+            }
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
                 if (pm.isCanceled()) {
                     break;
                 }
 
-                // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
-
-                // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
                 if (sourceStepX == 1) {
-
-                    System.arraycopy(srcLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    // Read source line straight into the destination buffer
+                    readLine(y, xpos, destArray, currentLineIndex, destWidth);
                 } else {
+                    readLine(y, xpos, srcLine, 0, sourceWidth);
                     copyLine(srcLine, destLine, sourceStepX);
 
-                    System.arraycopy(destLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    System.arraycopy(destLine, 0, destArray, currentLineIndex, destWidth);
                 }
+
                 pm.worked(1);
             }
         } finally {
@@ -245,31 +318,29 @@ public abstract class CEOSImageFile {
 
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
-            final float[] srcLine = new float[sourceWidth];
+            final float[] destArray = (float[]) destBuffer.getElems();
+            float[] srcLine = null;
             float[] destLine = null;
-            if (sourceStepX != 1)
+            if (sourceStepX != 1) {
+                srcLine = new float[sourceWidth];
                 destLine = new float[destWidth];
+            }
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
                 if (pm.isCanceled()) {
                     break;
                 }
 
-                // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
-
-                // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
                 if (sourceStepX == 1) {
-
-                    System.arraycopy(srcLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    // Read source line straight into the destination buffer
+                    readLine(y, xpos, destArray, currentLineIndex, destWidth);
                 } else {
+                    readLine(y, xpos, srcLine, 0, sourceWidth);
                     copyLine(srcLine, destLine, sourceStepX);
 
-                    System.arraycopy(destLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    System.arraycopy(destLine, 0, destArray, currentLineIndex, destWidth);
                 }
+
                 pm.worked(1);
             }
         } finally {
@@ -288,30 +359,27 @@ public abstract class CEOSImageFile {
 
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
-            final byte[] srcLine = new byte[sourceWidth];
+            final byte[] destArray = (byte[]) destBuffer.getElems();
+            byte[] srcLine = null;
             byte[] destLine = null;
-            if (sourceStepX != 1)
+            if (sourceStepX != 1) {
+                srcLine = new byte[sourceWidth];
                 destLine = new byte[destWidth];
+            }
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
                 if (pm.isCanceled()) {
                     break;
                 }
 
-                // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
-
-                // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
                 if (sourceStepX == 1) {
-
-                    System.arraycopy(srcLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    // Read source line straight into the destination buffer
+                    readLine(y, xpos, destArray, currentLineIndex, destWidth);
                 } else {
+                    readLine(y, xpos, srcLine, 0, sourceWidth);
                     copyLine(srcLine, destLine, sourceStepX);
 
-                    System.arraycopy(destLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    System.arraycopy(destLine, 0, destArray, currentLineIndex, destWidth);
                 }
 
                 pm.worked(1);
@@ -360,10 +428,7 @@ public abstract class CEOSImageFile {
                 }   */
 
                 // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
+                readLine(y, xpos, srcLine, 0, srcLine.length);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -396,10 +461,7 @@ public abstract class CEOSImageFile {
                 }
 
                 // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
+                readLine(y, xpos, srcLine, 0, srcLine.length);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -434,10 +496,7 @@ public abstract class CEOSImageFile {
                 }
 
                 // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
+                readLine(y, xpos, srcLine, 0, srcLine.length);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -566,6 +625,10 @@ public abstract class CEOSImageFile {
     }
 
     public void close() throws IOException {
+        if (mappedFile != null) {
+            mappedFile.close();
+            mappedFile = null;
+        }
         binaryReader.close();
         binaryReader = null;
     }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.ceos;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Memory mapped access to the image records of a CEOS image file.
+ * The file is mapped in chunks of whole records so that a line never spans two mappings
+ * and files larger than 2GB can be read. Reads work on duplicates of the mapped buffers
+ * and need no locking.
+ */
+public class CEOSMappedFile {
+
+    private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+
+    private final long recordLength;
+    private final int recordsPerChunk;
+    private final ByteOrder byteOrder;
+    private volatile MappedByteBuffer[] chunks;
+
+    public CEOSMappedFile(final File file, final long startPosImageRecords, final long recordLength,
+                          final ByteOrder byteOrder) throws IOException {
+        this(file, startPosImageRecords, recordLength, byteOrder, MAX_CHUNK_SIZE);
+    }
+
+    CEOSMappedFile(final File file, final long startPosImageRecords, final long recordLength,
+                   final ByteOrder byteOrder, final long maxChunkSize) throws IOException {
+        if (recordLength <= 0 || recordLength > maxChunkSize) {
+            throw new IOException("Unable to map image records of length " + recordLength);
+        }
+        this.recordLength = recordLength;
+        this.recordsPerChunk = (int) (maxChunkSize / recordLength);
+        this.byteOrder = byteOrder;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            final long dataSize = channel.size() - startPosImageRecords;
+            final long chunkSize = recordsPerChunk * recordLength;
+            final int numChunks = (int) ((dataSize + chunkSize - 1) / chunkSize);
+
+            final MappedByteBuffer[] mapped = new MappedByteBuffer[Math.max(numChunks, 0)];
+            for (int i = 0; i < mapped.length; ++i) {
+                final long pos = startPosImageRecords + i * chunkSize;
+                mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(chunkSize, dataSize - i * chunkSize));
+            }
+            chunks = mapped;
+        }
+    }
+
+    /**
+     * Positions a view of the mapped file at a byte offset within an image record
+     *
+     * @param line           the image record
+     * @param offsetInRecord the byte offset from the start of the record
+     * @param numBytes       the number of bytes to be read
+     * @return a buffer positioned at the data or null if the data is not within the mapped records
+     */
+    private ByteBuffer getBuffer(final int line, final long offsetInRecord, final int numBytes) {
+        final MappedByteBuffer[] chunks = this.chunks;
+        final int chunkIndex = line / recordsPerChunk;
+        if (chunks == null || chunkIndex >= chunks.length || offsetInRecord < 0) {
+            return null;
+        }
+        final long pos = (line % recordsPerChunk) * recordLength + offsetInRecord;
+        final MappedByteBuffer chunk = chunks[chunkIndex];
+        if (pos + numBytes > chunk.limit()) {
+            return null;
+        }
+        final ByteBuffer buffer = chunk.duplicate();
+        buffer.order(byteOrder);
+        buffer.position((int) pos);
+        return buffer;
+    }
+
+    public boolean read(final int line, final long offsetInRecord, final byte[] dest, final int destPos, final int length) {
+        final ByteBuffer buffer = getBuffer(line, offsetInRecord, length);
+        if (buffer == null)
+            return false;
+        buffer.get(dest, destPos, length);
+        return true;
+    }
+
+    public boolean read(final int line, final long offsetInRecord, final short[] dest, final int destPos, final int length) {
+        final ByteBuffer buffer = getBuffer(line, offsetInRecord, length * 2);
+        if (buffer == null)
+            return false;
+        buffer.asShortBuffer().get(dest, destPos, length);
+        return true;
+    }
+
+    public boolean read(final int line, final long offsetInRecord, final int[] dest, final int destPos, final int length) {
+        final ByteBuffer buffer = getBuffer(line, offsetInRecord, length * 4);
+        if (buffer == null)
+            return false;
+        buffer.asIntBuffer().get(dest, destPos, length);
+        return true;
+    }
+
+    public boolean read(final int line, final long offsetInRecord, final float[] dest, final int destPos, final int length) {
+        final ByteBuffer buffer = getBuffer(line, offsetInRecord, length * 4);
+        if (buffer == null)
+            return false;
+        buffer.asFloatBuffer().get(dest, destPos, length);
+        return true;
+    }
+
+    public void close() {
+        chunks = null;
+    }
+}
@@ -21,6 +21,7 @@ import org.esa.s1tbx.commons.io.SARReader;
 import org.esa.s1tbx.io.netcdf.NcAttributeMap;
 import org.esa.s1tbx.io.netcdf.NcRasterDim;
 import org.esa.s1tbx.io.netcdf.NcVariableMap;
+import org.esa.s1tbx.io.netcdf.NetCDFChunkReader;
 import org.esa.s1tbx.io.netcdf.NetCDFReader;
 import org.esa.s1tbx.io.netcdf.NetCDFUtils;
 import org.esa.s1tbx.io.netcdf.NetcdfConstants;
@@ -47,6 +48,7 @@ import ucar.ma2.InvalidRangeException;
 import ucar.nc2.NetcdfFile;
 import ucar.nc2.Variable;
 
+import java.awt.Dimension;
 import java.io.File;
 import java.io.IOException;
 import java.text.DateFormat;
@@ -61,6 +63,7 @@ import java.util.Map;
 public class CosmoSkymedReader extends SARReader {
 
     private NetcdfFile netcdfFile = null;
+    private NetCDFChunkReader chunkReader = null;
     private Product product = null;
     private NcVariableMap variableMap = null;
     private boolean yFlipped = false;
@@ -85,6 +88,7 @@ public class CosmoSkymedReader extends SARReader {
     private void initReader() {
         product = null;
         netcdfFile = null;
+        chunkReader = null;
         variableMap = null;
     }
 
@@ -122,6 +126,7 @@ public class CosmoSkymedReader extends SARReader {
             final Variable[] tiePointGridVariables = NetCDFUtils.getTiePointGridVariables(variableListMap, rasterVariables);
 
             this.netcdfFile = netcdfFile;
+            chunkReader = new NetCDFChunkReader(netcdfFile);
             variableMap = new NcVariableMap(rasterVariables);
             yFlipped = false;
 
@@ -136,6 +141,10 @@ public class CosmoSkymedReader extends SARReader {
                     rasterWidth, rasterHeight,
                     this);
             product.setFileLocation(inputFile);
+            final Dimension tileSize = NetCDFChunkReader.getPreferredTileSize(rasterVariables[0], 0, 1);
+            if (tileSize != null) {
+                product.setPreferredTileSize(tileSize);
+            }
             product.setDescription(NetCDFUtils.getProductDescription(globalAttributes));
             product.setStartTime(NetCDFUtils.getSceneRasterStartTime(globalAttributes));
             product.setEndTime(NetCDFUtils.getSceneRasterStopTime(globalAttributes));
@@ -166,6 +175,8 @@ public class CosmoSkymedReader extends SARReader {
             product = null;
             variableMap.clear();
             variableMap = null;
+            chunkReader.close();
+            chunkReader = null;
             netcdfFile.close();
             netcdfFile = null;
         }
@@ -794,8 +805,10 @@ public class CosmoSkymedReader extends SARReader {
             shape[i] = 1;
             origin[i] = 0;
         }
-        shape[0] = 1;
+        // read the whole rectangle; chunks shared with neighbouring tiles come from the chunk cache
+        shape[0] = destHeight;
         shape[1] = destWidth;
+        origin[0] = yFlipped ? y0 - (destHeight - 1) : y0;
         origin[1] = sourceOffsetX;
         if (isComplex && destBand.getUnit().equals(Unit.IMAGINARY)) {
             origin[2] = 1;
@@ -803,17 +816,12 @@ public class CosmoSkymedReader extends SARReader {
 
         pm.beginTask("Reading data from band " + destBand.getName(), destHeight);
         try {
+            final Array array = chunkReader.read(variable, origin, shape);
+            final Object storage = array.getStorage();
             for (int y = 0; y < destHeight; y++) {
-                origin[0] = yFlipped ? y0 - y : y0 + y;
-                final Array array;
-                synchronized (netcdfFile) {
-                    array = variable.read(origin, shape);
-                }
-                System.arraycopy(array.getStorage(), 0, destBuffer.getElems(), y * destWidth, destWidth);
+                final int srcY = yFlipped ? destHeight - 1 - y : y;
+                System.arraycopy(storage, srcY * destWidth, destBuffer.getElems(), y * destWidth, destWidth);
                 pm.worked(1);
-                if (pm.isCanceled()) {
-                    throw new IOException("Process terminated by user."); /*I18N*/
-                }
             }
         } catch (InvalidRangeException e) {
             final IOException ioException = new IOException(e.getMessage());
@@ -17,7 +17,7 @@ package org.esa.s1tbx.io.gamma;
 
 import com.bc.ceres.core.ProgressMonitor;
 import com.bc.ceres.glevel.MultiLevelImage;
-import org.esa.s1tbx.commons.io.FileImageOutputStreamExtImpl;
+import org.esa.s1tbx.commons.io.FlatBinaryFile;
 import org.esa.s1tbx.io.gamma.header.GammaConstants;
 import org.esa.s1tbx.io.gamma.header.HeaderDEMWriter;
 import org.esa.s1tbx.io.gamma.header.HeaderDiffWriter;
@@ -30,12 +30,10 @@ import org.esa.snap.core.gpf.internal.TileImpl;
 import org.esa.snap.core.util.Guardian;
 import org.esa.snap.engine_utilities.datamodel.Unit;
 
-import javax.imageio.stream.ImageOutputStream;
 import java.awt.*;
 import java.awt.image.Raster;
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.nio.ByteOrder;
 import java.util.HashMap;
 import java.util.Map;
@@ -45,10 +43,13 @@ import java.util.Map;
  */
 public class GammaProductWriter extends AbstractProductWriter {
 
+    // number of samples interleaved at once when writing complex bands
+    private static final int MAX_BLOCK_SIZE = 1024 * 1024;
+
     private File outputDir;
     private File outputFile;
     private Product srcProduct;
-    private Map<Band, ImageOutputStream> bandOutputStreams;
+    private Map<Band, FlatBinaryFile> bandFiles;
     private HeaderWriter headerWriter;
 
     public GammaProductWriter(final ProductWriterPlugIn writerPlugIn) {
@@ -89,74 +90,62 @@ public class GammaProductWriter extends AbstractProductWriter {
         headerWriter.writeParFile();
     }
 
-    private ImageOutputStream createImageOutputStream(final Band band) throws IOException {
-        final ImageOutputStream out = new FileImageOutputStreamExtImpl(getValidImageFile(band));
-        out.setByteOrder(ByteOrder.BIG_ENDIAN);
-        return out;
+    private FlatBinaryFile createBandFile(final Band band) throws IOException {
+        return new FlatBinaryFile(getImageFile(band), getImageFileSize(band), ByteOrder.BIG_ENDIAN);
     }
 
     /**
      * {@inheritDoc}
      */
-    public synchronized void writeBandRasterData(Band sourceBand,
-                                                 int sourceOffsetX, int sourceOffsetY,
-                                                 int sourceWidth, int sourceHeight,
-                                                 ProductData sourceBuffer,
-                                                 ProgressMonitor pm) throws IOException {
+    public void writeBandRasterData(Band sourceBand,
+                                    int sourceOffsetX, int sourceOffsetY,
+                                    int sourceWidth, int sourceHeight,
+                                    ProductData sourceBuffer,
+                                    ProgressMonitor pm) throws IOException {
         Guardian.assertNotNull("sourceBand", sourceBand);
         Guardian.assertNotNull("sourceBuffer", sourceBuffer);
         final int sourceBandWidth = sourceBand.getRasterWidth();
         final int elemSize = headerWriter.getHighestElemSize();
 
-        final ImageOutputStream outputStream = getOrCreateImageOutputStream(sourceBand);
+        final FlatBinaryFile bandFile = getOrCreateBandFile(sourceBand);
         pm.beginTask("Writing band '" + sourceBand.getName() + "'...", sourceHeight);
         try {
             if (isComplex(sourceBand)) {
-                int numInterleaved = 2;
+                final int numInterleaved = 2;
                 final Rectangle rect = new Rectangle(sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight);
                 final Tile sourceTile = getSourceTile(getComplexSrcBand(sourceBand), rect);
                 final ProductData qSourceBuffer = sourceTile.getRawSamples();
-                int srcCnt = 0;
 
-                if (elemSize >= 4) {
-                    final float[] destBuffer = new float[sourceWidth * numInterleaved];
-                    for (long y = sourceOffsetY; y < sourceOffsetY + sourceHeight; ++y) {
-                        int dstCnt = 0;
-                        for (int x = sourceOffsetX; x < sourceOffsetX + sourceWidth; ++x) {
-
-                            destBuffer[dstCnt++] = sourceBuffer.getElemFloatAt(srcCnt);
-                            destBuffer[dstCnt++] = qSourceBuffer.getElemFloatAt(srcCnt);
+                // interleave i and q in bands of rows to bound the memory used for whole band writes
+                final int rowsPerBlock = Math.max(1, Math.min(sourceHeight, MAX_BLOCK_SIZE / (sourceWidth * numInterleaved)));
+                final Object destBuffer = elemSize >= 4 ? new float[rowsPerBlock * sourceWidth * numInterleaved] :
+                        new short[rowsPerBlock * sourceWidth * numInterleaved];
+                int srcCnt = 0;
+                for (int r = 0; r < sourceHeight; r += rowsPerBlock) {
+                    final int numRows = Math.min(rowsPerBlock, sourceHeight - r);
+                    final int numElems = numRows * sourceWidth;
+                    int dstCnt = 0;
+                    if (destBuffer instanceof float[]) {
+                        final float[] dest = (float[]) destBuffer;
+                        for (int i = 0; i < numElems; ++i) {
+                            dest[dstCnt++] = sourceBuffer.getElemFloatAt(srcCnt);
+                            dest[dstCnt++] = qSourceBuffer.getElemFloatAt(srcCnt);
                             srcCnt++;
                         }
-
-                        outputStream.seek(elemSize * (y * sourceBandWidth + sourceOffsetX) * numInterleaved);
-                        outputStream.writeFloats(destBuffer, 0, destBuffer.length);
-                    }
-                } else {
-                    final short[] destBuffer = new short[sourceWidth * numInterleaved];
-                    for (long y = sourceOffsetY; y < sourceOffsetY + sourceHeight; ++y) {
-                        int dstCnt = 0;
-                        for (int x = sourceOffsetX; x < sourceOffsetX + sourceWidth; ++x) {
-
-                            destBuffer[dstCnt++] = (short) sourceBuffer.getElemFloatAt(srcCnt);
-                            destBuffer[dstCnt++] = (short) qSourceBuffer.getElemFloatAt(srcCnt);
+                    } else {
+                        final short[] dest = (short[]) destBuffer;
+                        for (int i = 0; i < numElems; ++i) {
+                            dest[dstCnt++] = (short) sourceBuffer.getElemFloatAt(srcCnt);
+                            dest[dstCnt++] = (short) qSourceBuffer.getElemFloatAt(srcCnt);
                             srcCnt++;
                         }
-
-                        outputStream.seek(elemSize * (y * sourceBandWidth + sourceOffsetX) * numInterleaved);
-                        outputStream.writeShorts(destBuffer, 0, destBuffer.length);
                     }
+                    bandFile.writeRect(destBuffer, sourceOffsetX * numInterleaved, sourceOffsetY + r,
+                                       sourceWidth * numInterleaved, numRows, sourceBandWidth * numInterleaved);
                 }
-
-                //System.out.println(rect.toString());
             } else {
-                //todo
-                long outputPos = (long) sourceOffsetY * (long) sourceBandWidth + sourceOffsetX;
-                final long max = sourceHeight * sourceWidth;
-                for (int sourcePos = 0; sourcePos < max; sourcePos += sourceWidth) {
-                    sourceBuffer.writeTo(sourcePos, sourceWidth, outputStream, outputPos);
-                    outputPos += sourceBandWidth;
-                }
+                bandFile.writeRect(sourceBuffer, sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight,
+                                   sourceBandWidth);
             }
             pm.worked(1);
         } finally {
@@ -188,12 +177,7 @@ public class GammaProductWriter extends AbstractProductWriter {
      * @throws java.io.IOException on failure
      */
     public void flush() throws IOException {
-        if (bandOutputStreams == null) {
-            return;
-        }
-        for (Object o : bandOutputStreams.values()) {
-            ((ImageOutputStream) o).flush();
-        }
+        // band files are written without buffering
     }
 
     /**
@@ -201,15 +185,15 @@ public class GammaProductWriter extends AbstractProductWriter {
      *
      * @throws java.io.IOException on failure
      */
-    public void close() throws IOException {
-        if (bandOutputStreams == null) {
+    public synchronized void close() throws IOException {
+        if (bandFiles == null) {
             return;
         }
-        for (Object o : bandOutputStreams.values()) {
-            ((ImageOutputStream) o).close();
+        for (FlatBinaryFile bandFile : bandFiles.values()) {
+            bandFile.close();
         }
-        bandOutputStreams.clear();
-        bandOutputStreams = null;
+        bandFiles.clear();
+        bandFiles = null;
     }
 
     /**
@@ -224,26 +208,19 @@ public class GammaProductWriter extends AbstractProductWriter {
     }
 
     /**
-     * Returns the data output stream associated with the given <code>Band</code>. If no stream exists, one is created
+     * Returns the band file associated with the given <code>Band</code>. If no file is open, one is created
      * and fed into the hash map
      */
-    private ImageOutputStream getOrCreateImageOutputStream(final Band band) throws IOException {
-        ImageOutputStream outputStream = getImageOutputStream(band);
-        if (outputStream == null) {
-            outputStream = createImageOutputStream(band);
-            if (bandOutputStreams == null) {
-                bandOutputStreams = new HashMap<>();
-            }
-            bandOutputStreams.put(band, outputStream);
+    private synchronized FlatBinaryFile getOrCreateBandFile(final Band band) throws IOException {
+        if (bandFiles == null) {
+            bandFiles = new HashMap<>();
         }
-        return outputStream;
-    }
-
-    private ImageOutputStream getImageOutputStream(final Band band) {
-        if (bandOutputStreams != null) {
-            return bandOutputStreams.get(band);
+        FlatBinaryFile bandFile = bandFiles.get(band);
+        if (bandFile == null) {
+            bandFile = createBandFile(band);
+            bandFiles.put(band, bandFile);
         }
-        return null;
+        return bandFile;
     }
 
     @Override
@@ -286,23 +263,6 @@ public class GammaProductWriter extends AbstractProductWriter {
         return new File(outputDir, filename);
     }
 
-    /**
-     * Returns a file associated with the given <code>Band</code>. The method ensures that the file exists and have the
-     * right size. Also ensures a recreate if the file not exists or the file have a different file size. A new envi
-     * header file was written every call.
-     */
-    private File getValidImageFile(final Band band) throws IOException {
-        final File file = getImageFile(band);
-        if (file.exists()) {
-            if (file.length() != getImageFileSize(band)) {
-                createPhysicalFile(file, getImageFileSize(band));
-            }
-        } else {
-            createPhysicalFile(file, getImageFileSize(band));
-        }
-        return file;
-    }
-
     private static long getImageFileSize(final RasterDataNode band) {
         long numInterleaved = 1;
         if (isComplex(band)) {
@@ -313,18 +273,6 @@ public class GammaProductWriter extends AbstractProductWriter {
                 (long) band.getRasterHeight() * numInterleaved;
     }
 
-    private static void createPhysicalFile(final File file, final long fileSize) throws IOException {
-        final File parentDir = file.getParentFile();
-        if (parentDir != null) {
-            if (!parentDir.exists() && !parentDir.mkdirs()) {
-                throw new IOException("Unable to create folders in " + parentDir);
-            }
-        }
-        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
-        randomAccessFile.setLength(fileSize);
-        randomAccessFile.close();
-    }
-
     private static boolean isComplex(final RasterDataNode band) {
         final String unit = band.getUnit();
         return unit != null && unit.equals(Unit.REAL);
@@ -21,6 +21,7 @@ import org.esa.s1tbx.io.binary.ArrayCopy;
 import org.esa.s1tbx.io.netcdf.NcAttributeMap;
 import org.esa.s1tbx.io.netcdf.NcRasterDim;
 import org.esa.s1tbx.io.netcdf.NcVariableMap;
+import org.esa.s1tbx.io.netcdf.NetCDFChunkReader;
 import org.esa.s1tbx.io.netcdf.NetCDFReader;
 import org.esa.s1tbx.io.netcdf.NetCDFUtils;
 import org.esa.s1tbx.io.netcdf.NetcdfConstants;
@@ -44,6 +45,7 @@ import ucar.ma2.InvalidRangeException;
 import ucar.nc2.NetcdfFile;
 import ucar.nc2.Variable;
 
+import java.awt.Dimension;
 import java.io.File;
 import java.io.IOException;
 import java.text.DateFormat;
@@ -61,6 +63,7 @@ public class K5HDF implements K5Format {
     private final Kompsat5Reader reader;
     private Product product = null;
     private NetcdfFile netcdfFile = null;
+    private NetCDFChunkReader chunkReader = null;
     private NcVariableMap variableMap = null;
     private boolean yFlipped = false;
     private boolean useFloatBands = false;
@@ -95,6 +98,7 @@ public class K5HDF implements K5Format {
         final Variable[] tiePointGridVariables = NetCDFUtils.getTiePointGridVariables(variableListMap, rasterVariables);
 
         this.netcdfFile = netcdfFile;
+        chunkReader = new NetCDFChunkReader(netcdfFile);
         variableMap = new NcVariableMap(rasterVariables);
         yFlipped = false;
 
@@ -110,6 +114,10 @@ public class K5HDF implements K5Format {
                               rasterWidth, rasterHeight,
                               reader);
         product.setFileLocation(inputFile);
+        final Dimension tileSize = NetCDFChunkReader.getPreferredTileSize(rasterVariables[0], 0, 1);
+        if (tileSize != null) {
+            product.setPreferredTileSize(tileSize);
+        }
         product.setDescription(NetCDFUtils.getProductDescription(globalAttributes));
         product.setStartTime(NetCDFUtils.getSceneRasterStartTime(globalAttributes));
         product.setEndTime(NetCDFUtils.getSceneRasterStopTime(globalAttributes));
@@ -131,6 +139,8 @@ public class K5HDF implements K5Format {
             product = null;
             variableMap.clear();
             variableMap = null;
+            chunkReader.close();
+            chunkReader = null;
             netcdfFile.close();
             netcdfFile = null;
         }
@@ -746,8 +756,10 @@ public class K5HDF implements K5Format {
             shape[i] = 1;
             origin[i] = 0;
         }
-        shape[0] = 1;
+        // read the whole rectangle; chunks shared with neighbouring tiles come from the chunk cache
+        shape[0] = destHeight;
         shape[1] = destWidth;
+        origin[0] = yFlipped ? y0 - (destHeight - 1) : y0;
         origin[1] = sourceOffsetX;
         if (isComplex && destBand.getUnit().equals(Unit.IMAGINARY)) {
             origin[2] = 1;
@@ -755,25 +767,20 @@ public class K5HDF implements K5Format {
 
         pm.beginTask("Reading data from band " + destBand.getName(), destHeight);
         try {
+            final Array array = chunkReader.read(variable, origin, shape);
+            final Object storage = array.getStorage();
             for (int y = 0; y < destHeight; y++) {
-                origin[0] = yFlipped ? y0 - y : y0 + y;
-                final Array array;
-                synchronized (netcdfFile) {
-                    array = variable.read(origin, shape);
-                }
+                final int srcOffset = (yFlipped ? destHeight - 1 - y : y) * destWidth;
 
                 if (destBand.getDataType() == ProductData.TYPE_FLOAT32) {
                     for (int x = 0; x < destWidth; x++) {
-                        destBuffer.setElemFloatAt(y * destWidth + x, ArrayCopy.toFloat(array.getShort(x)));
+                        destBuffer.setElemFloatAt(y * destWidth + x, ArrayCopy.toFloat(array.getShort(srcOffset + x)));
                     }
                 } else {
-                    System.arraycopy(array.getStorage(), 0, destBuffer.getElems(), y * destWidth, destWidth);
+                    System.arraycopy(storage, srcOffset, destBuffer.getElems(), y * destWidth, destWidth);
                 }
 
                 pm.worked(1);
-                if (pm.isCanceled()) {
-                    throw new IOException("Process terminated by user."); /*I18N*/
-                }
             }
         } catch (InvalidRangeException e) {
             final IOException ioException = new IOException(e.getMessage());
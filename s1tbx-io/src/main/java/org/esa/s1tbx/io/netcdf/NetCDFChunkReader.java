@@ -0,0 +1,458 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.netcdf;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.esa.snap.runtime.Config;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.Attribute;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+
+import java.awt.Dimension;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent, chunk aware reading of NetCDF and HDF5 variables.
+ * <p>
+ * A NetcdfFile may only be used by one thread at a time, so reads borrow a handle from a small pool of
+ * handles on the same file, opening more up to s1tbx.readers.netcdf.maxHandles. Variables are read in
+ * whole chunks which are kept decompressed in a byte budgeted cache shared by all files, so tiles and
+ * lines overlapping the same chunk decode it once. The budget can be set with
+ * s1tbx.readers.netcdf.chunkCacheSizeMB.
+ * <p>
+ * The chunk layout is taken from the _ChunkSizes attribute of the variable. Variables that are not
+ * chunked, such as the contiguous CSK and K5 rasters, are read in bands of whole rows of about
+ * CHUNK_TARGET_SIZE bytes. A contiguous row is a single sequential read, so a full width band costs
+ * little more than the part of it a tile needs, and the tiles beside it in the same rows are then
+ * served from the cache. The cost is that a single narrow tile still reads and caches its full rows.
+ */
+public class NetCDFChunkReader {
+
+    private static final int DEFAULT_MAX_HANDLES = Config.instance().preferences().getInt(
+            "s1tbx.readers.netcdf.maxHandles", Math.min(8, Runtime.getRuntime().availableProcessors()));
+    private static final long CACHE_SIZE = Config.instance().preferences().getLong(
+            "s1tbx.readers.netcdf.chunkCacheSizeMB", 256) * 1024L * 1024L;
+    private static final long CACHE_EXPIRY_SECONDS = 60;
+
+    static final long CHUNK_TARGET_SIZE = 4L * 1024L * 1024L;
+    private static final int MIN_TILE_SIZE = 256;
+
+    private static final String[] CHUNK_SIZE_ATTRIBUTES = {"_ChunkSizes", "_ChunkSize"};
+
+    private static final Cache<ChunkKey, Chunk> chunkCache = CacheBuilder.newBuilder()
+            .maximumWeight(CACHE_SIZE)
+            .weigher((ChunkKey key, Chunk value) -> value.getSizeInBytes())
+            .expireAfterAccess(CACHE_EXPIRY_SECONDS, TimeUnit.SECONDS)
+            .build();
+
+    private final String location;
+    private final int maxHandles;
+    private final BlockingQueue<Handle> idleHandles;
+    private final List<Handle> openedHandles = new ArrayList<>();
+    private int numHandles;
+    private final Map<String, int[]> chunkShapeMap = new ConcurrentHashMap<>();
+    private boolean closed = false;
+
+    /**
+     * @param netcdfFile the open file, used as the first handle but not closed by this reader
+     */
+    public NetCDFChunkReader(final NetcdfFile netcdfFile) {
+        this(netcdfFile, DEFAULT_MAX_HANDLES);
+    }
+
+    public NetCDFChunkReader(final NetcdfFile netcdfFile, final int maxHandles) {
+        this.location = netcdfFile.getLocation();
+        this.maxHandles = Math.max(1, maxHandles);
+        this.idleHandles = new ArrayBlockingQueue<>(this.maxHandles);
+
+        final Handle handle = new Handle(netcdfFile, false);
+        openedHandles.add(handle);
+        numHandles = 1;
+        idleHandles.add(handle);
+    }
+
+    /**
+     * Reads a section of a variable. The returned array is in canonical order like Variable.read(origin, shape).
+     *
+     * @param variable a variable of the file given to the constructor
+     * @param origin   the first index in each dimension
+     * @param shape    the number of elements in each dimension
+     * @return the data
+     * @throws IOException           if the file could not be read
+     * @throws InvalidRangeException if the section is not within the variable
+     */
+    public Array read(final Variable variable, final int[] origin, final int[] shape)
+            throws IOException, InvalidRangeException {
+
+        final int rank = variable.getRank();
+        final int[] varShape = variable.getShape();
+        if (origin.length != rank || shape.length != rank) {
+            throw new InvalidRangeException("Section rank does not match variable " + variable.getFullName());
+        }
+        for (int d = 0; d < rank; d++) {
+            if (origin[d] < 0 || shape[d] < 0 || origin[d] + shape[d] > varShape[d]) {
+                throw new InvalidRangeException("Section is not within variable " + variable.getFullName());
+            }
+        }
+
+        if (rank == 0) {
+            final Handle handle = borrowHandle();
+            try {
+                return handle.getVariable(variable).read();
+            } finally {
+                returnHandle(handle);
+            }
+        }
+
+        final Array result = Array.factory(variable.getDataType(), shape);
+        if (result.getSize() == 0) {
+            return result;
+        }
+        final Object resultStorage = result.getStorage();
+
+        final String varName = variable.getFullNameEscaped();
+        final int[] chunkShape = getChunkShape(variable);
+
+        final int[] first = new int[rank];
+        final int[] last = new int[rank];
+        for (int d = 0; d < rank; d++) {
+            first[d] = origin[d] / chunkShape[d];
+            last[d] = (origin[d] + shape[d] - 1) / chunkShape[d];
+        }
+
+        // visit every chunk overlapping the section and copy the intersection
+        final int[] chunkIndex = first.clone();
+        final int[] chunkOrigin = new int[rank];
+        final int[] srcPos = new int[rank];
+        final int[] dstPos = new int[rank];
+        final int[] count = new int[rank];
+        while (true) {
+            for (int d = 0; d < rank; d++) {
+                chunkOrigin[d] = chunkIndex[d] * chunkShape[d];
+                final int lo = Math.max(origin[d], chunkOrigin[d]);
+                final int hi = Math.min(origin[d] + shape[d], Math.min(chunkOrigin[d] + chunkShape[d], varShape[d]));
+                srcPos[d] = lo - chunkOrigin[d];
+                dstPos[d] = lo - origin[d];
+                count[d] = hi - lo;
+            }
+
+            final Chunk chunk = getChunk(variable, varName, chunkOrigin, chunkShape, varShape);
+            copyRegion(chunk.storage, chunk.shape, srcPos, resultStorage, shape, dstPos, count);
+
+            int d = rank - 1;
+            while (d >= 0 && chunkIndex[d] == last[d]) {
+                chunkIndex[d] = first[d];
+                --d;
+            }
+            if (d < 0) {
+                break;
+            }
+            ++chunkIndex[d];
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the chunk layout of the variable, or bands of whole rows if the variable is not chunked
+     */
+    public int[] getChunkShape(final Variable variable) {
+        return chunkShapeMap.computeIfAbsent(variable.getFullNameEscaped(), name -> {
+            int[] chunkShape = getStoredChunkShape(variable);
+            if (chunkShape == null) {
+                chunkShape = getRowBandShape(variable.getShape(), variable.getElementSize());
+            }
+            return chunkShape;
+        });
+    }
+
+    /**
+     * Gives a tile size made of whole chunks of the variable so that tiles do not share chunks.
+     *
+     * @param variable the raster variable
+     * @param yDim     the index of the y dimension
+     * @param xDim     the index of the x dimension
+     * @return the preferred tile size or null if the variable is not chunked
+     */
+    public static Dimension getPreferredTileSize(final Variable variable, final int yDim, final int xDim) {
+        final int[] chunkShape = getStoredChunkShape(variable);
+        if (chunkShape == null) {
+            return null;
+        }
+        final int[] varShape = variable.getShape();
+        return new Dimension(getTileLength(chunkShape[xDim], varShape[xDim]),
+                             getTileLength(chunkShape[yDim], varShape[yDim]));
+    }
+
+    private static int getTileLength(final int chunkLength, final int rasterLength) {
+        final int numChunks = (MIN_TILE_SIZE + chunkLength - 1) / chunkLength;
+        return Math.min(rasterLength, numChunks * chunkLength);
+    }
+
+    static int[] getStoredChunkShape(final Variable variable) {
+        final int[] varShape = variable.getShape();
+        for (String name : CHUNK_SIZE_ATTRIBUTES) {
+            final Attribute attribute = variable.findAttribute(name);
+            if (attribute != null && attribute.getLength() == varShape.length && attribute.getDataType().isNumeric()) {
+                final int[] chunkShape = new int[varShape.length];
+                for (int d = 0; d < varShape.length; d++) {
+                    chunkShape[d] = Math.max(1, Math.min(varShape[d], attribute.getNumericValue(d).intValue()));
+                }
+                return chunkShape;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Splits the leading dimensions so that a chunk holds whole rows of about CHUNK_TARGET_SIZE bytes
+     */
+    static int[] getRowBandShape(final int[] varShape, final int elementSize) {
+        final int rank = varShape.length;
+        final int[] chunkShape = new int[rank];
+        for (int d = 0; d < rank; d++) {
+            chunkShape[d] = Math.max(1, varShape[d]);
+        }
+        for (int d = 0; d < rank; d++) {
+            long rest = Math.max(1, elementSize);
+            for (int k = d + 1; k < rank; k++) {
+                rest *= chunkShape[k];
+            }
+            if (rest * chunkShape[d] <= CHUNK_TARGET_SIZE) {
+                break;
+            }
+            chunkShape[d] = (int) Math.max(1, CHUNK_TARGET_SIZE / rest);
+            if (rest >= CHUNK_TARGET_SIZE) {
+                continue;
+            }
+            break;
+        }
+        return chunkShape;
+    }
+
+    private Chunk getChunk(final Variable variable, final String varName, final int[] chunkOrigin,
+                           final int[] chunkShape, final int[] varShape) throws IOException {
+        final ChunkKey key = new ChunkKey(this, varName, chunkOrigin.clone());
+        try {
+            return chunkCache.get(key, () -> {
+                final int[] shape = new int[chunkOrigin.length];
+                for (int d = 0; d < shape.length; d++) {
+                    shape[d] = Math.min(chunkShape[d], varShape[d] - key.origin[d]);
+                }
+                final Array array;
+                final Handle handle = borrowHandle();
+                try {
+                    array = handle.getVariable(variable).read(key.origin, shape);
+                } finally {
+                    returnHandle(handle);
+                }
+                return new Chunk(array.copyTo1DJavaArray(), shape, variable.getElementSize());
+            });
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Copies a block between two arrays in canonical order, one run along the last dimension at a time
+     */
+    static void copyRegion(final Object src, final int[] srcShape, final int[] srcPos,
+                           final Object dst, final int[] dstShape, final int[] dstPos, final int[] count) {
+        final int rank = count.length;
+        for (int c : count) {
+            if (c <= 0) {
+                return;
+            }
+        }
+        final int runLength = count[rank - 1];
+        final int[] pos = new int[rank];
+        while (true) {
+            int srcOffset = 0, dstOffset = 0;
+            for (int d = 0; d < rank; d++) {
+                srcOffset = srcOffset * srcShape[d] + srcPos[d] + pos[d];
+                dstOffset = dstOffset * dstShape[d] + dstPos[d] + pos[d];
+            }
+            System.arraycopy(src, srcOffset, dst, dstOffset, runLength);
+
+            int d = rank - 2;
+            while (d >= 0 && pos[d] == count[d] - 1) {
+                pos[d] = 0;
+                --d;
+            }
+            if (d < 0) {
+                break;
+            }
+            ++pos[d];
+        }
+    }
+
+    private Handle borrowHandle() throws IOException {
+        final Handle idle = idleHandles.poll();
+        if (idle != null) {
+            return idle;
+        }
+        boolean open = false;
+        synchronized (openedHandles) {
+            if (closed) {
+                throw new IOException(location + " is closed");
+            }
+            if (numHandles < maxHandles) {
+                ++numHandles;
+                open = true;
+            }
+        }
+        if (open) {
+            final NetcdfFile netcdfFile;
+            try {
+                netcdfFile = NetcdfFile.open(location);
+            } catch (IOException e) {
+                synchronized (openedHandles) {
+                    --numHandles;
+                }
+                throw e;
+            }
+            final Handle handle = new Handle(netcdfFile, true);
+            synchronized (openedHandles) {
+                if (!closed) {
+                    openedHandles.add(handle);
+                    return handle;
+                }
+            }
+            netcdfFile.close();
+            throw new IOException(location + " is closed");
+        }
+        try {
+            return idleHandles.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private void returnHandle(final Handle handle) {
+        idleHandles.offer(handle);
+    }
+
+    /**
+     * Drops the cached chunks and closes the handles opened by this reader.
+     */
+    public void close() throws IOException {
+        chunkCache.asMap().keySet().removeIf(key -> key.reader == this);
+
+        final List<Handle> handles;
+        synchronized (openedHandles) {
+            closed = true;
+            handles = new ArrayList<>(openedHandles);
+            openedHandles.clear();
+        }
+        idleHandles.clear();
+        for (Handle handle : handles) {
+            if (handle.owned) {
+                handle.netcdfFile.close();
+            }
+        }
+    }
+
+    private static final class Handle {
+        final NetcdfFile netcdfFile;
+        final boolean owned;
+        private final Map<String, Variable> variableMap = new HashMap<>();
+
+        Handle(final NetcdfFile netcdfFile, final boolean owned) {
+            this.netcdfFile = netcdfFile;
+            this.owned = owned;
+        }
+
+        Variable getVariable(final Variable variable) throws IOException {
+            if (!owned) {
+                return variable;
+            }
+            final String name = variable.getFullNameEscaped();
+            Variable var = variableMap.get(name);
+            if (var == null) {
+                var = netcdfFile.findVariable(name);
+                if (var == null) {
+                    throw new IOException("Variable " + name + " not found in " + netcdfFile.getLocation());
+                }
+                variableMap.put(name, var);
+            }
+            return var;
+        }
+    }
+
+    private static final class ChunkKey {
+        private final NetCDFChunkReader reader;
+        private final String varName;
+        private final int[] origin;
+        private final int hash;
+
+        ChunkKey(final NetCDFChunkReader reader, final String varName, final int[] origin) {
+            this.reader = reader;
+            this.varName = varName;
+            this.origin = origin;
+            this.hash = 31 * (31 * System.identityHashCode(reader) + varName.hashCode()) + Arrays.hashCode(origin);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof ChunkKey))
+                return false;
+
+            final ChunkKey key = (ChunkKey) obj;
+            return reader == key.reader && varName.equals(key.varName) && Arrays.equals(origin, key.origin);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Chunk {
+        private final Object storage;
+        private final int[] shape;
+        private final int sizeInBytes;
+
+        Chunk(final Object storage, final int[] shape, final int elementSize) {
+            this.storage = storage;
+            this.shape = shape;
+            this.sizeInBytes = java.lang.reflect.Array.getLength(storage) * Math.max(1, elementSize);
+        }
+
+        int getSizeInBytes() {
+            return sizeInBytes;
+        }
+    }
+}
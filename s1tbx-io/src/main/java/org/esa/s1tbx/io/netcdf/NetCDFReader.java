@@ -37,6 +37,7 @@ import ucar.nc2.Group;
 import ucar.nc2.NetcdfFile;
 import ucar.nc2.Variable;
 
+import java.awt.Dimension;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
@@ -48,6 +49,7 @@ import java.util.Map;
 public class NetCDFReader extends AbstractProductReader {
 
     private NetcdfFile netcdfFile = null;
+    private NetCDFChunkReader chunkReader = null;
     private Product product = null;
     private NcVariableMap variableMap = null;
     private boolean yFlipped = false;
@@ -67,6 +69,7 @@ public class NetCDFReader extends AbstractProductReader {
     private void initReader() {
         product = null;
         netcdfFile = null;
+        chunkReader = null;
         variableMap = null;
     }
 
@@ -100,6 +103,7 @@ public class NetCDFReader extends AbstractProductReader {
         final Variable[] rasterVariables = NetCDFUtils.getRasterVariables(variableListMap, rasterDim);
         final Variable[] tiePointGridVariables = NetCDFUtils.getTiePointGridVariables(variableListMap, rasterVariables);
 
+        chunkReader = new NetCDFChunkReader(netcdfFile);
         variableMap = new NcVariableMap(rasterVariables);
         yFlipped = false;
 
@@ -111,6 +115,13 @@ public class NetCDFReader extends AbstractProductReader {
                               rasterDim.getDimY().getLength(),
                               this);
         product.setFileLocation(inputFile);
+        if (rasterVariables.length > 0) {
+            final int rank = rasterVariables[0].getRank();
+            final Dimension tileSize = NetCDFChunkReader.getPreferredTileSize(rasterVariables[0], rank - 2, rank - 1);
+            if (tileSize != null) {
+                product.setPreferredTileSize(tileSize);
+            }
+        }
         product.setDescription(NetCDFUtils.getProductDescription(globalAttributes));
         product.setStartTime(NetCDFUtils.getSceneRasterStartTime(globalAttributes));
         product.setEndTime(NetCDFUtils.getSceneRasterStopTime(globalAttributes));
@@ -140,6 +151,8 @@ public class NetCDFReader extends AbstractProductReader {
             product = null;
             variableMap.clear();
             variableMap = null;
+            chunkReader.close();
+            chunkReader = null;
             netcdfFile.close();
             netcdfFile = null;
         }
@@ -261,7 +274,7 @@ public class NetCDFReader extends AbstractProductReader {
      * {@inheritDoc}
      */
     @Override
-    protected synchronized void readBandRasterDataImpl(int sourceOffsetX, int sourceOffsetY, int sourceWidth, int sourceHeight,
+    protected void readBandRasterDataImpl(int sourceOffsetX, int sourceOffsetY, int sourceWidth, int sourceHeight,
                                                        int sourceStepX, int sourceStepY, Band destBand, int destOffsetX,
                                                        int destOffsetY, int destWidth, int destHeight, ProductData destBuffer,
                                                        ProgressMonitor pm) throws IOException {
@@ -292,19 +305,19 @@ public class NetCDFReader extends AbstractProductReader {
             shape[i] = 1;
             origin[i] = 0;
         }
-        shape[rank - 2] = 1;
+        // read the whole rectangle; chunks shared with neighbouring tiles come from the chunk cache
+        shape[rank - 2] = destHeight;
         shape[rank - 1] = destWidth;
+        origin[rank - 2] = yFlipped ? y0 - (destHeight - 1) : y0;
         origin[rank - 1] = sourceOffsetX;
 
         pm.beginTask("Reading data from band " + destBand.getName(), destHeight);
         try {
+            final Array array = chunkReader.read(variable, origin, shape);
+            final Object storage = array.getStorage();
             for (int y = 0; y < destHeight; y++) {
-                origin[rank - 2] = yFlipped ? y0 - y : y0 + y;
-                final Array array;
-                synchronized (netcdfFile) {
-                    array = variable.read(origin, shape);
-                }
-                System.arraycopy(array.getStorage(), 0, destBuffer.getElems(), y * destWidth, destWidth);
+                final int srcY = yFlipped ? destHeight - 1 - y : y;
+                System.arraycopy(storage, srcY * destWidth, destBuffer.getElems(), y * destWidth, destWidth);
                 pm.worked(1);
                 if (pm.isCanceled()) {
                     throw new IOException("Process terminated by user."); /*I18N*/
@@ -15,13 +15,17 @@
  */
 package org.esa.s1tbx.io.polsarpro;
 
+import com.bc.ceres.core.ProgressMonitor;
 import org.esa.s1tbx.commons.io.FileImageOutputStreamExtImpl;
+import org.esa.s1tbx.commons.io.FlatBinaryFile;
 import org.esa.s1tbx.commons.polsar.PolBandUtils;
 import org.esa.snap.core.dataio.ProductWriterPlugIn;
 import org.esa.snap.core.dataio.dimap.EnviHeader;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.MetadataElement;
 import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.util.Guardian;
 import org.esa.snap.core.util.SystemUtils;
 import org.esa.snap.dataio.envi.EnviProductWriter;
 import org.esa.snap.engine_utilities.datamodel.AbstractMetadata;
@@ -33,6 +37,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * The product writer for PolSARPro products.
@@ -41,6 +47,8 @@ public class PolsarProProductWriter extends EnviProductWriter {
 
     private final static String BIN_EXTENSION = ".bin";
 
+    private final Map<Band, FlatBinaryFile> bandFiles = new HashMap<>();
+
     /**
      * Construct a new instance of a product writer for the given ENVI product writer plug-in.
      *
@@ -80,6 +88,51 @@ public class PolsarProProductWriter extends EnviProductWriter {
         return out;
     }
 
+    /**
+     * Writes tiles with positional writes so that tiles of any band can be written concurrently.
+     */
+    @Override
+    public void writeBandRasterData(Band sourceBand,
+                                    int sourceOffsetX, int sourceOffsetY,
+                                    int sourceWidth, int sourceHeight,
+                                    ProductData sourceBuffer,
+                                    ProgressMonitor pm) throws IOException {
+        Guardian.assertNotNull("sourceBand", sourceBand);
+        Guardian.assertNotNull("sourceBuffer", sourceBuffer);
+        Guardian.assertEquals("sourceWidth * sourceHeight", sourceBuffer.getNumElems(), sourceWidth * sourceHeight);
+
+        final FlatBinaryFile bandFile = getOrCreateBandFile(sourceBand);
+        pm.beginTask("Writing band '" + sourceBand.getName() + "'...", 1);
+        try {
+            bandFile.writeRect(sourceBuffer, sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight,
+                               sourceBand.getRasterWidth());
+            pm.worked(1);
+        } finally {
+            pm.done();
+        }
+    }
+
+    private synchronized FlatBinaryFile getOrCreateBandFile(final Band band) throws IOException {
+        FlatBinaryFile bandFile = bandFiles.get(band);
+        if (bandFile == null) {
+            final File file = getValidImageFile(band);
+            bandFile = new FlatBinaryFile(file, file.length(), ByteOrder.LITTLE_ENDIAN);
+            bandFiles.put(band, bandFile);
+        }
+        return bandFile;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            for (FlatBinaryFile bandFile : bandFiles.values()) {
+                bandFile.close();
+            }
+            bandFiles.clear();
+        }
+        super.close();
+    }
+
     /**
      * Initializes all the internal file and directory elements from the given output file. This method only must be
      * called if the product writer should write the given data to raw data files without calling of writeProductNodes.
@@ -1,72 +1,154 @@
 package org.esa.s1tbx.io.sentinel1;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.esa.s1tbx.commons.io.ImageIOFile;
+import org.esa.snap.runtime.Config;
 
 import java.awt.*;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * Byte budgeted cache of decoded SLC tiles keyed on image and rectangle.
+ * The real and imaginary bands of a tile share one decode of the I/Q words.
+ * Once both halves of a tile have been consumed the tile is dropped so the cache holds only tiles still pending.
+ * <p>
+ * The budget and expiry can be set with s1tbx.readers.sentinel1.cacheSizeMB and
+ * s1tbx.readers.sentinel1.cacheExpirySeconds.
+ * <p>
  * Created by lveci on 20/05/2014.
  */
 public class DataCache {
 
-    private final LoadingCache<DataKey, Data> cache;
+    private static final long DEFAULT_MAX_BYTES = Config.instance().preferences().getLong(
+            "s1tbx.readers.sentinel1.cacheSizeMB", 256) * 1024L * 1024L;
+    private static final long DEFAULT_EXPIRY_SECONDS = Config.instance().preferences().getLong(
+            "s1tbx.readers.sentinel1.cacheExpirySeconds", 60);
+
+    private final Cache<DataKey, Data> cache;
+    private final long maxBytes;
 
     public DataCache() {
-        cache = CacheBuilder.newBuilder().maximumSize(500).initialCapacity(500)
-        .expireAfterAccess(1, TimeUnit.MINUTES)
-                //.recordStats()
-                .build(new CacheLoader<DataKey, Data>() {
-                           @Override
-                           public Data load(DataKey key) throws Exception {
-                               return new Data();
-                           }
-                       }
-        );
+        this(DEFAULT_MAX_BYTES, DEFAULT_EXPIRY_SECONDS);
+    }
+
+    public DataCache(final long maxBytes, final long expirySeconds) {
+        this.maxBytes = maxBytes;
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((DataKey key, Data value) -> value.getSizeInBytes())
+                .expireAfterAccess(expirySeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
     }
 
     public long size() {
         return cache.size();
     }
 
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return hit, miss, load and eviction counts
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
     public String stats() {
         return cache.stats().toString();
     }
 
-    public Data get(DataKey key) {
-        return cache.getUnchecked(key);
+    /**
+     * Returns the cached tile or decodes it with the loader. Concurrent requests for the same
+     * tile wait for a single decode. A failed decode is not cached, so the next request tries again.
+     *
+     * @param key    the image and rectangle
+     * @param loader decodes the tile if not cached
+     * @return the decoded tile
+     * @throws IOException if the tile could not be decoded
+     */
+    public Data get(final DataKey key, final Callable<Data> loader) throws IOException {
+        try {
+            return cache.get(key, loader);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Marks the real or imaginary half of a tile as consumed and drops the tile once both halves have been read
+     *
+     * @param key         the image and rectangle
+     * @param data        the decoded tile
+     * @param isImaginary true if the imaginary half was read
+     */
+    public void release(final DataKey key, final Data data, final boolean isImaginary) {
+        if (data.markRead(isImaginary)) {
+            cache.asMap().remove(key, data);
+        }
     }
 
-    public synchronized void put(DataKey key, Data value) {
-        cache.put(key, value);
+    public void clear() {
+        cache.invalidateAll();
     }
 
     public static class DataKey {
         private final ImageIOFile img;
         private final Rectangle rect;
+        private final int stepX, stepY;
+        private final int hash;
 
         DataKey(final ImageIOFile img, final Rectangle rect) {
+            this(img, rect, 1, 1);
+        }
+
+        DataKey(final ImageIOFile img, final Rectangle rect, final int stepX, final int stepY) {
             this.img = img;
-            this.rect = rect;
+            this.rect = new Rectangle(rect);
+            this.stepX = stepX;
+            this.stepY = stepY;
+
+            int h = System.identityHashCode(img);
+            h = 31 * h + rect.x;
+            h = 31 * h + rect.y;
+            h = 31 * h + rect.width;
+            h = 31 * h + rect.height;
+            h = 31 * h + stepX;
+            this.hash = 31 * h + stepY;
         }
 
         @Override
         public boolean equals(Object obj) {
-
-            DataKey key = (DataKey) obj;
-            return (rect.x == key.rect.x &&
+            if (this == obj)
+                return true;
+            if (!(obj instanceof DataKey))
+                return false;
+
+            final DataKey key = (DataKey) obj;
+            return (img == key.img &&
+                    rect.x == key.rect.x &&
                     rect.y == key.rect.y &&
                     rect.width == key.rect.width &&
                     rect.height == key.rect.height &&
-                    img == key.img);
+                    stepX == key.stepX &&
+                    stepY == key.stepY);
         }
 
         @Override
         public int hashCode() {
-            return img.hashCode();
+            return hash;
         }
 
         @Override
@@ -77,16 +159,28 @@ public class DataCache {
 
     public static class Data {
 
-        public final boolean valid;
-        public int[] intArray;
-
-        public Data() {
-            valid = false;
-        }
+        public final int[] intArray;
+        private boolean realRead = false;
+        private boolean imaginaryRead = false;
 
         public Data(final int[] srcArray) {
             this.intArray = srcArray;
-            this.valid = true;
+        }
+
+        int getSizeInBytes() {
+            return intArray.length * 4;
+        }
+
+        /**
+         * @return true if both the real and imaginary halves have now been read
+         */
+        synchronized boolean markRead(final boolean isImaginary) {
+            if (isImaginary) {
+                imaginaryRead = true;
+            } else {
+                realRead = true;
+            }
+            return realRead && imaginaryRead;
         }
     }
 }
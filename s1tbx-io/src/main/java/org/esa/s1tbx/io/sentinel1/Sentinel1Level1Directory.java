@@ -17,8 +17,10 @@ package org.esa.s1tbx.io.sentinel1;
 
 import it.geosolutions.imageioimpl.plugins.tiff.TIFFImageReader;
 import org.esa.s1tbx.commons.io.ImageIOFile;
+import org.esa.s1tbx.commons.io.ImageIOReaderPool;
 import org.esa.s1tbx.commons.io.SARReader;
 import org.esa.s1tbx.commons.io.XMLProductDirectory;
+import org.esa.s1tbx.commons.io.ZipEntryImageInputStream;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.GeoCoding;
 import org.esa.snap.core.datamodel.GeoPos;
@@ -47,7 +49,6 @@ import javax.imageio.stream.ImageInputStream;
 import java.awt.Dimension;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.text.DateFormat;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -84,8 +85,7 @@ public class Sentinel1Level1Directory extends XMLProductDirectory implements Sen
         if ((name.endsWith("tiff"))) {
             try {
                 final Dimension bandDimensions = getBandDimensions(newRoot, imgBandMetadataMap.get(name));
-                final InputStream inStream = getInputStream(imgPath);
-                final ImageInputStream imgStream = ImageIOFile.createImageInputStream(inStream, bandDimensions);
+                final ImageInputStream imgStream = getImageInputStream(imgPath, bandDimensions);
 
                 final ImageIOFile img;
                 if (isSLC()) {
@@ -95,6 +95,14 @@ public class Sentinel1Level1Directory extends XMLProductDirectory implements Sen
                     img = new ImageIOFile(name, imgStream, getTiffIIOReader(imgStream),
                             1, 1, ProductData.TYPE_INT32, productInputFile);
                 }
+                if (!isCompressed()) {
+                    final File imgFile = getFile(imgPath);
+                    img.setReaderPool(createReaderPool(() -> ImageIO.createImageInputStream(imgFile)));
+                } else if (imgStream instanceof ZipEntryImageInputStream) {
+                    // stored entries can be opened again cheaply so tiles can be decoded concurrently
+                    final ZipEntryImageInputStream.Directory zipDirectory = getZipDirectory();
+                    img.setReaderPool(createReaderPool(() -> ZipEntryImageInputStream.open(zipDirectory, imgPath)));
+                }
                 bandImageFileMap.put(img.getName(), img);
             } catch (Exception e) {
                 SystemUtils.LOG.severe(imgPath +" not found");
@@ -102,6 +110,26 @@ public class Sentinel1Level1Directory extends XMLProductDirectory implements Sen
         }
     }
 
+    private interface StreamFactory {
+        ImageInputStream createStream() throws IOException;
+    }
+
+    /**
+     * @param streamFactory opens a new stream on the image for each pooled reader
+     * @return a pool of TIFF readers on the image
+     */
+    private static ImageIOReaderPool createReaderPool(final StreamFactory streamFactory) {
+        return new ImageIOReaderPool(() -> {
+            final ImageInputStream poolStream = streamFactory.createStream();
+            if (poolStream == null) {
+                throw new IOException("Unable to open image stream");
+            }
+            final ImageReader poolReader = getTiffIIOReader(poolStream);
+            poolReader.setInput(poolStream, false, true);
+            return poolReader;
+        });
+    }
+
     public static ImageReader getTiffIIOReader(final ImageInputStream stream) throws IOException {
         ImageReader reader = null;
         final Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(stream);
@@ -113,6 +113,15 @@ public class Sentinel1Level2Directory extends XMLProductDirectory implements Sen
         return "Level-2 OCN";
     }
 
+    @Override
+    public void close() throws IOException {
+        if (OCNReader != null) {
+            OCNReader.close();
+            OCNReader = null;
+        }
+        super.close();
+    }
+
     public Sentinel1OCNReader getOCNReader() {
         return OCNReader;
     }
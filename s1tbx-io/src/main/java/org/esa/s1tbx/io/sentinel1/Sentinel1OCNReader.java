@@ -17,6 +17,7 @@ package org.esa.s1tbx.io.sentinel1;
 
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
+import org.esa.s1tbx.io.netcdf.NetCDFChunkReader;
 import org.esa.s1tbx.io.netcdf.NetCDFUtils;
 import org.esa.snap.core.datamodel.*;
 import org.esa.snap.core.util.SystemUtils;
@@ -71,9 +72,11 @@ public class Sentinel1OCNReader {
     private static class NCFileData {
         String name;
         NetcdfFile netcdfFile;
+        NetCDFChunkReader chunkReader;
         NCFileData(String name, NetcdfFile netcdfFile) {
             this.name = name;
             this.netcdfFile = netcdfFile;
+            this.chunkReader = new NetCDFChunkReader(netcdfFile);
         }
     }
 
@@ -83,7 +86,7 @@ public class Sentinel1OCNReader {
     // For WV, there can be more than one MDS .nc file. See Table 4-3 in Product Spec v2/7 (S1-RS-MDA-52-7441).
     // Each MDS has the same variables, so we want unique band names for variables of same name from different .nc file.
     // Given a band name, we want to map back to the .nc file.
-    private final Map<String, NetcdfFile> bandNameNCFileMap = new HashMap<>(1);
+    private final Map<String, NCFileData> bandNameNCFileMap = new HashMap<>(1);
 
     private int sceneWidth = -1;
     private int sceneHeight = -1;
@@ -149,6 +152,15 @@ public class Sentinel1OCNReader {
         bandNCFileMap.put(imgNum, new NCFileData(name, netcdfFile));
     }
 
+    public void close() throws IOException {
+        for (NCFileData data : bandNCFileMap.values()) {
+            data.chunkReader.close();
+            data.netcdfFile.close();
+        }
+        bandNCFileMap.clear();
+        bandNameNCFileMap.clear();
+    }
+
     public int getSceneWidth() {
         if (bandNCFileMap.size() == 1) {
             return sceneWidth;
@@ -284,7 +296,7 @@ public class Sentinel1OCNReader {
                     case 2: {
                         bandName += variable.getFullName();
                         addBand(product, bandName, variable, shape[1], shape[0]);
-                        bandNameNCFileMap.put(bandName, netcdfFile);
+                        bandNameNCFileMap.put(bandName, data);
 
                         if (bandName.contains("owiNrcs")) {
                             product.setQuicklookBandName(bandName);
@@ -305,7 +317,7 @@ public class Sentinel1OCNReader {
                             // Tbe band will have dimensions: shape[0]*shape[2] (rows) by shape[1] (cols).
                             // So band width = shape[1] and band height = shape[0]*shape[2]
                             addBand(product, bandNameSwath, variable, shape[1], shape[0]);// * shape[2]);
-                            bandNameNCFileMap.put(bandNameSwath, netcdfFile);
+                            bandNameNCFileMap.put(bandNameSwath, data);
                         }
                     }
                     break;
@@ -323,7 +335,7 @@ public class Sentinel1OCNReader {
                         // Tbe band will have dimensions: shape[0]*shape[2] (rows) by shape[1]*shape[3] (cols).
                         // So band width = shape[1]*shape[3] and band height = shape[0]*shape[2]
                         addBand(product, bandName, variable, shape[1] * shape[3], shape[0] * shape[2]);
-                        bandNameNCFileMap.put(bandName, netcdfFile);
+                        bandNameNCFileMap.put(bandName, data);
                         /*
                         if (bandName.contains("oswPolSpec")) {
                             dumpVariableValues(variable, bandName);
@@ -563,26 +575,27 @@ public class Sentinel1OCNReader {
 
         //System.out.println("Sentinel1OCNReader.readData: bandName = " + bandName + " varFullName = " + varFullName);
 
-        final NetcdfFile netcdfFile = bandNameNCFileMap.get(bandName);
-        final Variable var = netcdfFile.findVariable(varFullName);
+        final NCFileData data = bandNameNCFileMap.get(bandName);
+        final NetCDFChunkReader chunkReader = data.chunkReader;
+        final Variable var = data.netcdfFile.findVariable(varFullName);
 
         switch (var.getRank()) {
             case 2:
-                readDataForRank2Variable(sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight,
+                readDataForRank2Variable(chunkReader, sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight,
                         sourceStepX, sourceStepY, var, destWidth, destHeight, destBuffer);
                 break;
             case 3:
-                readDataForRank3Variable(bandName, sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight,
+                readDataForRank3Variable(chunkReader, bandName, sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight,
                         sourceStepX, sourceStepY, var, destWidth, destHeight, destBuffer);
                 break;
             case 4:
-                readDataForRank4Variable(sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight,
+                readDataForRank4Variable(chunkReader, sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight,
                         sourceStepX, sourceStepY, var, destWidth, destHeight, destBuffer);
                 break;
         }
     }
 
-    public synchronized void readDataForRank2Variable(int sourceOffsetX, int sourceOffsetY, int sourceWidth, int sourceHeight,
+    private void readDataForRank2Variable(final NetCDFChunkReader chunkReader, int sourceOffsetX, int sourceOffsetY, int sourceWidth, int sourceHeight,
                                          int sourceStepX, int sourceStepY, Variable var,
                                          int destWidth, int destHeight, ProductData destBuffer) {
 
@@ -597,7 +610,7 @@ public class Sentinel1OCNReader {
 
         try {
 
-            final Array srcArray = var.read(origin, shape);
+            final Array srcArray = chunkReader.read(var, origin, shape);
 
             for (int i = 0; i < destHeight; i++) {
                 final int srcStride = i * sourceWidth;
@@ -619,7 +632,7 @@ public class Sentinel1OCNReader {
         }
     }
 
-    private synchronized void readDataForRank3Variable(final String bandName,
+    private void readDataForRank3Variable(final NetCDFChunkReader chunkReader, final String bandName,
                                                        int sourceOffsetX, int sourceOffsetY,
                                                        int sourceWidth, int sourceHeight,
                                                       int sourceStepX, int sourceStepY, Variable var,
@@ -642,7 +655,7 @@ public class Sentinel1OCNReader {
         final int[] shape = {outerYEnd - origin[0] + 1, outerXEnd - origin[1] + 1, 1};
 
         try {
-            final Array srcArray = var.read(origin, shape);
+            final Array srcArray = chunkReader.read(var, origin, shape);
 
             final int length = destBuffer.getNumElems();
             for(int i=0; i< length; ++i) {
@@ -669,7 +682,7 @@ public class Sentinel1OCNReader {
         return 0;
     }
 
-    private synchronized void readDataForRank4Variable(int sourceOffsetX, int sourceOffsetY, int sourceWidth, int sourceHeight,
+    private void readDataForRank4Variable(final NetCDFChunkReader chunkReader, int sourceOffsetX, int sourceOffsetY, int sourceWidth, int sourceHeight,
                                           int sourceStepX, int sourceStepY, Variable var,
                                           int destWidth, int destHeight, ProductData destBuffer) {
 
@@ -695,7 +708,7 @@ public class Sentinel1OCNReader {
 
         try {
 
-            final Array srcArray = var.read(origin, shape);
+            final Array srcArray = chunkReader.read(var, origin, shape);
             final int[] idx = new int[4];
 
             for (int i = 0; i < destHeight; i++) {
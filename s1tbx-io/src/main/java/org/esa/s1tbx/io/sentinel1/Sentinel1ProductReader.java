@@ -27,10 +27,8 @@ import org.esa.snap.core.util.SystemUtils;
 import org.esa.snap.engine_utilities.gpf.ReaderUtils;
 
 import javax.imageio.ImageReadParam;
-import javax.imageio.ImageReader;
 import java.awt.Rectangle;
 import java.awt.image.Raster;
-import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
 import java.io.File;
 import java.io.IOException;
@@ -41,7 +39,7 @@ import java.io.IOException;
 public class Sentinel1ProductReader extends SARReader {
 
     protected Sentinel1Directory dataDir = null;
-    private DataCache cache = new DataCache();
+    private final DataCache cache = new DataCache();
 
     /**
      * Constructs a new abstract product reader.
@@ -66,6 +64,7 @@ public class Sentinel1ProductReader extends SARReader {
      */
     @Override
     public void close() throws IOException {
+        cache.clear();
         if (dataDir != null) {
             dataDir.close();
             dataDir = null;
@@ -179,25 +178,13 @@ public class Sentinel1ProductReader extends SARReader {
                                   int destWidth, int destHeight,
                                   final ImageIOFile.BandInfo bandInfo) throws IOException {
 
-        int length;
-        int[] srcArray;
-
-        //System.out.println(cache.stats()+", size="+cache.size());
-
         final Rectangle destRect = new Rectangle(destOffsetX, destOffsetY, destWidth, destHeight);
-        final DataCache.DataKey datakey = new DataCache.DataKey(bandInfo.img, destRect);
-        DataCache.Data cachedData = cache.get(datakey);
-        if (cachedData != null && cachedData.valid) {
-            srcArray = cachedData.intArray;
-            length = srcArray.length;
-        } else {
-            cachedData = readRect(datakey, bandInfo,
-                                         sourceOffsetX, sourceOffsetY, sourceStepX, sourceStepY,
-                                         destRect);
+        final DataCache.DataKey datakey = new DataCache.DataKey(bandInfo.img, destRect, sourceStepX, sourceStepY);
+        final DataCache.Data cachedData = cache.get(datakey, () -> readRect(bandInfo,
+                sourceOffsetX, sourceOffsetY, sourceStepX, sourceStepY, destRect));
 
-            srcArray = cachedData.intArray;
-            length = srcArray.length;
-        }
+        final int[] srcArray = cachedData.intArray;
+        final int length = srcArray.length;
 
         final short[] destArray = (short[]) destBuffer.getElems();
         if (!bandInfo.isImaginary) {
@@ -224,21 +211,21 @@ public class Sentinel1ProductReader extends SARReader {
                 }
             }
         }
+        cache.release(datakey, cachedData, bandInfo.isImaginary);
     }
 
-    private synchronized DataCache.Data readRect(final DataCache.DataKey datakey, final ImageIOFile.BandInfo bandInfo,
-                                         int sourceOffsetX, int sourceOffsetY, int sourceStepX, int sourceStepY,
-                                         final Rectangle destRect) throws IOException {
+    private DataCache.Data readRect(final ImageIOFile.BandInfo bandInfo,
+                                    int sourceOffsetX, int sourceOffsetY, int sourceStepX, int sourceStepY,
+                                    final Rectangle destRect) throws IOException {
         try {
-            final ImageReader imageReader = bandInfo.img.getReader();
-            final ImageReadParam readParam = imageReader.getDefaultReadParam();
+            final ImageReadParam readParam = bandInfo.img.getReader().getDefaultReadParam();
             if (sourceStepX == 1 && sourceStepY == 1) {
                 readParam.setSourceRegion(destRect);
             }
             readParam.setSourceSubsampling(sourceStepX, sourceStepY, sourceOffsetX % sourceStepX, sourceOffsetY % sourceStepY);
-            final RenderedImage subsampledImage = imageReader.readAsRenderedImage(0, readParam);
 
-            final Raster data = subsampledImage.getData(destRect);
+            // reads on a per thread reader when the image supports it, otherwise serialized on the image
+            final Raster data = bandInfo.img.getData(readParam, destRect);
 
             final SampleModel sampleModel = data.getSampleModel();
             final int destWidth = Math.min((int) destRect.getWidth(), sampleModel.getWidth());
@@ -248,16 +235,9 @@ public class Sentinel1ProductReader extends SARReader {
             final int[] srcArray = new int[length];
             sampleModel.getSamples(0, 0, destWidth, destHeight, bandInfo.bandSampleOffset, srcArray, data.getDataBuffer());
 
-            DataCache.Data cachedData = new DataCache.Data(srcArray);
-            cache.put(datakey, cachedData);
-
-            return cachedData;
-        } catch (Exception e) {
-            final int[] srcArray = new int[(int)destRect.getWidth()*(int)destRect.getHeight()];
-            DataCache.Data cachedData = new DataCache.Data(srcArray);
-            cache.put(datakey, cachedData);
-
-            return cachedData;
+            return new DataCache.Data(srcArray);
+        } catch (RuntimeException e) {
+            throw new IOException("Unable to read " + destRect + " from " + bandInfo.img.getName(), e);
         }
     }
 }
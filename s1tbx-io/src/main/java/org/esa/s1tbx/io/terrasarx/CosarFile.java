@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.terrasarx;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.esa.s1tbx.io.binary.ArrayCopy;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.runtime.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access to the complex samples of a COSAR file.
+ * <p>
+ * The burst header is parsed once when the file is opened. Rectangles are read with positional reads on a
+ * shared file channel so concurrent tiles need no lock. Each read decodes both the i and q samples, and the
+ * half not yet requested is kept in a small cache shared by all COSAR files until the other band asks for it.
+ * <p>
+ * The cache budget can be set with s1tbx.readers.cosar.cacheSizeMB.
+ */
+public class CosarFile {
+
+    private static final long CACHE_SIZE = Config.instance().preferences().getLong(
+            "s1tbx.readers.cosar.cacheSizeMB", 64) * 1024L * 1024L;
+    private static final long CACHE_EXPIRY_SECONDS = 60;
+
+    // upper bound on the bytes read at once when consecutive lines are read together
+    private static final int MAX_READ_SIZE = 4 * 1024 * 1024;
+
+    private static final int HEADER_SIZE = 36;
+    private static final int SAMPLE_SIZE = 4;
+
+    private static final Cache<BlockKey, Block> blockCache = CacheBuilder.newBuilder()
+            .maximumWeight(CACHE_SIZE)
+            .weigher((BlockKey key, Block value) -> value.getSizeInBytes())
+            .expireAfterAccess(CACHE_EXPIRY_SECONDS, TimeUnit.SECONDS)
+            .build();
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+
+    private final int rangeSamples;
+    private final int azimuthSamples;
+    private final long recordLength;
+    private final long dataOffset;
+    private final boolean isSSC;
+
+    public CosarFile(final File file) throws IOException {
+        this.file = file;
+        this.raf = new RandomAccessFile(file, "r");
+        this.channel = raf.getChannel();
+
+        try {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+            if (readFully(header, 0) < HEADER_SIZE) {
+                throw new IOException("Unable to read COSAR header of " + file);
+            }
+            // bytes in burst, range sample relative index, range samples, azimuth samples, burst index,
+            // rangeline total number of bytes, total number of lines, CSAR and version
+            final int rs = header.getInt(8);
+            final int as = header.getInt(12);
+            final int rtnb = header.getInt(20);
+            final int version = header.getInt(32);
+
+            if (version != 1 && version != 2) {
+                throw new IOException("Unknown version = " + version);
+            }
+
+            rangeSamples = rs;
+            azimuthSamples = as;
+            recordLength = rtnb;
+            // skip the header record and the annotation of the first burst
+            dataOffset = rtnb + (3L * rs + 8) * SAMPLE_SIZE;
+            isSSC = (version == 1); // true means it is SSC, false means it is CoSSC
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getRangeSamples() {
+        return rangeSamples;
+    }
+
+    public int getAzimuthSamples() {
+        return azimuthSamples;
+    }
+
+    /**
+     * @return true for 16 bit integer SSC samples, false for 16 bit float CoSSC samples
+     */
+    public boolean isSSC() {
+        return isSSC;
+    }
+
+    /**
+     * Reads the i or q samples of a rectangle. SSC samples are returned as shorts and CoSSC samples as floats.
+     *
+     * @param sourceOffsetX the first range sample
+     * @param sourceOffsetY the first line
+     * @param sourceStepX   the range sub-sampling
+     * @param sourceStepY   the azimuth sub-sampling
+     * @param destWidth     the number of samples per line to return
+     * @param destHeight    the number of lines to return
+     * @param imaginary     true for the q samples, false for the i samples
+     * @param destBuffer    the buffer receiving destWidth * destHeight samples
+     * @throws IOException if the file could not be read
+     */
+    public void readBandRasterData(final int sourceOffsetX, final int sourceOffsetY,
+                                   final int sourceStepX, final int sourceStepY,
+                                   final int destWidth, final int destHeight,
+                                   final boolean imaginary, final ProductData destBuffer) throws IOException {
+
+        final BlockKey key = new BlockKey(this, sourceOffsetX, sourceOffsetY, sourceStepX, sourceStepY,
+                                          destWidth, destHeight);
+        final Block block;
+        try {
+            block = blockCache.get(key, () -> readBlock(key));
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+
+        block.copyTo(imaginary, destBuffer);
+
+        if (block.markRead(imaginary)) {
+            blockCache.asMap().remove(key, block);
+        }
+    }
+
+    private Block readBlock(final BlockKey key) throws IOException {
+        final int w = key.width;
+        final int h = key.height;
+        final int stepX = key.stepX;
+        if (w <= 0 || h <= 0) {
+            return isSSC ? new Block(new short[0], new short[0]) : new Block(new float[0], new float[0]);
+        }
+        final long lineBytes = (long) ((w - 1) * stepX + 1) * SAMPLE_SIZE;
+
+        // read runs of consecutive lines at once when they are mostly wanted data
+        int linesPerRead = 1;
+        if (key.stepY == 1 && lineBytes * 2 >= recordLength && recordLength > 0) {
+            linesPerRead = (int) Math.max(1, Math.min(h, (MAX_READ_SIZE - lineBytes) / recordLength + 1));
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate((int) ((linesPerRead - 1) * recordLength + lineBytes));
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        final short[] iShorts = isSSC ? new short[w * h] : null;
+        final short[] qShorts = isSSC ? new short[w * h] : null;
+        final float[] iFloats = isSSC ? null : new float[w * h];
+        final float[] qFloats = isSSC ? null : new float[w * h];
+
+        for (int r = 0; r < h; r += linesPerRead) {
+            final int numLines = Math.min(linesPerRead, h - r);
+            final long y = key.y + (long) r * key.stepY;
+            final long pos = recordLength * y + dataOffset + (long) key.x * SAMPLE_SIZE;
+
+            buffer.clear();
+            buffer.limit((int) ((numLines - 1) * recordLength + lineBytes));
+            final int numRead = readFully(buffer, pos);
+            for (int k = Math.max(numRead, 0); k < buffer.limit(); ++k) {
+                buffer.put(k, (byte) 0);
+            }
+
+            for (int l = 0; l < numLines; ++l) {
+                int off = (int) (l * recordLength);
+                int idx = (r + l) * w;
+                if (isSSC) {
+                    for (int c = 0; c < w; ++c, ++idx, off += stepX * SAMPLE_SIZE) {
+                        iShorts[idx] = buffer.getShort(off);
+                        qShorts[idx] = buffer.getShort(off + 2);
+                    }
+                } else {
+                    for (int c = 0; c < w; ++c, ++idx, off += stepX * SAMPLE_SIZE) {
+                        iFloats[idx] = ArrayCopy.convert16BitsTo32BitFloat(buffer.getChar(off));
+                        qFloats[idx] = ArrayCopy.convert16BitsTo32BitFloat(buffer.getChar(off + 2));
+                    }
+                }
+            }
+        }
+
+        return isSSC ? new Block(iShorts, qShorts) : new Block(iFloats, qFloats);
+    }
+
+    /**
+     * @return the number of bytes read, less than requested only at the end of the file
+     */
+    private int readFully(final ByteBuffer buffer, long pos) throws IOException {
+        final int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            final int n = channel.read(buffer, pos);
+            if (n < 0) {
+                break;
+            }
+            pos += n;
+        }
+        return buffer.position() - start;
+    }
+
+    public void close() throws IOException {
+        blockCache.asMap().keySet().removeIf(key -> key.cosarFile == this);
+        raf.close();
+    }
+
+    private static final class BlockKey {
+        private final CosarFile cosarFile;
+        private final int x, y, stepX, stepY, width, height;
+        private final int hash;
+
+        BlockKey(final CosarFile cosarFile, final int x, final int y, final int stepX, final int stepY,
+                 final int width, final int height) {
+            this.cosarFile = cosarFile;
+            this.x = x;
+            this.y = y;
+            this.stepX = stepX;
+            this.stepY = stepY;
+            this.width = width;
+            this.height = height;
+
+            int h = System.identityHashCode(cosarFile);
+            h = 31 * h + x;
+            h = 31 * h + y;
+            h = 31 * h + stepX;
+            h = 31 * h + stepY;
+            h = 31 * h + width;
+            this.hash = 31 * h + height;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof BlockKey))
+                return false;
+
+            final BlockKey key = (BlockKey) obj;
+            return cosarFile == key.cosarFile && x == key.x && y == key.y &&
+                    stepX == key.stepX && stepY == key.stepY && width == key.width && height == key.height;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Block {
+        private final Object iData;
+        private final Object qData;
+        private final int length;
+        private boolean realRead = false;
+        private boolean imaginaryRead = false;
+
+        Block(final short[] iData, final short[] qData) {
+            this.iData = iData;
+            this.qData = qData;
+            this.length = iData.length;
+        }
+
+        Block(final float[] iData, final float[] qData) {
+            this.iData = iData;
+            this.qData = qData;
+            this.length = iData.length;
+        }
+
+        int getSizeInBytes() {
+            return length * (iData instanceof short[] ? 4 : 8);
+        }
+
+        void copyTo(final boolean imaginary, final ProductData destBuffer) {
+            final Object src = imaginary ? qData : iData;
+            final Object dest = destBuffer.getElems();
+            if (dest.getClass() == src.getClass() && destBuffer.getNumElems() >= length) {
+                System.arraycopy(src, 0, dest, 0, length);
+            } else if (src instanceof short[]) {
+                final short[] data = (short[]) src;
+                for (int i = 0; i < length; ++i) {
+                    destBuffer.setElemIntAt(i, data[i]);
+                }
+            } else {
+                final float[] data = (float[]) src;
+                for (int i = 0; i < length; ++i) {
+                    destBuffer.setElemFloatAt(i, data[i]);
+                }
+            }
+        }
+
+        /**
+         * @return true if both the i and q samples have now been read
+         */
+        synchronized boolean markRead(final boolean imaginary) {
+            if (imaginary) {
+                imaginaryRead = true;
+            } else {
+                realRead = true;
+            }
+            return realRead && imaginaryRead;
+        }
+    }
+}
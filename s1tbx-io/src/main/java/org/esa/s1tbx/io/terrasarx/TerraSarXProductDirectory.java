@@ -18,7 +18,6 @@ package org.esa.s1tbx.io.terrasarx;
 import Jama.Matrix;
 import com.bc.ceres.core.ProgressMonitor;
 import it.geosolutions.imageioimpl.plugins.tiff.TIFFImageReader;
-import org.esa.s1tbx.commons.io.FileImageInputStreamExtImpl;
 import org.esa.s1tbx.commons.io.ImageIOFile;
 import org.esa.s1tbx.commons.io.SARReader;
 import org.esa.s1tbx.commons.io.XMLProductDirectory;
@@ -77,7 +76,7 @@ public class TerraSarXProductDirectory extends XMLProductDirectory {
     private final double[] incidenceCorners = new double[4];
 
     private final List<File> cosarFileList = new ArrayList<>(1);
-    private final Map<String, ImageInputStream> cosarBandMap = new HashMap<>(1);
+    private final Map<String, CosarFile> cosarBandMap = new HashMap<>(1);
 
     private final DateFormat standardDateFormat = ProductData.UTC.createDateFormat("yyyy-MM-dd HH:mm:ss");
 
@@ -1088,8 +1087,10 @@ public class TerraSarXProductDirectory extends XMLProductDirectory {
                 ReaderUtils.createVirtualIntensityBand(product, realBand, imaginaryBand, "");
 
                 try {
-                    cosarBandMap.put(realBand.getName(), FileImageInputStreamExtImpl.createInputStream(file));
-                    cosarBandMap.put(imaginaryBand.getName(), FileImageInputStreamExtImpl.createInputStream(file));
+                    // i and q share one file so that each line is read and decoded once
+                    final CosarFile cosarFile = new CosarFile(file);
+                    cosarBandMap.put(realBand.getName(), cosarFile);
+                    cosarBandMap.put(imaginaryBand.getName(), cosarFile);
                 } catch (Exception e) {
                     //
                 }
@@ -1295,18 +1296,17 @@ public class TerraSarXProductDirectory extends XMLProductDirectory {
         }
     }
 
-    ImageInputStream getCosarImageInputStream(final Band band) {
+    CosarFile getCosarFile(final Band band) {
         return cosarBandMap.get(band.getName());
     }
 
     @Override
     public void close() throws IOException {
         super.close();
-        final Set<String> keys = cosarBandMap.keySet();                           // The set of keys in the map.
-        for (String key : keys) {
-            final ImageInputStream img = cosarBandMap.get(key);
-            img.close();
+        for (CosarFile cosarFile : new HashSet<>(cosarBandMap.values())) {
+            cosarFile.close();
         }
+        cosarBandMap.clear();
     }
 
     @Override
@@ -17,7 +17,6 @@ package org.esa.s1tbx.io.terrasarx;
 
 import com.bc.ceres.core.ProgressMonitor;
 import org.esa.s1tbx.commons.io.SARReader;
-import org.esa.s1tbx.io.binary.ArrayCopy;
 import org.esa.s1tbx.commons.io.ImageIOFile;
 import org.esa.snap.core.dataio.ProductReaderPlugIn;
 import org.esa.snap.core.datamodel.Band;
@@ -32,7 +31,6 @@ import org.esa.snap.engine_utilities.gpf.ReaderUtils;
 
 import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
-import javax.imageio.stream.ImageInputStream;
 import java.awt.Rectangle;
 import java.awt.image.DataBuffer;
 import java.awt.image.Raster;
@@ -40,8 +38,6 @@ import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
 import java.io.File;
 import java.io.IOException;
-import java.nio.ByteOrder;
-import java.util.Arrays;
 
 /**
  * The product reader for TerraSarX products.
@@ -182,13 +178,20 @@ public class TerraSarXProductReader extends SARReader {
 
             } else {
 
-                final ImageInputStream iiStream = dataDir.getCosarImageInputStream(destBand);
+                final CosarFile cosarFile = dataDir.getCosarFile(destBand);
+                if (cosarFile == null) {
+                    throw new IOException("Unable to open COSAR file for " + destBand.getName());
+                }
                 final boolean isImaginary = destBand.getUnit() != null && destBand.getUnit().equals(Unit.IMAGINARY);
-                readBandRasterDataSLC16Bit(sourceOffsetX, sourceOffsetY,
-                        sourceWidth, sourceHeight,
-                        sourceStepX, sourceStepY,
-                        destWidth, destBuffer,
-                        !isImaginary, iiStream, pm);
+
+                pm.beginTask("Reading band...", 1);
+                try {
+                    cosarFile.readBandRasterData(sourceOffsetX, sourceOffsetY, sourceStepX, sourceStepY,
+                            destWidth, destHeight, isImaginary, destBuffer);
+                    pm.worked(1);
+                } finally {
+                    pm.done();
+                }
             }
         } catch (Exception e) {
             handleReaderException(e);
@@ -278,123 +281,4 @@ public class TerraSarXProductReader extends SARReader {
             }
         }
     }
-
-    private static synchronized void readBandRasterDataSLC16Bit(final int sourceOffsetX, final int sourceOffsetY,
-                                                                final int sourceWidth, final int sourceHeight,
-                                                                final int sourceStepX, final int sourceStepY,
-                                                                final int destWidth, final ProductData destBuffer, boolean oneOf2,
-                                                                final ImageInputStream iiStream, final ProgressMonitor pm)
-            throws IOException {
-
-        iiStream.seek(0);
-        final int bib = iiStream.readInt();
-        final int rsri = iiStream.readInt();
-        final int rs = iiStream.readInt();
-        final int as = iiStream.readInt();
-        final int bi = iiStream.readInt();
-        final int rtnb = iiStream.readInt();
-        final int tnl = iiStream.readInt();
-        //System.out.print("bib"+bib+" rsri"+rsri+" rs"+rs+" as"+as+" bi"+bi+" rtbn"+rtnb+" tnl"+tnl);
-        //System.out.println(" sourceOffsetX="+sourceOffsetX+" sourceOffsetY="+sourceOffsetY);
-
-        final long imageRecordLength = (long) rtnb;
-        final int sourceMaxY = sourceOffsetY + sourceHeight - 1;
-        final int x = sourceOffsetX * 4;
-        final int filler = 2;
-        final int asri = rs;
-        final int asfv = rs;
-        final int aslv = rs;
-
-        final int csar = iiStream.readInt();
-        final int version = iiStream.readInt();
-
-        if (version != 1 && version != 2) {
-            throw new IOException("Unknown version = " + version);
-        }
-
-        //System.out.println("csar = " + csar + " version = " + version);
-
-        final boolean isSSC = (version == 1); // true means it is SSC, false means it is CoSSC
-
-        //final long xpos = rtnb + x + ((filler + asri +filler+ asfv +filler+ aslv +filler+filler)*4);
-        final long xpos = rtnb + x + ((filler + asri + filler + asfv + filler + aslv + filler) * 4);
-        iiStream.setByteOrder(ByteOrder.BIG_ENDIAN);
-
-        pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
-        int y = 0;
-
-        if(isSSC) {
-            final short[] destLine = new short[destWidth];
-            try {
-                final short[] srcLine = new short[sourceWidth * 2];
-                for (y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
-                    if (pm.isCanceled()) {
-                        break;
-                    }
-
-                    // Read source line
-                    //synchronized (iiStream) {
-                    iiStream.seek(imageRecordLength * y + xpos);
-                    iiStream.readFully(srcLine, 0, srcLine.length);
-                    //}
-
-                    // Copy source line into destination buffer
-                    final int currentLineIndex = (y - sourceOffsetY) * destWidth;
-                    if (oneOf2)
-                        ArrayCopy.copyLine1Of2(srcLine, destLine, sourceStepX);
-                    else
-                        ArrayCopy.copyLine2Of2(srcLine, destLine, sourceStepX);
-
-                    System.arraycopy(destLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
-
-                    pm.worked(1);
-                }
-            } catch (Exception e) {
-                //System.out.println(e.toString());
-                final int currentLineIndex = (y - sourceOffsetY) * destWidth;
-                Arrays.fill(destLine, (short) 0);
-                System.arraycopy(destLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
-            } finally {
-                pm.done();
-            }
-        } else {
-            final char[] destLine = new char[destWidth];
-            try {
-                final char[] srcLine = new char[sourceWidth * 2];
-                for (y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
-                    if (pm.isCanceled()) {
-                        break;
-                    }
-
-                    // Read source line
-                    //synchronized (iiStream) {
-                    iiStream.seek(imageRecordLength * y + xpos);
-                    iiStream.readFully(srcLine, 0, srcLine.length);
-                    //}
-
-                    // Copy source line into destination buffer
-                    final int currentLineIndex = (y - sourceOffsetY) * destWidth;
-                    if (oneOf2)
-                        ArrayCopy.copyLine1Of2(srcLine, destLine, sourceStepX);
-                    else
-                        ArrayCopy.copyLine2Of2(srcLine, destLine, sourceStepX);
-
-                    for (int i = 0; i < destWidth; i++) {
-                        destBuffer.setElemFloatAt(i+currentLineIndex, ArrayCopy.convert16BitsTo32BitFloat(destLine[i]));
-                    }
-
-                    pm.worked(1);
-                }
-            } catch (Exception e) {
-                //System.out.println(e.toString());
-                final int currentLineIndex = (y - sourceOffsetY) * destWidth;
-                Arrays.fill(destLine, (char) 0);
-                for (int i = 0; i < destWidth; i++) {
-                    destBuffer.setElemFloatAt(i+currentLineIndex, ArrayCopy.convert16BitsTo32BitFloat(destLine[i]));
-                }
-            } finally {
-                pm.done();
-            }
-        }
-    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.ceos;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * To test CEOSMappedFile with chunks of a few records
+ */
+public class TestCEOSMappedFile {
+
+    private static final int headerLength = 720;
+    private static final int recordLength = 100;
+    private static final int numRecords = 23;
+    // 3 records per chunk, so the last of the 8 chunks holds only 2 records
+    private static final long maxChunkSize = 350;
+
+    private File file;
+    private byte[] fileData;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("ceosImage", ".dat");
+        fileData = new byte[headerLength + numRecords * recordLength];
+        new Random(3).nextBytes(fileData);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(fileData);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testReadAllRecords() throws IOException {
+        final CEOSMappedFile mapped = new CEOSMappedFile(file, headerLength, recordLength,
+                                                         ByteOrder.BIG_ENDIAN, maxChunkSize);
+        // consecutive lines run across every chunk boundary
+        for (int line = 0; line < numRecords; ++line) {
+            final byte[] actual = new byte[recordLength + 2];
+            assertTrue(mapped.read(line, 0, actual, 1, recordLength));
+            for (int i = 0; i < recordLength; ++i) {
+                assertEquals(fileData[getFilePos(line, i)], actual[i + 1]);
+            }
+
+            final byte[] part = new byte[7];
+            assertTrue(mapped.read(line, recordLength - part.length, part, 0, part.length));
+            for (int i = 0; i < part.length; ++i) {
+                assertEquals(fileData[getFilePos(line, recordLength - part.length + i)], part[i]);
+            }
+        }
+        mapped.close();
+    }
+
+    @Test
+    public void testReadSamples() throws IOException {
+        final ByteOrder[] byteOrders = {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN};
+        for (ByteOrder byteOrder : byteOrders) {
+            final CEOSMappedFile mapped = new CEOSMappedFile(file, headerLength, recordLength,
+                                                             byteOrder, maxChunkSize);
+            final ByteBuffer expected = ByteBuffer.wrap(fileData).order(byteOrder);
+            final int offset = 12;
+            for (int line = 0; line < numRecords; ++line) {
+                final int pos = getFilePos(line, offset);
+
+                final short[] shorts = new short[(recordLength - offset) / 2];
+                assertTrue(mapped.read(line, offset, shorts, 0, shorts.length));
+                for (int i = 0; i < shorts.length; ++i) {
+                    assertEquals(expected.getShort(pos + 2 * i), shorts[i]);
+                }
+
+                final int[] ints = new int[(recordLength - offset) / 4];
+                assertTrue(mapped.read(line, offset, ints, 0, ints.length));
+                for (int i = 0; i < ints.length; ++i) {
+                    assertEquals(expected.getInt(pos + 4 * i), ints[i]);
+                }
+
+                final float[] floats = new float[ints.length + 1];
+                assertTrue(mapped.read(line, offset, floats, 1, ints.length));
+                for (int i = 0; i < ints.length; ++i) {
+                    assertEquals(Float.floatToRawIntBits(expected.getFloat(pos + 4 * i)),
+                                 Float.floatToRawIntBits(floats[i + 1]));
+                }
+            }
+            mapped.close();
+        }
+    }
+
+    /**
+     * Reads the mapping cannot serve return false so that the caller falls back to the file reader
+     */
+    @Test
+    public void testReadOutsideChunks() throws IOException {
+        final CEOSMappedFile mapped = new CEOSMappedFile(file, headerLength, recordLength,
+                                                         ByteOrder.BIG_ENDIAN, maxChunkSize);
+        final byte[] dest = new byte[2 * recordLength];
+
+        // past the last record of a chunk or of the file
+        assertFalse(mapped.read(2, 50, dest, 0, recordLength));
+        assertFalse(mapped.read(numRecords - 1, 1, dest, 0, recordLength));
+        assertFalse(mapped.read(numRecords, 0, dest, 0, 1));
+        assertFalse(mapped.read(0, -1, dest, 0, 1));
+
+        // within a chunk a read may run on into the next record
+        assertTrue(mapped.read(3, 50, dest, 0, recordLength));
+        for (int i = 0; i < recordLength; ++i) {
+            assertEquals(fileData[getFilePos(3, 50 + i)], dest[i]);
+        }
+
+        mapped.close();
+        assertFalse(mapped.read(0, 0, dest, 0, 1));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRecordLongerThanChunk() throws IOException {
+        new CEOSMappedFile(file, headerLength, recordLength, ByteOrder.BIG_ENDIAN, recordLength - 1);
+    }
+
+    private static int getFilePos(final int line, final int offsetInRecord) {
+        return headerLength + line * recordLength + offsetInRecord;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.netcdf;
+
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.Attribute;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * To test NetCDFChunkReader
+ */
+public class TestNetCDFChunkReader {
+
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+
+    @Test
+    public void testCopyRegion() {
+        final int[] srcShape = {4, 5};
+        final int[] src = new int[20];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = i;
+        }
+        final int[] dstShape = {3, 6};
+        final int[] dst = new int[18];
+
+        NetCDFChunkReader.copyRegion(src, srcShape, new int[]{1, 2}, dst, dstShape, new int[]{1, 3},
+                                     new int[]{2, 3});
+
+        final int[] expected = {
+                0, 0, 0, 0, 0, 0,
+                0, 0, 0, 7, 8, 9,
+                0, 0, 0, 12, 13, 14};
+        assertArrayEquals(expected, dst);
+    }
+
+    @Test
+    public void testRowBandShape() {
+        // small variables are a single chunk
+        assertArrayEquals(new int[]{100, 200}, NetCDFChunkReader.getRowBandShape(new int[]{100, 200}, 4));
+
+        // large variables are split into bands of whole rows
+        final int[] rowBand = NetCDFChunkReader.getRowBandShape(new int[]{20000, 25000}, 4);
+        assertEquals(25000, rowBand[1]);
+        assertEquals(NetCDFChunkReader.CHUNK_TARGET_SIZE / (25000 * 4), rowBand[0]);
+
+        // rows larger than the target are split as well
+        assertArrayEquals(new int[]{1, 1, (int) (NetCDFChunkReader.CHUNK_TARGET_SIZE / 4)},
+                          NetCDFChunkReader.getRowBandShape(new int[]{3, 4, 2000000}, 4));
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        final File file = File.createTempFile("chunkReader", ".nc");
+        try {
+            final NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, file.getPath());
+            writer.addDimension(null, "y", HEIGHT);
+            writer.addDimension(null, "x", WIDTH);
+            final Variable var = writer.addVariable(null, "data", DataType.FLOAT, "y x");
+            writer.create();
+            final Array values = Array.factory(DataType.FLOAT, new int[]{HEIGHT, WIDTH});
+            for (int i = 0; i < HEIGHT * WIDTH; i++) {
+                values.setFloat(i, i * 0.5f);
+            }
+            writer.write(var, values);
+            writer.close();
+
+            final NetcdfFile netcdfFile = NetcdfFile.open(file.getPath());
+            final NetCDFChunkReader chunkReader = new NetCDFChunkReader(netcdfFile, 2);
+            try {
+                final Variable variable = netcdfFile.findVariable("data");
+                final int[] origin = {5, 11};
+                final int[] shape = {9, 17};
+                final Array expected = variable.read(origin, shape);
+                final Array actual = chunkReader.read(variable, origin, shape);
+                assertArrayEquals((float[]) expected.getStorage(), (float[]) actual.getStorage(), 0);
+
+                // a second read is served from the cached chunk
+                final Array again = chunkReader.read(variable, new int[]{0, 0}, new int[]{HEIGHT, WIDTH});
+                assertArrayEquals((float[]) values.getStorage(), (float[]) again.getStorage(), 0);
+            } finally {
+                chunkReader.close();
+                netcdfFile.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testReadAcrossChunks() throws Exception {
+        final File file = File.createTempFile("chunkReader", ".nc");
+        try {
+            final float[] values = writeChunkedFile(file);
+
+            final NetcdfFile netcdfFile = NetcdfFile.open(file.getPath());
+            final NetCDFChunkReader chunkReader = new NetCDFChunkReader(netcdfFile, 1);
+            try {
+                final Variable variable = netcdfFile.findVariable("data");
+                assertArrayEquals(new int[]{5, 8}, chunkReader.getChunkShape(variable));
+
+                // spans chunk rows 0 to 3 and chunk columns 0 to 3, clipped at both ends
+                final int[] origin = {3, 6};
+                final int[] shape = {14, 20};
+                final Array actual = chunkReader.read(variable, origin, shape);
+                assertSection(values, origin, shape, (float[]) actual.getStorage());
+
+                // the last partial chunks of the variable
+                final int[] edgeOrigin = {HEIGHT - 4, WIDTH - 6};
+                final int[] edgeShape = {4, 6};
+                assertSection(values, edgeOrigin, edgeShape,
+                              (float[]) chunkReader.read(variable, edgeOrigin, edgeShape).getStorage());
+            } finally {
+                chunkReader.close();
+                netcdfFile.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        final File file = File.createTempFile("chunkReader", ".nc");
+        try {
+            final float[] values = writeChunkedFile(file);
+
+            final NetcdfFile netcdfFile = NetcdfFile.open(file.getPath());
+            final NetCDFChunkReader chunkReader = new NetCDFChunkReader(netcdfFile, 3);
+            final ExecutorService executor = Executors.newFixedThreadPool(6);
+            try {
+                final Variable variable = netcdfFile.findVariable("data");
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 6; t++) {
+                    final Random random = new Random(t);
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < 50; i++) {
+                            final int y = random.nextInt(HEIGHT);
+                            final int x = random.nextInt(WIDTH);
+                            final int[] origin = {y, x};
+                            final int[] shape = {1 + random.nextInt(HEIGHT - y), 1 + random.nextInt(WIDTH - x)};
+                            final Array actual = chunkReader.read(variable, origin, shape);
+                            assertSection(values, origin, shape, (float[]) actual.getStorage());
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+                chunkReader.close();
+                netcdfFile.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Writes a HEIGHT x WIDTH float variable with a _ChunkSizes attribute of 5 x 8
+     */
+    private static float[] writeChunkedFile(final File file) throws Exception {
+        final NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, file.getPath());
+        writer.addDimension(null, "y", HEIGHT);
+        writer.addDimension(null, "x", WIDTH);
+        final Variable var = writer.addVariable(null, "data", DataType.FLOAT, "y x");
+        writer.addVariableAttribute(var, new Attribute("_ChunkSizes", Arrays.asList(5, 8)));
+        writer.create();
+        final Array values = Array.factory(DataType.FLOAT, new int[]{HEIGHT, WIDTH});
+        for (int i = 0; i < HEIGHT * WIDTH; i++) {
+            values.setFloat(i, i * 0.25f);
+        }
+        writer.write(var, values);
+        writer.close();
+        return (float[]) values.getStorage();
+    }
+
+    private static void assertSection(final float[] values, final int[] origin, final int[] shape, final float[] actual) {
+        assertEquals(shape[0] * shape[1], actual.length);
+        for (int y = 0; y < shape[0]; y++) {
+            for (int x = 0; x < shape[1]; x++) {
+                assertEquals(values[(origin[0] + y) * WIDTH + origin[1] + x], actual[y * shape[1] + x], 0);
+            }
+        }
+    }
+
+    @Test(expected = InvalidRangeException.class)
+    public void testReadOutOfRange() throws Exception {
+        final File file = File.createTempFile("chunkReader", ".nc");
+        try {
+            final NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, file.getPath());
+            writer.addDimension(null, "x", WIDTH);
+            writer.addVariable(null, "data", DataType.SHORT, "x");
+            writer.create();
+            writer.close();
+
+            final NetcdfFile netcdfFile = NetcdfFile.open(file.getPath());
+            final NetCDFChunkReader chunkReader = new NetCDFChunkReader(netcdfFile);
+            try {
+                chunkReader.read(netcdfFile.findVariable("data"), new int[]{WIDTH - 2}, new int[]{3});
+            } finally {
+                chunkReader.close();
+                netcdfFile.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
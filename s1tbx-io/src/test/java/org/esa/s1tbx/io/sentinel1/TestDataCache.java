@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.sentinel1;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * To test DataCache
+ */
+public class TestDataCache {
+
+    @Test
+    public void testRealAndImaginaryShareOneDecode() throws IOException {
+        final DataCache cache = new DataCache(1024 * 1024, 60);
+        final DataCache.DataKey key = new DataCache.DataKey(null, new Rectangle(0, 0, 16, 8));
+        final AtomicInteger loads = new AtomicInteger();
+
+        final DataCache.Data real = cache.get(key, () -> {
+            loads.incrementAndGet();
+            return new DataCache.Data(new int[16 * 8]);
+        });
+        cache.release(key, real, false);
+        assertEquals(1, cache.size());
+
+        final DataCache.Data imaginary = cache.get(new DataCache.DataKey(null, new Rectangle(0, 0, 16, 8)), () -> {
+            loads.incrementAndGet();
+            return new DataCache.Data(new int[16 * 8]);
+        });
+        assertSame(real, imaginary);
+        assertEquals(1, loads.get());
+
+        // dropped once both halves have been read
+        cache.release(key, imaginary, true);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        final int tileBytes = 64 * 4;
+        final long maxBytes = 16 * tileBytes;
+        final DataCache cache = new DataCache(maxBytes, 60);
+        for (int i = 0; i < 100; ++i) {
+            cache.get(new DataCache.DataKey(null, new Rectangle(i * 8, 0, 8, 8)),
+                      () -> new DataCache.Data(new int[64]));
+        }
+        assertTrue(cache.size() * tileBytes <= maxBytes);
+        assertTrue(cache.getStats().evictionCount() > 0);
+    }
+
+    @Test
+    public void testFailedReadIsNotCached() throws IOException {
+        final DataCache cache = new DataCache(1024 * 1024, 60);
+        final DataCache.DataKey key = new DataCache.DataKey(null, new Rectangle(0, 0, 4, 4));
+
+        final IOException error = new IOException("read failed");
+        try {
+            cache.get(key, () -> {
+                throw error;
+            });
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertSame(error, e);
+        }
+        assertEquals(0, cache.size());
+
+        final IllegalArgumentException runtimeError = new IllegalArgumentException("bad region");
+        try {
+            cache.get(key, () -> {
+                throw runtimeError;
+            });
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertSame(runtimeError, e.getCause());
+        }
+        assertEquals(0, cache.size());
+
+        // the next request decodes again
+        final DataCache.Data data = cache.get(key, () -> new DataCache.Data(new int[]{1, 2, 3}));
+        assertEquals(3, data.intArray.length);
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.sentinel1;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s1tbx.commons.test.TestData;
+import org.esa.snap.core.dataio.ProductReader;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.engine_utilities.util.TestUtils;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Read throughput of SLC tiles from a local SAFE product with 1 to N threads
+ */
+public class TestSentinel1ReadThroughput {
+
+    static {
+        TestUtils.initTestEnvironment();
+    }
+
+    private final static File inputS1_SLC = new File(TestData.inputSAR + "S1" + File.separator +
+            "S1A_IW_SLC__1SDV_20150821T165113_20150821T165140_007356_00A1B3_5EB5.SAFE");
+
+    private final static int tileSize = 512;
+    private final static int maxTiles = 64;
+
+    @Ignore("Takes too long")
+    @Test
+    public void testReadThroughput() throws Exception {
+        final File inputFile = new File(inputS1_SLC, "manifest.safe");
+        if (!inputFile.exists()) {
+            TestUtils.skipTest(this, inputFile + " not found");
+            return;
+        }
+
+        final int maxThreads = Runtime.getRuntime().availableProcessors();
+        long expectedChecksum = 0;
+        for (int numThreads = 1; numThreads <= maxThreads; numThreads *= 2) {
+            final ProductReader reader = new Sentinel1ProductReaderPlugIn().createReaderInstance();
+            final Product product = reader.readProductNodes(inputFile, null);
+            try {
+                final Band band = product.getBandAt(0);
+
+                final long start = System.currentTimeMillis();
+                final long checksum = readTiles(reader, band, numThreads);
+                final long duration = Math.max(1, System.currentTimeMillis() - start);
+
+                final long bytes = (long) getNumTiles(band) * tileSize * tileSize * 2;
+                System.out.println(numThreads + " threads: " + duration + " ms, " +
+                                           (bytes / 1024 / 1024 * 1000 / duration) + " MB/s");
+
+                if (numThreads == 1) {
+                    expectedChecksum = checksum;
+                } else {
+                    Assert.assertEquals(expectedChecksum, checksum);
+                }
+            } finally {
+                product.dispose();
+            }
+        }
+    }
+
+    private static int getNumTiles(final Band band) {
+        final int numX = band.getRasterWidth() / tileSize;
+        final int numY = band.getRasterHeight() / tileSize;
+        return Math.min(numX * numY, maxTiles);
+    }
+
+    private static long readTiles(final ProductReader reader, final Band band, final int numThreads) throws Exception {
+        final int numX = band.getRasterWidth() / tileSize;
+        final int numTiles = getNumTiles(band);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            final List<Future<Long>> futures = new ArrayList<>(numTiles);
+            for (int t = 0; t < numTiles; ++t) {
+                final int x = (t % numX) * tileSize;
+                final int y = (t / numX) * tileSize;
+                futures.add(executor.submit(() -> {
+                    final ProductData data = ProductData.createInstance(band.getDataType(), tileSize * tileSize);
+                    reader.readBandRasterData(band, x, y, tileSize, tileSize, data, ProgressMonitor.NULL);
+                    long sum = 0;
+                    for (int i = 0; i < data.getNumElems(); ++i) {
+                        sum += data.getElemIntAt(i);
+                    }
+                    return sum;
+                }));
+            }
+
+            long checksum = 0;
+            for (Future<Long> future : futures) {
+                checksum += future.get();
+            }
+            return checksum;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
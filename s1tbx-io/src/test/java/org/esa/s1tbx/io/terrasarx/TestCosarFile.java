@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.terrasarx;
+
+import org.esa.s1tbx.io.binary.ArrayCopy;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * To test CosarFile on small synthetic COSAR files
+ */
+public class TestCosarFile {
+
+    private static final int RANGE_SAMPLES = 7;
+    private static final int AZIMUTH_SAMPLES = 5;
+
+    @Test
+    public void testReadSSC() throws Exception {
+        final File file = createCosarFile(1);
+        final CosarFile cosarFile = new CosarFile(file);
+        try {
+            assertTrue(cosarFile.isSSC());
+            assertEquals(RANGE_SAMPLES, cosarFile.getRangeSamples());
+            assertEquals(AZIMUTH_SAMPLES, cosarFile.getAzimuthSamples());
+
+            final ProductData iData = ProductData.createInstance(ProductData.TYPE_INT16, 4 * 3);
+            final ProductData qData = ProductData.createInstance(ProductData.TYPE_INT16, 4 * 3);
+            cosarFile.readBandRasterData(2, 1, 1, 1, 4, 3, false, iData);
+            cosarFile.readBandRasterData(2, 1, 1, 1, 4, 3, true, qData);
+            for (int y = 0; y < 3; y++) {
+                for (int x = 0; x < 4; x++) {
+                    assertEquals(sample(x + 2, y + 1), iData.getElemIntAt(y * 4 + x));
+                    assertEquals(-sample(x + 2, y + 1), qData.getElemIntAt(y * 4 + x));
+                }
+            }
+
+            // sub-sampled
+            final ProductData subData = ProductData.createInstance(ProductData.TYPE_INT16, 3 * 2);
+            cosarFile.readBandRasterData(1, 1, 2, 3, 3, 2, false, subData);
+            for (int y = 0; y < 2; y++) {
+                for (int x = 0; x < 3; x++) {
+                    assertEquals(sample(1 + 2 * x, 1 + 3 * y), subData.getElemIntAt(y * 3 + x));
+                }
+            }
+
+            // lines beyond the end of the file are zero
+            final ProductData endData = ProductData.createInstance(ProductData.TYPE_INT16, RANGE_SAMPLES * 2);
+            cosarFile.readBandRasterData(0, AZIMUTH_SAMPLES - 1, 1, 1, RANGE_SAMPLES, 2, true, endData);
+            for (int x = 0; x < RANGE_SAMPLES; x++) {
+                assertEquals(-sample(x, AZIMUTH_SAMPLES - 1), endData.getElemIntAt(x));
+                assertEquals(0, endData.getElemIntAt(RANGE_SAMPLES + x));
+            }
+        } finally {
+            cosarFile.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testReadCoSSC() throws Exception {
+        final File file = createCosarFile(2);
+        final CosarFile cosarFile = new CosarFile(file);
+        try {
+            assertTrue(!cosarFile.isSSC());
+
+            final int n = RANGE_SAMPLES * AZIMUTH_SAMPLES;
+            final ProductData iData = ProductData.createInstance(ProductData.TYPE_FLOAT32, n);
+            final ProductData qData = ProductData.createInstance(ProductData.TYPE_FLOAT32, n);
+            cosarFile.readBandRasterData(0, 0, 1, 1, RANGE_SAMPLES, AZIMUTH_SAMPLES, true, qData);
+            cosarFile.readBandRasterData(0, 0, 1, 1, RANGE_SAMPLES, AZIMUTH_SAMPLES, false, iData);
+            for (int y = 0; y < AZIMUTH_SAMPLES; y++) {
+                for (int x = 0; x < RANGE_SAMPLES; x++) {
+                    final int i = y * RANGE_SAMPLES + x;
+                    assertEquals(ArrayCopy.convert16BitsTo32BitFloat((char) sample(x, y)), iData.getElemFloatAt(i), 0);
+                    assertEquals(ArrayCopy.convert16BitsTo32BitFloat((char) -sample(x, y)), qData.getElemFloatAt(i), 0);
+                }
+            }
+        } finally {
+            cosarFile.close();
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownVersion() throws Exception {
+        final File file = createCosarFile(3);
+        try {
+            new CosarFile(file).close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static short sample(final int x, final int y) {
+        return (short) (15000 + y * 100 + x);
+    }
+
+    private static File createCosarFile(final int version) throws IOException {
+        final File file = File.createTempFile("cosar", ".cos");
+        final int rtnb = (RANGE_SAMPLES + 2) * 4;
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            // burst header record
+            out.writeInt(rtnb * (AZIMUTH_SAMPLES + 4));
+            out.writeInt(1);
+            out.writeInt(RANGE_SAMPLES);
+            out.writeInt(AZIMUTH_SAMPLES);
+            out.writeInt(1);
+            out.writeInt(rtnb);
+            out.writeInt(AZIMUTH_SAMPLES);
+            out.writeInt(0x43534152);
+            out.writeInt(version);
+
+            // annotation records
+            for (int i = 0; i < 3 * rtnb; i++) {
+                out.writeByte(0);
+            }
+
+            // range lines of two annotation words followed by the i/q samples
+            for (int y = 0; y < AZIMUTH_SAMPLES; y++) {
+                out.writeInt(1);
+                out.writeInt(RANGE_SAMPLES);
+                for (int x = 0; x < RANGE_SAMPLES; x++) {
+                    out.writeShort(sample(x, y));
+                    out.writeShort(-sample(x, y));
+                }
+            }
+        }
+        return file;
+    }
+}
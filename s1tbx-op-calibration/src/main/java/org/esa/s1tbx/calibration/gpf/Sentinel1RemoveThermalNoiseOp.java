@@ -556,15 +556,20 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
                 calType = Sentinel1Calibrator.getCalibrationType(targetBandName);
             }
 
+            final boolean useNoiseLUT = version < 2.9 || !isTOPS;
+            final NoiseAzimuthBlock[] noiseAzimuthBlocks = useNoiseLUT ? null : noiseAzimuthBlockMap.get(key);
+            final BurstBlock[] burstBlocks = useNoiseLUT || noiseAzimuthBlocks != null ? null : burstBlockMap.get(key);
+            final double[] lut = new double[w];
+
             double dn, dn2, i, q;
             int srcIdx, tgtIdx;
             for (int y = y0; y < maxY; ++y) {
                 srcIndex.calculateStride(y);
                 tgtIndex.calculateStride(y);
 
-                double[] lut = new double[w];
-                if (version < 2.9 || !isTOPS) {
-                    lut = new double[w];
+                if (noiseAzimuthBlocks != null) {
+                    computeNoiseRow(y, x0, w, noiseAzimuthBlocks, isTOPS, removeThermalNoise, lut);
+                } else if (useNoiseLUT) {
                     final ThermalNoiseInfo noiseInfo = getNoiseInfo(targetBandName);
                     if (absoluteCalibrationPerformed) {
                         final int calVecIdx = calInfo.getCalibrationVectorIndex(y);
@@ -606,12 +611,10 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
                     }
 
                     double noise = 0;
-                    if (version < 2.9 || !isTOPS) {
+                    if (useNoiseLUT || noiseAzimuthBlocks != null) {
                         noise = lut[xx];
-                    } else if (noiseAzimuthBlockMap.containsKey(key)) {
-                        noise = getNoiseValue(x, y, noiseAzimuthBlockMap.get(key));
-                    } else if (burstBlockMap.containsKey(key)) { // should be TOPS SLC and after IPF 2.9.0
-                        noise = getNoiseValue(x, y, burstBlockMap.get(key));
+                    } else if (burstBlocks != null) { // should be TOPS SLC and after IPF 2.9.0
+                        noise = getNoiseValue(x, y, burstBlocks);
                     }
 
                     double value = dn2 - noise;
@@ -1025,17 +1028,16 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
                         + " noiseRangeVecIdx.length = "
                         + ((noiseRangeVecIndices == null) ? "null" : noiseRangeVecIndices.length));
                 */
-                final int numLines = noiseAzimuthVectors[i].lastAzimuthLine
-                        - noiseAzimuthVectors[i].firstAzimuthLine + 1;
                 final int numSamples = noiseAzimuthVectors[i].lastRangeSample
                         - noiseAzimuthVectors[i].firstRangeSample + 1;
 
-                double interpNoiseRangeMatrix[][] = new double[numLines][numSamples];
-
+                // only the range vectors are interpolated here, the noise matrix is computed per tile line
+                double interpolatedRangeVectors[][] = null;
+                int noiseRangeVectorLine[] = null;
                 if (noiseRangeVecIndices != null && noiseRangeVecIndices.length > 0) {
 
-                    double interpolatedRangeVectors[][] = new double[noiseRangeVecIndices.length][numSamples];
-                    int noiseRangeVectorLine[] = new int[noiseRangeVecIndices.length];
+                    interpolatedRangeVectors = new double[noiseRangeVecIndices.length][numSamples];
+                    noiseRangeVectorLine = new int[noiseRangeVecIndices.length];
                     for (int j = 0; j < noiseRangeVecIndices.length; j++) {
                         //System.out.println("   noiseRangeVecIdx[" + j + "] = " + noiseRangeVecIndices[j]);
                         noiseRangeVectorLine[j] = noiseRangeVectors[noiseRangeVecIndices[j]].line;
@@ -1043,29 +1045,12 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
                                 noiseAzimuthVectors[i].firstRangeSample, noiseAzimuthVectors[i].lastRangeSample,
                                 interpolatedRangeVectors[j]);
                     }
-
-                    computeNoiseRangeMatrix(noiseAzimuthVectors[i].firstAzimuthLine,
-                            noiseAzimuthVectors[i].lastAzimuthLine, noiseRangeVectorLine,
-                            interpolatedRangeVectors, interpNoiseRangeMatrix);
-                } else {
-                    for (int row = 0; row < numLines; row++) {
-                        for (int col = 0; col < numSamples; col++) {
-                            interpNoiseRangeMatrix[row][col] = 1.0;
-                        }
-                    }
-                }
-
-                final double noiseMatrix[][] = new double[numLines][numSamples];
-
-                for (int row = 0; row < numLines; row++) {
-                    for (int col = 0; col < numSamples; col++) {
-                        noiseMatrix[row][col] = interpolatedAzimuthVector[row] * interpNoiseRangeMatrix[row][col];
-                    }
                 }
 
                 noiseAzimuthBlocks[i] = new NoiseAzimuthBlock(swath, noiseAzimuthVectors[i].firstAzimuthLine,
                         noiseAzimuthVectors[i].firstRangeSample, noiseAzimuthVectors[i].lastAzimuthLine,
-                        noiseAzimuthVectors[i].lastRangeSample, noiseMatrix);
+                        noiseAzimuthVectors[i].lastRangeSample, interpolatedAzimuthVector,
+                        noiseRangeVectorLine, interpolatedRangeVectors);
             }
 
             noiseAzimuthBlockMap.put(pol, noiseAzimuthBlocks);
@@ -1161,49 +1146,6 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
         return interpNoiseAzimVec;
     }
 
-    private void computeNoiseRangeMatrix(final int firstAzimuthLine, // input
-                                         final int lastAzimuthLine, // input
-                                         final int noiseRangeVectorLine[], // input
-                                         final double interpolatedRangeVectors[][], // input
-                                         final double noiseRangeMatrix[][] // output
-    ) {
-        /*
-        System.out.println("computeNoiseRangeMatrix: firstAzimuthLine = " + firstAzimuthLine
-            + " lastAzimuthLine = " + lastAzimuthLine);
-        for (int i = 0; i < noiseRangeVectorLine.length; i++) {
-            System.out.println("computeNoiseRangeMatrix: noiseRangeVectorLine[" + i + "] = " + noiseRangeVectorLine[i]);
-        }
-        */
-
-        final int numSamples = noiseRangeMatrix[0].length;
-
-        if (noiseRangeVectorLine.length == 1) {
-            for (int sample = 0; sample < numSamples; sample++) {
-                for (int line = 0; line < (lastAzimuthLine - firstAzimuthLine + 1); line++) {
-                    noiseRangeMatrix[line][sample] = interpolatedRangeVectors[0][sample];
-                }
-            }
-        } else {
-            final int line0Idx = getLineIndex(firstAzimuthLine, noiseRangeVectorLine);
-
-            for (int sample = 0; sample < numSamples; sample++) {
-                int i = 0;
-                int lineIdx = line0Idx;
-                for (int line = firstAzimuthLine; line <= lastAzimuthLine; line++) {
-
-                    if (line > noiseRangeVectorLine[lineIdx + 1]
-                            && lineIdx < noiseRangeVectorLine.length - 2) {
-                        lineIdx++;
-                    }
-                    //System.out.println("computeNoiseRangeMatrix: i = " + i + " sample = " + sample);
-                    noiseRangeMatrix[i++][sample] = interpol(noiseRangeVectorLine[lineIdx],
-                            noiseRangeVectorLine[lineIdx + 1], interpolatedRangeVectors[lineIdx][sample],
-                            interpolatedRangeVectors[lineIdx + 1][sample], line);
-                }
-            }
-        }
-    }
-
     private static double interpol(final int x1, final int x2, final double y1, final double y2, final int x) {
 
         if (x1 == x2) { // should never happen
@@ -1400,33 +1342,42 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
         return "";
     }
 
-    private double getNoiseValue(final int x, final int y, final NoiseAzimuthBlock[] noiseAzimuthBlocks) {
+    /**
+     * Compute the noise of a tile line from the noise azimuth blocks covering it.
+     *
+     * @param y                  Index of the given range line.
+     * @param x0                 X coordinate of the upper left corner pixel of the given tile.
+     * @param w                  Tile width.
+     * @param noiseAzimuthBlocks The noise azimuth blocks of the polarisation.
+     * @param isTOPS             Whether the blocks are limited in azimuth.
+     * @param removeThermalNoise Whether the noise is removed rather than added back.
+     * @param lut                The noise LUT.
+     */
+    static void computeNoiseRow(final int y, final int x0, final int w,
+                                final NoiseAzimuthBlock[] noiseAzimuthBlocks, final boolean isTOPS,
+                                final boolean removeThermalNoise, final double[] lut) {
+
+        Arrays.fill(lut, 0, w, 0.0);
+        final double sign = removeThermalNoise ? 1.0 : -1.0;
+        final int maxX = x0 + w - 1;
+
+        // in reverse so that where blocks overlap the first block containing the pixel is used
+        for (int i = noiseAzimuthBlocks.length - 1; i >= 0; --i) {
+            final NoiseAzimuthBlock block = noiseAzimuthBlocks[i];
+            if (isTOPS && (y < block.firstAzimuthLine || y > block.lastAzimuthLine)) {
+                continue;
+            }
+            final int startX = Math.max(x0, block.firstRangeSample);
+            final int endX = Math.min(maxX, block.lastRangeSample);
+            if (startX > endX) {
+                continue;
+            }
 
-        for (int i = 0; i < noiseAzimuthBlocks.length; i++) {
-            final int firstAzimuthLine = noiseAzimuthBlocks[i].firstAzimuthLine;
-            final int lastAzimuthLine = noiseAzimuthBlocks[i].lastAzimuthLine;
-            final int firstRangeSample = noiseAzimuthBlocks[i].firstRangeSample;
-            final int lastRangeSample = noiseAzimuthBlocks[i].lastRangeSample;
-            if (isTOPS) {
-                if (x >= firstRangeSample && x <= lastRangeSample && y >= firstAzimuthLine && y <= lastAzimuthLine) {
-                    final double val = noiseAzimuthBlocks[i].noiseMatrix[y - firstAzimuthLine][x - firstRangeSample];
-                    if (removeThermalNoise) {
-                        return val;
-                    } else {
-                        return -val;
-                    }
-                }
-            } else if (x >= firstRangeSample && x <= lastRangeSample) {
-                final double val = noiseAzimuthBlocks[i].noiseMatrix[0][x - firstRangeSample];
-                if (removeThermalNoise) {
-                    return val;
-                } else {
-                    return -val;
-                }
+            final int row = isTOPS ? y - block.firstAzimuthLine : 0;
+            for (int x = startX; x <= endX; ++x) {
+                lut[x - x0] = sign * block.getNoise(row, x - block.firstRangeSample);
             }
         }
-
-        return 0;
     }
 
     private double getNoiseValue(final int x, final int y, final BurstBlock[] burstBlocks) {
@@ -1516,7 +1467,11 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
         }
     }
 
-    private final static class NoiseAzimuthBlock {
+    /**
+     * The noise of an azimuth block is the product of the interpolated azimuth vector and the range vectors
+     * interpolated to each line. It is evaluated on demand rather than held as a full matrix.
+     */
+    final static class NoiseAzimuthBlock {
         final String swath;
         final int firstAzimuthLine;
         final int firstRangeSample;
@@ -1526,28 +1481,62 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
         final int numSamples;
         final int numLines;
 
-        final double[][] noiseMatrix;
-
-        //final double[] interpNoiseAzimVec; // length = lastAzimuthLine - firstAzimuthLine + 1
-        //double[][] interpNoiseRangeMatrix;
+        final double[] interpNoiseAzimVec; // length = lastAzimuthLine - firstAzimuthLine + 1
+        final int[] noiseRangeVectorLine;
+        final double[][] interpolatedRangeVectors; // null if there are no range vectors in the block
+        final int[] rangeVectorIdx; // index of the range vectors bracketing each line
 
         NoiseAzimuthBlock(final String swath,
                           final int firstAzimuthLine, final int firstRangeSample,
                           final int lastAzimuthLine, final int lastRangeSample,
-                          final double [][] noiseMatrix)
+                          final double[] interpNoiseAzimVec,
+                          final int[] noiseRangeVectorLine, final double[][] interpolatedRangeVectors)
         {
             this.swath = swath;
             this.firstAzimuthLine = firstAzimuthLine;
             this.firstRangeSample = firstRangeSample;
             this.lastAzimuthLine = lastAzimuthLine;
             this.lastRangeSample = lastRangeSample;
-            this.noiseMatrix =  noiseMatrix;
+            this.interpNoiseAzimVec = interpNoiseAzimVec;
+            this.noiseRangeVectorLine = noiseRangeVectorLine;
+            this.interpolatedRangeVectors = interpolatedRangeVectors;
 
             numSamples = lastRangeSample - firstRangeSample + 1;
             numLines = lastAzimuthLine - firstAzimuthLine + 1;
 
-            //this.interpNoiseAzimVec = interpNoiseAzimVec;
-            //interpNoiseRangeMatrix = new double[numLines][numSamples];
+            if (noiseRangeVectorLine != null && noiseRangeVectorLine.length > 1) {
+                rangeVectorIdx = new int[numLines];
+                int lineIdx = getLineIndex(firstAzimuthLine, noiseRangeVectorLine);
+                for (int line = firstAzimuthLine, i = 0; line <= lastAzimuthLine; line++, i++) {
+                    if (line > noiseRangeVectorLine[lineIdx + 1]
+                            && lineIdx < noiseRangeVectorLine.length - 2) {
+                        lineIdx++;
+                    }
+                    rangeVectorIdx[i] = lineIdx;
+                }
+            } else {
+                rangeVectorIdx = null;
+            }
+        }
+
+        /**
+         * @param row    line within the block
+         * @param sample sample within the block
+         * @return the noise at the given line and sample
+         */
+        double getNoise(final int row, final int sample) {
+            final double rangeNoise;
+            if (interpolatedRangeVectors == null) {
+                rangeNoise = 1.0;
+            } else if (rangeVectorIdx == null) {
+                rangeNoise = interpolatedRangeVectors[0][sample];
+            } else {
+                final int lineIdx = rangeVectorIdx[row];
+                rangeNoise = interpol(noiseRangeVectorLine[lineIdx], noiseRangeVectorLine[lineIdx + 1],
+                        interpolatedRangeVectors[lineIdx][sample], interpolatedRangeVectors[lineIdx + 1][sample],
+                        firstAzimuthLine + row);
+            }
+            return interpNoiseAzimVec[row] * rangeNoise;
         }
     }
 
@@ -40,6 +40,7 @@ import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
@@ -541,98 +542,21 @@ public final class Sentinel1Calibrator extends BaseCalibrator implements Calibra
                 srcData2 = sourceRaster2.getDataBuffer();
             }
 
-            final Double noDataValue = sourceBand1.getNoDataValue();
             final Unit.UnitType tgtBandUnit = Unit.getUnitType(targetBand);
             final Unit.UnitType srcBandUnit = Unit.getUnitType(sourceBand1);
-
-            final ProductData tgtData = targetTile.getDataBuffer();
-            final TileIndex srcIndex = new TileIndex(sourceRaster1);
-            final TileIndex trgIndex = new TileIndex(targetTile);
-            final int maxY = y0 + h;
-            final int maxX = x0 + w;
+            if (srcBandUnit != Unit.UnitType.AMPLITUDE && srcBandUnit != Unit.UnitType.INTENSITY &&
+                    srcBandUnit != Unit.UnitType.REAL && srcBandUnit != Unit.UnitType.INTENSITY_DB) {
+                throw new OperatorException("Sentinel-1 Calibration: unhandled unit");
+            }
 
             final CalibrationInfo calInfo = targetBandToCalInfo.get(targetBandName);
             if(calInfo == null) {
                 throw new OperatorException("Calibration information not found.");
             }
-            final CALTYPE calType = getCalibrationType(targetBandName);
-
-            double dn = 0.0, i, q, muX, lutVal, retroLutVal = 1.0, calValue, calibrationFactor, phaseTerm = 0.0;
-            int srcIdx;
-
-            for (int y = y0; y < maxY; ++y) {
-                srcIndex.calculateStride(y);
-                trgIndex.calculateStride(y);
-
-                final int calVecIdx = calInfo.getCalibrationVectorIndex(y);
-                final Sentinel1Utils.CalibrationVector vec0 = calInfo.getCalibrationVector(calVecIdx);
-                final Sentinel1Utils.CalibrationVector vec1 = calInfo.getCalibrationVector(calVecIdx + 1);
-                final float[] vec0LUT = getVector(calType, vec0);
-                final float[] vec1LUT = getVector(calType, vec1);
-                float[] retroVec0LUT = null;
-                float[] retroVec1LUT = null;
-                if (dataType != null) {
-                    retroVec0LUT = getVector(dataType, vec0);
-                    retroVec1LUT = getVector(dataType, vec1);
-                }
-                final double azTime = calInfo.firstLineTime + y * calInfo.lineTimeInterval;
-                final double muY = (azTime - vec0.timeMJD) / (vec1.timeMJD - vec0.timeMJD);
-                final int[] vec0Pixels = vec0.pixels;
-                final Sentinel1Utils.CalibrationVector calVec = calInfo.calibrationVectorList[calVecIdx];
-
-                for (int x = x0; x < maxX; ++x) {
-                    srcIdx = srcIndex.getIndex(x);
-
-                    dn = srcData1.getElemDoubleAt(srcIdx);
-//                    if(noDataValue.equals(dn)) {
-//                        tgtData.setElemDoubleAt(trgIndex.getIndex(x), noDataValue);
-//                        continue;
-//                    }
-
-                    final int pixelIdx = calVec.getPixelIndex(x);
-                    muX = (x - vec0Pixels[pixelIdx]) / (double)(vec0Pixels[pixelIdx + 1] - vec0Pixels[pixelIdx]);
-
-                    lutVal = (1 - muY) * ((1 - muX) * vec0LUT[pixelIdx] + muX * vec0LUT[pixelIdx + 1]) +
-                            muY * ((1 - muX) * vec1LUT[pixelIdx] + muX * vec1LUT[pixelIdx + 1]);
-
-                    calibrationFactor = 1.0 / (lutVal*lutVal);
-
-                    if (srcBandUnit == Unit.UnitType.AMPLITUDE) {
-                        dn *= dn;
-                    } else if (srcBandUnit == Unit.UnitType.INTENSITY) {
-                        if (dataType != null) {
-                            retroLutVal = (1 - muY) * ((1 - muX) * retroVec0LUT[pixelIdx] + muX * retroVec0LUT[pixelIdx + 1]) +
-                                    muY * ((1 - muX) * retroVec1LUT[pixelIdx] + muX * retroVec1LUT[pixelIdx + 1]);
-                        }
-                        calibrationFactor *= retroLutVal;
-                    } else if (srcBandUnit == Unit.UnitType.REAL) {
-                        i = dn;
-                        q = srcData2.getElemDoubleAt(srcIdx);
-                        dn = i * i + q * q;
-                        if (dn > 0.0) {
-                            if (tgtBandUnit == Unit.UnitType.REAL) {
-                                phaseTerm = i / Math.sqrt(dn);
-                            } else if (tgtBandUnit == Unit.UnitType.IMAGINARY) {
-                                phaseTerm = q / Math.sqrt(dn);
-                            }
-                        } else {
-                            phaseTerm = 0.0;
-                        }
-                    } else if (srcBandUnit == Unit.UnitType.INTENSITY_DB) {
-                        dn = FastMath.pow(10, dn / 10.0); // convert dB to linear scale
-                    } else {
-                        throw new OperatorException("Sentinel-1 Calibration: unhandled unit");
-                    }
-
-                    calValue = dn * calibrationFactor;
 
-                    if (isComplex && outputImageInComplex) {
-                        calValue = Math.sqrt(calValue)*phaseTerm;
-                    }
-
-                    tgtData.setElemDoubleAt(trgIndex.getIndex(x), calValue);
-                }
-            }
+            calibrateTile(calInfo, getCalibrationType(targetBandName), dataType, srcBandUnit, tgtBandUnit,
+                          isComplex && outputImageInComplex, srcData1, srcData2, new TileIndex(sourceRaster1),
+                          targetTile.getDataBuffer(), new TileIndex(targetTile), x0, y0, w, h);
         } catch (Throwable e) {
             e.printStackTrace();
             //OperatorUtils.catchOperatorException(getId(), e);
@@ -641,6 +565,213 @@ public final class Sentinel1Calibrator extends BaseCalibrator implements Calibra
         }
     }
 
+    /**
+     * Calibrate the source lines of a tile. The source unit and the complex output flag are checked once for
+     * the tile and the calibration vectors are interpolated along the range once for each pair of vectors used.
+     *
+     * @param calInfo       The calibration vectors of the sub-swath and polarization.
+     * @param calType       The calibration LUT of the target band.
+     * @param dataType      The calibration LUT already applied to intensity input, or null.
+     * @param srcBandUnit   The unit of the (first) source band, amplitude, intensity, intensity dB or real.
+     * @param tgtBandUnit   The unit of the target band.
+     * @param outputComplex Whether complex input is calibrated to the real or imaginary part.
+     * @param srcData1      The source data, or the real part of complex input.
+     * @param srcData2      The imaginary part of complex input, or null.
+     * @param srcIndex      The index of the source tile.
+     * @param tgtData       The target data.
+     * @param trgIndex      The index of the target tile.
+     * @param x0            The x coordinate of the upper left corner of the tile.
+     * @param y0            The y coordinate of the upper left corner of the tile.
+     * @param w             The width of the tile.
+     * @param h             The height of the tile.
+     */
+    static void calibrateTile(final CalibrationInfo calInfo, final CALTYPE calType, final CALTYPE dataType,
+                              final Unit.UnitType srcBandUnit, final Unit.UnitType tgtBandUnit,
+                              final boolean outputComplex, final ProductData srcData1, final ProductData srcData2,
+                              final TileIndex srcIndex, final ProductData tgtData, final TileIndex trgIndex,
+                              final int x0, final int y0, final int w, final int h) {
+
+        final float[] tgtFloats = tgtData.getType() == ProductData.TYPE_FLOAT32 ? (float[]) tgtData.getElems() : null;
+        final int maxY = y0 + h;
+        final boolean applyRetroLut = srcBandUnit == Unit.UnitType.INTENSITY && dataType != null;
+
+        // calibration LUT rows along the range for the current pair of calibration vectors
+        final double[] vec0Row = new double[w];
+        final double[] vec1Row = new double[w];
+        final double[] retroVec0Row = applyRetroLut ? new double[w] : null;
+        final double[] retroVec1Row = applyRetroLut ? new double[w] : null;
+        int rowCalVecIdx = -1;
+
+        // per line calibration factors and source values
+        final double[] calFactor = new double[w];
+        final double[] srcLine1 = new double[w];
+        final double[] srcLine2 = srcData2 != null ? new double[w] : null;
+        final double[] calLine = new double[w];
+
+        for (int y = y0; y < maxY; ++y) {
+            srcIndex.calculateStride(y);
+            trgIndex.calculateStride(y);
+
+            final int calVecIdx = calInfo.getCalibrationVectorIndex(y);
+            final Sentinel1Utils.CalibrationVector vec0 = calInfo.getCalibrationVector(calVecIdx);
+            final Sentinel1Utils.CalibrationVector vec1 = calInfo.getCalibrationVector(calVecIdx + 1);
+            if (calVecIdx != rowCalVecIdx) {
+                interpolateRange(calInfo.calibrationVectorList[calVecIdx], getVector(calType, vec0),
+                                 getVector(calType, vec1), x0, w, vec0Row, vec1Row);
+                if (applyRetroLut) {
+                    interpolateRange(calInfo.calibrationVectorList[calVecIdx], getVector(dataType, vec0),
+                                     getVector(dataType, vec1), x0, w, retroVec0Row, retroVec1Row);
+                }
+                rowCalVecIdx = calVecIdx;
+            }
+
+            final double azTime = calInfo.firstLineTime + y * calInfo.lineTimeInterval;
+            final double muY = (azTime - vec0.timeMJD) / (vec1.timeMJD - vec0.timeMJD);
+            for (int x = 0; x < w; ++x) {
+                final double lutVal = (1 - muY) * vec0Row[x] + muY * vec1Row[x];
+                calFactor[x] = 1.0 / (lutVal * lutVal);
+            }
+            if (applyRetroLut) {
+                for (int x = 0; x < w; ++x) {
+                    calFactor[x] *= (1 - muY) * retroVec0Row[x] + muY * retroVec1Row[x];
+                }
+            }
+
+            final int srcOffset = srcIndex.getIndex(x0);
+            readLine(srcData1, srcOffset, srcLine1, w);
+
+            if (srcBandUnit == Unit.UnitType.AMPLITUDE) {
+                calibrateAmplitude(srcLine1, calFactor, calLine, w);
+            } else if (srcBandUnit == Unit.UnitType.INTENSITY) {
+                calibrateIntensity(srcLine1, calFactor, calLine, w);
+            } else if (srcBandUnit == Unit.UnitType.REAL) {
+                readLine(srcData2, srcOffset, srcLine2, w);
+                if (!outputComplex) {
+                    calibrateComplexToIntensity(srcLine1, srcLine2, calFactor, calLine, w);
+                } else if (tgtBandUnit == Unit.UnitType.REAL) {
+                    calibrateComplex(srcLine1, srcLine1, srcLine2, calFactor, calLine, w);
+                } else if (tgtBandUnit == Unit.UnitType.IMAGINARY) {
+                    calibrateComplex(srcLine2, srcLine1, srcLine2, calFactor, calLine, w);
+                } else {
+                    Arrays.fill(calLine, 0, w, 0.0);
+                }
+            } else {
+                calibrateIntensityDB(srcLine1, calFactor, calLine, w);
+            }
+
+            if (outputComplex && srcBandUnit != Unit.UnitType.REAL) {
+                Arrays.fill(calLine, 0, w, 0.0);
+            }
+
+            final int tgtOffset = trgIndex.getIndex(x0);
+            if (tgtFloats != null) {
+                for (int x = 0; x < w; ++x) {
+                    tgtFloats[tgtOffset + x] = (float) calLine[x];
+                }
+            } else {
+                for (int x = 0; x < w; ++x) {
+                    tgtData.setElemDoubleAt(tgtOffset + x, calLine[x]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Interpolate the LUTs of two calibration vectors along the range for the pixels of a tile
+     */
+    private static void interpolateRange(final Sentinel1Utils.CalibrationVector calVec,
+                                         final float[] vec0LUT, final float[] vec1LUT,
+                                         final int x0, final int w, final double[] vec0Row, final double[] vec1Row) {
+        final int[] pixels = calVec.pixels;
+        int pixelIdx = calVec.getPixelIndex(x0);
+        for (int x = 0; x < w; ++x) {
+            final int xx = x0 + x;
+            while (pixelIdx < pixels.length - 2 && xx >= pixels[pixelIdx + 1]) {
+                ++pixelIdx;
+            }
+            final double muX = (xx - pixels[pixelIdx]) / (double)(pixels[pixelIdx + 1] - pixels[pixelIdx]);
+            vec0Row[x] = (1 - muX) * vec0LUT[pixelIdx] + muX * vec0LUT[pixelIdx + 1];
+            vec1Row[x] = (1 - muX) * vec1LUT[pixelIdx] + muX * vec1LUT[pixelIdx + 1];
+        }
+    }
+
+    private static void readLine(final ProductData srcData, final int offset, final double[] dest, final int w) {
+        switch (srcData.getType()) {
+            case ProductData.TYPE_INT16: {
+                final short[] elems = (short[]) srcData.getElems();
+                for (int x = 0; x < w; ++x) {
+                    dest[x] = elems[offset + x];
+                }
+                break;
+            }
+            case ProductData.TYPE_UINT16: {
+                final short[] elems = (short[]) srcData.getElems();
+                for (int x = 0; x < w; ++x) {
+                    dest[x] = elems[offset + x] & 0xFFFF;
+                }
+                break;
+            }
+            case ProductData.TYPE_INT32: {
+                final int[] elems = (int[]) srcData.getElems();
+                for (int x = 0; x < w; ++x) {
+                    dest[x] = elems[offset + x];
+                }
+                break;
+            }
+            case ProductData.TYPE_FLOAT32: {
+                final float[] elems = (float[]) srcData.getElems();
+                for (int x = 0; x < w; ++x) {
+                    dest[x] = elems[offset + x];
+                }
+                break;
+            }
+            default:
+                for (int x = 0; x < w; ++x) {
+                    dest[x] = srcData.getElemDoubleAt(offset + x);
+                }
+        }
+    }
+
+    private static void calibrateAmplitude(final double[] dn, final double[] calFactor, final double[] out, final int w) {
+        for (int x = 0; x < w; ++x) {
+            out[x] = dn[x] * dn[x] * calFactor[x];
+        }
+    }
+
+    private static void calibrateIntensity(final double[] dn, final double[] calFactor, final double[] out, final int w) {
+        for (int x = 0; x < w; ++x) {
+            out[x] = dn[x] * calFactor[x];
+        }
+    }
+
+    private static void calibrateIntensityDB(final double[] dn, final double[] calFactor, final double[] out, final int w) {
+        for (int x = 0; x < w; ++x) {
+            out[x] = FastMath.pow(10, dn[x] / 10.0) * calFactor[x]; // convert dB to linear scale
+        }
+    }
+
+    private static void calibrateComplexToIntensity(final double[] i, final double[] q, final double[] calFactor,
+                                                    final double[] out, final int w) {
+        for (int x = 0; x < w; ++x) {
+            out[x] = (i[x] * i[x] + q[x] * q[x]) * calFactor[x];
+        }
+    }
+
+    /**
+     * Calibrated real or imaginary part, the phase term is taken from the given component
+     */
+    private static void calibrateComplex(final double[] component, final double[] i, final double[] q,
+                                         final double[] calFactor, final double[] out, final int w) {
+        for (int x = 0; x < w; ++x) {
+            final double dn = i[x] * i[x] + q[x] * q[x];
+            if (dn > 0.0) {
+                out[x] = Math.sqrt(dn * calFactor[x]) * (component[x] / Math.sqrt(dn));
+            } else {
+                out[x] = 0.0;
+            }
+        }
+    }
+
     public static CALTYPE getCalibrationType(final String bandName) {
         CALTYPE calType;
         if (bandName.contains("Beta")) {
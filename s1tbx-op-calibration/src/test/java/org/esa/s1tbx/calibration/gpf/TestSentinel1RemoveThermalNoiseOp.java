@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.calibration.gpf;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the TOPS GRD noise computed per tile line with the noise matrices that used to be built for the
+ * whole image
+ */
+public class TestSentinel1RemoveThermalNoiseOp {
+
+    private static final int width = 300;
+    private static final int height = 200;
+
+    // first line, first sample, last line, last sample of the noise azimuth blocks of three sub-swaths.
+    // The bursts of neighbouring sub-swaths end on different lines, the last two blocks of IW3 overlap
+    // and the last samples of the image are not covered.
+    private static final int[][] blockExtents = {
+            {0, 0, 49, 99}, {50, 0, 119, 99}, {120, 0, 199, 99},
+            {0, 100, 69, 219}, {70, 100, 139, 219}, {140, 100, 199, 219},
+            {0, 220, 39, 296}, {40, 220, 159, 296}, {155, 220, 199, 296}};
+
+    // lines of the range vectors of each block, null if the block has none
+    private static final int[][] rangeVectorLines = {
+            {-20, 10, 49, 80}, {49, 50, 119}, null,
+            {35}, {60, 70, 100, 139, 150}, {130, 199},
+            {-5, 39}, {40, 41, 90, 159}, {155, 170, 180, 230}};
+
+    // x0 and width of the tiles, the first and last sub-swath boundaries and the image edges
+    private static final int[][] tileColumns = {{0, width}, {0, 17}, {95, 20}, {210, 90}, {290, 10}};
+
+    private final TOPSGRDNoise noise = new TOPSGRDNoise(new Random(11));
+
+    @Test
+    public void testNoiseRowTOPS() {
+        compare(true, true);
+        compare(true, false);
+    }
+
+    @Test
+    public void testNoiseRowStripmap() {
+        compare(false, true);
+    }
+
+    /**
+     * Visits every line, so the lines either side of each burst, block and range vector boundary are included
+     */
+    private void compare(final boolean isTOPS, final boolean removeThermalNoise) {
+        for (int[] columns : tileColumns) {
+            final int x0 = columns[0];
+            final int w = columns[1];
+            final double[] lut = new double[w];
+            for (int y = 0; y < height; ++y) {
+                Sentinel1RemoveThermalNoiseOp.computeNoiseRow(y, x0, w, noise.blocks, isTOPS,
+                                                              removeThermalNoise, lut);
+                for (int x = x0; x < x0 + w; ++x) {
+                    assertEquals(noise.getNoiseValue(x, y, isTOPS, removeThermalNoise), lut[x - x0], 0.0);
+                }
+            }
+        }
+    }
+
+    /**
+     * The noise azimuth blocks of a product with random azimuth and range vectors, together with the full
+     * noise matrices and the per pixel look up that computeTile used before
+     */
+    private static final class TOPSGRDNoise {
+
+        final Sentinel1RemoveThermalNoiseOp.NoiseAzimuthBlock[] blocks;
+        final double[][][] noiseMatrices;
+
+        TOPSGRDNoise(final Random random) {
+            blocks = new Sentinel1RemoveThermalNoiseOp.NoiseAzimuthBlock[blockExtents.length];
+            noiseMatrices = new double[blockExtents.length][][];
+
+            for (int i = 0; i < blockExtents.length; ++i) {
+                final int firstAzimuthLine = blockExtents[i][0];
+                final int firstRangeSample = blockExtents[i][1];
+                final int lastAzimuthLine = blockExtents[i][2];
+                final int lastRangeSample = blockExtents[i][3];
+                final int numLines = lastAzimuthLine - firstAzimuthLine + 1;
+                final int numSamples = lastRangeSample - firstRangeSample + 1;
+
+                final double[] interpolatedAzimuthVector = createVector(random, numLines, 1.0);
+                final int[] noiseRangeVectorLine = rangeVectorLines[i];
+                double[][] interpolatedRangeVectors = null;
+                if (noiseRangeVectorLine != null) {
+                    interpolatedRangeVectors = new double[noiseRangeVectorLine.length][];
+                    for (int j = 0; j < noiseRangeVectorLine.length; ++j) {
+                        interpolatedRangeVectors[j] = createVector(random, numSamples, 400.0);
+                    }
+                }
+
+                blocks[i] = new Sentinel1RemoveThermalNoiseOp.NoiseAzimuthBlock("IW" + (i / 3 + 1),
+                        firstAzimuthLine, firstRangeSample, lastAzimuthLine, lastRangeSample,
+                        interpolatedAzimuthVector, noiseRangeVectorLine, interpolatedRangeVectors);
+
+                final double[][] interpNoiseRangeMatrix = new double[numLines][numSamples];
+                if (noiseRangeVectorLine != null) {
+                    computeNoiseRangeMatrix(firstAzimuthLine, lastAzimuthLine, noiseRangeVectorLine,
+                                            interpolatedRangeVectors, interpNoiseRangeMatrix);
+                } else {
+                    for (int row = 0; row < numLines; row++) {
+                        for (int col = 0; col < numSamples; col++) {
+                            interpNoiseRangeMatrix[row][col] = 1.0;
+                        }
+                    }
+                }
+
+                final double[][] noiseMatrix = new double[numLines][numSamples];
+                for (int row = 0; row < numLines; row++) {
+                    for (int col = 0; col < numSamples; col++) {
+                        noiseMatrix[row][col] = interpolatedAzimuthVector[row] * interpNoiseRangeMatrix[row][col];
+                    }
+                }
+                noiseMatrices[i] = noiseMatrix;
+            }
+        }
+
+        double getNoiseValue(final int x, final int y, final boolean isTOPS, final boolean removeThermalNoise) {
+
+            for (int i = 0; i < blocks.length; i++) {
+                final int firstAzimuthLine = blocks[i].firstAzimuthLine;
+                final int lastAzimuthLine = blocks[i].lastAzimuthLine;
+                final int firstRangeSample = blocks[i].firstRangeSample;
+                final int lastRangeSample = blocks[i].lastRangeSample;
+                if (isTOPS) {
+                    if (x >= firstRangeSample && x <= lastRangeSample && y >= firstAzimuthLine && y <= lastAzimuthLine) {
+                        final double val = noiseMatrices[i][y - firstAzimuthLine][x - firstRangeSample];
+                        return removeThermalNoise ? val : -val;
+                    }
+                } else if (x >= firstRangeSample && x <= lastRangeSample) {
+                    final double val = noiseMatrices[i][0][x - firstRangeSample];
+                    return removeThermalNoise ? val : -val;
+                }
+            }
+
+            return 0;
+        }
+
+        private static void computeNoiseRangeMatrix(final int firstAzimuthLine, final int lastAzimuthLine,
+                                                    final int noiseRangeVectorLine[],
+                                                    final double interpolatedRangeVectors[][],
+                                                    final double noiseRangeMatrix[][]) {
+
+            final int numSamples = noiseRangeMatrix[0].length;
+
+            if (noiseRangeVectorLine.length == 1) {
+                for (int sample = 0; sample < numSamples; sample++) {
+                    for (int line = 0; line < (lastAzimuthLine - firstAzimuthLine + 1); line++) {
+                        noiseRangeMatrix[line][sample] = interpolatedRangeVectors[0][sample];
+                    }
+                }
+            } else {
+                final int line0Idx = getLineIndex(firstAzimuthLine, noiseRangeVectorLine);
+
+                for (int sample = 0; sample < numSamples; sample++) {
+                    int i = 0;
+                    int lineIdx = line0Idx;
+                    for (int line = firstAzimuthLine; line <= lastAzimuthLine; line++) {
+
+                        if (line > noiseRangeVectorLine[lineIdx + 1]
+                                && lineIdx < noiseRangeVectorLine.length - 2) {
+                            lineIdx++;
+                        }
+                        noiseRangeMatrix[i++][sample] = interpol(noiseRangeVectorLine[lineIdx],
+                                noiseRangeVectorLine[lineIdx + 1], interpolatedRangeVectors[lineIdx][sample],
+                                interpolatedRangeVectors[lineIdx + 1][sample], line);
+                    }
+                }
+            }
+        }
+
+        private static int getLineIndex(final int line, final int lines[]) {
+            for (int i = 0; i < lines.length; i++) {
+                if (line < lines[i]) {
+                    return (i > 0) ? i - 1 : 0;
+                }
+            }
+            return lines.length - 2;
+        }
+
+        private static double interpol(final int x1, final int x2, final double y1, final double y2, final int x) {
+            if (x1 == x2) {
+                return 0;
+            }
+            return y1 + ((double) (x - x1) / (double) (x2 - x1)) * (y2 - y1);
+        }
+
+        private static double[] createVector(final Random random, final int length, final double scale) {
+            final double[] vector = new double[length];
+            for (int i = 0; i < length; ++i) {
+                vector[i] = scale * (0.5 + random.nextDouble());
+            }
+            return vector;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.calibration.gpf.calibrators;
+
+import org.apache.commons.math3.util.FastMath;
+import org.esa.s1tbx.calibration.gpf.calibrators.Sentinel1Calibrator.CALTYPE;
+import org.esa.s1tbx.insar.gpf.support.Sentinel1Utils;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.gpf.Tile;
+import org.esa.snap.core.gpf.internal.TileImpl;
+import org.esa.snap.engine_utilities.datamodel.Unit;
+import org.esa.snap.engine_utilities.gpf.TileIndex;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BandedSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares Sentinel1Calibrator.calibrateTile with the per pixel calibration it replaced
+ */
+public class TestSentinel1Calibrator {
+
+    private static final int width = 230;
+    private static final int height = 170;
+    private static final Rectangle[] tiles = {new Rectangle(0, 0, width, height), new Rectangle(37, 45, 101, 83),
+            new Rectangle(width - 20, height - 9, 20, 9)};
+    private static final CALTYPE[] calTypes = {CALTYPE.SIGMA0, CALTYPE.BETA0, CALTYPE.GAMMA, CALTYPE.DN};
+    private static final int[] targetTypes = {ProductData.TYPE_FLOAT32, ProductData.TYPE_FLOAT64};
+
+    private final Product product = new Product("test", "test", width, height);
+    private final Sentinel1Calibrator.CalibrationInfo calInfo = createCalibrationInfo(new Random(7));
+
+    @Test
+    public void testAmplitude() {
+        final Tile uint16Tile = createSourceTile(ProductData.TYPE_UINT16, DataBuffer.TYPE_USHORT, 0, 65535, 31);
+        compare(Unit.UnitType.AMPLITUDE, Unit.UnitType.INTENSITY, false, null, uint16Tile, null);
+
+        final Tile int32Tile = createSourceTile(ProductData.TYPE_INT32, DataBuffer.TYPE_INT, 0, 3000, 32);
+        compare(Unit.UnitType.AMPLITUDE, Unit.UnitType.INTENSITY, false, null, int32Tile, null);
+    }
+
+    @Test
+    public void testIntensity() {
+        final Tile float32Tile = createSourceTile(ProductData.TYPE_FLOAT32, DataBuffer.TYPE_FLOAT, 0, 1e6, 33);
+        compare(Unit.UnitType.INTENSITY, Unit.UnitType.INTENSITY, false, null, float32Tile, null);
+
+        final Tile float64Tile = createSourceTile(ProductData.TYPE_FLOAT64, DataBuffer.TYPE_DOUBLE, 0, 1e6, 34);
+        compare(Unit.UnitType.INTENSITY, Unit.UnitType.INTENSITY, false, null, float64Tile, null);
+    }
+
+    /**
+     * Intensity that has already been calibrated is first multiplied back by the LUT of its data type
+     */
+    @Test
+    public void testRetroCalibratedIntensity() {
+        final Tile float32Tile = createSourceTile(ProductData.TYPE_FLOAT32, DataBuffer.TYPE_FLOAT, 0, 1.0, 35);
+        for (CALTYPE dataType : calTypes) {
+            compare(Unit.UnitType.INTENSITY, Unit.UnitType.INTENSITY, false, dataType, float32Tile, null);
+        }
+    }
+
+    @Test
+    public void testIntensityDB() {
+        final Tile float32Tile = createSourceTile(ProductData.TYPE_FLOAT32, DataBuffer.TYPE_FLOAT, -30, 40, 36);
+        compare(Unit.UnitType.INTENSITY_DB, Unit.UnitType.INTENSITY, false, null, float32Tile, null);
+    }
+
+    @Test
+    public void testComplexToIntensity() {
+        final Tile iTile = createSourceTile(ProductData.TYPE_INT16, DataBuffer.TYPE_SHORT, -500, 1000, 37);
+        final Tile qTile = createSourceTile(ProductData.TYPE_INT16, DataBuffer.TYPE_SHORT, -500, 1000, 38);
+        compare(Unit.UnitType.REAL, Unit.UnitType.INTENSITY, false, null, iTile, qTile);
+    }
+
+    @Test
+    public void testComplex() {
+        final Tile iTile = createSourceTile(ProductData.TYPE_INT16, DataBuffer.TYPE_SHORT, -500, 1000, 39);
+        final Tile qTile = createSourceTile(ProductData.TYPE_INT16, DataBuffer.TYPE_SHORT, -500, 1000, 40);
+        compare(Unit.UnitType.REAL, Unit.UnitType.REAL, true, null, iTile, qTile);
+        compare(Unit.UnitType.REAL, Unit.UnitType.IMAGINARY, true, null, iTile, qTile);
+    }
+
+    /**
+     * Calibrates every tile to every calibration type and target data type along both paths
+     */
+    private void compare(final Unit.UnitType srcBandUnit, final Unit.UnitType tgtBandUnit,
+                         final boolean outputComplex, final CALTYPE dataType,
+                         final Tile srcTile1, final Tile srcTile2) {
+        final ProductData srcData1 = srcTile1.getDataBuffer();
+        final ProductData srcData2 = srcTile2 != null ? srcTile2.getDataBuffer() : null;
+
+        for (Rectangle rect : tiles) {
+            for (int targetType : targetTypes) {
+                for (CALTYPE calType : calTypes) {
+                    final Tile expectedTile = createTile(rect, targetType);
+                    final Tile actualTile = createTile(rect, targetType);
+                    final ProductData expected = expectedTile.getDataBuffer();
+                    final ProductData actual = actualTile.getDataBuffer();
+
+                    calibrateTilePerPixel(calInfo, calType, dataType, srcBandUnit, tgtBandUnit, outputComplex,
+                                          srcData1, srcData2, new TileIndex(srcTile1), expected,
+                                          new TileIndex(expectedTile), rect.x, rect.y, rect.width, rect.height);
+                    Sentinel1Calibrator.calibrateTile(calInfo, calType, dataType, srcBandUnit, tgtBandUnit,
+                                                      outputComplex, srcData1, srcData2, new TileIndex(srcTile1),
+                                                      actual, new TileIndex(actualTile),
+                                                      rect.x, rect.y, rect.width, rect.height);
+
+                    for (int i = 0; i < expected.getNumElems(); ++i) {
+                        assertEquals(expected.getElemDoubleAt(i), actual.getElemDoubleAt(i), 0.0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The per pixel loop of computeTile before the unit checks and the range interpolation were taken out of it
+     */
+    private static void calibrateTilePerPixel(final Sentinel1Calibrator.CalibrationInfo calInfo,
+                                              final CALTYPE calType, final CALTYPE dataType,
+                                              final Unit.UnitType srcBandUnit, final Unit.UnitType tgtBandUnit,
+                                              final boolean outputComplex,
+                                              final ProductData srcData1, final ProductData srcData2,
+                                              final TileIndex srcIndex, final ProductData tgtData,
+                                              final TileIndex trgIndex,
+                                              final int x0, final int y0, final int w, final int h) {
+        final int maxY = y0 + h;
+        final int maxX = x0 + w;
+
+        double dn, i, q, muX, lutVal, retroLutVal = 1.0, calValue, calibrationFactor, phaseTerm = 0.0;
+        int srcIdx;
+
+        for (int y = y0; y < maxY; ++y) {
+            srcIndex.calculateStride(y);
+            trgIndex.calculateStride(y);
+
+            final int calVecIdx = calInfo.getCalibrationVectorIndex(y);
+            final Sentinel1Utils.CalibrationVector vec0 = calInfo.getCalibrationVector(calVecIdx);
+            final Sentinel1Utils.CalibrationVector vec1 = calInfo.getCalibrationVector(calVecIdx + 1);
+            final float[] vec0LUT = Sentinel1Calibrator.getVector(calType, vec0);
+            final float[] vec1LUT = Sentinel1Calibrator.getVector(calType, vec1);
+            float[] retroVec0LUT = null;
+            float[] retroVec1LUT = null;
+            if (dataType != null) {
+                retroVec0LUT = Sentinel1Calibrator.getVector(dataType, vec0);
+                retroVec1LUT = Sentinel1Calibrator.getVector(dataType, vec1);
+            }
+            final double azTime = calInfo.firstLineTime + y * calInfo.lineTimeInterval;
+            final double muY = (azTime - vec0.timeMJD) / (vec1.timeMJD - vec0.timeMJD);
+            final int[] vec0Pixels = vec0.pixels;
+            final Sentinel1Utils.CalibrationVector calVec = calInfo.calibrationVectorList[calVecIdx];
+
+            for (int x = x0; x < maxX; ++x) {
+                srcIdx = srcIndex.getIndex(x);
+
+                dn = srcData1.getElemDoubleAt(srcIdx);
+
+                final int pixelIdx = calVec.getPixelIndex(x);
+                muX = (x - vec0Pixels[pixelIdx]) / (double) (vec0Pixels[pixelIdx + 1] - vec0Pixels[pixelIdx]);
+
+                lutVal = (1 - muY) * ((1 - muX) * vec0LUT[pixelIdx] + muX * vec0LUT[pixelIdx + 1]) +
+                        muY * ((1 - muX) * vec1LUT[pixelIdx] + muX * vec1LUT[pixelIdx + 1]);
+
+                calibrationFactor = 1.0 / (lutVal * lutVal);
+
+                if (srcBandUnit == Unit.UnitType.AMPLITUDE) {
+                    dn *= dn;
+                } else if (srcBandUnit == Unit.UnitType.INTENSITY) {
+                    if (dataType != null) {
+                        retroLutVal = (1 - muY) * ((1 - muX) * retroVec0LUT[pixelIdx] + muX * retroVec0LUT[pixelIdx + 1]) +
+                                muY * ((1 - muX) * retroVec1LUT[pixelIdx] + muX * retroVec1LUT[pixelIdx + 1]);
+                    }
+                    calibrationFactor *= retroLutVal;
+                } else if (srcBandUnit == Unit.UnitType.REAL) {
+                    i = dn;
+                    q = srcData2.getElemDoubleAt(srcIdx);
+                    dn = i * i + q * q;
+                    if (dn > 0.0) {
+                        if (tgtBandUnit == Unit.UnitType.REAL) {
+                            phaseTerm = i / Math.sqrt(dn);
+                        } else if (tgtBandUnit == Unit.UnitType.IMAGINARY) {
+                            phaseTerm = q / Math.sqrt(dn);
+                        }
+                    } else {
+                        phaseTerm = 0.0;
+                    }
+                } else if (srcBandUnit == Unit.UnitType.INTENSITY_DB) {
+                    dn = FastMath.pow(10, dn / 10.0); // convert dB to linear scale
+                }
+
+                calValue = dn * calibrationFactor;
+
+                if (outputComplex) {
+                    calValue = Math.sqrt(calValue) * phaseTerm;
+                }
+
+                tgtData.setElemDoubleAt(trgIndex.getIndex(x), calValue);
+            }
+        }
+    }
+
+    /**
+     * Calibration vectors at irregular lines and pixels past the ends of the image, with times a little off the
+     * line times as in the annotation
+     */
+    private static Sentinel1Calibrator.CalibrationInfo createCalibrationInfo(final Random random) {
+        final int[] lines = {0, 37, 81, 120, 158, height};
+        final int[] pixels = {0, 40, 79, 121, 160, 199, width};
+        final double firstLineTime = 6200.25;
+        final double lineTimeInterval = 2e-3 / 86400.0;
+
+        final Sentinel1Utils.CalibrationVector[] vectors = new Sentinel1Utils.CalibrationVector[lines.length];
+        for (int v = 0; v < lines.length; ++v) {
+            final double time = firstLineTime + (lines[v] + 0.3 * random.nextGaussian()) * lineTimeInterval;
+            vectors[v] = new Sentinel1Utils.CalibrationVector(new ProductData.UTC(time), lines[v], pixels,
+                    createLUT(random, 600, 150), createLUT(random, 500, 20),
+                    createLUT(random, 550, 180), createLUT(random, 400, 5));
+        }
+        return new Sentinel1Calibrator.CalibrationInfo("IW1", "VV", firstLineTime,
+                firstLineTime + (height - 1) * lineTimeInterval, height, vectors.length, vectors);
+    }
+
+    private static float[] createLUT(final Random random, final double mean, final double range) {
+        final float[] lut = new float[7];
+        for (int i = 0; i < lut.length; ++i) {
+            lut[i] = (float) (mean + range * (random.nextDouble() - 0.5));
+        }
+        return lut;
+    }
+
+    /**
+     * A source tile over the whole image with random values and a few zeros
+     */
+    private Tile createSourceTile(final int productDataType, final int dataBufferType,
+                                  final double min, final double range, final long seed) {
+        final Random random = new Random(seed);
+        final Tile tile = createTile(new Rectangle(0, 0, width, height), productDataType, dataBufferType);
+        final ProductData data = tile.getDataBuffer();
+        for (int i = 0; i < data.getNumElems(); ++i) {
+            data.setElemDoubleAt(i, random.nextDouble() < 0.02 ? 0.0 : min + range * random.nextDouble());
+        }
+        return tile;
+    }
+
+    private Tile createTile(final Rectangle rect, final int productDataType) {
+        final int dataBufferType = productDataType == ProductData.TYPE_FLOAT32 ?
+                DataBuffer.TYPE_FLOAT : DataBuffer.TYPE_DOUBLE;
+        return createTile(rect, productDataType, dataBufferType);
+    }
+
+    private Tile createTile(final Rectangle rect, final int productDataType, final int dataBufferType) {
+        final Band band = product.addBand("band" + product.getNumBands(), productDataType);
+        return new TileImpl(band, Raster.createWritableRaster(
+                new BandedSampleModel(dataBufferType, rect.width, rect.height, 1), new Point(rect.x, rect.y)));
+    }
+}
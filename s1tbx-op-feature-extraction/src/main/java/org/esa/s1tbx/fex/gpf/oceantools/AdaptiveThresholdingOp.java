@@ -318,8 +318,11 @@ public class AdaptiveThresholdingOp extends Operator {
             final double noDataValue = sourceBand.getNoDataValue();
 
             double backgroundThreshold = 0;
+            RingStatistics ringStats = null;
             if (estimateBackground) {
                 backgroundThreshold = computeBackgroundThreshold(data, noDataValue);
+            } else {
+                ringStats = new RingStatistics(data, w, h, noDataValue);
             }
 
             final int maxy = ty0 + th;
@@ -340,11 +343,11 @@ public class AdaptiveThresholdingOp extends Operator {
                             trgData.setElemIntAt(trgIndex.getIndex(tx), 0);
                             continue;
                         }
-                        backgroundThreshold = computeBackgroundThreshold(tx, ty, data, x0, y0, w, h, noDataValue);
+                        backgroundThreshold = computeBackgroundThreshold(tx, ty, ringStats, x0, y0);
 
                         // DEBUG...
                         /*
-                        double oldT = computeBackgroundThreshold(tx, ty, data, x0, y0, w, h, noDataValue);
+                        double oldT = computeBackgroundThreshold1(tx, ty, ringStats, x0, y0);
                         System.out.println("DEBUG: tx = " + tx + " ty = " + ty + ": backgroundThreshold = " + backgroundThreshold
                                 + " oldT = " + oldT + " targetMean = " + targetMean);
                         */
@@ -419,57 +422,23 @@ public class AdaptiveThresholdingOp extends Operator {
     }
 
     /**
-     * Compute the standard deviation value for pixels in the background window.
+     * Compute the threshold from the mean and standard deviation of pixels in the background window
+     * outside the guard window.
      *
-     * @param tx          The x coordinate of the central point of the background window.
-     * @param ty          The y coordinate of the central point of the background window.
-     * @param noDataValue no data value
-     * @return The std value.
+     * @param tx        The x coordinate of the central point of the background window.
+     * @param ty        The y coordinate of the central point of the background window.
+     * @param ringStats The background ring statistics of the source tile.
+     * @param xx0       The x coordinate of the top left pixel of the source tile.
+     * @param yy0       The y coordinate of the top left pixel of the source tile.
+     * @return The threshold.
      */
-    private double computeBackgroundThreshold(final int tx, final int ty, final float[] data,
-                                              final int xx0, int yy0, int width, int height, final double noDataValue) {
-
-        final int x0 = Math.max((tx - xx0) - halfBackgroundWindowSize, 0);
-        final int y0 = Math.max((ty - yy0) - halfBackgroundWindowSize, 0);
-        final int w = Math.min((tx - xx0) + halfBackgroundWindowSize, width - 1) - x0 + 1;
-        final int h = Math.min((ty - yy0) + halfBackgroundWindowSize, height - 1) - y0 + 1;
-
-        // Compute the mean value for pixels in the background window.
-        double sum = 0.0;
-        double val;
-        final int maxy = y0 + h;
-        final int maxx = x0 + w;
-
-        final double[] dataArray = new double[w * h];
-        int numValues = 0;
-
-        for (int y = y0; y < maxy; y++) {
-            final int yy = y - (ty - yy0);
-            final int yWidth = y * width;
-            final boolean yGtrHalfGuard = ((yy < 0) ? -yy : yy) > halfGuardWindowSize;
-            for (int x = x0; x < maxx; x++) {
-                final int xx = x - (tx - xx0);
-                if (yGtrHalfGuard || ((xx < 0) ? -xx : xx) > halfGuardWindowSize) {
-                    val = data[yWidth + x];
-                    if (noDataValue != val) {// && val < backgroundThreshold) {
-                        sum += val;
-                        dataArray[numValues] = val;
-                        numValues++;
-                    }
-                }
-            }
-        }
-        final double mean = sum / numValues;
+    private double computeBackgroundThreshold(final int tx, final int ty, final RingStatistics ringStats,
+                                              final int xx0, final int yy0) {
 
-        // Compute the standard deviation value for pixels in the background window.
-        double std = 0.0;
-        double tmp;
-        for (int i=0; i < numValues; ++i) {
-            tmp = dataArray[i] - mean;
-            std += tmp * tmp;
-        }
+        ringStats.setRing(tx - xx0, ty - yy0, halfBackgroundWindowSize, halfGuardWindowSize);
 
-        final double backgroundSTD = Math.sqrt(std / numValues);
+        final double mean = ringStats.getMean();
+        final double backgroundSTD = ringStats.getStd();
 
         return mean + backgroundSTD * t;
     }
@@ -577,73 +546,28 @@ public class AdaptiveThresholdingOp extends Operator {
     /**
      * Compute the mean, square mean and standard deviation values in the background window (ring).
      *
-     * @param tx          The x coordinate of the central point of the target window.
-     * @param ty          The y coordinate of the central point of the target window.
-     * @param data        The source tile data array.
-     * @param xx0         The x coordinate of the top left pixel of the source tile.
-     * @param yy0         The y coordinate of the top left pixel of the source tile.
-     * @param width       The width of the source tile.
-     * @param height      The height of the source tile.
-     * @param noDataValue Value representing no data available.
-     * @param stats       The mean, mean of square and standard deviation values (output).
+     * @param tx        The x coordinate of the central point of the target window.
+     * @param ty        The y coordinate of the central point of the target window.
+     * @param ringStats The background ring statistics of the source tile.
+     * @param xx0       The x coordinate of the top left pixel of the source tile.
+     * @param yy0       The y coordinate of the top left pixel of the source tile.
+     * @param stats     The mean, mean of square and standard deviation values (output).
      * @return 'true' if successful
      */
-    private boolean computeBackgroundStatistics(final int tx, final int ty, final float[] data,
-                                                final int xx0, int yy0, int width, int height,
-                                                final double noDataValue, final double[] stats) {
+    private boolean computeBackgroundStatistics(final int tx, final int ty, final RingStatistics ringStats,
+                                                final int xx0, final int yy0, final double[] stats) {
 
         // stats[0] = mean = <x>
         // stats[1] = mean of x^2 = <x^2>
         // stats[2] = standard deviation sigma
 
-        final int x0 = Math.max((tx - xx0) - halfBackgroundWindowSize, 0);
-        final int y0 = Math.max((ty - yy0) - halfBackgroundWindowSize, 0);
-        final int w = Math.min((tx - xx0) + halfBackgroundWindowSize, width - 1) - x0 + 1;
-        final int h = Math.min((ty - yy0) + halfBackgroundWindowSize, height - 1) - y0 + 1;
-
-        // Compute the mean <x> and mean of square <x^2> values for pixels in the background window.
-        double sum = 0.0;
-        double sumsq = 0.0;
-        double val;
-        final int maxy = y0 + h;
-        final int maxx = x0 + w;
-
-        final double[] dataArray = new double[w * h];
-        int numValues = 0;
-
-        for (int y = y0; y < maxy; y++) {
-            final int yy = y - (ty - yy0);
-            final int yWidth = y * width;
-            final boolean yGtrHalfGuard = ((yy < 0) ? -yy : yy) > halfGuardWindowSize;
-            for (int x = x0; x < maxx; x++) {
-                final int xx = x - (tx - xx0);
-                if (yGtrHalfGuard || ((xx < 0) ? -xx : xx) > halfGuardWindowSize) {
-                    val = data[yWidth + x];
-                    if (noDataValue != val) {// && val < backgroundThreshold) {
-                        sum += val;
-                        sumsq += (val * val);
-                        dataArray[numValues] = val;
-                        numValues++;
-                    }
-                }
-            }
-        }
-
-        if (numValues == 0) {
+        if (ringStats.setRing(tx - xx0, ty - yy0, halfBackgroundWindowSize, halfGuardWindowSize) == 0) {
             return false;
         }
 
-        final double mean = sum / numValues;
-        stats[0] = mean;
-        stats[1] = sumsq / numValues;
-
-        double std = 0.0;
-        double tmp;
-        for (int i=0; i < numValues; ++i) {
-            tmp = dataArray[i] - mean;
-            std += tmp * tmp;
-        }
-        stats[2] = Math.sqrt(std / numValues);
+        stats[0] = ringStats.getMean();
+        stats[1] = ringStats.getMeanOfSquares();
+        stats[2] = ringStats.getStd();
 
         return true;
     }
@@ -838,15 +762,15 @@ public class AdaptiveThresholdingOp extends Operator {
         return spdf;
     }
 
-    private double computeBackgroundThreshold1(final int tx, final int ty, final float[] data,
-                                               final int xx0, int yy0, int width, int height, final double noDataValue) {
+    private double computeBackgroundThreshold1(final int tx, final int ty, final RingStatistics ringStats,
+                                               final int xx0, final int yy0) {
 
         // Estimate mu and nu
         // mu = <x>
         // (1 + 1/nu)(1 + 1/L) = <x^2> / <x>^2
         // L is numLooks
         final double[] stats = new double[3]; // <x>, <x^2> and sigma
-        final boolean ok = computeBackgroundStatistics(tx, ty, data, xx0, yy0, width, height, noDataValue, stats);
+        final boolean ok = computeBackgroundStatistics(tx, ty, ringStats, xx0, yy0, stats);
         if (!ok) {
             return Double.MAX_VALUE;
         }
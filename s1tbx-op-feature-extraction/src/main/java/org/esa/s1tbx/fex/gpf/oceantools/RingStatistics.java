@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.fex.gpf.oceantools;
+
+/**
+ * Statistics of the background ring of a CFAR detector, the background window minus the guard window.
+ * <p>
+ * Summed area tables of the valid sample count, sum and sum of squares over the source tile give the
+ * statistics of any window in constant time, and those of the ring are the background window less the guard
+ * window. Both windows are clipped to the source tile. The sums of squares are taken about the tile mean to
+ * limit the loss of precision in the variance. NaN and infinite samples are counted as no data so that a
+ * single bad sample cannot spoil the statistics of every window around it.
+ * <p>
+ * Create one per source tile. Not thread safe.
+ */
+final class RingStatistics {
+
+    private final float[] data;
+    private final int width;
+    private final int height;
+    private final double noDataValue;
+
+    // summed area tables of (height + 1) x (width + 1)
+    private int[] countTable = null;
+    private double[] sumTable = null;
+    private double[] sumSqTable = null;
+    private double offset = 0.0;
+
+    // current ring
+    private int numValues = 0;
+    private double sum = 0.0;
+    private double sumSq = 0.0;
+
+    /**
+     * @param data        The source tile data array.
+     * @param width       The width of the source tile.
+     * @param height      The height of the source tile.
+     * @param noDataValue Value representing no data available.
+     */
+    RingStatistics(final float[] data, final int width, final int height, final double noDataValue) {
+        this.data = data;
+        this.width = width;
+        this.height = height;
+        this.noDataValue = noDataValue;
+    }
+
+    private void buildTables() {
+        double total = 0.0;
+        int numValid = 0;
+        for (int k = 0; k < width * height; ++k) {
+            final double val = data[k];
+            if (isValid(val)) {
+                total += val;
+                numValid++;
+            }
+        }
+        offset = numValid > 0 ? total / numValid : 0.0;
+
+        final int stride = width + 1;
+        countTable = new int[stride * (height + 1)];
+        sumTable = new double[stride * (height + 1)];
+        sumSqTable = new double[stride * (height + 1)];
+
+        for (int y = 0; y < height; ++y) {
+            int rowCount = 0;
+            double rowSum = 0.0;
+            double rowSumSq = 0.0;
+            final int above = y * stride;
+            final int current = above + stride;
+            final int yWidth = y * width;
+            for (int x = 0; x < width; ++x) {
+                final double val = data[yWidth + x];
+                if (isValid(val)) {
+                    final double d = val - offset;
+                    rowCount++;
+                    rowSum += val;
+                    rowSumSq += d * d;
+                }
+                countTable[current + x + 1] = countTable[above + x + 1] + rowCount;
+                sumTable[current + x + 1] = sumTable[above + x + 1] + rowSum;
+                sumSqTable[current + x + 1] = sumSqTable[above + x + 1] + rowSumSq;
+            }
+        }
+    }
+
+    private boolean isValid(final double val) {
+        return noDataValue != val && !Double.isNaN(val) && !Double.isInfinite(val);
+    }
+
+    /**
+     * Set the ring centred at the given pixel.
+     *
+     * @param x               The x coordinate of the centre in the source tile.
+     * @param y               The y coordinate of the centre in the source tile.
+     * @param halfOuterWindow Half of the background window size.
+     * @param halfInnerWindow Half of the guard window size.
+     * @return The number of valid samples in the ring.
+     */
+    int setRing(final int x, final int y, final int halfOuterWindow, final int halfInnerWindow) {
+        if (countTable == null) {
+            buildTables();
+        }
+
+        final int ox0 = Math.max(x - halfOuterWindow, 0);
+        final int ox1 = Math.min(x + halfOuterWindow + 1, width);
+        final int oy0 = Math.max(y - halfOuterWindow, 0);
+        final int oy1 = Math.min(y + halfOuterWindow + 1, height);
+
+        numValues = 0;
+        sum = 0.0;
+        sumSq = 0.0;
+        if (ox0 >= ox1 || oy0 >= oy1) {
+            return 0;
+        }
+        addWindow(ox0, ox1, oy0, oy1, 1);
+
+        final int ix0 = Math.max(x - halfInnerWindow, ox0);
+        final int ix1 = Math.min(x + halfInnerWindow + 1, ox1);
+        final int iy0 = Math.max(y - halfInnerWindow, oy0);
+        final int iy1 = Math.min(y + halfInnerWindow + 1, oy1);
+        if (ix0 < ix1 && iy0 < iy1) {
+            addWindow(ix0, ix1, iy0, iy1, -1);
+        }
+        return numValues;
+    }
+
+    private void addWindow(final int x0, final int x1, final int y0, final int y1, final int sign) {
+        final int stride = width + 1;
+        final int a = y0 * stride + x0;
+        final int b = y0 * stride + x1;
+        final int c = y1 * stride + x0;
+        final int d = y1 * stride + x1;
+        numValues += sign * (countTable[d] - countTable[b] - countTable[c] + countTable[a]);
+        sum += sign * (sumTable[d] - sumTable[b] - sumTable[c] + sumTable[a]);
+        sumSq += sign * (sumSqTable[d] - sumSqTable[b] - sumSqTable[c] + sumSqTable[a]);
+    }
+
+    /**
+     * @return The mean of the valid samples in the ring, NaN if there are none.
+     */
+    double getMean() {
+        return sum / numValues;
+    }
+
+    /**
+     * @return The mean of the squares of the valid samples in the ring, NaN if there are none.
+     */
+    double getMeanOfSquares() {
+        return (sumSq + offset * (2.0 * sum - numValues * offset)) / numValues;
+    }
+
+    /**
+     * @return The standard deviation of the valid samples in the ring, NaN if there are none.
+     */
+    double getStd() {
+        if (numValues == 0) {
+            return Double.NaN;
+        }
+        final double d = sum - numValues * offset;
+        final double var = (sumSq - d * d / numValues) / numValues;
+        return Math.sqrt(var > 0.0 ? var : 0.0);
+    }
+}
@@ -53,6 +53,7 @@ import org.geotools.feature.DefaultFeatureCollection;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.jdom2.Document;
 import org.jdom2.Element;
+import org.jlinda.core.utils.FFTPlanCache;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.feature.type.AttributeDescriptor;
@@ -619,10 +620,10 @@ public class WindFieldEstimationOp extends Operator {
         // perform 1-D FFT to each row
         final int rowFFTSize = xMax - xMin + 1;
         final int colFFTSize = yMax - yMin + 1;
-        final DoubleFFT_1D row_fft = new DoubleFFT_1D(rowFFTSize);
+        final DoubleFFT_1D row_fft = FFTPlanCache.getDoubleFFT_1D(rowFFTSize);
         final double[][] complexDataI = new double[colFFTSize][rowFFTSize];
         final double[][] complexDataQ = new double[colFFTSize][rowFFTSize];
-        final double[] rowArray = new double[2 * rowFFTSize];
+        final double[] rowArray = FFTPlanCache.getDoubleBuffer(2 * rowFFTSize);
         for (int y = yMin; y <= yMax; y++) {
             int k = 0;
             for (int x = xMin; x <= xMax; x++) {
@@ -639,8 +640,8 @@ public class WindFieldEstimationOp extends Operator {
         // dumpData("complexDataQ after row FFT", complexDataQ);
 
         // perform 1-D FFT to each column
-        final DoubleFFT_1D col_fft = new DoubleFFT_1D(colFFTSize);
-        final double[] colArray = new double[2 * colFFTSize];
+        final DoubleFFT_1D col_fft = FFTPlanCache.getDoubleFFT_1D(colFFTSize);
+        final double[] colArray = FFTPlanCache.getDoubleBuffer(2 * colFFTSize);
         for (int x = xMin; x <= xMax; x++) {
             int k = 0;
             for (int y = yMin; y <= yMax; y++) {
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.fex.gpf.oceantools;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for RingStatistics.
+ */
+public class TestRingStatistics {
+
+    private static final double noDataValue = 0.0;
+
+    @Test
+    public void testAgainstBruteForce() {
+        final Random random = new Random(15);
+        final int width = 97, height = 64;
+        final float[] data = new float[width * height];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = random.nextDouble() < 0.1 ? (float) noDataValue : (float) (random.nextDouble() * 0.1);
+        }
+
+        final RingStatistics ringStats = new RingStatistics(data, width, height, noDataValue);
+        final int halfOuter = 20, halfInner = 6;
+        for (int y = 0; y < height; y += 3) {
+            for (int x = 0; x < width; x += 5) {
+                final double[] expected = bruteForce(data, width, height, x, y, halfOuter, halfInner);
+
+                assertEquals((int) expected[0], ringStats.setRing(x, y, halfOuter, halfInner));
+                assertEquals(expected[1], ringStats.getMean(), 1e-12);
+                assertEquals(expected[2], ringStats.getStd(), 1e-12);
+                assertEquals(expected[3], ringStats.getMeanOfSquares(), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testGuardCoversBackground() {
+        final float[] data = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        final RingStatistics ringStats = new RingStatistics(data, 3, 3, noDataValue);
+
+        assertEquals(0, ringStats.setRing(1, 1, 1, 1));
+        assertTrue(Double.isNaN(ringStats.getMean()));
+
+        assertEquals(8, ringStats.setRing(1, 1, 1, 0));
+        assertEquals(5.0, ringStats.getMean(), 1e-12);
+    }
+
+    @Test
+    public void testNonFiniteSamples() {
+        final Random random = new Random(16);
+        final int width = 41, height = 37;
+        final float[] data = new float[width * height];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (float) (random.nextDouble() * 0.1);
+        }
+        data[5 * width + 7] = Float.NaN;
+        data[20 * width + 30] = Float.POSITIVE_INFINITY;
+        data[33 * width + 2] = Float.NEGATIVE_INFINITY;
+
+        final RingStatistics ringStats = new RingStatistics(data, width, height, noDataValue);
+        final int halfOuter = 10, halfInner = 2;
+        for (int y = 0; y < height; y += 2) {
+            for (int x = 0; x < width; x += 3) {
+                final double[] expected = bruteForce(data, width, height, x, y, halfOuter, halfInner);
+
+                assertEquals((int) expected[0], ringStats.setRing(x, y, halfOuter, halfInner));
+                assertEquals(expected[1], ringStats.getMean(), 1e-12);
+                assertEquals(expected[2], ringStats.getStd(), 1e-12);
+                assertEquals(expected[3], ringStats.getMeanOfSquares(), 1e-12);
+            }
+        }
+    }
+
+    private static double[] bruteForce(final float[] data, final int width, final int height,
+                                       final int tx, final int ty, final int halfOuter, final int halfInner) {
+        double sum = 0.0, sumSq = 0.0;
+        int n = 0;
+        final double[] values = new double[data.length];
+        for (int y = Math.max(ty - halfOuter, 0); y <= Math.min(ty + halfOuter, height - 1); ++y) {
+            for (int x = Math.max(tx - halfOuter, 0); x <= Math.min(tx + halfOuter, width - 1); ++x) {
+                if (Math.abs(y - ty) > halfInner || Math.abs(x - tx) > halfInner) {
+                    final double v = data[y * width + x];
+                    if (v != noDataValue && !Double.isNaN(v) && !Double.isInfinite(v)) {
+                        sum += v;
+                        sumSq += v * v;
+                        values[n++] = v;
+                    }
+                }
+            }
+        }
+        final double mean = sum / n;
+        double var = 0.0;
+        for (int i = 0; i < n; ++i) {
+            var += (values[i] - mean) * (values[i] - mean);
+        }
+        return new double[]{n, mean, Math.sqrt(var / n), sumSq / n};
+    }
+}
@@ -17,6 +17,7 @@ package org.esa.s1tbx.insar.gpf;
 
 import com.bc.ceres.core.ProgressMonitor;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
+import edu.emory.mathcs.jtransforms.fft.FloatFFT_1D;
 import org.apache.commons.math3.util.FastMath;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
@@ -35,6 +36,8 @@ import org.esa.snap.engine_utilities.gpf.InputProductValidator;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
 import org.esa.snap.engine_utilities.gpf.ReaderUtils;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
+import org.esa.snap.runtime.Config;
+import org.jlinda.core.utils.FFTPlanCache;
 
 import java.awt.*;
 import java.util.HashMap;
@@ -83,6 +86,10 @@ public class GoldsteinFilterOp extends Operator {
 
     private static final String PRODUCT_SUFFIX = "_Flt";
 
+    // single precision FFTs halve the memory traffic, the filtered phase differs by float rounding
+    private static final boolean useFloatFFT =
+            Config.instance().preferences().getBoolean("s1tbx.insar.goldsteinFloatFFT", false);
+
     /**
      * Initializes this operator and sets the one and only target product.
      * <p>The target product can be either defined by a field of type {@link Product} annotated with the
@@ -377,39 +384,94 @@ public class GoldsteinFilterOp extends Operator {
         final int rowMax = I.length;
         final int colMax = I[0].length;
 
-        // perform 1-D FFT to each row
+        // perform 1-D FFT to each row, the row spectra are kept in specI and specQ
         final int rowFFTSize = colMax;
         final int colFFTSize = rowMax;
-        final DoubleFFT_1D row_fft = new DoubleFFT_1D(rowFFTSize);
-        final double[][] complexDataI = new double[colFFTSize][rowFFTSize];
-        final double[][] complexDataQ = new double[colFFTSize][rowFFTSize];
-        final double[] rowArray = new double[2 * rowFFTSize];
-        for (int r = 0; r < rowMax; r++) {
-            int k = 0;
-            for (int c = 0; c < colMax; c++) {
-                rowArray[k++] = Q[r][c];
-                rowArray[k++] = I[r][c];
+        if (useFloatFFT) {
+            final FloatFFT_1D row_fft = FFTPlanCache.getFloatFFT_1D(rowFFTSize);
+            final float[] rowArray = FFTPlanCache.getFloatBuffer(2 * rowFFTSize);
+            for (int r = 0; r < rowMax; r++) {
+                int k = 0;
+                for (int c = 0; c < colMax; c++) {
+                    rowArray[k++] = (float) Q[r][c];
+                    rowArray[k++] = (float) I[r][c];
+                }
+                row_fft.complexForward(rowArray);
+                for (int c = 0; c < rowFFTSize; c++) {
+                    specQ[r][c] = rowArray[c + c];
+                    specI[r][c] = rowArray[c + c + 1];
+                }
             }
-            row_fft.complexForward(rowArray);
-            for (int c = 0; c < rowFFTSize; c++) {
-                complexDataQ[r][c] = rowArray[c + c];
-                complexDataI[r][c] = rowArray[c + c + 1];
+        } else {
+            final DoubleFFT_1D row_fft = FFTPlanCache.getDoubleFFT_1D(rowFFTSize);
+            final double[] rowArray = FFTPlanCache.getDoubleBuffer(2 * rowFFTSize);
+            for (int r = 0; r < rowMax; r++) {
+                int k = 0;
+                for (int c = 0; c < colMax; c++) {
+                    rowArray[k++] = Q[r][c];
+                    rowArray[k++] = I[r][c];
+                }
+                row_fft.complexForward(rowArray);
+                for (int c = 0; c < rowFFTSize; c++) {
+                    specQ[r][c] = rowArray[c + c];
+                    specI[r][c] = rowArray[c + c + 1];
+                }
             }
         }
 
         // perform 1-D FFT to each column
-        final DoubleFFT_1D col_fft = new DoubleFFT_1D(colFFTSize);
-        final double[] colArray = new double[2 * colFFTSize];
-        for (int c = 0; c < colMax; c++) {
-            int k = 0;
-            for (int r = 0; r < rowMax; r++) {
-                colArray[k++] = complexDataQ[r][c];
-                colArray[k++] = complexDataI[r][c];
+        transformColumns(specI, specQ, colFFTSize, true);
+    }
+
+    /**
+     * Perform 1-D FFT in place to each column of a complex array
+     *
+     * @param dataI   Imaginary parts
+     * @param dataQ   Real parts
+     * @param fftSize The number of rows
+     * @param forward True for the forward transform, false for the unscaled inverse
+     */
+    private static void transformColumns(final double[][] dataI, final double[][] dataQ, final int fftSize,
+                                         final boolean forward) {
+
+        final int colMax = dataI[0].length;
+        if (useFloatFFT) {
+            final FloatFFT_1D col_fft = FFTPlanCache.getFloatFFT_1D(fftSize);
+            final float[] colArray = FFTPlanCache.getFloatBuffer(2 * fftSize);
+            for (int c = 0; c < colMax; c++) {
+                int k = 0;
+                for (int r = 0; r < fftSize; r++) {
+                    colArray[k++] = (float) dataQ[r][c];
+                    colArray[k++] = (float) dataI[r][c];
+                }
+                if (forward) {
+                    col_fft.complexForward(colArray);
+                } else {
+                    col_fft.complexInverse(colArray, false);
+                }
+                for (int r = 0; r < fftSize; r++) {
+                    dataQ[r][c] = colArray[r + r];
+                    dataI[r][c] = colArray[r + r + 1];
+                }
             }
-            col_fft.complexForward(colArray);
-            for (int r = 0; r < colFFTSize; r++) {
-                specQ[r][c] = colArray[r + r];
-                specI[r][c] = colArray[r + r + 1];
+        } else {
+            final DoubleFFT_1D col_fft = FFTPlanCache.getDoubleFFT_1D(fftSize);
+            final double[] colArray = FFTPlanCache.getDoubleBuffer(2 * fftSize);
+            for (int c = 0; c < colMax; c++) {
+                int k = 0;
+                for (int r = 0; r < fftSize; r++) {
+                    colArray[k++] = dataQ[r][c];
+                    colArray[k++] = dataI[r][c];
+                }
+                if (forward) {
+                    col_fft.complexForward(colArray);
+                } else {
+                    col_fft.complexInverse(colArray, false);
+                }
+                for (int r = 0; r < fftSize; r++) {
+                    dataQ[r][c] = colArray[r + r];
+                    dataI[r][c] = colArray[r + r + 1];
+                }
             }
         }
     }
@@ -465,38 +527,46 @@ public class GoldsteinFilterOp extends Operator {
 
         final int rowFFTSize = colMax;
         final int colFFTSize = rowMax;
-        final double[][] complexDataI = new double[colFFTSize][rowFFTSize];
-        final double[][] complexDataQ = new double[colFFTSize][rowFFTSize];
 
-        // perform 1-D FFT to each column
-        final DoubleFFT_1D col_fft = new DoubleFFT_1D(colFFTSize);
-        final double[] colArray = new double[2 * colFFTSize];
-        for (int c = 0; c < colMax; c++) {
-            int k = 0;
-            for (int r = 0; r < rowMax; r++) {
-                colArray[k++] = specQ[r][c] * fltSpec[r][c];
-                colArray[k++] = specI[r][c] * fltSpec[r][c];
-            }
-            col_fft.complexInverse(colArray, false);
-            for (int r = 0; r < colFFTSize; r++) {
-                complexDataQ[r][c] = colArray[r + r];
-                complexDataI[r][c] = colArray[r + r + 1];
+        // perform 1-D FFT to each column of the filtered spectrum, the result is kept in I and Q
+        for (int r = 0; r < rowMax; r++) {
+            for (int c = 0; c < colMax; c++) {
+                Q[r][c] = specQ[r][c] * fltSpec[r][c];
+                I[r][c] = specI[r][c] * fltSpec[r][c];
             }
         }
+        transformColumns(I, Q, colFFTSize, false);
 
         // perform 1-D FFT to each row
-        final DoubleFFT_1D row_fft = new DoubleFFT_1D(rowFFTSize);
-        final double[] rowArray = new double[2 * rowFFTSize];
-        for (int r = 0; r < rowMax; r++) {
-            int k = 0;
-            for (int c = 0; c < colMax; c++) {
-                rowArray[k++] = complexDataQ[r][c];
-                rowArray[k++] = complexDataI[r][c];
+        if (useFloatFFT) {
+            final FloatFFT_1D row_fft = FFTPlanCache.getFloatFFT_1D(rowFFTSize);
+            final float[] rowArray = FFTPlanCache.getFloatBuffer(2 * rowFFTSize);
+            for (int r = 0; r < rowMax; r++) {
+                int k = 0;
+                for (int c = 0; c < colMax; c++) {
+                    rowArray[k++] = (float) Q[r][c];
+                    rowArray[k++] = (float) I[r][c];
+                }
+                row_fft.complexInverse(rowArray, false);
+                for (int c = 0; c < rowFFTSize; c++) {
+                    Q[r][c] = rowArray[c + c];
+                    I[r][c] = rowArray[c + c + 1];
+                }
             }
-            row_fft.complexInverse(rowArray, false);
-            for (int c = 0; c < rowFFTSize; c++) {
-                Q[r][c] = rowArray[c + c];
-                I[r][c] = rowArray[c + c + 1];
+        } else {
+            final DoubleFFT_1D row_fft = FFTPlanCache.getDoubleFFT_1D(rowFFTSize);
+            final double[] rowArray = FFTPlanCache.getDoubleBuffer(2 * rowFFTSize);
+            for (int r = 0; r < rowMax; r++) {
+                int k = 0;
+                for (int c = 0; c < colMax; c++) {
+                    rowArray[k++] = Q[r][c];
+                    rowArray[k++] = I[r][c];
+                }
+                row_fft.complexInverse(rowArray, false);
+                for (int c = 0; c < rowFFTSize; c++) {
+                    Q[r][c] = rowArray[c + c];
+                    I[r][c] = rowArray[c + c + 1];
+                }
             }
         }
     }
@@ -17,6 +17,7 @@ package org.esa.s1tbx.insar.gpf;
 
 import com.bc.ceres.core.ProgressMonitor;
 import org.apache.commons.math3.util.FastMath;
+import org.esa.s1tbx.insar.gpf.support.FlatEarthPolynomial;
 import org.esa.s1tbx.insar.gpf.support.Sentinel1Utils;
 import org.esa.snap.core.datamodel.*;
 import org.esa.snap.core.dataop.dem.ElevationModel;
@@ -141,8 +142,8 @@ public class InterferogramOp extends Operator {
     private boolean outputLatLon = false;
 
     // flat_earth_polynomial container
-    private Map<String, DoubleMatrix> flatEarthPolyMap = new HashMap<>();
-    private boolean flatEarthEstimated = false;
+    private Map<String, FlatEarthPolynomial> flatEarthPolyMap = new HashMap<>();
+    private volatile boolean flatEarthEstimated = false;
 
     // source
     private Map<String, CplxContainer> masterMap = new HashMap<>();
@@ -330,9 +331,12 @@ public class InterferogramOp extends Operator {
 
                 CplxContainer slave = slaveMap.get(keySlave);
 
-                flatEarthPolyMap.put(slave.name, estimateFlatEarthPolynomial(
+                final DoubleMatrix polyCoeffs = estimateFlatEarthPolynomial(
                         master.metaData, master.orbit, slave.metaData, slave.orbit, sourceImageWidth,
-                        sourceImageHeight, srpPolynomialDegree, srpNumberPoints, sourceProduct));
+                        sourceImageHeight, srpPolynomialDegree, srpNumberPoints, sourceProduct);
+
+                flatEarthPolyMap.put(slave.name, new FlatEarthPolynomial(
+                        polyCoeffs.toArray(), 0, sourceImageWidth - 1, 0, sourceImageHeight - 1));
             }
         }
     }
@@ -355,9 +359,12 @@ public class InterferogramOp extends Operator {
 
                         final String polynomialName = slave.name + '_' + s + '_' + b;
 
-                        flatEarthPolyMap.put(polynomialName, estimateFlatEarthPolynomial(
+                        final DoubleMatrix polyCoeffs = estimateFlatEarthPolynomial(
                                 master, slave, s + 1, b, mstSceneCentreXYZ, orbitDegree, srpPolynomialDegree,
-                                srpNumberPoints, subSwath, su));
+                                srpNumberPoints, subSwath, su);
+
+                        flatEarthPolyMap.put(polynomialName, new FlatEarthPolynomial(polyCoeffs.toArray(),
+                                0, subSwath[s].samplesPerBurst - 1, 0, subSwath[s].linesPerBurst - 1));
                     }
                 }
             }
@@ -902,38 +909,14 @@ public class InterferogramOp extends Operator {
 
                 final ProductContainer product = targetMap.get(ifgKey);
 
-                final Tile mstTileReal = getSourceTile(product.sourceMaster.realBand, targetRectangle, border);
-                final Tile mstTileImag = getSourceTile(product.sourceMaster.imagBand, targetRectangle, border);
-                final ComplexDoubleMatrix dataMaster = TileUtilsDoris.pullComplexDoubleMatrix(mstTileReal, mstTileImag);
-
-                final Tile slvTileReal = getSourceTile(product.sourceSlave.realBand, targetRectangle, border);
-                final Tile slvTileImag = getSourceTile(product.sourceSlave.imagBand, targetRectangle, border);
-                final ComplexDoubleMatrix dataSlave = TileUtilsDoris.pullComplexDoubleMatrix(slvTileReal, slvTileImag);
-
-                if (subtractFlatEarthPhase) {
-                    final DoubleMatrix flatEarthPhase = computeFlatEarthPhase(
-                            x0, xN, dataMaster.columns, y0, yN, dataMaster.rows,
-                            0, sourceImageWidth - 1, 0, sourceImageHeight - 1, product.sourceSlave.name);
-
-                    final ComplexDoubleMatrix complexReferencePhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(flatEarthPhase), MatrixFunctions.sin(flatEarthPhase));
-
-                    dataSlave.muli(complexReferencePhase);
-
-                    if (OUTPUT_PHASE) {
-                        saveFlatEarthPhase(x0, xN, y0, yN, flatEarthPhase, product, targetTileMap);
-                    }
-                }
+                final FlatEarthPolynomial flatEarth =
+                        subtractFlatEarthPhase ? flatEarthPolyMap.get(product.sourceSlave.name) : null;
 
+                double[][] demPhase = null;
                 if (subtractTopographicPhase) {
                     final TopoPhase topoPhase = TopoPhase.computeTopoPhase(
                             product, tileWindow, demTile, outputElevation, false);
-
-                    final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                            MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
-
-                    dataSlave.muli(ComplexTopoPhase);
+                    demPhase = topoPhase.demPhase;
 
                     if (OUTPUT_PHASE) {
                         saveTopoPhase(x0, xN, y0, yN, topoPhase.demPhase, product, targetTileMap);
@@ -951,51 +934,17 @@ public class InterferogramOp extends Operator {
                     }
                 }
 
-                dataMaster.muli(dataSlave.conji());
-
-                saveInterferogram(dataMaster, product, targetTileMap, targetRectangle);
+                computeInterferogram(product, targetTileMap, targetRectangle, border, flatEarth, 0, demPhase);
 
                 // coherence calculation
                 if (includeCoherence) {
-                    final Tile mstTileReal2 = getSourceTile(product.sourceMaster.realBand, rect, border);
-                    final Tile mstTileImag2 = getSourceTile(product.sourceMaster.imagBand, rect, border);
-                    final Tile slvTileReal2 = getSourceTile(product.sourceSlave.realBand, rect, border);
-                    final Tile slvTileImag2 = getSourceTile(product.sourceSlave.imagBand, rect, border);
-                    final ComplexDoubleMatrix dataMaster2 =
-                            TileUtilsDoris.pullComplexDoubleMatrix(mstTileReal2, mstTileImag2);
-
-                    final ComplexDoubleMatrix dataSlave2 =
-                            TileUtilsDoris.pullComplexDoubleMatrix(slvTileReal2, slvTileImag2);
-
-                    if (subtractFlatEarthPhase) {
-                        final DoubleMatrix flatEarthPhase = computeFlatEarthPhase(
-                                cohx0, cohx0 + cohw - 1, cohw, cohy0, cohy0 + cohh - 1, cohh,
-                                0, sourceImageWidth - 1, 0, sourceImageHeight - 1, product.sourceSlave.name);
-
-                        final ComplexDoubleMatrix complexReferencePhase = new ComplexDoubleMatrix(
-                                MatrixFunctions.cos(flatEarthPhase), MatrixFunctions.sin(flatEarthPhase));
-
-                        dataSlave2.muli(complexReferencePhase);
-                    }
-
+                    double[][] cohDemPhase = null;
                     if (subtractTopographicPhase) {
-                        final TopoPhase topoPhase = TopoPhase.computeTopoPhase(
-                                product, cohTileWindow, cohDemTile, false);
-
-                        final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                                MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                                MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
-
-                        dataSlave2.muli(ComplexTopoPhase);
-                    }
-
-                    for (int i = 0; i < dataMaster2.length; i++) {
-                        double tmp = norm(dataMaster2.get(i));
-                        dataMaster2.put(i, dataMaster2.get(i).mul(dataSlave2.get(i).conj()));
-                        dataSlave2.put(i, new ComplexDouble(norm(dataSlave2.get(i)), tmp));
+                        cohDemPhase = TopoPhase.computeTopoPhase(
+                                product, cohTileWindow, cohDemTile, false).demPhase;
                     }
 
-                    DoubleMatrix cohMatrix = SarUtils.coherence2(dataMaster2, dataSlave2, cohWinAz, cohWinRg);
+                    final DoubleMatrix cohMatrix = computeCoherence(product, rect, border, flatEarth, 0, cohDemPhase);
 
                     saveCoherence(cohMatrix, product, targetTileMap, targetRectangle);
                 }
@@ -1007,21 +956,187 @@ public class InterferogramOp extends Operator {
         }
     }
 
-    private DoubleMatrix computeFlatEarthPhase(final int xMin, final int xMax, final int xSize,
-                                               final int yMin, final int yMax, final int ySize,
-                                               final int minPixel, final int maxPixel,
-                                               final int minLine, final int maxLine,
-                                               final String polynomialName) {
-        DoubleMatrix rangeAxisNormalized = DoubleMatrix.linspace(xMin, xMax, xSize);
-        rangeAxisNormalized = normalizeDoubleMatrix(rangeAxisNormalized, minPixel, maxPixel);
+    /**
+     * Forms the interferogram of a tile in a single pass. Per pixel the slave is rotated by the flat earth
+     * and topographic phase and multiplied with the conjugate into the master, which is written straight
+     * into the target tiles.
+     *
+     * @param flatEarth    the flat earth polynomial or null if not subtracted
+     * @param firstLineIdx the line of the image at which the flat earth polynomial starts
+     * @param demPhase     the topographic phase of the tile or null if not subtracted
+     */
+    private void computeInterferogram(final ProductContainer product, final Map<Band, Tile> targetTileMap,
+                                      final Rectangle targetRectangle, final BorderExtender border,
+                                      final FlatEarthPolynomial flatEarth, final int firstLineIdx,
+                                      final double[][] demPhase) {
 
-        DoubleMatrix azimuthAxisNormalized = DoubleMatrix.linspace(yMin, yMax, ySize);
-        azimuthAxisNormalized = normalizeDoubleMatrix(azimuthAxisNormalized, minLine, maxLine);
+        final int x0 = targetRectangle.x;
+        final int y0 = targetRectangle.y;
+        final int maxX = x0 + targetRectangle.width;
+        final int maxY = y0 + targetRectangle.height;
+
+        final Tile mstTileReal = getSourceTile(product.sourceMaster.realBand, targetRectangle, border);
+        final Tile mstTileImag = getSourceTile(product.sourceMaster.imagBand, targetRectangle, border);
+        final Tile slvTileReal = getSourceTile(product.sourceSlave.realBand, targetRectangle, border);
+        final Tile slvTileImag = getSourceTile(product.sourceSlave.imagBand, targetRectangle, border);
+        final ProductData mstRealData = mstTileReal.getDataBuffer();
+        final ProductData mstImagData = mstTileImag.getDataBuffer();
+        final ProductData slvRealData = slvTileReal.getDataBuffer();
+        final ProductData slvImagData = slvTileImag.getDataBuffer();
+        final TileIndex mstIndex = new TileIndex(mstTileReal);
+        final TileIndex slvIndex = new TileIndex(slvTileReal);
+
+        final Tile tileOutReal = targetTileMap.get(targetProduct.getBand(product.getBandName(Unit.REAL)));
+        final Tile tileOutImag = targetTileMap.get(targetProduct.getBand(product.getBandName(Unit.IMAGINARY)));
+        final ProductData samplesReal = tileOutReal.getDataBuffer();
+        final ProductData samplesImag = tileOutImag.getDataBuffer();
+        final TileIndex tgtIndex = new TileIndex(tileOutReal);
 
-        final DoubleMatrix polyCoeffs = flatEarthPolyMap.get(polynomialName);
+        ProductData flatEarthPhaseData = null;
+        TileIndex flatEarthPhaseIndex = null;
+        if (OUTPUT_PHASE && flatEarth != null) {
+            final Band flatEarthPhaseBand = targetProduct.getBand(product.getBandName(FLAT_EARTH_PHASE));
+            final Tile flatEarthPhaseTile = targetTileMap.get(flatEarthPhaseBand);
+            flatEarthPhaseData = flatEarthPhaseTile.getDataBuffer();
+            flatEarthPhaseIndex = new TileIndex(flatEarthPhaseTile);
+        }
 
-        return PolyUtils.polyval(azimuthAxisNormalized, rangeAxisNormalized,
-                polyCoeffs, PolyUtils.degreeFromCoefficients(polyCoeffs.length));
+        final boolean mstNoDataValueUsed = product.sourceMaster.realBand.isNoDataValueUsed();
+        final boolean slvNoDataValueUsed = product.sourceSlave.realBand.isNoDataValueUsed();
+        final double mstNoDataValue = mstNoDataValueUsed ? product.sourceMaster.realBand.getNoDataValue() : 0.0;
+        final double slvNoDataValue = slvNoDataValueUsed ? product.sourceSlave.realBand.getNoDataValue() : 0.0;
+
+        final boolean subtractPhase = flatEarth != null || demPhase != null;
+        final double[] rowCoeffs = flatEarth != null ? flatEarth.createRowBuffer() : null;
+
+        for (int y = y0; y < maxY; y++) {
+            mstIndex.calculateStride(y);
+            slvIndex.calculateStride(y);
+            tgtIndex.calculateStride(y);
+            if (flatEarthPhaseIndex != null) {
+                flatEarthPhaseIndex.calculateStride(y);
+            }
+            if (flatEarth != null) {
+                flatEarth.getRowCoefficients(y - firstLineIdx, rowCoeffs);
+            }
+            final double[] demPhaseRow = demPhase != null ? demPhase[y - y0] : null;
+
+            for (int x = x0; x < maxX; x++) {
+                final int mstIdx = mstIndex.getIndex(x);
+                final int slvIdx = slvIndex.getIndex(x);
+                final int tgtIdx = tgtIndex.getIndex(x);
+
+                double phase = 0.0;
+                if (flatEarth != null) {
+                    phase = flatEarth.getPhase(rowCoeffs, x);
+                    if (flatEarthPhaseData != null) {
+                        flatEarthPhaseData.setElemFloatAt(flatEarthPhaseIndex.getIndex(x), (float) phase);
+                    }
+                }
+                if (demPhaseRow != null) {
+                    phase += demPhaseRow[x - x0];
+                }
+
+                final double mstReal = mstRealData.getElemDoubleAt(mstIdx);
+                final double slvReal = slvRealData.getElemDoubleAt(slvIdx);
+                if (mstNoDataValueUsed && mstReal == mstNoDataValue ||
+                        slvNoDataValueUsed && slvReal == slvNoDataValue) {
+                    samplesReal.setElemFloatAt(tgtIdx, (float) mstNoDataValue);
+                    samplesImag.setElemFloatAt(tgtIdx, (float) mstNoDataValue);
+                    continue;
+                }
+                final double mstImag = mstImagData.getElemDoubleAt(mstIdx);
+                double slvRe = slvReal;
+                double slvIm = slvImagData.getElemDoubleAt(slvIdx);
+
+                if (subtractPhase) {
+                    final double cos = FastMath.cos(phase);
+                    final double sin = FastMath.sin(phase);
+                    final double re = slvRe * cos - slvIm * sin;
+                    slvIm = slvRe * sin + slvIm * cos;
+                    slvRe = re;
+                }
+
+                // master * conj(slave)
+                samplesReal.setElemFloatAt(tgtIdx, (float) (mstReal * slvRe + mstImag * slvIm));
+                samplesImag.setElemFloatAt(tgtIdx, (float) (mstImag * slvRe - mstReal * slvIm));
+            }
+        }
+    }
+
+    /**
+     * Estimates the coherence of a tile. The phase corrected product of master and slave and their norms are
+     * formed in a single pass into the two matrices taken by SarUtils.coherence2.
+     *
+     * @param rect         the tile extended by the coherence window
+     * @param flatEarth    the flat earth polynomial or null if not subtracted
+     * @param firstLineIdx the line of the image at which the flat earth polynomial starts
+     * @param demPhase     the topographic phase of rect or null if not subtracted
+     */
+    private DoubleMatrix computeCoherence(final ProductContainer product, final Rectangle rect,
+                                          final BorderExtender border, final FlatEarthPolynomial flatEarth,
+                                          final int firstLineIdx, final double[][] demPhase) {
+
+        final Tile mstTileReal = getSourceTile(product.sourceMaster.realBand, rect, border);
+        final Tile mstTileImag = getSourceTile(product.sourceMaster.imagBand, rect, border);
+        final Tile slvTileReal = getSourceTile(product.sourceSlave.realBand, rect, border);
+        final Tile slvTileImag = getSourceTile(product.sourceSlave.imagBand, rect, border);
+        final ProductData mstRealData = mstTileReal.getDataBuffer();
+        final ProductData mstImagData = mstTileImag.getDataBuffer();
+        final ProductData slvRealData = slvTileReal.getDataBuffer();
+        final ProductData slvImagData = slvTileImag.getDataBuffer();
+        final TileIndex mstIndex = new TileIndex(mstTileReal);
+        final TileIndex slvIndex = new TileIndex(slvTileReal);
+
+        final ComplexDoubleMatrix ifgMatrix = new ComplexDoubleMatrix(rect.height, rect.width);
+        final ComplexDoubleMatrix norms = new ComplexDoubleMatrix(rect.height, rect.width);
+
+        final boolean subtractPhase = flatEarth != null || demPhase != null;
+        final double[] rowCoeffs = flatEarth != null ? flatEarth.createRowBuffer() : null;
+
+        for (int yy = 0; yy < rect.height; yy++) {
+            final int y = rect.y + yy;
+            mstIndex.calculateStride(y);
+            slvIndex.calculateStride(y);
+            if (flatEarth != null) {
+                flatEarth.getRowCoefficients(y - firstLineIdx, rowCoeffs);
+            }
+            final double[] demPhaseRow = demPhase != null ? demPhase[yy] : null;
+
+            for (int xx = 0; xx < rect.width; xx++) {
+                final int x = rect.x + xx;
+                final int mstIdx = mstIndex.getIndex(x);
+                final int slvIdx = slvIndex.getIndex(x);
+
+                final double mstRe = mstRealData.getElemDoubleAt(mstIdx);
+                final double mstIm = mstImagData.getElemDoubleAt(mstIdx);
+                double slvRe = slvRealData.getElemDoubleAt(slvIdx);
+                double slvIm = slvImagData.getElemDoubleAt(slvIdx);
+
+                if (subtractPhase) {
+                    double phase = 0.0;
+                    if (flatEarth != null) {
+                        phase = flatEarth.getPhase(rowCoeffs, x);
+                    }
+                    if (demPhaseRow != null) {
+                        phase += demPhaseRow[xx];
+                    }
+                    final double cos = FastMath.cos(phase);
+                    final double sin = FastMath.sin(phase);
+                    final double re = slvRe * cos - slvIm * sin;
+                    slvIm = slvRe * sin + slvIm * cos;
+                    slvRe = re;
+                }
+
+                final int i = 2 * ifgMatrix.index(yy, xx);
+                ifgMatrix.data[i] = mstRe * slvRe + mstIm * slvIm;
+                ifgMatrix.data[i + 1] = mstIm * slvRe - mstRe * slvIm;
+                norms.data[i] = slvRe * slvRe + slvIm * slvIm;
+                norms.data[i + 1] = mstRe * mstRe + mstIm * mstIm;
+            }
+        }
+
+        return SarUtils.coherence2(ifgMatrix, norms, cohWinAz, cohWinRg);
     }
 
     private void saveElevation(final int x0, final int xN, final int y0, final int yN, final double[][] elevation,
@@ -1093,99 +1208,6 @@ public class InterferogramOp extends Operator {
         }
     }
 
-    private void saveFlatEarthPhase(final int x0, final int xN, final int y0, final int yN, final DoubleMatrix refPhase,
-                                    final ProductContainer product, final Map<Band, Tile> targetTileMap) {
-
-        final Band flatEarthPhaseBand = targetProduct.getBand(product.getBandName(FLAT_EARTH_PHASE));
-        final Tile flatEarthPhaseTile = targetTileMap.get(flatEarthPhaseBand);
-        final ProductData flatEarthPhaseData = flatEarthPhaseTile.getDataBuffer();
-
-        final TileIndex tgtIndex = new TileIndex(flatEarthPhaseTile);
-        for (int y = y0; y <= yN; y++) {
-            tgtIndex.calculateStride(y);
-            final int yy = y - y0;
-            for (int x = x0; x <= xN; x++) {
-                final int tgtIdx = tgtIndex.getIndex(x);
-                final int xx = x - x0;
-                flatEarthPhaseData.setElemFloatAt(tgtIdx, (float)refPhase.get(yy, xx));
-            }
-        }
-    }
-
-    private void saveInterferogram(final ComplexDoubleMatrix dataMaster, final ProductContainer product,
-                                   final Map<Band, Tile> targetTileMap, final Rectangle targetRectangle) {
-
-        final int x0 = targetRectangle.x;
-        final int y0 = targetRectangle.y;
-        final int maxX = x0 + targetRectangle.width;
-        final int maxY = y0 + targetRectangle.height;
-        final Band targetBand_I = targetProduct.getBand(product.getBandName(Unit.REAL));
-        final Tile tileOutReal = targetTileMap.get(targetBand_I);
-
-        final Band targetBand_Q = targetProduct.getBand(product.getBandName(Unit.IMAGINARY));
-        final Tile tileOutImag = targetTileMap.get(targetBand_Q);
-
-        final ProductData samplesReal = tileOutReal.getDataBuffer();
-        final ProductData samplesImag = tileOutImag.getDataBuffer();
-        final DoubleMatrix dataReal = dataMaster.real();
-        final DoubleMatrix dataImag = dataMaster.imag();
-        final TileIndex tgtIndex = new TileIndex(tileOutReal);
-
-        final Tile mstRealTile = getSourceTile(product.sourceMaster.realBand, targetRectangle);
-        final ProductData mstRealData = mstRealTile.getDataBuffer();
-        final TileIndex srcIndex = new TileIndex(mstRealTile);
-
-        final Tile slvRealTile = getSourceTile(product.sourceSlave.realBand, targetRectangle);
-        final ProductData slvRealData = slvRealTile.getDataBuffer();
-
-        final boolean mstNoDataValueUsed = product.sourceMaster.realBand.isNoDataValueUsed();
-        final boolean slvNoDataValueUsed = product.sourceSlave.realBand.isNoDataValueUsed();
-
-        if (mstNoDataValueUsed || slvNoDataValueUsed) {
-
-            double mstNoDataValue = 0.0, slvNoDataValue = 0.0;
-            if (mstNoDataValueUsed) {
-                mstNoDataValue = product.sourceMaster.realBand.getNoDataValue();
-            }
-            if (slvNoDataValueUsed) {
-                slvNoDataValue = product.sourceSlave.realBand.getNoDataValue();
-            }
-
-            for (int y = y0; y < maxY; y++) {
-                tgtIndex.calculateStride(y);
-                srcIndex.calculateStride(y);
-                final int yy = y - y0;
-                for (int x = x0; x < maxX; x++) {
-                    final int tgtIdx = tgtIndex.getIndex(x);
-                    final int xx = x - x0;
-                    final int srcIdx = srcIndex.getIndex(x);
-                    if (mstNoDataValueUsed && mstRealData.getElemDoubleAt(srcIdx) == mstNoDataValue ||
-                            slvNoDataValueUsed && slvRealData.getElemDoubleAt(srcIdx) == slvNoDataValue) {
-                        samplesReal.setElemFloatAt(tgtIdx, (float) mstNoDataValue);
-                        samplesImag.setElemFloatAt(tgtIdx, (float) mstNoDataValue);
-                    } else {
-                        samplesReal.setElemFloatAt(tgtIdx, (float) dataReal.get(yy, xx));
-                        samplesImag.setElemFloatAt(tgtIdx, (float) dataImag.get(yy, xx));
-                    }
-                }
-            }
-
-        } else {
-
-            for (int y = y0; y < maxY; y++) {
-                tgtIndex.calculateStride(y);
-                srcIndex.calculateStride(y);
-                final int yy = y - y0;
-                for (int x = x0; x < maxX; x++) {
-                    final int tgtIdx = tgtIndex.getIndex(x);
-                    final int xx = x - x0;
-                    samplesReal.setElemFloatAt(tgtIdx, (float) dataReal.get(yy, xx));
-                    samplesImag.setElemFloatAt(tgtIdx, (float) dataImag.get(yy, xx));
-                }
-            }
-        }
-    }
-
     private void saveCoherence(final DoubleMatrix cohMatrix, final ProductContainer product,
                                final Map<Band, Tile> targetTileMap, final Rectangle targetRectangle) {
 
@@ -1222,10 +1244,6 @@ public class InterferogramOp extends Operator {
         }
     }
 
-    private static double norm(final ComplexDouble number) {
-        return number.real() * number.real() + number.imag() * number.imag();
-    }
-
     private void computeTileStackForTOPSARProduct(
             final Map<Band, Tile> targetTileMap, final Rectangle targetRectangle, final ProgressMonitor pm)
             throws OperatorException {
@@ -1312,11 +1330,6 @@ public class InterferogramOp extends Operator {
                         demNoDataValue, demSamplingLat, demSamplingLon, tileExtensionPercent);
             }
 
-            final int minLine = 0;
-            final int maxLine = subSwath[subSwathIndex - 1].linesPerBurst - 1;
-            final int minPixel = 0;
-            final int maxPixel = subSwath[subSwathIndex - 1].samplesPerBurst - 1;
-
             for (String ifgKey : targetMap.keySet()) {
 
                 final ProductContainer product = targetMap.get(ifgKey);
@@ -1324,41 +1337,15 @@ public class InterferogramOp extends Operator {
                 updateSlvMetaData(product, burstIndex, slvMeta);
                 final Orbit slvOrbit = product.sourceSlave.orbit;
 
-                /// check out results from master ///
-                final Tile mstTileReal = getSourceTile(product.sourceMaster.realBand, targetRectangle, border);
-                final Tile mstTileImag = getSourceTile(product.sourceMaster.imagBand, targetRectangle, border);
-                final ComplexDoubleMatrix dataMaster = TileUtilsDoris.pullComplexDoubleMatrix(mstTileReal, mstTileImag);
-
-                /// check out results from slave ///
-                final Tile slvTileReal = getSourceTile(product.sourceSlave.realBand, targetRectangle, border);
-                final Tile slvTileImag = getSourceTile(product.sourceSlave.imagBand, targetRectangle, border);
-                final ComplexDoubleMatrix dataSlave = TileUtilsDoris.pullComplexDoubleMatrix(slvTileReal, slvTileImag);
-
                 final String polynomialName = product.sourceSlave.name + '_' + (subSwathIndex - 1) + '_' + burstIndex;
-                if (subtractFlatEarthPhase) {
-                    final DoubleMatrix flatEarthPhase = computeFlatEarthPhase(
-                            x0, xN, dataMaster.columns, y0 - firstLineIdx, yN - firstLineIdx, dataMaster.rows,
-                            minPixel, maxPixel, minLine, maxLine, polynomialName);
-
-                    final ComplexDoubleMatrix complexReferencePhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(flatEarthPhase), MatrixFunctions.sin(flatEarthPhase));
-
-                    dataSlave.muli(complexReferencePhase);
-
-                    if (OUTPUT_PHASE) {
-                        saveFlatEarthPhase(x0, xN, y0, yN, flatEarthPhase, product, targetTileMap);
-                    }
-                }
+                final FlatEarthPolynomial flatEarth =
+                        subtractFlatEarthPhase ? flatEarthPolyMap.get(polynomialName) : null;
 
+                double[][] demPhase = null;
                 if (subtractTopographicPhase) {
                     TopoPhase topoPhase = TopoPhase.computeTopoPhase(
                             mstMeta, mstOrbit, slvMeta, slvOrbit, tileWindow, demTile, outputElevation, false);
-
-                    final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                            MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
-
-                    dataSlave.muli(ComplexTopoPhase);
+                    demPhase = topoPhase.demPhase;
 
                     if (OUTPUT_PHASE) {
                         saveTopoPhase(x0, xN, y0, yN, topoPhase.demPhase, product, targetTileMap);
@@ -1376,51 +1363,19 @@ public class InterferogramOp extends Operator {
                     }
                 }
 
-                dataMaster.muli(dataSlave.conji());
-
-                saveInterferogram(dataMaster, product, targetTileMap, targetRectangle);
+                computeInterferogram(product, targetTileMap, targetRectangle, border, flatEarth, firstLineIdx,
+                                     demPhase);
 
                 // coherence calculation
                 if (includeCoherence) {
-                    final Tile mstTileReal2 = getSourceTile(product.sourceMaster.realBand, rect, border);
-                    final Tile mstTileImag2 = getSourceTile(product.sourceMaster.imagBand, rect, border);
-                    final Tile slvTileReal2 = getSourceTile(product.sourceSlave.realBand, rect, border);
-                    final Tile slvTileImag2 = getSourceTile(product.sourceSlave.imagBand, rect, border);
-                    final ComplexDoubleMatrix dataMaster2 =
-                            TileUtilsDoris.pullComplexDoubleMatrix(mstTileReal2, mstTileImag2);
-
-                    final ComplexDoubleMatrix dataSlave2 =
-                            TileUtilsDoris.pullComplexDoubleMatrix(slvTileReal2, slvTileImag2);
-
-                    if (subtractFlatEarthPhase) {
-                        final DoubleMatrix flatEarthPhase = computeFlatEarthPhase(
-                                cohx0, cohx0 + cohw - 1, cohw, cohy0 - firstLineIdx, cohy0 + cohh - 1 - firstLineIdx, cohh,
-                                minPixel, maxPixel, minLine, maxLine, polynomialName);
-
-                        final ComplexDoubleMatrix complexReferencePhase = new ComplexDoubleMatrix(
-                                MatrixFunctions.cos(flatEarthPhase), MatrixFunctions.sin(flatEarthPhase));
-
-                        dataSlave2.muli(complexReferencePhase);
-                    }
-
+                    double[][] cohDemPhase = null;
                     if (subtractTopographicPhase) {
-                        TopoPhase topoPhase = TopoPhase.computeTopoPhase(
-                                mstMeta, mstOrbit, slvMeta, slvOrbit, cohTileWindow, cohDemTile, false);
-
-                        final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                                MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                                MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
-
-                        dataSlave2.muli(ComplexTopoPhase);
-                    }
-
-                    for (int i = 0; i < dataMaster2.length; i++) {
-                        double tmp = norm(dataMaster2.get(i));
-                        dataMaster2.put(i, dataMaster2.get(i).mul(dataSlave2.get(i).conj()));
-                        dataSlave2.put(i, new ComplexDouble(norm(dataSlave2.get(i)), tmp));
+                        cohDemPhase = TopoPhase.computeTopoPhase(
+                                mstMeta, mstOrbit, slvMeta, slvOrbit, cohTileWindow, cohDemTile, false).demPhase;
                     }
 
-                    DoubleMatrix cohMatrix = SarUtils.coherence2(dataMaster2, dataSlave2, cohWinAz, cohWinRg);
+                    final DoubleMatrix cohMatrix = computeCoherence(
+                            product, rect, border, flatEarth, firstLineIdx, cohDemPhase);
 
                     saveCoherence(cohMatrix, product, targetTileMap, targetRectangle);
                 }
@@ -18,6 +18,7 @@ package org.esa.s1tbx.insar.gpf;
 import Jama.Matrix;
 import Jama.SingularValueDecomposition;
 import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s1tbx.commons.OperatorExecutor;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
@@ -33,7 +34,6 @@ import org.esa.snap.core.gpf.annotations.SourceProduct;
 import org.esa.snap.core.gpf.annotations.TargetProduct;
 import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.math.MathUtils;
-import org.esa.snap.engine_utilities.gpf.ThreadManager;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
 import org.esa.snap.engine_utilities.util.ResourceUtils;
 
@@ -383,12 +383,12 @@ public class PCAOp extends Operator {
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Computing Statistics... ", tileRectangles.length);
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("PCAOp", this::checkForCancellation);
 
         try {
             for (final Rectangle rectangle : tileRectangles) {
 
-                Thread worker = new Thread() {
+                Runnable worker = new Runnable() {
                     final ProductData[] bandsRawSamples = new ProductData[numOfSourceBands];
                     final double[] tileSum = new double[numOfSourceBands];
                     final double[][] tileSumCross = new double[numOfSourceBands][numOfSourceBands];
@@ -419,11 +419,11 @@ public class PCAOp extends Operator {
                         }
                     }
                 };
-                threadManager.add(worker);
+                executor.execute(worker);
 
                 status.worked(1);
             }
-            threadManager.finish();
+            executor.finish();
 
             completeStatistics();
 
@@ -438,13 +438,13 @@ public class PCAOp extends Operator {
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Computing Min... ", tileRectangles.length);
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("PCAOp", this::checkForCancellation);
 
         try {
             initializeMin();
 
             for (final Rectangle rectangle : tileRectangles) {
-                Thread worker = new Thread() {
+                Runnable worker = new Runnable() {
                     final double[] tileMinPCA = new double[numOfSourceBands];
                     final ProductData[] bandsRawSamples = new ProductData[numOfSourceBands];
 
@@ -474,12 +474,12 @@ public class PCAOp extends Operator {
                         }
                     }
                 };
-                threadManager.add(worker);
+                executor.execute(worker);
 
                 status.worked(1);
             }
 
-            threadManager.finish();
+            executor.finish();
 
         } catch (Throwable e) {
             throw new OperatorException(e);
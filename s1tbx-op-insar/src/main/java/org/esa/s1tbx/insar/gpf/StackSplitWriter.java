@@ -196,20 +196,23 @@ public class StackSplitWriter extends Operator {
         }
     }
 
-    private synchronized void writeTile(final SubsetInfo info, final Rectangle trgRect)
+    private void writeTile(final SubsetInfo info, final Rectangle trgRect)
             throws IOException {
-        if (info.written) return;
-
-        for(Band trgBand : info.subsetProduct.getBands()) {
-            final String oldBandName = info.newBandNamingMap.get(trgBand.getName());
-            final Tile sourceTile = getSourceTile(sourceProduct.getBand(oldBandName), trgRect);
-            final ProductData rawSamples = sourceTile.getRawSamples();
-
-            //final String newBandName = StackUtils.getBandNameWithoutDate(bandName);
-            info.productWriter.writeBandRasterData(trgBand,
-                    0, 0, trgBand.getRasterWidth(), trgBand.getRasterHeight(), rawSamples, ProgressMonitor.NULL);
+        // subset products are independent files so only writes of the same subset need to wait for each other
+        synchronized (info) {
+            if (info.written) return;
+
+            for (Band trgBand : info.subsetProduct.getBands()) {
+                final String oldBandName = info.newBandNamingMap.get(trgBand.getName());
+                final Tile sourceTile = getSourceTile(sourceProduct.getBand(oldBandName), trgRect);
+                final ProductData rawSamples = sourceTile.getRawSamples();
+
+                //final String newBandName = StackUtils.getBandNameWithoutDate(bandName);
+                info.productWriter.writeBandRasterData(trgBand,
+                        0, 0, trgBand.getRasterWidth(), trgBand.getRasterHeight(), rawSamples, ProgressMonitor.NULL);
+            }
+            info.written = true;
         }
-        info.written = true;
     }
 
     @Override
@@ -229,7 +232,7 @@ public class StackSplitWriter extends Operator {
         ProductSubsetBuilder subsetBuilder;
         File file;
         ProductWriter productWriter;
-        boolean written = false;
+        volatile boolean written = false;
         final Map<String, String> newBandNamingMap = new HashMap<>();
     }
 
@@ -78,7 +78,7 @@ public class StampsExportOp extends Operator {
     private final HashMap<Band, WriterInfo> tgtBandToInfoMap = new HashMap<>();
     private ProjectedDEM projectedDEM;
     private WriterInfo projectedDEMInfo;
-    private boolean projectedDEMWritten = false;
+    private volatile boolean projectedDEMWritten = false;
     private WriterInfo latInfo;
     private WriterInfo lonInfo;
     private TiePointGrid latGrid = null;
@@ -252,7 +252,9 @@ public class StampsExportOp extends Operator {
                 final WriterInfo info = tgtBandToInfoMap.get(targetBand);
                 final Tile targetTile = targetTiles.get(targetBand);
 
-                writeHeader(info);
+                if (!info.written) {
+                    writeHeader(info);
+                }
                 final Rectangle trgRect = targetTile.getRectangle();
                 final Tile sourceTile = getSourceTile(targetBand, trgRect);
                 final ProductData rawSamples = sourceTile.getRawSamples();
@@ -396,7 +398,7 @@ public class StampsExportOp extends Operator {
 
     private static class WriterInfo {
         ProductWriter productWriter;
-        boolean written = false;
+        volatile boolean written = false;
 
         final String folderName;
         final String targetBandName;
@@ -17,6 +17,7 @@ package org.esa.s1tbx.insar.gpf.coregistration;
 
 import com.bc.ceres.core.ProgressMonitor;
 import org.apache.commons.math3.util.FastMath;
+import org.esa.s1tbx.commons.OperatorExecutor;
 import org.esa.s1tbx.insar.gpf.support.JAIFunctions;
 import org.esa.snap.core.datamodel.*;
 import org.esa.snap.core.dataop.dem.ElevationModel;
@@ -41,7 +42,6 @@ import org.esa.snap.engine_utilities.datamodel.Unit;
 import org.esa.snap.engine_utilities.eo.Constants;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
 import org.esa.snap.engine_utilities.gpf.StackUtils;
-import org.esa.snap.engine_utilities.gpf.ThreadManager;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
 import org.jblas.ComplexDoubleMatrix;
 import org.jlinda.core.coregistration.utils.CoregistrationUtils;
@@ -526,7 +526,7 @@ public class CrossCorrelationOp extends Operator {
                 determiningImageOffset(slaveBand1, slaveBand2, offset);
             }
 
-            final ThreadManager threadManager = new ThreadManager();
+            final OperatorExecutor executor = new OperatorExecutor("CrossCorrelationOp", this::checkForCancellation);
 
             //final ProcessTimeMonitor timeMonitor = new ProcessTimeMonitor();
             //timeMonitor.start();
@@ -551,7 +551,7 @@ public class CrossCorrelationOp extends Operator {
                         continue;
                     }
 
-                    final Thread worker = new Thread() {
+                    final Runnable worker = new Runnable() {
 
                         @Override
                         public void run() {
@@ -592,12 +592,12 @@ public class CrossCorrelationOp extends Operator {
 
                     };
 
-                    threadManager.add(worker);
+                    executor.execute(worker);
                 }
                 status.worked(1);
             }
 
-            threadManager.finish();
+            executor.finish();
 
             SystemUtils.tileCacheFreeOldTiles();
 
@@ -652,12 +652,12 @@ public class CrossCorrelationOp extends Operator {
             final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
             status.beginTask("Computing offset... ", tileRectangles.length);
 
-            final ThreadManager threadManager = new ThreadManager();
+            final OperatorExecutor executor = new OperatorExecutor("CrossCorrelationOp", this::checkForCancellation);
             try {
                 for (final Rectangle rectangle : tileRectangles) {
                     checkForCancellation();
 
-                    final Thread worker = new Thread() {
+                    final Runnable worker = new Runnable() {
 
                         @Override
                         public void run() {
@@ -705,10 +705,10 @@ public class CrossCorrelationOp extends Operator {
                             status.worked(1);
                         }
                     };
-                    threadManager.add(worker);
+                    executor.execute(worker);
 
                 }
-                threadManager.finish();
+                executor.finish();
 
             } catch (Throwable e) {
                 OperatorUtils.catchOperatorException("GCPSelectionOp", e);
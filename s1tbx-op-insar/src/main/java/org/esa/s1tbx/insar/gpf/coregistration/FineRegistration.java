@@ -18,6 +18,7 @@ package org.esa.s1tbx.insar.gpf.coregistration;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
 import org.apache.commons.math3.util.FastMath;
 import org.esa.snap.engine_utilities.eo.Constants;
+import org.jlinda.core.utils.FFTPlanCache;
 
 /**
  * Created by luis on 17/02/2016.
@@ -502,7 +503,7 @@ public class FineRegistration {
 
         final double[] rowArray = new double[compleData.fTwoWindowWidth];
         final double[] rowPhaseArray = new double[compleData.fTwoWindowWidth];
-        final DoubleFFT_1D row_fft = new DoubleFFT_1D(compleData.fWindowWidth);
+        final DoubleFFT_1D row_fft = FFTPlanCache.getDoubleFFT_1D(compleData.fWindowWidth);
 
         int signalLength = rowArray.length / 2;
         computeShiftPhaseArray(xShift, signalLength, rowPhaseArray);
@@ -526,7 +527,7 @@ public class FineRegistration {
 
         final double[] colArray = new double[compleData.fTwoWindowHeight];
         final double[] colPhaseArray = new double[compleData.fTwoWindowHeight];
-        final DoubleFFT_1D col_fft = new DoubleFFT_1D(compleData.fWindowHeight);
+        final DoubleFFT_1D col_fft = FFTPlanCache.getDoubleFFT_1D(compleData.fWindowHeight);
 
         signalLength = colArray.length / 2;
         computeShiftPhaseArray(yShift, signalLength, colPhaseArray);
@@ -590,7 +591,7 @@ public class FineRegistration {
 
         final double[] rowArray = new double[complexData.fTwoWindowWidth];
         final double[] rowPhaseArray = new double[complexData.fTwoWindowWidth];
-        final DoubleFFT_1D row_fft = new DoubleFFT_1D(complexData.fWindowWidth);
+        final DoubleFFT_1D row_fft = FFTPlanCache.getDoubleFFT_1D(complexData.fWindowWidth);
 
         int signalLength = rowArray.length / 2;
         computeShiftPhaseArray(xShift, signalLength, rowPhaseArray);
@@ -614,7 +615,7 @@ public class FineRegistration {
 
         final double[] colArray = new double[complexData.fTwoWindowHeight];
         final double[] colPhaseArray = new double[complexData.fTwoWindowHeight];
-        final DoubleFFT_1D col_fft = new DoubleFFT_1D(complexData.fWindowHeight);
+        final DoubleFFT_1D col_fft = FFTPlanCache.getDoubleFFT_1D(complexData.fWindowHeight);
 
         signalLength = colArray.length / 2;
         computeShiftPhaseArray(yShift, signalLength, colPhaseArray);
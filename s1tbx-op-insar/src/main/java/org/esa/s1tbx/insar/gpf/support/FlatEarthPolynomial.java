@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.support;
+
+/**
+ * The 2D flat earth phase polynomial in normalized line and pixel, as estimated by
+ * InterferogramOp.estimateFlatEarthPolynomial, evaluated a row at a time.
+ * <p>
+ * The coefficients are ordered A00 A10 A01 A20 A11 A02 ..., where Ajk multiplies posL^(j-k) * posP^k.
+ * For a row the polynomial is reduced to a polynomial in posP only, which is then evaluated with
+ * Horner's scheme along the row, so no grid of phases is needed.
+ */
+public class FlatEarthPolynomial {
+
+    private final double[] coeffs;
+    private final int degree;
+
+    private final double pixelCentre;
+    private final double pixelScale;
+    private final double lineCentre;
+    private final double lineScale;
+
+    /**
+     * @param coeffs   the polynomial coefficients
+     * @param minPixel the first pixel of the normalization range
+     * @param maxPixel the last pixel of the normalization range
+     * @param minLine  the first line of the normalization range
+     * @param maxLine  the last line of the normalization range
+     */
+    public FlatEarthPolynomial(final double[] coeffs,
+                               final double minPixel, final double maxPixel,
+                               final double minLine, final double maxLine) {
+        this.coeffs = coeffs.clone();
+        this.degree = getDegree(coeffs.length);
+
+        // same normalization as PolyUtils.normalize2
+        this.pixelCentre = 0.5 * (minPixel + maxPixel);
+        this.pixelScale = 0.25 * (maxPixel - minPixel);
+        this.lineCentre = 0.5 * (minLine + maxLine);
+        this.lineScale = 0.25 * (maxLine - minLine);
+    }
+
+    private static int getDegree(final int numCoeffs) {
+        int degree = 0;
+        while ((degree + 1) * (degree + 2) / 2 < numCoeffs) {
+            ++degree;
+        }
+        if ((degree + 1) * (degree + 2) / 2 != numCoeffs) {
+            throw new IllegalArgumentException("Invalid number of polynomial coefficients " + numCoeffs);
+        }
+        return degree;
+    }
+
+    /**
+     * @return a buffer for the coefficients of a row
+     */
+    public double[] createRowBuffer() {
+        return new double[degree + 1];
+    }
+
+    /**
+     * Reduces the polynomial to the given line.
+     *
+     * @param line      the line
+     * @param rowCoeffs receives the coefficients of the polynomial in posP for the line
+     */
+    public void getRowCoefficients(final double line, final double[] rowCoeffs) {
+        final double posL = (line - lineCentre) / lineScale;
+        for (int k = 0; k <= degree; ++k) {
+            // Horner in posL over the coefficients Ajk with j = k..degree
+            double c = 0;
+            for (int j = degree; j >= k; --j) {
+                c = c * posL + coeffs[j * (j + 1) / 2 + k];
+            }
+            rowCoeffs[k] = c;
+        }
+    }
+
+    /**
+     * Evaluates the flat earth phase along a row.
+     *
+     * @param rowCoeffs the coefficients of the row from getRowCoefficients
+     * @param pixel     the pixel
+     * @return the flat earth phase
+     */
+    public double getPhase(final double[] rowCoeffs, final double pixel) {
+        final double posP = (pixel - pixelCentre) / pixelScale;
+        double phase = rowCoeffs[degree];
+        for (int k = degree - 1; k >= 0; --k) {
+            phase = phase * posP + rowCoeffs[k];
+        }
+        return phase;
+    }
+
+    /**
+     * Evaluates the flat earth phase at a single position.
+     *
+     * @param line  the line
+     * @param pixel the pixel
+     * @return the flat earth phase
+     */
+    public double getPhase(final double line, final double pixel) {
+        final double[] rowCoeffs = createRowBuffer();
+        getRowCoefficients(line, rowCoeffs);
+        return getPhase(rowCoeffs, pixel);
+    }
+}
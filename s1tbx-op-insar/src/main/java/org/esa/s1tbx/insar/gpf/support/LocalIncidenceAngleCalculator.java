@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.support;
+
+import org.apache.commons.math3.util.FastMath;
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.engine_utilities.datamodel.PosVector;
+import org.esa.snap.engine_utilities.eo.Constants;
+import org.esa.snap.engine_utilities.eo.GeoUtils;
+import org.esa.snap.engine_utilities.eo.LocalGeometry;
+import org.esa.snap.engine_utilities.gpf.TileGeoreferencing;
+import org.esa.snap.engine_utilities.util.Maths;
+
+/**
+ * Computes the local incidence angle and projected local incidence angle of a pixel from its 3x3 DEM
+ * neighbourhood, reusing its working vectors between pixels. SARGeocoding.computeLocalIncidenceAngle
+ * delegates to it for a single LocalGeometry.
+ * Create one per tile. Not thread safe.
+ */
+public final class LocalIncidenceAngleCalculator {
+
+    private final GeoPos geo = new GeoPos();
+    private final PosVector rightPoint = new PosVector();
+    private final PosVector leftPoint = new PosVector();
+    private final PosVector upPoint = new PosVector();
+    private final PosVector downPoint = new PosVector();
+    private final PosVector n = new PosVector();
+    private final PosVector s = new PosVector();
+    private final PosVector m = new PosVector();
+    private double rightPointHeight, leftPointHeight, upPointHeight, downPointHeight;
+
+    /**
+     * Compute local incidence angle and projected local incidence angle (in degree).
+     *
+     * @param tileGeoRef                       The tile georeferencing.
+     * @param earthPoint                       The earth point of the current pixel.
+     * @param sensorPos                        The sensor position at zero Doppler time of the current pixel.
+     * @param demNoDataValue                   The DEM no data value.
+     * @param saveLocalIncidenceAngle          Boolean flag indicating saving local incidence angle.
+     * @param saveProjectedLocalIncidenceAngle Boolean flag indicating saving projected local incidence angle.
+     * @param saveSigmaNought                  Boolean flag indicating applying radiometric calibration.
+     * @param x0                               The x coordinate of the pixel at the upper left corner of current tile.
+     * @param y0                               The y coordinate of the pixel at the upper left corner of current tile.
+     * @param x                                The x coordinate of the current pixel.
+     * @param y                                The y coordinate of the current pixel.
+     * @param localDEM                         The local DEM.
+     * @param localIncidenceAngles             The local incidence angle and projected local incidence angle.
+     */
+    public void compute(final TileGeoreferencing tileGeoRef, final PosVector earthPoint, final PosVector sensorPos,
+                        final double demNoDataValue, final boolean saveLocalIncidenceAngle,
+                        final boolean saveProjectedLocalIncidenceAngle, final boolean saveSigmaNought,
+                        final int x0, final int y0, final int x, final int y, final double[][] localDEM,
+                        final double[] localIncidenceAngles) {
+
+        if (!computeNeighbourHeights(demNoDataValue, x - x0, y - y0, localDEM)) {
+            return;
+        }
+
+        tileGeoRef.getGeoPos(x + 1, y, geo);
+        GeoUtils.geo2xyzWGS84(geo.lat, geo.lon, rightPointHeight, rightPoint);
+        tileGeoRef.getGeoPos(x - 1, y, geo);
+        GeoUtils.geo2xyzWGS84(geo.lat, geo.lon, leftPointHeight, leftPoint);
+        tileGeoRef.getGeoPos(x, y - 1, geo);
+        GeoUtils.geo2xyzWGS84(geo.lat, geo.lon, upPointHeight, upPoint);
+        tileGeoRef.getGeoPos(x, y + 1, geo);
+        GeoUtils.geo2xyzWGS84(geo.lat, geo.lon, downPointHeight, downPoint);
+
+        computeAngles(earthPoint, sensorPos, saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle,
+                      saveSigmaNought, localIncidenceAngles);
+    }
+
+    /**
+     * Compute local incidence angle and projected local incidence angle (in degree).
+     *
+     * @param lg                               Object holding local geometry information.
+     * @param demNoDataValue                   The DEM no data value.
+     * @param saveLocalIncidenceAngle          Boolean flag indicating saving local incidence angle.
+     * @param saveProjectedLocalIncidenceAngle Boolean flag indicating saving projected local incidence angle.
+     * @param saveSigmaNought                  Boolean flag indicating applying radiometric calibration.
+     * @param x0                               The x coordinate of the pixel at the upper left corner of current tile.
+     * @param y0                               The y coordinate of the pixel at the upper left corner of current tile.
+     * @param x                                The x coordinate of the current pixel.
+     * @param y                                The y coordinate of the current pixel.
+     * @param localDEM                         The local DEM.
+     * @param localIncidenceAngles             The local incidence angle and projected local incidence angle.
+     */
+    public void compute(final LocalGeometry lg, final double demNoDataValue, final boolean saveLocalIncidenceAngle,
+                        final boolean saveProjectedLocalIncidenceAngle, final boolean saveSigmaNought,
+                        final int x0, final int y0, final int x, final int y, final double[][] localDEM,
+                        final double[] localIncidenceAngles) {
+
+        if (!computeNeighbourHeights(demNoDataValue, x - x0, y - y0, localDEM)) {
+            return;
+        }
+
+        GeoUtils.geo2xyzWGS84(lg.rightPointLat, lg.rightPointLon, rightPointHeight, rightPoint);
+        GeoUtils.geo2xyzWGS84(lg.leftPointLat, lg.leftPointLon, leftPointHeight, leftPoint);
+        GeoUtils.geo2xyzWGS84(lg.upPointLat, lg.upPointLon, upPointHeight, upPoint);
+        GeoUtils.geo2xyzWGS84(lg.downPointLat, lg.downPointLon, downPointHeight, downPoint);
+
+        computeAngles(lg.centrePoint, lg.sensorPos, saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle,
+                      saveSigmaNought, localIncidenceAngles);
+    }
+
+    /**
+     * Average the DEM rows and columns either side of the pixel
+     *
+     * @return false if any height of the 3x3 neighbourhood is no data
+     */
+    private boolean computeNeighbourHeights(final double demNoDataValue, final int xx, final int yy,
+                                            final double[][] localDEM) {
+
+        for (int i = 0; i < 3; i++) {
+            final double[] demRow = localDEM[yy + i];
+            for (int j = 0; j < 3; j++) {
+                if (Double.compare(demNoDataValue, demRow[xx + j]) == 0) {
+                    return false;
+                }
+            }
+        }
+
+        final double[] row0 = localDEM[yy];
+        final double[] row1 = localDEM[yy + 1];
+        final double[] row2 = localDEM[yy + 2];
+
+        rightPointHeight = (row0[xx + 2] + row1[xx + 2] + row2[xx + 2]) / 3.0;
+        leftPointHeight = (row0[xx] + row1[xx] + row2[xx]) / 3.0;
+        upPointHeight = (row0[xx] + row0[xx + 1] + row0[xx + 2]) / 3.0;
+        downPointHeight = (row2[xx] + row2[xx + 1] + row2[xx + 2]) / 3.0;
+        return true;
+    }
+
+    private void computeAngles(final PosVector earthPoint, final PosVector sensorPos,
+                               final boolean saveLocalIncidenceAngle, final boolean saveProjectedLocalIncidenceAngle,
+                               final boolean saveSigmaNought, final double[] localIncidenceAngles) {
+
+        // Note: For algorithm and notation of the following implementation, please see Andrea's email dated
+        //       May 29, 2009 and Marcus' email dated June 3, 2009, or see Eq (14.10) and Eq (14.11) on page
+        //       321 and 323 in "SAR Geocoding - Data and Systems".
+
+        final double ax = rightPoint.x - leftPoint.x;
+        final double ay = rightPoint.y - leftPoint.y;
+        final double az = rightPoint.z - leftPoint.z;
+        final double bx = downPoint.x - upPoint.x;
+        final double by = downPoint.y - upPoint.y;
+        final double bz = downPoint.z - upPoint.z;
+
+        // ground plane normal
+        n.x = ay * bz - az * by;
+        n.y = az * bx - ax * bz;
+        n.z = ax * by - ay * bx;
+
+        Maths.normalizeVector(n);
+        if (Maths.innerProduct(n, earthPoint) < 0) {
+            n.x = -n.x;
+            n.y = -n.y;
+            n.z = -n.z;
+        }
+
+        s.x = sensorPos.x - earthPoint.x;
+        s.y = sensorPos.y - earthPoint.y;
+        s.z = sensorPos.z - earthPoint.z;
+        Maths.normalizeVector(s);
+
+        if (saveLocalIncidenceAngle) { // local incidence angle
+            final double nsInnerProduct = Maths.innerProduct(n, s);
+            localIncidenceAngles[0] = FastMath.acos(nsInnerProduct) * Constants.RTOD;
+        }
+
+        if (saveProjectedLocalIncidenceAngle || saveSigmaNought) { // projected local incidence angle
+            final PosVector c = earthPoint;
+            m.x = s.y * c.z - s.z * c.y; // range plane normal
+            m.y = s.z * c.x - s.x * c.z;
+            m.z = s.x * c.y - s.y * c.x;
+            Maths.normalizeVector(m);
+
+            final double mnInnerProduct = Maths.innerProduct(m, n);
+            m.x = n.x - m.x * mnInnerProduct;   // m now holds the projected ground plane normal
+            m.y = n.y - m.y * mnInnerProduct;
+            m.z = n.z - m.z * mnInnerProduct;
+            Maths.normalizeVector(m);
+            localIncidenceAngles[1] = FastMath.acos(Maths.innerProduct(m, s)) * Constants.RTOD;
+        }
+    }
+}
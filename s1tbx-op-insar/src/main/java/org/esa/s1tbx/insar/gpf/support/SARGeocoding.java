@@ -66,13 +66,72 @@ public final class SARGeocoding {
                                                       final PosVector earthPoint, final PosVector[] sensorPosition,
                                                       final PosVector[] sensorVelocity) throws OperatorException {
 
+        return getEarthPointZeroDopplerTime(firstLineUTC, lineTimeInterval, wavelength, earthPoint, new SensorLines() {
+            @Override
+            public int getNumLines() {
+                return sensorPosition.length;
+            }
+
+            @Override
+            public double getDopplerFrequency(final PosVector earthPoint, final int line, final double wavelength) {
+                return SARGeocoding.getDopplerFrequency(earthPoint, sensorPosition[line], sensorVelocity[line],
+                                                        wavelength);
+            }
+
+            @Override
+            public double getVelocityDotRange(final PosVector earthPoint, final int line) {
+                return sensorVelocity[line].x * (earthPoint.x - sensorPosition[line].x) +
+                        sensorVelocity[line].y * (earthPoint.y - sensorPosition[line].y) +
+                        sensorVelocity[line].z * (earthPoint.z - sensorPosition[line].z);
+            }
+        });
+    }
+
+    /**
+     * Compute zero Doppler time for given earth point using bisection method on the sensor
+     * positions and velocities of all range lines held by the orbit.
+     *
+     * @param firstLineUTC     The zero Doppler time for the first range line.
+     * @param lineTimeInterval The line time interval.
+     * @param wavelength       The radar wavelength.
+     * @param earthPoint       The earth point in xyz coordinate.
+     * @param orbit            The orbit with sensor positions and velocities for all range lines.
+     * @return The zero Doppler time in days if it is found, NonValidZeroDopplerTime otherwise.
+     * @throws OperatorException The operator exception.
+     */
+    public static double getEarthPointZeroDopplerTime(final double firstLineUTC,
+                                                      final double lineTimeInterval, final double wavelength,
+                                                      final PosVector earthPoint, final SARGeocoding.Orbit orbit)
+            throws OperatorException {
+
+        return getEarthPointZeroDopplerTime(firstLineUTC, lineTimeInterval, wavelength, earthPoint, orbit.sensorLines);
+    }
+
+    /**
+     * Sensor positions and velocities of the range lines searched for the zero Doppler time
+     */
+    private interface SensorLines {
+
+        int getNumLines();
+
+        double getDopplerFrequency(PosVector earthPoint, int line, double wavelength);
+
+        /**
+         * @return the sensor velocity times the vector from the sensor to the earth point, which has the sign
+         * of the Doppler frequency
+         */
+        double getVelocityDotRange(PosVector earthPoint, int line);
+    }
+
+    private static double getEarthPointZeroDopplerTime(final double firstLineUTC,
+                                                       final double lineTimeInterval, final double wavelength,
+                                                       final PosVector earthPoint, final SensorLines sensorLines) {
+
         // binary search is used in finding the zero doppler time
         int lowerBound = 0;
-        int upperBound = sensorPosition.length - 1;
-        double lowerBoundFreq = getDopplerFrequency(
-                earthPoint, sensorPosition[lowerBound], sensorVelocity[lowerBound], wavelength);
-        double upperBoundFreq = getDopplerFrequency(
-                earthPoint, sensorPosition[upperBound], sensorVelocity[upperBound], wavelength);
+        int upperBound = sensorLines.getNumLines() - 1;
+        double lowerBoundFreq = sensorLines.getDopplerFrequency(earthPoint, lowerBound, wavelength);
+        double upperBoundFreq = sensorLines.getDopplerFrequency(earthPoint, upperBound, wavelength);
 
         if (Double.compare(lowerBoundFreq, 0.0) == 0) {
             return firstLineUTC + lowerBound * lineTimeInterval;
@@ -87,9 +146,7 @@ public final class SARGeocoding {
         while (upperBound - lowerBound > 1) {
 
             final int mid = (int) ((lowerBound + upperBound) / 2.0);
-            midFreq = sensorVelocity[mid].x * (earthPoint.x - sensorPosition[mid].x) +
-                    sensorVelocity[mid].y * (earthPoint.y - sensorPosition[mid].y) +
-                    sensorVelocity[mid].z * (earthPoint.z - sensorPosition[mid].z);
+            midFreq = sensorLines.getVelocityDotRange(earthPoint, mid);
 
             if (midFreq * lowerBoundFreq > 0.0) {
                 lowerBound = mid;
@@ -285,6 +342,27 @@ public final class SARGeocoding {
         return 2.0 * (sensorVelocity.x * xDiff + sensorVelocity.y * yDiff + sensorVelocity.z * zDiff) / (distance * wavelength);
     }
 
+    /**
+     * Compute Doppler frequency for given earthPoint and the sensor position of a range line.
+     *
+     * @param earthPoint The earth point in xyz coordinate.
+     * @param orbit      The orbit with sensor positions and velocities for all range lines.
+     * @param line       The range line.
+     * @param wavelength The radar wavelength.
+     * @return The Doppler frequency in Hz.
+     */
+    private static double getDopplerFrequency(
+            final PosVector earthPoint, final SARGeocoding.Orbit orbit, final int line, final double wavelength) {
+
+        final double xDiff = earthPoint.x - orbit.xPos[line];
+        final double yDiff = earthPoint.y - orbit.yPos[line];
+        final double zDiff = earthPoint.z - orbit.zPos[line];
+        final double distance = Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
+
+        return 2.0 * (orbit.xVel[line] * xDiff + orbit.yVel[line] * yDiff + orbit.zVel[line] * zDiff) /
+                (distance * wavelength);
+    }
+
     /**
      * Compute slant range distance for given earth point and given time.
      *
@@ -434,84 +512,8 @@ public final class SARGeocoding {
             final boolean saveProjectedLocalIncidenceAngle, final boolean saveSigmaNought, final int x0,
             final int y0, final int x, final int y, final double[][] localDEM, final double[] localIncidenceAngles) {
 
-        // Note: For algorithm and notation of the following implementation, please see Andrea's email dated
-        //       May 29, 2009 and Marcus' email dated June 3, 2009, or see Eq (14.10) and Eq (14.11) on page
-        //       321 and 323 in "SAR Geocoding - Data and Systems".
-        //       The Cartesian coordinate (x, y, z) is represented here by a length-3 array with element[0]
-        //       representing x, element[1] representing y and element[2] representing z.
-
-        for (int i = 0; i < 3; i++) {
-            final int yy = y - y0 + i;
-            for (int j = 0; j < 3; j++) {
-                if (demNoDataValue.equals(localDEM[yy][x - x0 + j])) {
-                    return;
-                }
-            }
-        }
-
-        final int yy = y - y0;
-        final int xx = x - x0;
-        final double rightPointHeight = (localDEM[yy][xx + 2] +
-                localDEM[yy + 1][xx + 2] +
-                localDEM[yy + 2][xx + 2]) / 3.0;
-
-        final double leftPointHeight = (localDEM[yy][xx] +
-                localDEM[yy + 1][xx] +
-                localDEM[yy + 2][xx]) / 3.0;
-
-        final double upPointHeight = (localDEM[yy][xx] +
-                localDEM[yy][xx + 1] +
-                localDEM[yy][xx + 2]) / 3.0;
-
-        final double downPointHeight = (localDEM[yy + 2][xx] +
-                localDEM[yy + 2][xx + 1] +
-                localDEM[yy + 2][xx + 2]) / 3.0;
-
-        final PosVector rightPoint = new PosVector();
-        final PosVector leftPoint = new PosVector();
-        final PosVector upPoint = new PosVector();
-        final PosVector downPoint = new PosVector();
-
-        GeoUtils.geo2xyzWGS84(lg.rightPointLat, lg.rightPointLon, rightPointHeight, rightPoint);
-        GeoUtils.geo2xyzWGS84(lg.leftPointLat, lg.leftPointLon, leftPointHeight, leftPoint);
-        GeoUtils.geo2xyzWGS84(lg.upPointLat, lg.upPointLon, upPointHeight, upPoint);
-        GeoUtils.geo2xyzWGS84(lg.downPointLat, lg.downPointLon, downPointHeight, downPoint);
-
-        final PosVector a = new PosVector(rightPoint.x - leftPoint.x, rightPoint.y - leftPoint.y, rightPoint.z - leftPoint.z);
-        final PosVector b = new PosVector(downPoint.x - upPoint.x, downPoint.y - upPoint.y, downPoint.z - upPoint.z);
-        final PosVector c = new PosVector(lg.centrePoint.x, lg.centrePoint.y, lg.centrePoint.z);
-
-        final PosVector n = new PosVector(
-                a.y * b.z - a.z * b.y,
-                a.z * b.x - a.x * b.z,
-                a.x * b.y - a.y * b.x); // ground plane normal
-
-        Maths.normalizeVector(n);
-        if (Maths.innerProduct(n, c) < 0) {
-            n.x = -n.x;
-            n.y = -n.y;
-            n.z = -n.z;
-        }
-
-        final PosVector s = new PosVector(
-                lg.sensorPos.x - lg.centrePoint.x,
-                lg.sensorPos.y - lg.centrePoint.y,
-                lg.sensorPos.z - lg.centrePoint.z);
-        Maths.normalizeVector(s);
-
-        if (saveLocalIncidenceAngle) { // local incidence angle
-            final double nsInnerProduct = Maths.innerProduct(n, s);
-            localIncidenceAngles[0] = FastMath.acos(nsInnerProduct) * Constants.RTOD;
-        }
-
-        if (saveProjectedLocalIncidenceAngle || saveSigmaNought) { // projected local incidence angle
-            final PosVector m = new PosVector(s.y * c.z - s.z * c.y, s.z * c.x - s.x * c.z, s.x * c.y - s.y * c.x); // range plane normal
-            Maths.normalizeVector(m);
-            final double mnInnerProduct = Maths.innerProduct(m, n);
-            final PosVector n1 = new PosVector(n.x - m.x * mnInnerProduct, n.y - m.y * mnInnerProduct, n.z - m.z * mnInnerProduct);
-            Maths.normalizeVector(n1);
-            localIncidenceAngles[1] = FastMath.acos(Maths.innerProduct(n1, s)) * Constants.RTOD;
-        }
+        new LocalIncidenceAngleCalculator().compute(lg, demNoDataValue, saveLocalIncidenceAngle,
+                saveProjectedLocalIncidenceAngle, saveSigmaNought, x0, y0, x, y, localDEM, localIncidenceAngles);
     }
 
     public static void computeLocalIncidenceAngle(
@@ -822,26 +824,70 @@ public final class SARGeocoding {
 
     public final static class Orbit {
 
+        private static final int nv = 8; // number of state vectors used in the Lagrange interpolation
+
         public OrbitStateVector[] orbitStateVectors = null;
-        public PosVector[] sensorPosition = null; // sensor position for all range lines
-        public PosVector[] sensorVelocity = null; // sensor velocity for all range lines
+
+        // sensor position and velocity for all range lines
+        public double[] xPos = null;
+        public double[] yPos = null;
+        public double[] zPos = null;
+        public double[] xVel = null;
+        public double[] yVel = null;
+        public double[] zVel = null;
+
+        // orbit state vectors
+        private double[] osvTime;
+        private double[] osvXPos, osvYPos, osvZPos;
+        private double[] osvXVel, osvYVel, osvZVel;
+
+        // barycentric weights of the interpolation window starting at each state vector
+        private double[][] baryWeights;
         private double dt = 0.0;
 
+        // the range lines for the zero Doppler search
+        private final SensorLines sensorLines = new SensorLines() {
+            @Override
+            public int getNumLines() {
+                return xPos.length;
+            }
+
+            @Override
+            public double getDopplerFrequency(final PosVector earthPoint, final int line, final double wavelength) {
+                return SARGeocoding.getDopplerFrequency(earthPoint, Orbit.this, line, wavelength);
+            }
+
+            @Override
+            public double getVelocityDotRange(final PosVector earthPoint, final int line) {
+                return xVel[line] * (earthPoint.x - xPos[line]) +
+                        yVel[line] * (earthPoint.y - yPos[line]) +
+                        zVel[line] * (earthPoint.z - zPos[line]);
+            }
+        };
+
         public Orbit(OrbitStateVector[] orbitStateVectors,
                      double firstLineUTC, double lineTimeInterval, int sourceImageHeight) {
 
-            this.orbitStateVectors = removeRedundantVectors(orbitStateVectors);
+            this(orbitStateVectors);
 
-            this.dt = (this.orbitStateVectors[this.orbitStateVectors.length-1].time_mjd -
-                    this.orbitStateVectors[0].time_mjd) / (this.orbitStateVectors.length-1);
+            this.xPos = new double[sourceImageHeight];
+            this.yPos = new double[sourceImageHeight];
+            this.zPos = new double[sourceImageHeight];
+            this.xVel = new double[sourceImageHeight];
+            this.yVel = new double[sourceImageHeight];
+            this.zVel = new double[sourceImageHeight];
 
-            this.sensorPosition = new PosVector[sourceImageHeight];
-            this.sensorVelocity = new PosVector[sourceImageHeight];
+            final PosVector position = new PosVector();
+            final PosVector velocity = new PosVector();
             for (int i = 0; i < sourceImageHeight; i++) {
                 final double time = firstLineUTC + i * lineTimeInterval;
-                sensorPosition[i] = new PosVector();
-                sensorVelocity[i] = new PosVector();
-                getPositionVelocity(time, sensorPosition[i], sensorVelocity[i]);
+                getPositionVelocity(time, position, velocity);
+                xPos[i] = position.x;
+                yPos[i] = position.y;
+                zPos[i] = position.z;
+                xVel[i] = velocity.x;
+                yVel[i] = velocity.y;
+                zVel[i] = velocity.z;
             }
         }
 
@@ -849,8 +895,29 @@ public final class SARGeocoding {
 
             this.orbitStateVectors = removeRedundantVectors(orbitStateVectors);
 
-			this.dt = (this.orbitStateVectors[orbitStateVectors.length-1].time_mjd -
-                    this.orbitStateVectors[0].time_mjd) / (this.orbitStateVectors.length-1);
+            final int numVectors = this.orbitStateVectors.length;
+            this.dt = (this.orbitStateVectors[numVectors - 1].time_mjd -
+                    this.orbitStateVectors[0].time_mjd) / (numVectors - 1);
+
+            osvTime = new double[numVectors];
+            osvXPos = new double[numVectors];
+            osvYPos = new double[numVectors];
+            osvZPos = new double[numVectors];
+            osvXVel = new double[numVectors];
+            osvYVel = new double[numVectors];
+            osvZVel = new double[numVectors];
+            for (int i = 0; i < numVectors; ++i) {
+                final OrbitStateVector osv = this.orbitStateVectors[i];
+                osvTime[i] = osv.time_mjd;
+                osvXPos[i] = osv.x_pos;
+                osvYPos[i] = osv.y_pos;
+                osvZPos[i] = osv.z_pos;
+                osvXVel[i] = osv.x_vel;
+                osvYVel[i] = osv.y_vel;
+                osvZVel[i] = osv.z_vel;
+            }
+
+            computeBarycentricWeights();
         }
 
         private static OrbitStateVector[] removeRedundantVectors(OrbitStateVector[] orbitStateVectors) {
@@ -870,51 +937,99 @@ public final class SARGeocoding {
             return vectorList.toArray(new OrbitStateVector[vectorList.size()]);
         }
 
-        public void getPositionVelocity(final double time, final PosVector position, final PosVector velocity) {
-
-            final int nv = 8;
-            int i0, iN;
-            if (orbitStateVectors.length <= nv) {
-                i0 = 0;
-                iN = orbitStateVectors.length - 1;
-            } else {
-                i0 = Math.max((int)((time - orbitStateVectors[0].time_mjd) / dt) - nv/2 + 1, 0);
-                iN = Math.min(i0 + nv - 1, orbitStateVectors.length - 1);
-                i0 = (iN < orbitStateVectors.length - 1? i0:iN - nv + 1);
+        /**
+         * The weights depend only on the state vector times so they are computed once for every
+         * interpolation window instead of for every call to getPositionVelocity.
+         */
+        private void computeBarycentricWeights() {
+
+            final int numVectors = osvTime.length;
+            final int numWindows = numVectors <= nv ? 1 : numVectors - nv + 1;
+            baryWeights = new double[numWindows][];
+            for (int i0 = 0; i0 < numWindows; ++i0) {
+                final int iN = Math.min(i0 + nv - 1, numVectors - 1);
+                final double[] weights = new double[iN - i0 + 1];
+                for (int i = i0; i <= iN; ++i) {
+                    double w = 1.0;
+                    for (int j = i0; j <= iN; ++j) {
+                        if (j != i) {
+                            w *= osvTime[i] - osvTime[j];
+                        }
+                    }
+                    weights[i - i0] = 1.0 / w;
+                }
+                baryWeights[i0] = weights;
             }
+        }
 
-            //lagrangeInterpolatingPolynomial
-            if(position != null) {
-                position.x = 0;
-                position.y = 0;
-                position.z = 0;
-            }
-            if(velocity != null) {
-                velocity.x = 0;
-                velocity.y = 0;
-                velocity.z = 0;
+        private int getWindowStart(final double time) {
+
+            final int numVectors = osvTime.length;
+            if (numVectors <= nv) {
+                return 0;
             }
+            final int i0 = Math.max((int) ((time - osvTime[0]) / dt) - nv / 2 + 1, 0);
+            final int iN = Math.min(i0 + nv - 1, numVectors - 1);
+            return iN < numVectors - 1 ? i0 : iN - nv + 1;
+        }
+
+        public int getNumLines() {
+            return xPos == null ? 0 : xPos.length;
+        }
+
+        public void getSensorPosition(final int line, final PosVector position) {
+            position.set(xPos[line], yPos[line], zPos[line]);
+        }
+
+        public void getSensorVelocity(final int line, final PosVector velocity) {
+            velocity.set(xVel[line], yVel[line], zVel[line]);
+        }
 
-            for (int i = i0; i <= iN; ++i) {
-                final OrbitStateVector orbI = orbitStateVectors[i];
+        /**
+         * Lagrange interpolation of the orbit state vectors in barycentric form.
+         *
+         * @param time     the time in days
+         * @param position the interpolated sensor position, may be null
+         * @param velocity the interpolated sensor velocity, may be null
+         */
+        public void getPositionVelocity(final double time, final PosVector position, final PosVector velocity) {
 
-                double weight = 1;
-                for (int j = i0; j <= iN; ++j) {
-                    if (j != i) {
-                        final double time2 = orbitStateVectors[j].time_mjd;
-                        weight *= (time - time2) / (orbI.time_mjd - time2);
+            final int i0 = getWindowStart(time);
+            final double[] weights = baryWeights[i0];
+            final int n = weights.length;
+
+            double sumW = 0.0;
+            double px = 0.0, py = 0.0, pz = 0.0;
+            double vx = 0.0, vy = 0.0, vz = 0.0;
+            for (int k = 0; k < n; ++k) {
+                final int i = i0 + k;
+                final double diff = time - osvTime[i];
+                if (diff == 0.0) {
+                    // time coincides with a state vector
+                    if (position != null) {
+                        position.set(osvXPos[i], osvYPos[i], osvZPos[i]);
                     }
+                    if (velocity != null) {
+                        velocity.set(osvXVel[i], osvYVel[i], osvZVel[i]);
+                    }
+                    return;
                 }
-                if(position != null) {
-                    position.x += weight * orbI.x_pos;
-                    position.y += weight * orbI.y_pos;
-                    position.z += weight * orbI.z_pos;
-                }
-                if(velocity != null) {
-                    velocity.x += weight * orbI.x_vel;
-                    velocity.y += weight * orbI.y_vel;
-                    velocity.z += weight * orbI.z_vel;
-                }
+
+                final double w = weights[k] / diff;
+                sumW += w;
+                px += w * osvXPos[i];
+                py += w * osvYPos[i];
+                pz += w * osvZPos[i];
+                vx += w * osvXVel[i];
+                vy += w * osvYVel[i];
+                vz += w * osvZVel[i];
+            }
+
+            if (position != null) {
+                position.set(px / sumW, py / sumW, pz / sumW);
+            }
+            if (velocity != null) {
+                velocity.set(vx / sumW, vy / sumW, vz / sumW);
             }
         }
 
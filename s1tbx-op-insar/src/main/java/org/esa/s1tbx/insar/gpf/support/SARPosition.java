@@ -21,6 +21,7 @@ import org.esa.snap.engine_utilities.util.Maths;
 
 /**
  * Compute azimuth and range indices in SAR image for a given target point on the Earth's surface.
+ * The zero Doppler search is warm started from the previous point, so use one instance per tile and thread.
  */
 public class SARPosition {
 
@@ -35,6 +36,7 @@ public class SARPosition {
     private final boolean nearRangeOnLeft;
     private final SARGeocoding.Orbit orbit;
     private final AbstractMetadata.SRGRCoefficientList[] srgrConvParams;
+    private final ZeroDopplerSolver zeroDopplerSolver;
 
     private int x0, y0, w, h;
 
@@ -70,7 +72,7 @@ public class SARPosition {
         this.nearRangeOnLeft = nearRangeOnLeft;
         this.orbit = orbit;
         this.srgrConvParams = srgrConvParams;
-
+        this.zeroDopplerSolver = new ZeroDopplerSolver(firstLineTime, lineTimeInterval, wavelength, orbit);
     }
 
     public void setTileConstraints(int x0, int y0, int w, int h) {
@@ -82,9 +84,7 @@ public class SARPosition {
 
     public boolean getPosition(final PositionData data) {
 
-        final double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(
-                firstLineTime, lineTimeInterval, wavelength, data.earthPoint,
-                orbit.sensorPosition, orbit.sensorVelocity);
+        final double zeroDopplerTime = zeroDopplerSolver.getZeroDopplerTime(data.earthPoint);
 
         if (zeroDopplerTime == SARGeocoding.NonValidZeroDopplerTime) {
             return false;
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.support;
+
+import org.esa.snap.engine_utilities.datamodel.PosVector;
+
+/**
+ * Zero Doppler time solver for earth points processed in tile order.
+ * <p>
+ * Neighbouring pixels of a tile have zero Doppler times a fraction of a line apart, so the range line found
+ * for the previous point is used as the starting guess for the next one. A few secant steps over the
+ * range lines of the orbit then find the pair of lines bracketing the zero crossing of the Doppler frequency.
+ * If that does not converge the full bisection of SARGeocoding.getEarthPointZeroDopplerTime is used.
+ * <p>
+ * The result is the same as SARGeocoding.getEarthPointZeroDopplerTime. The solver keeps state between calls
+ * and must not be shared between threads. Create one per tile.
+ */
+public final class ZeroDopplerSolver {
+
+    private static final int MAX_ITERATIONS = 4;
+
+    private final double firstLineUTC;
+    private final double lineTimeInterval;
+    private final double wavelength;
+    private final SARGeocoding.Orbit orbit;
+    private final double[] xPos, yPos, zPos;
+    private final double[] xVel, yVel, zVel;
+    private final int lastLine;
+
+    private int lineHint = -1;
+    private long numWarmStarts = 0;
+    private long numFallbacks = 0;
+
+    public ZeroDopplerSolver(final double firstLineUTC, final double lineTimeInterval, final double wavelength,
+                             final SARGeocoding.Orbit orbit) {
+        this.firstLineUTC = firstLineUTC;
+        this.lineTimeInterval = lineTimeInterval;
+        this.wavelength = wavelength;
+        this.orbit = orbit;
+        this.xPos = orbit.xPos;
+        this.yPos = orbit.yPos;
+        this.zPos = orbit.zPos;
+        this.xVel = orbit.xVel;
+        this.yVel = orbit.yVel;
+        this.zVel = orbit.zVel;
+        this.lastLine = xPos.length - 1;
+    }
+
+    /**
+     * Compute zero Doppler time for given earth point starting from the solution of the previous point.
+     *
+     * @param earthPoint The earth point in xyz coordinate.
+     * @return The zero Doppler time in days if it is found, NonValidZeroDopplerTime otherwise.
+     */
+    public double getZeroDopplerTime(final PosVector earthPoint) {
+
+        if (lineHint >= 0 && lastLine > 0) {
+            int line = lineHint;
+            for (int iter = 0; iter < MAX_ITERATIONS; ++iter) {
+                final double freq0 = getFrequency(earthPoint, line);
+                final double freq1 = getFrequency(earthPoint, line + 1);
+
+                if (Double.compare(freq0, 0.0) == 0) {
+                    ++numWarmStarts;
+                    return firstLineUTC + line * lineTimeInterval;
+                }
+                if (freq0 * freq1 < 0.0) {
+                    ++numWarmStarts;
+                    lineHint = line;
+                    final double y0 = line - freq0 / (freq1 - freq0);
+                    return firstLineUTC + y0 * lineTimeInterval;
+                }
+
+                // secant step over the range lines
+                final double slope = freq1 - freq0;
+                if (slope == 0.0) {
+                    break;
+                }
+                final double next = line - freq0 / slope;
+                if (Double.isNaN(next)) {
+                    break;
+                }
+                final int nextLine = (int) Math.max(0, Math.min(lastLine - 1, Math.floor(next)));
+                if (nextLine == line) {
+                    break;
+                }
+                line = nextLine;
+            }
+        }
+
+        ++numFallbacks;
+        final double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(
+                firstLineUTC, lineTimeInterval, wavelength, earthPoint, orbit);
+
+        if (zeroDopplerTime != SARGeocoding.NonValidZeroDopplerTime && lastLine > 0) {
+            final int line = (int) ((zeroDopplerTime - firstLineUTC) / lineTimeInterval);
+            lineHint = Math.max(0, Math.min(lastLine - 1, line));
+        }
+        return zeroDopplerTime;
+    }
+
+    /**
+     * The Doppler frequency is normalised at the first and last range lines, as in the bisection search,
+     * so that the interpolated zero crossing matches it exactly. Elsewhere only the sign and slope matter.
+     */
+    private double getFrequency(final PosVector earthPoint, final int line) {
+
+        final double xDiff = earthPoint.x - xPos[line];
+        final double yDiff = earthPoint.y - yPos[line];
+        final double zDiff = earthPoint.z - zPos[line];
+        final double freq = xVel[line] * xDiff + yVel[line] * yDiff + zVel[line] * zDiff;
+
+        if (line == 0 || line == lastLine) {
+            final double distance = Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
+            return 2.0 * freq / (distance * wavelength);
+        }
+        return freq;
+    }
+
+    /**
+     * Forget the previous solution, e.g. when jumping to a distant point
+     */
+    public void reset() {
+        lineHint = -1;
+    }
+
+    public long getNumWarmStarts() {
+        return numWarmStarts;
+    }
+
+    public long getNumFallbacks() {
+        return numFallbacks;
+    }
+}
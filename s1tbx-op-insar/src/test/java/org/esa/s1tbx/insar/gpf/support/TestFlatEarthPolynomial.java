@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.support;
+
+import org.esa.s1tbx.insar.gpf.InterferogramOp;
+import org.jblas.DoubleMatrix;
+import org.jlinda.core.utils.PolyUtils;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the row wise evaluation of FlatEarthPolynomial with the flat earth phase grid
+ * InterferogramOp computed before with PolyUtils.polyval
+ */
+public class TestFlatEarthPolynomial {
+
+    private static final int minPixel = 0;
+    private static final int maxPixel = 20000;
+    private static final int minLine = 0;
+    private static final int maxLine = 1500;
+
+    // xMin, yMin, width, height of the tiles, including tiles extended over the image edges
+    private static final int[][] tiles = {{0, 0, 512, 256}, {8700, 610, 300, 97}, {-10, -5, 40, 30},
+            {maxPixel - 200, maxLine - 50, 211, 61}};
+
+    @Test
+    public void testGetPhase() {
+        final Random random = new Random(42);
+        for (int degree = 1; degree <= 8; ++degree) {
+            final double[] coeffs = new double[(degree + 1) * (degree + 2) / 2];
+            for (int i = 0; i < coeffs.length; ++i) {
+                coeffs[i] = 100.0 * (random.nextDouble() - 0.5);
+            }
+            final FlatEarthPolynomial polynomial = new FlatEarthPolynomial(coeffs, minPixel, maxPixel, minLine, maxLine);
+            final double[] rowCoeffs = polynomial.createRowBuffer();
+
+            for (int[] tile : tiles) {
+                final int xMin = tile[0], yMin = tile[1], xSize = tile[2], ySize = tile[3];
+                final DoubleMatrix expected = computeFlatEarthPhase(xMin, xMin + xSize - 1, xSize,
+                                                                    yMin, yMin + ySize - 1, ySize, coeffs);
+
+                for (int y = 0; y < ySize; ++y) {
+                    polynomial.getRowCoefficients(yMin + y, rowCoeffs);
+                    for (int x = 0; x < xSize; ++x) {
+                        final double phase = expected.get(y, x);
+                        final double tolerance = 1e-9 * Math.max(1.0, Math.abs(phase));
+                        assertEquals(phase, polynomial.getPhase(rowCoeffs, xMin + x), tolerance);
+                    }
+                }
+                assertEquals(expected.get(ySize / 2, xSize / 3),
+                             polynomial.getPhase(yMin + ySize / 2, xMin + xSize / 3),
+                             1e-9 * Math.max(1.0, Math.abs(expected.get(ySize / 2, xSize / 3))));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCoefficients() {
+        new FlatEarthPolynomial(new double[4], minPixel, maxPixel, minLine, maxLine);
+    }
+
+    /**
+     * The flat earth phase grid of a tile as InterferogramOp computed it before FlatEarthPolynomial
+     */
+    private static DoubleMatrix computeFlatEarthPhase(final int xMin, final int xMax, final int xSize,
+                                                      final int yMin, final int yMax, final int ySize,
+                                                      final double[] coeffs) {
+        DoubleMatrix rangeAxisNormalized = DoubleMatrix.linspace(xMin, xMax, xSize);
+        rangeAxisNormalized = InterferogramOp.normalizeDoubleMatrix(rangeAxisNormalized, minPixel, maxPixel);
+
+        DoubleMatrix azimuthAxisNormalized = DoubleMatrix.linspace(yMin, yMax, ySize);
+        azimuthAxisNormalized = InterferogramOp.normalizeDoubleMatrix(azimuthAxisNormalized, minLine, maxLine);
+
+        final DoubleMatrix polyCoeffs = new DoubleMatrix(coeffs);
+        return PolyUtils.polyval(azimuthAxisNormalized, rangeAxisNormalized,
+                polyCoeffs, PolyUtils.degreeFromCoefficients(polyCoeffs.length));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.support;
+
+import org.esa.s1tbx.commons.test.TestData;
+import org.esa.snap.core.datamodel.MetadataElement;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.engine_utilities.datamodel.AbstractMetadata;
+import org.esa.snap.engine_utilities.datamodel.OrbitStateVector;
+import org.esa.snap.engine_utilities.datamodel.PosVector;
+import org.esa.snap.engine_utilities.eo.Constants;
+import org.esa.snap.engine_utilities.util.TestUtils;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the barycentric orbit interpolation of SARGeocoding.Orbit with the Lagrange interpolation it replaced
+ */
+public class TestOrbitInterpolation {
+
+    static {
+        TestUtils.initTestEnvironment();
+    }
+
+    @Test
+    public void testRealOrbit() throws Exception {
+        final File inputFile = TestData.inputASAR_IMS;
+        if (!inputFile.exists()) {
+            TestUtils.skipTest(this, inputFile + " not found");
+            return;
+        }
+        final Product product = TestUtils.readSourceProduct(inputFile);
+        try {
+            final MetadataElement absRoot = AbstractMetadata.getAbstractedMetadata(product);
+            final OrbitStateVector[] vectors = AbstractMetadata.getOrbitStateVectors(absRoot);
+            final double firstLineUTC = absRoot.getAttributeUTC(AbstractMetadata.first_line_time).getMJD();
+            final double lineTimeInterval = absRoot.getAttributeDouble(AbstractMetadata.line_time_interval) /
+                    Constants.secondsInDay;
+            final int numLines = product.getSceneRasterHeight();
+
+            final SARGeocoding.Orbit orbit = new SARGeocoding.Orbit(vectors, firstLineUTC, lineTimeInterval, numLines);
+            final PosVector position = new PosVector();
+            final PosVector velocity = new PosVector();
+            for (int line = 0; line < numLines; line += Math.max(1, numLines / 97)) {
+                final double time = firstLineUTC + line * lineTimeInterval;
+                getLagrangePositionVelocity(orbit.orbitStateVectors, time, position, velocity);
+                assertEquals(position.x, orbit.xPos[line], 1e-5);
+                assertEquals(position.y, orbit.yPos[line], 1e-5);
+                assertEquals(position.z, orbit.zPos[line], 1e-5);
+                assertEquals(velocity.x, orbit.xVel[line], 1e-8);
+                assertEquals(velocity.y, orbit.yVel[line], 1e-8);
+                assertEquals(velocity.z, orbit.zVel[line], 1e-8);
+            }
+            compareOverSpan(orbit);
+        } finally {
+            product.dispose();
+        }
+    }
+
+    /**
+     * An inclined, slightly eccentric orbit sampled every 10 seconds, as in the precise orbit files
+     */
+    @Test
+    public void testSyntheticOrbit() {
+        final double t0 = 6000.0;
+        final double semiMajorAxis = 7.07e6;
+        final double eccentricity = 0.0012;
+        final double inclination = Math.toRadians(98.18);
+        final double meanMotion = 2.0 * Math.PI / 5924.0;
+        final double h = 1e-3;
+
+        final OrbitStateVector[] vectors = new OrbitStateVector[25];
+        for (int i = 0; i < vectors.length; ++i) {
+            final double t = i * 10.0;
+            final double[] p = getOrbitPosition(t, semiMajorAxis, eccentricity, inclination, meanMotion);
+            final double[] p1 = getOrbitPosition(t + h, semiMajorAxis, eccentricity, inclination, meanMotion);
+            final double[] p0 = getOrbitPosition(t - h, semiMajorAxis, eccentricity, inclination, meanMotion);
+            vectors[i] = new OrbitStateVector(new ProductData.UTC(t0 + t / Constants.secondsInDay),
+                                              p[0], p[1], p[2],
+                                              (p1[0] - p0[0]) / (2 * h), (p1[1] - p0[1]) / (2 * h),
+                                              (p1[2] - p0[2]) / (2 * h));
+        }
+        compareOverSpan(new SARGeocoding.Orbit(vectors));
+    }
+
+    private static void compareOverSpan(final SARGeocoding.Orbit orbit) {
+        final OrbitStateVector[] vectors = orbit.orbitStateVectors;
+        final double start = vectors[0].time_mjd;
+        final double end = vectors[vectors.length - 1].time_mjd;
+
+        final PosVector expectedPos = new PosVector();
+        final PosVector expectedVel = new PosVector();
+        final PosVector position = new PosVector();
+        final PosVector velocity = new PosVector();
+        final int numSteps = 1000;
+        for (int k = 0; k <= numSteps; ++k) {
+            // includes the state vector times themselves
+            final double time = k % 100 == 0 ? vectors[k * (vectors.length - 1) / numSteps].time_mjd :
+                    start + (end - start) * k / numSteps;
+            getLagrangePositionVelocity(vectors, time, expectedPos, expectedVel);
+            orbit.getPositionVelocity(time, position, velocity);
+
+            assertEquals(expectedPos.x, position.x, 1e-5);
+            assertEquals(expectedPos.y, position.y, 1e-5);
+            assertEquals(expectedPos.z, position.z, 1e-5);
+            assertEquals(expectedVel.x, velocity.x, 1e-8);
+            assertEquals(expectedVel.y, velocity.y, 1e-8);
+            assertEquals(expectedVel.z, velocity.z, 1e-8);
+        }
+    }
+
+    private static double[] getOrbitPosition(final double t, final double a, final double e,
+                                             final double inclination, final double meanMotion) {
+        // solve Kepler's equation for the eccentric anomaly
+        final double meanAnomaly = meanMotion * t;
+        double eccAnomaly = meanAnomaly;
+        for (int i = 0; i < 20; ++i) {
+            eccAnomaly = meanAnomaly + e * Math.sin(eccAnomaly);
+        }
+        final double xOrb = a * (Math.cos(eccAnomaly) - e);
+        final double yOrb = a * Math.sqrt(1 - e * e) * Math.sin(eccAnomaly);
+        return new double[]{xOrb, yOrb * Math.cos(inclination), yOrb * Math.sin(inclination)};
+    }
+
+    /**
+     * The 8 point Lagrange interpolation used by SARGeocoding.Orbit before the barycentric form
+     */
+    private static void getLagrangePositionVelocity(final OrbitStateVector[] orbitStateVectors, final double time,
+                                                    final PosVector position, final PosVector velocity) {
+        final int nv = 8;
+        final double dt = (orbitStateVectors[orbitStateVectors.length - 1].time_mjd -
+                orbitStateVectors[0].time_mjd) / (orbitStateVectors.length - 1);
+        int i0, iN;
+        if (orbitStateVectors.length <= nv) {
+            i0 = 0;
+            iN = orbitStateVectors.length - 1;
+        } else {
+            i0 = Math.max((int) ((time - orbitStateVectors[0].time_mjd) / dt) - nv / 2 + 1, 0);
+            iN = Math.min(i0 + nv - 1, orbitStateVectors.length - 1);
+            i0 = (iN < orbitStateVectors.length - 1 ? i0 : iN - nv + 1);
+        }
+
+        position.x = position.y = position.z = 0;
+        velocity.x = velocity.y = velocity.z = 0;
+        for (int i = i0; i <= iN; ++i) {
+            final OrbitStateVector orbI = orbitStateVectors[i];
+            double weight = 1;
+            for (int j = i0; j <= iN; ++j) {
+                if (j != i) {
+                    final double time2 = orbitStateVectors[j].time_mjd;
+                    weight *= (time - time2) / (orbI.time_mjd - time2);
+                }
+            }
+            position.x += weight * orbI.x_pos;
+            position.y += weight * orbI.y_pos;
+            position.z += weight * orbI.z_pos;
+            velocity.x += weight * orbI.x_vel;
+            velocity.y += weight * orbI.y_vel;
+            velocity.z += weight * orbI.z_vel;
+        }
+    }
+}
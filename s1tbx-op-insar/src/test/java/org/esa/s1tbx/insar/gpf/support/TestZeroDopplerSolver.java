@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.support;
+
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.engine_utilities.datamodel.OrbitStateVector;
+import org.esa.snap.engine_utilities.datamodel.PosVector;
+import org.esa.snap.engine_utilities.eo.Constants;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the warm started zero Doppler solver with the bisection search on a synthetic circular orbit
+ */
+public class TestZeroDopplerSolver {
+
+    private static final double orbitRadius = 7.07e6;
+    private static final double earthRadius = 6.37e6;
+    private static final double angularVelocity = 2.0 * Math.PI / 5900.0; // radians per second
+    private static final double wavelength = 0.0555;
+
+    private static final double firstLineUTC = 6000.0;      // MJD
+    private static final double lineTimeIntervalSec = 0.002;
+    private static final double lineTimeInterval = lineTimeIntervalSec / Constants.secondsInDay;
+    private static final int numLines = 10000;
+
+    private static final int tileSize = 256;
+
+    private static SARGeocoding.Orbit createOrbit() {
+        final int numVectors = 12;
+        final double vectorIntervalSec = 10.0;
+        final double startSec = -30.0;
+
+        final OrbitStateVector[] vectors = new OrbitStateVector[numVectors];
+        for (int i = 0; i < numVectors; ++i) {
+            final double t = startSec + i * vectorIntervalSec;
+            final double a = angularVelocity * t;
+            vectors[i] = new OrbitStateVector(new ProductData.UTC(firstLineUTC + t / Constants.secondsInDay),
+                                              orbitRadius * Math.cos(a), 0.0, orbitRadius * Math.sin(a),
+                                              -orbitRadius * angularVelocity * Math.sin(a), 0.0,
+                                              orbitRadius * angularVelocity * Math.cos(a));
+        }
+        return new SARGeocoding.Orbit(vectors, firstLineUTC, lineTimeInterval, numLines);
+    }
+
+    /**
+     * Earth point seen at the given line and across track angle
+     */
+    private static void getEarthPoint(final double line, final double crossAngle, final PosVector earthPoint) {
+        final double a = angularVelocity * line * lineTimeIntervalSec;
+        earthPoint.x = earthRadius * Math.cos(a) * Math.cos(crossAngle);
+        earthPoint.y = earthRadius * Math.sin(crossAngle);
+        earthPoint.z = earthRadius * Math.sin(a) * Math.cos(crossAngle);
+    }
+
+    @Test
+    public void testSameAsBisection() {
+        final SARGeocoding.Orbit orbit = createOrbit();
+        final PosVector earthPoint = new PosVector();
+
+        for (int tileY = 0; tileY < numLines; tileY += 2000) {
+            final ZeroDopplerSolver solver = new ZeroDopplerSolver(firstLineUTC, lineTimeInterval, wavelength, orbit);
+            for (int y = 0; y < tileSize; ++y) {
+                for (int x = 0; x < tileSize; ++x) {
+                    final double line = tileY + y + 0.3 * x / tileSize;
+                    getEarthPoint(line, 0.05 + 0.0001 * x, earthPoint);
+
+                    final double expected = SARGeocoding.getEarthPointZeroDopplerTime(
+                            firstLineUTC, lineTimeInterval, wavelength, earthPoint, orbit);
+                    final double time = solver.getZeroDopplerTime(earthPoint);
+                    assertEquals(expected, time, 1e-12);
+                    assertEquals(line, (time - firstLineUTC) / lineTimeInterval, 1e-3);
+                }
+            }
+            assertEquals(1, solver.getNumFallbacks());
+        }
+    }
+
+    @Test
+    public void testOutsideOrbit() {
+        final SARGeocoding.Orbit orbit = createOrbit();
+        final PosVector earthPoint = new PosVector();
+        final ZeroDopplerSolver solver = new ZeroDopplerSolver(firstLineUTC, lineTimeInterval, wavelength, orbit);
+
+        getEarthPoint(numLines - 2, 0.05, earthPoint);
+        assertTrue(solver.getZeroDopplerTime(earthPoint) != SARGeocoding.NonValidZeroDopplerTime);
+
+        getEarthPoint(numLines + 500, 0.05, earthPoint);
+        assertEquals(SARGeocoding.NonValidZeroDopplerTime, solver.getZeroDopplerTime(earthPoint), 0.0);
+
+        getEarthPoint(-500, 0.05, earthPoint);
+        assertEquals(SARGeocoding.NonValidZeroDopplerTime, solver.getZeroDopplerTime(earthPoint), 0.0);
+    }
+
+    /**
+     * Times the warm started solver against the bisection. Run by hand as a benchmark.
+     */
+    @Ignore("Takes too long")
+    @Test
+    public void testThroughput() {
+        final SARGeocoding.Orbit orbit = createOrbit();
+        final PosVector earthPoint = new PosVector();
+        final int numTiles = 20;
+
+        // warm up
+        runBisection(orbit, earthPoint, numTiles);
+        runSolver(orbit, earthPoint, numTiles);
+
+        long start = System.nanoTime();
+        final double bisectionSum = runBisection(orbit, earthPoint, numTiles);
+        final long bisectionTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        final double solverSum = runSolver(orbit, earthPoint, numTiles);
+        final long solverTime = System.nanoTime() - start;
+
+        final long numPoints = (long) numTiles * tileSize * tileSize;
+        System.out.println("zero Doppler bisection: " + (bisectionTime / numPoints) + " ns/point, warm started: " +
+                                   (solverTime / numPoints) + " ns/point");
+        assertEquals(bisectionSum, solverSum, 1e-6 * Math.abs(bisectionSum));
+    }
+
+    private static double runBisection(final SARGeocoding.Orbit orbit, final PosVector earthPoint, final int numTiles) {
+        double sum = 0;
+        for (int t = 0; t < numTiles; ++t) {
+            final int tileY = t * (numLines - tileSize) / numTiles;
+            for (int y = 0; y < tileSize; ++y) {
+                for (int x = 0; x < tileSize; ++x) {
+                    getEarthPoint(tileY + y + 0.3 * x / tileSize, 0.05 + 0.0001 * x, earthPoint);
+                    sum += SARGeocoding.getEarthPointZeroDopplerTime(
+                            firstLineUTC, lineTimeInterval, wavelength, earthPoint, orbit) - firstLineUTC;
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static double runSolver(final SARGeocoding.Orbit orbit, final PosVector earthPoint, final int numTiles) {
+        double sum = 0;
+        for (int t = 0; t < numTiles; ++t) {
+            final int tileY = t * (numLines - tileSize) / numTiles;
+            final ZeroDopplerSolver solver = new ZeroDopplerSolver(firstLineUTC, lineTimeInterval, wavelength, orbit);
+            for (int y = 0; y < tileSize; ++y) {
+                for (int x = 0; x < tileSize; ++x) {
+                    getEarthPoint(tileY + y + 0.3 * x / tileSize, 0.05 + 0.0001 * x, earthPoint);
+                    sum += solver.getZeroDopplerTime(earthPoint) - firstLineUTC;
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -16,6 +16,7 @@
 package org.esa.s1tbx.sar.gpf.filtering.SpeckleFilters;
 
 import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s1tbx.sar.gpf.filtering.WindowStatistics;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
@@ -136,8 +137,9 @@ public class Lee implements SpeckleFilter {
         final double cu = 1.0 / Math.sqrt(n);
         final double cu2 = cu * cu;
 
-        final double[] neighborValues = new double[windowSizeX * windowSizeY];
         final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+        final WindowStatistics stats = new WindowStatistics(
+                sourceData1, sourceData2, srcIndex, sourceTileRectangle, noDataValue, isComplex);
         final int xMax = x0 + w;
         final int yMax = y0 + h;
 
@@ -146,12 +148,10 @@ public class Lee implements SpeckleFilter {
             for (int x = x0; x < xMax; ++x) {
                 final int xx = x - x0;
 
-                final int numSamples = getNeighborValues(
-                        x, y, sourceData1, sourceData2, srcIndex, noDataValue, isComplex,
-                        halfWindowSizeX, halfWindowSizeY, sourceImageWidth, sourceImageHeight, neighborValues);
+                final int numSamples = stats.setWindow(x, y, halfWindowSizeX, halfWindowSizeY);
 
                 if (numSamples > 0) {
-                    filteredTile[yy][xx] = getLeeValue(neighborValues, numSamples, noDataValue, cu, cu2);
+                    filteredTile[yy][xx] = getLeeValue(stats, stats.getValue(x, y), cu, cu2);
                 } else {
                     filteredTile[yy][xx] = noDataValue;
                 }
@@ -164,21 +164,20 @@ public class Lee implements SpeckleFilter {
     /**
      * Get the Lee filtered pixel intensity for pixels in a given rectangular region.
      *
-     * @param neighborValues Array holding the pixel values.
-     * @param numSamples     The number of samples.
-     * @param noDataValue    Place holder for no data value.
+     * @param stats The statistics of the current window.
+     * @param cp    The centre pixel value.
      * @return val The Lee filtered value.
      * @throws OperatorException If an error occurs in computation of the Lee filtered value.
      */
-    private double getLeeValue(final double[] neighborValues, final int numSamples, final double noDataValue,
-                               final double cu, final double cu2) {
+    private static double getLeeValue(final WindowStatistics stats, final double cp,
+                                      final double cu, final double cu2) {
 
-        final double mean = getMeanValue(neighborValues, numSamples, noDataValue);
+        final double mean = stats.getMean();
         if (Double.compare(mean, Double.MIN_VALUE) <= 0) {
             return mean;
         }
 
-        final double var = getVarianceValue(neighborValues, numSamples, mean, noDataValue);
+        final double var = stats.getVariance();
         if (Double.compare(var, Double.MIN_VALUE) <= 0) {
             return mean;
         }
@@ -188,7 +187,6 @@ public class Lee implements SpeckleFilter {
             return mean;
         }
 
-        final double cp = neighborValues[neighborValues.length / 2];
         final double w = 1 - cu2 / (ci * ci);
 
         return cp * w + mean * (1 - w);
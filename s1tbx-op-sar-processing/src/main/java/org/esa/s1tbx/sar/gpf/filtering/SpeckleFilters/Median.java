@@ -16,18 +16,17 @@
 package org.esa.s1tbx.sar.gpf.filtering.SpeckleFilters;
 
 import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s1tbx.sar.gpf.filtering.WindowStatistics;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.gpf.Operator;
-import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.engine_utilities.datamodel.Unit;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
 
 import java.awt.*;
-import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -95,8 +94,6 @@ public class Median implements SpeckleFilter {
     public double[][] performFiltering(
             final int x0, final int y0, final int w, final int h, final String[] srcBandNames) {
 
-        final double[][] filteredTile = new double[h][w];
-
         final Rectangle sourceTileRectangle = getSourceTileRectangle(
                 x0, y0, w, h, halfWindowSizeX, halfWindowSizeY, sourceImageWidth, sourceImageHeight);
 
@@ -121,51 +118,10 @@ public class Median implements SpeckleFilter {
         final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand1);
         final double noDataValue = sourceBand1.getNoDataValue();
         final TileIndex srcIndex = new TileIndex(sourceTile1);
-        final double[] neighborValues = new double[windowSizeX * windowSizeY];
         final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
-        final int xMax = x0 + w;
-        final int yMax = y0 + h;
-
-        for (int y = y0; y < yMax; ++y) {
-            final int yy = y - y0;
-            for (int x = x0; x < xMax; ++x) {
-                final int xx = x - x0;
-
-                final int numSamples = getNeighborValues(
-                        x, y, sourceData1, sourceData2, srcIndex, noDataValue, isComplex,
-                        halfWindowSizeX, halfWindowSizeY, sourceImageWidth, sourceImageHeight, neighborValues);
-
-                if (numSamples > 0) {
-                    filteredTile[yy][xx] = getMedianValue(neighborValues, numSamples, noDataValue);
-                } else {
-                    filteredTile[yy][xx] = noDataValue;
-                }
-            }
-        }
-
-        return filteredTile;
-    }
+        final WindowStatistics stats = new WindowStatistics(
+                sourceData1, sourceData2, srcIndex, sourceTileRectangle, noDataValue, isComplex);
 
-    /**
-     * Get the median value of pixel intensities in a given rectangular region.
-     *
-     * @param neighborValues Array holding pixel values.
-     * @param numSamples     The number of samples.
-     * @param noDataValue    Place holder for no data value.
-     * @return median The median value.
-     * @throws OperatorException If an error occurs in computation of the median value.
-     */
-    private static double getMedianValue(
-            final double[] neighborValues, final int numSamples, final double noDataValue) {
-
-        double[] tmp = new double[numSamples];
-        int k = 0;
-        for (double v : neighborValues) {
-            if (v != noDataValue) {
-                tmp[k++] = v;
-            }
-        }
-        Arrays.sort(tmp);
-        return tmp[numSamples / 2];
+        return stats.getMedians(x0, y0, w, h, halfWindowSizeX, halfWindowSizeY);
     }
 }
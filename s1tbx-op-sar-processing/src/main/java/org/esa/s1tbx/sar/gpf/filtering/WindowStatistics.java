@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.filtering;
+
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.engine_utilities.gpf.TileIndex;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Sliding window statistics over a source tile for the speckle filters.
+ * <p>
+ * Summed area tables of the valid sample count, sum and sum of squares give the mean and variance of any
+ * window in constant time. The sums of squares are taken about the tile mean to limit the loss of precision
+ * in the variance. Windows are clipped to the source tile and no data samples are excluded, as in
+ * SpeckleFilter.getNeighborValues. NaN and infinite samples are treated as no data so that they do not
+ * spread through the tables to later windows.
+ * <p>
+ * Create one per source tile. Not thread safe.
+ */
+public final class WindowStatistics {
+
+    private final int sx0;
+    private final int sy0;
+    private final int sw;
+    private final int sh;
+    private final double noDataValue;
+
+    // sample values row by row
+    private final double[] values;
+    private final boolean[] valid;
+    private int numValid = 0;
+
+    // summed area tables of (sh + 1) x (sw + 1)
+    private int[] countTable = null;
+    private double[] sumTable = null;
+    private double[] sumSqTable = null;
+    private double offset = 0.0;
+
+    // current window
+    private int numSamples = 0;
+    private double sum = 0.0;
+    private double sumSq = 0.0;
+
+    /**
+     * @param srcData1    The source ProductData for 1st band.
+     * @param srcData2    The source ProductData for 2nd band or null.
+     * @param srcIndex    The source tile index.
+     * @param srcRect     The source tile rectangle.
+     * @param noDataValue Place holder for no data value.
+     * @param isComplex   True if it has i and q, in which case the intensity is used.
+     */
+    public WindowStatistics(final ProductData srcData1, final ProductData srcData2, final TileIndex srcIndex,
+                            final Rectangle srcRect, final double noDataValue, final boolean isComplex) {
+        this(srcRect, noDataValue, readValues(srcData1, srcData2, srcIndex, srcRect, noDataValue, isComplex));
+    }
+
+    /**
+     * @param srcRect     The source tile rectangle.
+     * @param noDataValue Place holder for no data value.
+     * @param values      The sample values of the source tile row by row, noDataValue or non-finite where invalid.
+     */
+    WindowStatistics(final Rectangle srcRect, final double noDataValue, final double[] values) {
+        this.sx0 = srcRect.x;
+        this.sy0 = srcRect.y;
+        this.sw = srcRect.width;
+        this.sh = srcRect.height;
+        this.noDataValue = noDataValue;
+        this.values = values;
+
+        valid = new boolean[sw * sh];
+        for (int k = 0; k < valid.length; ++k) {
+            if (isValid(values[k], noDataValue)) {
+                valid[k] = true;
+                numValid++;
+            }
+        }
+    }
+
+    private static double[] readValues(final ProductData srcData1, final ProductData srcData2,
+                                       final TileIndex srcIndex, final Rectangle srcRect,
+                                       final double noDataValue, final boolean isComplex) {
+        final double[] values = new double[srcRect.width * srcRect.height];
+        int k = 0;
+        for (int y = srcRect.y; y < srcRect.y + srcRect.height; ++y) {
+            srcIndex.calculateStride(y);
+            for (int x = srcRect.x; x < srcRect.x + srcRect.width; ++x) {
+                final int idx = srcIndex.getIndex(x);
+                if (isComplex) {
+                    final double i = srcData1.getElemDoubleAt(idx);
+                    final double q = srcData2.getElemDoubleAt(idx);
+                    values[k] = isValid(i, noDataValue) && isValid(q, noDataValue) ? i * i + q * q : noDataValue;
+                } else {
+                    values[k] = srcData1.getElemDoubleAt(idx);
+                }
+                ++k;
+            }
+        }
+        return values;
+    }
+
+    private static boolean isValid(final double val, final double noDataValue) {
+        return noDataValue != val && !Double.isNaN(val) && !Double.isInfinite(val);
+    }
+
+    /**
+     * @return the sample value at a pixel of the source tile, which may be noDataValue or non-finite
+     */
+    public double getValue(final int x, final int y) {
+        return values[(y - sy0) * sw + x - sx0];
+    }
+
+    private void buildTables() {
+        double total = 0.0;
+        for (int k = 0; k < values.length; ++k) {
+            if (valid[k]) {
+                total += values[k];
+            }
+        }
+        offset = numValid > 0 ? total / numValid : 0.0;
+
+        final int stride = sw + 1;
+        countTable = new int[stride * (sh + 1)];
+        sumTable = new double[stride * (sh + 1)];
+        sumSqTable = new double[stride * (sh + 1)];
+
+        for (int j = 0; j < sh; ++j) {
+            int rowCount = 0;
+            double rowSum = 0.0;
+            double rowSumSq = 0.0;
+            final int above = j * stride;
+            final int current = above + stride;
+            for (int i = 0; i < sw; ++i) {
+                final int k = j * sw + i;
+                if (valid[k]) {
+                    final double v = values[k];
+                    final double d = v - offset;
+                    rowCount++;
+                    rowSum += v;
+                    rowSumSq += d * d;
+                }
+                countTable[current + i + 1] = countTable[above + i + 1] + rowCount;
+                sumTable[current + i + 1] = sumTable[above + i + 1] + rowSum;
+                sumSqTable[current + i + 1] = sumSqTable[above + i + 1] + rowSumSq;
+            }
+        }
+    }
+
+    /**
+     * Set the window centred at the given pixel, clipped to the source tile.
+     *
+     * @param x         X coordinate of the window centre.
+     * @param y         Y coordinate of the window centre.
+     * @param halfSizeX Half of the sliding window width.
+     * @param halfSizeY Half of the sliding window height.
+     * @return The number of valid samples in the window.
+     */
+    public int setWindow(final int x, final int y, final int halfSizeX, final int halfSizeY) {
+        if (countTable == null) {
+            buildTables();
+        }
+
+        final int i0 = Math.max(x - halfSizeX - sx0, 0);
+        final int i1 = Math.min(x + halfSizeX - sx0 + 1, sw);
+        final int j0 = Math.max(y - halfSizeY - sy0, 0);
+        final int j1 = Math.min(y + halfSizeY - sy0 + 1, sh);
+        if (i0 >= i1 || j0 >= j1) {
+            numSamples = 0;
+            sum = 0.0;
+            sumSq = 0.0;
+            return 0;
+        }
+
+        final int stride = sw + 1;
+        final int a = j0 * stride + i0;
+        final int b = j0 * stride + i1;
+        final int c = j1 * stride + i0;
+        final int d = j1 * stride + i1;
+        numSamples = countTable[d] - countTable[b] - countTable[c] + countTable[a];
+        sum = sumTable[d] - sumTable[b] - sumTable[c] + sumTable[a];
+        sumSq = sumSqTable[d] - sumSqTable[b] - sumSqTable[c] + sumSqTable[a];
+        return numSamples;
+    }
+
+    /**
+     * @return The mean of the valid samples in the current window.
+     */
+    public double getMean() {
+        return sum / numSamples;
+    }
+
+    /**
+     * @return The sample variance of the valid samples in the current window or 0 if less than 2 samples.
+     */
+    public double getVariance() {
+        if (numSamples <= 1) {
+            return 0.0;
+        }
+        final double d = sum - numSamples * offset;
+        final double var = (sumSq - d * d / numSamples) / (numSamples - 1);
+        return var > 0.0 ? var : 0.0;
+    }
+
+    /**
+     * Median filter of a tile. The window slides in a serpentine path over the tile and the valid samples
+     * in the window are kept as a histogram of their ranks in the tile, so each step adds and removes one
+     * row or column of the window rather than sorting the whole window.
+     *
+     * @param x0        X coordinate of the upper left corner point of the target tile rectangle.
+     * @param y0        Y coordinate of the upper left corner point of the target tile rectangle.
+     * @param w         The width of the target tile rectangle.
+     * @param h         The height of the target tile rectangle.
+     * @param halfSizeX Half of the sliding window width.
+     * @param halfSizeY Half of the sliding window height.
+     * @return The median of the valid samples in each window or noDataValue if there are none.
+     */
+    public double[][] getMedians(final int x0, final int y0, final int w, final int h,
+                                 final int halfSizeX, final int halfSizeY) {
+
+        final double[][] medians = new double[h][w];
+        if (w <= 0 || h <= 0) {
+            return medians;
+        }
+
+        final double[] sorted = new double[numValid];
+        int n = 0;
+        for (int k = 0; k < values.length; ++k) {
+            if (valid[k]) {
+                sorted[n++] = values[k];
+            }
+        }
+        Arrays.sort(sorted);
+
+        final int[] ranks = new int[values.length];
+        for (int k = 0; k < values.length; ++k) {
+            ranks[k] = valid[k] ? Arrays.binarySearch(sorted, values[k]) : -1;
+        }
+
+        final RankHistogram histogram = new RankHistogram(numValid);
+
+        // window bounds relative to the source tile, inclusive, before clipping
+        int wi0 = x0 - halfSizeX - sx0;
+        int wj0 = y0 - halfSizeY - sy0;
+        final int sizeX = 2 * halfSizeX + 1;
+        final int sizeY = 2 * halfSizeY + 1;
+        update(histogram, ranks, wi0, wi0 + sizeX - 1, wj0, wj0 + sizeY - 1, 1);
+
+        for (int yy = 0; yy < h; ++yy) {
+            if (yy > 0) {
+                update(histogram, ranks, wi0, wi0 + sizeX - 1, wj0, wj0, -1);
+                wj0++;
+                update(histogram, ranks, wi0, wi0 + sizeX - 1, wj0 + sizeY - 1, wj0 + sizeY - 1, 1);
+            }
+
+            final boolean leftToRight = (yy & 1) == 0;
+            for (int step = 0; step < w; ++step) {
+                if (step > 0) {
+                    if (leftToRight) {
+                        update(histogram, ranks, wi0, wi0, wj0, wj0 + sizeY - 1, -1);
+                        wi0++;
+                        update(histogram, ranks, wi0 + sizeX - 1, wi0 + sizeX - 1, wj0, wj0 + sizeY - 1, 1);
+                    } else {
+                        update(histogram, ranks, wi0 + sizeX - 1, wi0 + sizeX - 1, wj0, wj0 + sizeY - 1, -1);
+                        wi0--;
+                        update(histogram, ranks, wi0, wi0, wj0, wj0 + sizeY - 1, 1);
+                    }
+                }
+
+                final int xx = leftToRight ? step : w - 1 - step;
+                final int count = histogram.getCount();
+                medians[yy][xx] = count > 0 ? sorted[histogram.getRank(count / 2)] : noDataValue;
+            }
+        }
+
+        return medians;
+    }
+
+    private void update(final RankHistogram histogram, final int[] ranks,
+                        final int i0, final int i1, final int j0, final int j1, final int delta) {
+        final int iStart = Math.max(i0, 0);
+        final int iEnd = Math.min(i1, sw - 1);
+        final int jStart = Math.max(j0, 0);
+        final int jEnd = Math.min(j1, sh - 1);
+        for (int j = jStart; j <= jEnd; ++j) {
+            final int row = j * sw;
+            for (int i = iStart; i <= iEnd; ++i) {
+                final int rank = ranks[row + i];
+                if (rank >= 0) {
+                    histogram.add(rank, delta);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts of ranks in a binary indexed tree for order statistics in log time
+     */
+    private static final class RankHistogram {
+        private final int[] tree;
+        private final int topBit;
+        private int count = 0;
+
+        RankHistogram(final int numRanks) {
+            tree = new int[numRanks + 1];
+            topBit = numRanks > 0 ? Integer.highestOneBit(numRanks) : 0;
+        }
+
+        void add(final int rank, final int delta) {
+            for (int i = rank + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+            count += delta;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        /**
+         * @param k order starting at 0
+         * @return the rank of the k-th smallest sample
+         */
+        int getRank(int k) {
+            int pos = 0;
+            for (int bit = topBit; bit != 0; bit >>= 1) {
+                final int next = pos + bit;
+                if (next < tree.length && tree[next] <= k) {
+                    pos = next;
+                    k -= tree[next];
+                }
+            }
+            return pos;
+        }
+    }
+}
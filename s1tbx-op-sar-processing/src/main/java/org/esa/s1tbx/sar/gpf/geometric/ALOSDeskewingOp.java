@@ -402,7 +402,7 @@ public class ALOSDeskewingOp extends Operator {
             GeoUtils.geo2xyzWGS84(geoPos.getLat(), geoPos.getLon(), alt, earthPoint);
 
             final double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(
-                    firstLineTime, lineTimeInterval, radarWaveLength, earthPoint, orbit.sensorPosition, orbit.sensorVelocity);
+                    firstLineTime, lineTimeInterval, radarWaveLength, earthPoint, orbit);
 
             if (zeroDopplerTime == SARGeocoding.NonValidZeroDopplerTime) {
                 continue;
@@ -21,8 +21,10 @@ import org.esa.s1tbx.calibration.gpf.calibrators.Sentinel1Calibrator;
 import org.esa.s1tbx.calibration.gpf.support.CalibrationFactory;
 import org.esa.s1tbx.calibration.gpf.support.Calibrator;
 import org.esa.s1tbx.insar.gpf.support.CRSGeoCodingHandler;
+import org.esa.s1tbx.insar.gpf.support.LocalIncidenceAngleCalculator;
 import org.esa.s1tbx.insar.gpf.support.SARGeocoding;
 import org.esa.s1tbx.insar.gpf.support.SARUtils;
+import org.esa.s1tbx.insar.gpf.support.ZeroDopplerSolver;
 import org.esa.snap.core.datamodel.*;
 import org.esa.snap.core.dataop.dem.ElevationModel;
 import org.esa.snap.core.dataop.resamp.Resampling;
@@ -46,7 +48,6 @@ import org.esa.snap.engine_utilities.datamodel.PosVector;
 import org.esa.snap.engine_utilities.datamodel.Unit;
 import org.esa.snap.engine_utilities.eo.Constants;
 import org.esa.snap.engine_utilities.eo.GeoUtils;
-import org.esa.snap.engine_utilities.eo.LocalGeometry;
 import org.esa.snap.engine_utilities.gpf.InputProductValidator;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
 import org.esa.snap.engine_utilities.gpf.ReaderUtils;
@@ -895,7 +896,8 @@ public class RangeDopplerGeocodingOp extends Operator {
             }
 
             final GeoPos geoPos = new GeoPos();
-            final PositionData posData = new PositionData();
+            final PositionData posData = new PositionData(
+                    new ZeroDopplerSolver(firstLineUTC, lineTimeInterval, wavelength, orbit));
             final int srcMaxRange = sourceImageWidth - 1;
             final int srcMaxAzimuth = sourceImageHeight - 1;
             ProductData demBuffer = null, latBuffer = null, lonBuffer = null, localIncidenceAngleBuffer = null,
@@ -968,15 +970,30 @@ public class RangeDopplerGeocodingOp extends Operator {
 
             int diffLat = Math.abs(latitude.getPixelInt(0, 0) - latitude.getPixelInt(0, targetImageHeight));
 
+            // per tile scratch state reused for every pixel
+            final double[] localIncidenceAngles = new double[2];
+            final int[] subSwathIndex = new int[1];
+            final LocalIncidenceAngleCalculator localIncidenceAngleCalculator =
+                    saveLocalIncidenceAngle || saveProjectedLocalIncidenceAngle || saveSigmaNought ?
+                            new LocalIncidenceAngleCalculator() : null;
+            final float[] demElems = getFloatElems(demBuffer);
+            final float[] latElems = getFloatElems(latBuffer);
+            final float[] lonElems = getFloatElems(lonBuffer);
+            final float[] localIncidenceAngleElems = getFloatElems(localIncidenceAngleBuffer);
+            final float[] projectedLocalIncidenceAngleElems = getFloatElems(projectedLocalIncidenceAngleBuffer);
+            final float[] incidenceAngleFromEllipsoidElems = getFloatElems(incidenceAngleFromEllipsoidBuffer);
+
             for (int y = y0; y < maxY; y++) {
                 final int yy = y - y0 + 1;
+                final double[] demRow = localDEM[yy];
                 for (int x = x0; x < maxX; x++) {
                     final int index = tgtTiles[0].targetTile.getDataBufferIndex(x, y);
 
-                    Double alt = localDEM[yy][x - x0 + 1];
-                    if (alt.equals(demNoDataValue) && !useAvgSceneHeight) {
+                    double alt = demRow[x - x0 + 1];
+                    final boolean isDEMNoData = Double.compare(alt, demNoDataValue) == 0;
+                    if (isDEMNoData && !useAvgSceneHeight) {
                         if (nodataValueAtSea) {
-                            saveNoDataValueToTarget(index, tgtTiles, demBuffer);
+                            saveNoDataValueToTarget(index, tgtTiles, demBuffer, demElems);
                             continue;
                         }
                     }
@@ -988,53 +1005,52 @@ public class RangeDopplerGeocodingOp extends Operator {
                         lon -= 360.0;
                     }
 
-                    if (alt.equals(demNoDataValue) && !nodataValueAtSea) { // get corrected elevation for 0
+                    if (isDEMNoData && !nodataValueAtSea) { // get corrected elevation for 0
                         alt = (double) egm.getEGM(lat, lon);
                     }
 
                     if (!getPosition(lat, lon, alt, posData)) {
-                        saveNoDataValueToTarget(index, tgtTiles, demBuffer);
+                        saveNoDataValueToTarget(index, tgtTiles, demBuffer, demElems);
                         continue;
                     }
 
                     if (!SARGeocoding.isValidCell(posData.rangeIndex, posData.azimuthIndex, lat, lon, diffLat,
                                                   latitude, longitude, srcMaxRange, srcMaxAzimuth, posData.sensorPos)) {
-                        saveNoDataValueToTarget(index, tgtTiles, demBuffer);
+                        saveNoDataValueToTarget(index, tgtTiles, demBuffer, demElems);
                     } else {
 
-                        final double[] localIncidenceAngles = {SARGeocoding.NonValidIncidenceAngle,
-                                SARGeocoding.NonValidIncidenceAngle};
-
-                        if (saveLocalIncidenceAngle || saveProjectedLocalIncidenceAngle || saveSigmaNought) {
+                        localIncidenceAngles[0] = SARGeocoding.NonValidIncidenceAngle;
+                        localIncidenceAngles[1] = SARGeocoding.NonValidIncidenceAngle;
 
-                            final LocalGeometry localGeometry = new LocalGeometry(
-                                    x, y, tileGeoRef, posData.earthPoint, posData.sensorPos);
+                        if (localIncidenceAngleCalculator != null) {
 
-                            SARGeocoding.computeLocalIncidenceAngle(
-                                    localGeometry, demNoDataValue, saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle,
-                                    saveSigmaNought, x0, y0, x, y, localDEM, localIncidenceAngles); // in degrees
+                            localIncidenceAngleCalculator.compute(
+                                    tileGeoRef, posData.earthPoint, posData.sensorPos, demNoDataValue,
+                                    saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle, saveSigmaNought,
+                                    x0, y0, x, y, localDEM, localIncidenceAngles); // in degrees
 
                             if (saveLocalIncidenceAngle && localIncidenceAngles[0] != SARGeocoding.NonValidIncidenceAngle) {
-                                localIncidenceAngleBuffer.setElemDoubleAt(index, localIncidenceAngles[0]);
+                                setElem(localIncidenceAngleBuffer, localIncidenceAngleElems, index, localIncidenceAngles[0]);
                             }
 
                             if (saveProjectedLocalIncidenceAngle &&
                                     localIncidenceAngles[1] != SARGeocoding.NonValidIncidenceAngle) {
-                                projectedLocalIncidenceAngleBuffer.setElemDoubleAt(index, localIncidenceAngles[1]);
+                                setElem(projectedLocalIncidenceAngleBuffer, projectedLocalIncidenceAngleElems, index,
+                                        localIncidenceAngles[1]);
                             }
                         }
 
                         if (saveDEM) {
-                            demBuffer.setElemDoubleAt(index, alt);
+                            setElem(demBuffer, demElems, index, alt);
                         }
                         if (saveLatLon) {
-                            latBuffer.setElemDoubleAt(index, lat);
-                            lonBuffer.setElemDoubleAt(index, lon);
+                            setElem(latBuffer, latElems, index, lat);
+                            setElem(lonBuffer, lonElems, index, lon);
                         }
 
                         if (saveIncidenceAngleFromEllipsoid && incidenceAngle != null) {
-                            incidenceAngleFromEllipsoidBuffer.setElemDoubleAt(
-                                    index, incidenceAngle.getPixelDouble(posData.rangeIndex, posData.azimuthIndex));
+                            setElem(incidenceAngleFromEllipsoidBuffer, incidenceAngleFromEllipsoidElems, index,
+                                    incidenceAngle.getPixelDouble(posData.rangeIndex, posData.azimuthIndex));
                         }
 
                         double satelliteHeight = 0;
@@ -1048,7 +1064,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         }
 
                         for (TileData tileData : tgtTiles) {
-                            int[] subSwathIndex = {INVALID_SUB_SWATH_INDEX};
+                            subSwathIndex[0] = INVALID_SUB_SWATH_INDEX;
                             double v = getPixelValue(posData.azimuthIndex, posData.rangeIndex, tileData, subSwathIndex);
 
                             if (v != tileData.noDataValue && tileData.applyRadiometricNormalization) {
@@ -1060,12 +1076,12 @@ public class RangeDopplerGeocodingOp extends Operator {
                                     // use projected incidence angle
                                 } else {
                                     //v = tileData.noDataValue;
-                                    saveNoDataValueToTarget(index, tgtTiles, demBuffer);
+                                    saveNoDataValueToTarget(index, tgtTiles, demBuffer, demElems);
                                     continue;
                                 }
                             }
 
-                            tileData.tileDataBuffer.setElemDoubleAt(index, v);
+                            tileData.setValue(index, v);
                         }
                         orthoDataProduced = true;
                     }
@@ -1079,12 +1095,31 @@ public class RangeDopplerGeocodingOp extends Operator {
         }
     }
 
-    private void saveNoDataValueToTarget(final int index, final TileData[] tgtTiles, final ProductData demBuffer) {
+    private void saveNoDataValueToTarget(final int index, final TileData[] tgtTiles, final ProductData demBuffer,
+                                         final float[] demElems) {
         if (saveDEM) {
-            demBuffer.setElemDoubleAt(index, demNoDataValue);
+            setElem(demBuffer, demElems, index, demNoDataValue);
         }
         for (TileData tileData : tgtTiles) {
-            tileData.tileDataBuffer.setElemDoubleAt(index, tileData.noDataValue);
+            tileData.setValue(index, tileData.noDataValue);
+        }
+    }
+
+    /**
+     * @return the backing array of a float buffer or null for other data types
+     */
+    private static float[] getFloatElems(final ProductData buffer) {
+        if (buffer != null && buffer.getType() == ProductData.TYPE_FLOAT32) {
+            return (float[]) buffer.getElems();
+        }
+        return null;
+    }
+
+    private static void setElem(final ProductData buffer, final float[] floatElems, final int index, final double value) {
+        if (floatElems != null) {
+            floatElems[index] = (float) value;
+        } else {
+            buffer.setElemDoubleAt(index, value);
         }
     }
 
@@ -1101,13 +1136,14 @@ public class RangeDopplerGeocodingOp extends Operator {
         int yMax = -Integer.MAX_VALUE;
         int yMin = Integer.MAX_VALUE;
 
-        PositionData posData = new PositionData();
+        PositionData posData = new PositionData(
+                new ZeroDopplerSolver(firstLineUTC, lineTimeInterval, wavelength, orbit));
         GeoPos geoPos = new GeoPos();
         for (int i = 0; i < 4; i++) {
 
             tileGeoRef.getGeoPos(tgtCorners[i], geoPos);
-            final Double alt = tgtCornerElevations[i];
-            if (alt.equals(demNoDataValue)) {
+            final double alt = tgtCornerElevations[i];
+            if (Double.compare(alt, demNoDataValue) == 0) {
                 return null;
             }
 
@@ -1164,8 +1200,7 @@ public class RangeDopplerGeocodingOp extends Operator {
 
         GeoUtils.geo2xyzWGS84(lat, lon, alt, data.earthPoint);
 
-        double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(firstLineUTC,
-                                                                           lineTimeInterval, wavelength, data.earthPoint, orbit.sensorPosition, orbit.sensorVelocity);
+        double zeroDopplerTime = data.solver.getZeroDopplerTime(data.earthPoint);
 
         if (Double.compare(zeroDopplerTime, SARGeocoding.NonValidZeroDopplerTime) == 0) {
             return false;
@@ -1278,6 +1313,8 @@ public class RangeDopplerGeocodingOp extends Operator {
     public static class TileData {
         final Tile targetTile;
         final ProductData tileDataBuffer;
+        private final float[] floatBuffer;
+        private final double[] doubleBuffer;
         final String bandName;
         final String bandPolar;
         final Unit.UnitType bandUnit;
@@ -1298,6 +1335,10 @@ public class RangeDopplerGeocodingOp extends Operator {
                  final Resampling imgResampling) {
             this.targetTile = tile;
             this.tileDataBuffer = tile.getDataBuffer();
+            this.floatBuffer = tileDataBuffer.getType() == ProductData.TYPE_FLOAT32 ?
+                    (float[]) tileDataBuffer.getElems() : null;
+            this.doubleBuffer = tileDataBuffer.getType() == ProductData.TYPE_FLOAT64 ?
+                    (double[]) tileDataBuffer.getElems() : null;
             this.bandName = name;
             this.srcBands = srcBands;
             this.isPolsar = isPolsar;
@@ -1311,6 +1352,16 @@ public class RangeDopplerGeocodingOp extends Operator {
             this.imgResamplingRaster = new ResamplingRaster(this);
             imgResamplingIndex = imgResampling.createIndex();
         }
+
+        void setValue(final int index, final double value) {
+            if (floatBuffer != null) {
+                floatBuffer[index] = (float) value;
+            } else if (doubleBuffer != null) {
+                doubleBuffer[index] = value;
+            } else {
+                tileDataBuffer.setElemDoubleAt(index, value);
+            }
+        }
     }
 
     public static class ResamplingRaster implements Resampling.Raster {
@@ -1472,12 +1523,10 @@ public class RangeDopplerGeocodingOp extends Operator {
 
         final int max = 3;
         for (int i = 0; i < max; ++i) {
-            PosVector sensorPos = orbit.sensorPosition[i];
-            log.info("sensorPos: " + sensorPos.x + ", " + sensorPos.y + ", " + sensorPos.z);
+            log.info("sensorPos: " + orbit.xPos[i] + ", " + orbit.yPos[i] + ", " + orbit.zPos[i]);
         }
         for (int i = 0; i < max; ++i) {
-            PosVector sensorVel = orbit.sensorVelocity[i];
-            log.info("sensorVel: " + sensorVel.x + ", " + sensorVel.y + ", " + sensorVel.z);
+            log.info("sensorVel: " + orbit.xVel[i] + ", " + orbit.yVel[i] + ", " + orbit.zVel[i]);
         }
         for (int i = 0; i < max; ++i) {
             OrbitStateVector orb = orbit.orbitStateVectors[i];
@@ -1491,9 +1540,14 @@ public class RangeDopplerGeocodingOp extends Operator {
     private static class PositionData {
         final PosVector earthPoint = new PosVector();
         final PosVector sensorPos = new PosVector();
+        final ZeroDopplerSolver solver;
         double azimuthIndex;
         double rangeIndex;
         double slantRange;
+
+        PositionData(final ZeroDopplerSolver solver) {
+            this.solver = solver;
+        }
     }
 
     /**
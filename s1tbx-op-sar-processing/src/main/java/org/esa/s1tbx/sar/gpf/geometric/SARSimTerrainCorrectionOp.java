@@ -1145,7 +1145,7 @@ public class SARSimTerrainCorrectionOp extends Operator {
 
         // binary search is used in finding the zero doppler time
         int lowerBound = 0;
-        int upperBound = orbit.sensorPosition.length - 1;
+        int upperBound = orbit.xPos.length - 1;
         double lowerBoundFreq = getDopplerFrequency(lowerBound, earthPoint);
         double upperBoundFreq = getDopplerFrequency(upperBound, earthPoint);
 
@@ -1191,12 +1191,12 @@ public class SARSimTerrainCorrectionOp extends Operator {
             throw new OperatorException("Invalid range line index: " + y);
         }
 
-        final double xVel = orbit.sensorVelocity[y].x;
-        final double yVel = orbit.sensorVelocity[y].y;
-        final double zVel = orbit.sensorVelocity[y].z;
-        final double xDiff = earthPoint.x - orbit.sensorPosition[y].x;
-        final double yDiff = earthPoint.y - orbit.sensorPosition[y].y;
-        final double zDiff = earthPoint.z - orbit.sensorPosition[y].z;
+        final double xVel = orbit.xVel[y];
+        final double yVel = orbit.yVel[y];
+        final double zVel = orbit.zVel[y];
+        final double xDiff = earthPoint.x - orbit.xPos[y];
+        final double yDiff = earthPoint.y - orbit.yPos[y];
+        final double zDiff = earthPoint.z - orbit.zPos[y];
         final double distance = Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
 
         return 2.0 * (xVel * xDiff + yVel * yDiff + zVel * zDiff) / (distance * wavelength);
@@ -431,7 +431,7 @@ public final class SARSimulationOp extends Operator {
                 GeoUtils.geo2xyzWGS84(geoPos.getLat(), geoPos.getLon(), alt, earthPoint);
 
                 final double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(
-                        firstLineUTC, lineTimeInterval, wavelength, earthPoint, orbit.sensorPosition, orbit.sensorVelocity);
+                        firstLineUTC, lineTimeInterval, wavelength, earthPoint, orbit);
 
                 if (zeroDopplerTime == SARGeocoding.NonValidZeroDopplerTime) {
                     continue;
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.filtering;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares WindowStatistics with the per window mean, variance and median the speckle filters computed before
+ */
+public class TestWindowStatistics {
+
+    private static final double noDataValue = 0.0;
+    private static final int width = 53;
+    private static final int height = 41;
+
+    @Test
+    public void testMeanAndVariance() {
+        final double[] values = createValues(12);
+        final Rectangle srcRect = new Rectangle(100, 200, width, height);
+        final WindowStatistics stats = new WindowStatistics(srcRect, noDataValue, values);
+
+        final int[][] halfSizes = {{1, 1}, {2, 3}, {5, 5}, {30, 2}};
+        final double[] window = new double[(2 * 30 + 1) * (2 * 30 + 1)];
+        for (int[] half : halfSizes) {
+            // every pixel, so the windows clipped at all four edges are included
+            for (int y = srcRect.y; y < srcRect.y + height; ++y) {
+                for (int x = srcRect.x; x < srcRect.x + width; ++x) {
+                    final int numSamples = getNeighborValues(values, srcRect, x, y, half[0], half[1], window);
+                    assertEquals(numSamples, stats.setWindow(x, y, half[0], half[1]));
+                    if (numSamples > 0) {
+                        final double mean = getMeanValue(window, numSamples);
+                        final double var = getVarianceValue(window, numSamples, mean);
+                        assertEquals(mean, stats.getMean(), 1e-9 * mean);
+                        assertEquals(var, stats.getVariance(), 1e-9 * Math.max(var, mean * mean));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMedians() {
+        final double[] values = createValues(13);
+        final Rectangle srcRect = new Rectangle(10, 20, width, height);
+        final WindowStatistics stats = new WindowStatistics(srcRect, noDataValue, values);
+
+        final int[][] halfSizes = {{1, 1}, {3, 2}, {4, 4}};
+        final double[] window = new double[9 * 9];
+        for (int[] half : halfSizes) {
+            // a target tile inside the source tile and one covering it all
+            final Rectangle[] targets = {new Rectangle(srcRect.x + 5, srcRect.y + 4, 20, 17), srcRect};
+            for (Rectangle target : targets) {
+                final double[][] medians = stats.getMedians(target.x, target.y, target.width, target.height,
+                                                            half[0], half[1]);
+                for (int yy = 0; yy < target.height; ++yy) {
+                    for (int xx = 0; xx < target.width; ++xx) {
+                        final int numSamples = getNeighborValues(values, srcRect, target.x + xx, target.y + yy,
+                                                                 half[0], half[1], window);
+                        final double expected = numSamples > 0 ? getMedianValue(window, numSamples) : noDataValue;
+                        assertEquals(expected, medians[yy][xx], 0.0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAllNoData() {
+        final double[] values = new double[width * height];
+        final Rectangle srcRect = new Rectangle(0, 0, width, height);
+        final WindowStatistics stats = new WindowStatistics(srcRect, noDataValue, values);
+
+        assertEquals(0, stats.setWindow(3, 3, 2, 2));
+        assertEquals(0.0, stats.getVariance(), 0.0);
+        assertEquals(noDataValue, stats.getMedians(0, 0, 4, 4, 1, 1)[2][2], 0.0);
+    }
+
+    @Test
+    public void testNonFiniteSamples() {
+        final double[] values = createValues(14);
+        values[5 * width + 7] = Double.NaN;
+        values[20 * width + 30] = Double.POSITIVE_INFINITY;
+        values[33 * width + 12] = Double.NEGATIVE_INFINITY;
+        final Rectangle srcRect = new Rectangle(0, 0, width, height);
+        final WindowStatistics stats = new WindowStatistics(srcRect, noDataValue, values);
+
+        final double[] window = new double[5 * 5];
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                final int numSamples = getNeighborValues(values, srcRect, x, y, 2, 2, window);
+                assertEquals(numSamples, stats.setWindow(x, y, 2, 2));
+                if (numSamples > 0) {
+                    final double mean = getMeanValue(window, numSamples);
+                    final double var = getVarianceValue(window, numSamples, mean);
+                    assertEquals(mean, stats.getMean(), 1e-9 * mean);
+                    // the sums of squares are about the tile mean, so allow for its rounding in small windows
+                    assertEquals(var, stats.getVariance(), 1e-9 * Math.max(var, mean * mean) + 1e-6);
+                }
+            }
+        }
+
+        final double[][] medians = stats.getMedians(0, 0, width, height, 2, 2);
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                final int numSamples = getNeighborValues(values, srcRect, x, y, 2, 2, window);
+                final double expected = numSamples > 0 ? getMedianValue(window, numSamples) : noDataValue;
+                assertEquals(expected, medians[y][x], 0.0);
+            }
+        }
+    }
+
+    /**
+     * Speckle like intensities with a block of no data and scattered no data pixels
+     */
+    private static double[] createValues(final long seed) {
+        final Random random = new Random(seed);
+        final double[] values = new double[width * height];
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                final boolean noData = (x < 6 && y > 30) || random.nextDouble() < 0.05;
+                // a few repeated values to exercise ties in the median
+                values[y * width + x] = noData ? noDataValue :
+                        random.nextDouble() < 0.1 ? 0.5 : 1000.0 * -Math.log(1.0 - random.nextDouble());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * The window clipped to the source tile as in SpeckleFilter.getNeighborValues, with non-finite samples
+     * taken as no data
+     */
+    private static int getNeighborValues(final double[] values, final Rectangle srcRect, final int tx, final int ty,
+                                         final int halfSizeX, final int halfSizeY, final double[] neighborValues) {
+        Arrays.fill(neighborValues, noDataValue);
+        int numValidSamples = 0;
+        int k = 0;
+        for (int y = ty - halfSizeY; y <= ty + halfSizeY; y++) {
+            for (int x = tx - halfSizeX; x <= tx + halfSizeX; x++) {
+                if (y >= srcRect.y && y < srcRect.y + srcRect.height && x >= srcRect.x && x < srcRect.x + srcRect.width) {
+                    final double v = values[(y - srcRect.y) * srcRect.width + x - srcRect.x];
+                    if (v != noDataValue && !Double.isNaN(v) && !Double.isInfinite(v)) {
+                        neighborValues[k] = v;
+                        numValidSamples++;
+                    }
+                }
+                k++;
+            }
+        }
+        return numValidSamples;
+    }
+
+    private static double getMeanValue(final double[] neighborValues, final int numSamples) {
+        double mean = 0.0;
+        for (double v : neighborValues) {
+            if (v != noDataValue) {
+                mean += v;
+            }
+        }
+        return mean / numSamples;
+    }
+
+    private static double getVarianceValue(final double[] neighborValues, final int numSamples, final double mean) {
+        double var = 0.0;
+        if (numSamples > 1) {
+            for (double v : neighborValues) {
+                if (v != noDataValue) {
+                    final double diff = v - mean;
+                    var += diff * diff;
+                }
+            }
+            var /= (numSamples - 1);
+        }
+        return var;
+    }
+
+    private static double getMedianValue(final double[] neighborValues, final int numSamples) {
+        final double[] tmp = new double[numSamples];
+        int k = 0;
+        for (double v : neighborValues) {
+            if (v != noDataValue) {
+                tmp[k++] = v;
+            }
+        }
+        Arrays.sort(tmp);
+        return tmp[numSamples / 2];
+    }
+}
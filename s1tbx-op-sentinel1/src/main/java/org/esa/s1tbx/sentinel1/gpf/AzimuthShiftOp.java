@@ -18,6 +18,7 @@ package org.esa.s1tbx.sentinel1.gpf;
 import com.bc.ceres.core.ProgressMonitor;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
 import org.apache.commons.math3.util.FastMath;
+import org.esa.s1tbx.commons.OperatorExecutor;
 import org.esa.s1tbx.insar.gpf.support.Sentinel1Utils;
 import org.esa.snap.core.datamodel.*;
 import org.esa.snap.core.dataop.downloadable.StatusProgressMonitor;
@@ -33,6 +34,7 @@ import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.SystemUtils;
 import org.esa.snap.engine_utilities.datamodel.AbstractMetadata;
 import org.esa.snap.engine_utilities.gpf.*;
+import org.jlinda.core.utils.FFTPlanCache;
 
 import java.awt.*;
 import java.util.ArrayList;
@@ -352,7 +354,7 @@ public class AzimuthShiftOp extends Operator {
 
             final double[] col1 = new double[2 * h];
             final double[] col2 = new double[2 * h];
-            final DoubleFFT_1D col_fft = new DoubleFFT_1D(h);
+            final DoubleFFT_1D col_fft = FFTPlanCache.getDoubleFFT_1D(h);
             for (int c = 0; c < w; c++) {
                 final int x = x0 + c;
                 for (int r = 0; r < h; r++) {
@@ -406,7 +408,7 @@ public class AzimuthShiftOp extends Operator {
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Estimating azimuth offset... ", numShifts);
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("AzimuthShiftOp", this::checkForCancellation);
         try {
             final Band mBandI = getBand(StackUtils.MST, "i_", swathIndexStr, polarizations[0]);
             final Band mBandQ = getBand(StackUtils.MST, "q_", swathIndexStr, polarizations[0]);
@@ -439,7 +441,7 @@ public class AzimuthShiftOp extends Operator {
                     final int x0 = x0BurstOne + j * w;
                     final int blockIndex = j;
 
-                    final Thread worker = new Thread() {
+                    final Runnable worker = new Runnable() {
                         @Override
                         public void run() {
                             try {
@@ -459,13 +461,13 @@ public class AzimuthShiftOp extends Operator {
                             }
                         }
                     };
-                    threadManager.add(worker);
+                    executor.execute(worker);
                     status.worked(1);
                 }
             }
 
             status.done();
-            threadManager.finish();
+            executor.finish();
 
             // todo The following simple average should be replaced by weighted average using coherence as weight
             final double[] averagedAzShiftArray = new double[numOverlaps];
@@ -133,6 +133,8 @@ public final class BackGeocodingOp extends Operator {
 
     private boolean outputDEM = false;
 
+    private final MasterGeometryCache masterGeometryCache = new MasterGeometryCache();
+
     /**
      * Default constructor. The graph processing framework
      * requires that an operator has a default constructor.
@@ -172,13 +174,6 @@ public final class BackGeocodingOp extends Operator {
                 slaveDataList.add(new SlaveData(product));
             }
 
-            /*
-            outputToFile("c:\\output\\mSensorPosition.dat", mSU.getOrbit().sensorPosition);
-            outputToFile("c:\\output\\mSensorVelocity.dat", mSU.getOrbit().sensorVelocity);
-            outputToFile("c:\\output\\sSensorPosition.dat", sSU.getOrbit().sensorPosition);
-            outputToFile("c:\\output\\sSensorVelocity.dat", sSU.getOrbit().sensorVelocity);
-            */
-			
 			final String[] mSubSwathNames = mSU.getSubSwathNames();
             final String[] mPolarizations = mSU.getPolarizations();
 
@@ -496,6 +491,13 @@ public final class BackGeocodingOp extends Operator {
         }
     }
 
+    @Override
+    public void dispose() throws OperatorException {
+        SystemUtils.LOG.fine("BackGeocoding master geometry cache " + masterGeometryCache.stats());
+        masterGeometryCache.clear();
+        super.dispose();
+    }
+
     /**
      * Get elevation model.
      *
@@ -847,36 +849,50 @@ public final class BackGeocodingOp extends Operator {
             double[][] lon = new double[numLines][numPixels];
             final PositionData posData = new PositionData();
             final PixelPos pix = new PixelPos();
-
-            final EarthGravitationalModel96 egm = EarthGravitationalModel96.instance();
+            final double[] latLon = new double[2];
+
+            // the master geometry of the DEM posts is shared by all tiles and slaves of the burst,
+            // unless the burst grid is too large for the cache and the posts of the tile are computed directly
+            final int[] burstGrid = getMasterGeometryGrid(subSwathIndex, mBurstIndex);
+            MasterGeometryCache.MasterGeometry masterGeometry = null;
+            if (masterGeometryCache.fits(burstGrid[2], burstGrid[3])) {
+                masterGeometry = masterGeometryCache.get(
+                        subSwathIndex, mBurstIndex, () -> computeMasterGeometry(subSwathIndex, mBurstIndex, burstGrid));
+            }
 
             boolean noValidSlavePixPos = true;
             for (int l = 0; l < numLines; l++) {
                 for (int p = 0; p < numPixels; p++) {
 
-                    pix.setLocation(lonMinIdx + p, latMaxIdx + l);
-                    GeoPos gp = dem.getGeoPos(pix);
-                    lat[l][p] = gp.lat;
-                    lon[l][p] = gp.lon;
-
-                    Double alt = dem.getElevation(gp);
-                    if (alt.equals(demNoDataValue) && !maskOutAreaWithoutElevation) { // get corrected elevation for 0
-                        alt = (double)egm.getEGM(gp.lat, gp.lon);
+                    final int idx = masterGeometry != null ? masterGeometry.getIndex(latMaxIdx + l, lonMinIdx + p) : -1;
+                    boolean masterValid;
+                    if (idx >= 0) {
+                        lat[l][p] = masterGeometry.lat[idx];
+                        lon[l][p] = masterGeometry.lon[idx];
+                        masterValid = masterGeometry.azimuthIndex[idx] != invalidIndex;
+                        if (masterValid) {
+                            posData.earthPoint.x = masterGeometry.earthX[idx];
+                            posData.earthPoint.y = masterGeometry.earthY[idx];
+                            posData.earthPoint.z = masterGeometry.earthZ[idx];
+                            posData.azimuthIndex = masterGeometry.azimuthIndex[idx];
+                            posData.rangeIndex = masterGeometry.rangeIndex[idx];
+                        }
+                    } else {
+                        pix.setLocation(lonMinIdx + p, latMaxIdx + l);
+                        masterValid = computeMasterPosition(subSwathIndex, mBurstIndex, pix, posData, latLon);
+                        lat[l][p] = latLon[0];
+                        lon[l][p] = latLon[1];
                     }
 
-                    if (!alt.equals(demNoDataValue)) {
-                        GeoUtils.geo2xyzWGS84(gp.lat, gp.lon, alt, posData.earthPoint);
-                        if(getPosition(subSwathIndex, mBurstIndex, mSU, posData)) {
+                    if (masterValid) {
+                        masterAz[l][p] = posData.azimuthIndex;
+                        masterRg[l][p] = posData.rangeIndex;
+                        if (getPosition(subSwathIndex, sBurstIndex, slaveData.sSU, posData)) {
 
-                            masterAz[l][p] = posData.azimuthIndex;
-                            masterRg[l][p] = posData.rangeIndex;
-                            if (getPosition(subSwathIndex, sBurstIndex, slaveData.sSU, posData)) {
-
-                                slaveAz[l][p] = posData.azimuthIndex;
-                                slaveRg[l][p] = posData.rangeIndex;
-                                noValidSlavePixPos = false;
-                                continue;
-                            }
+                            slaveAz[l][p] = posData.azimuthIndex;
+                            slaveRg[l][p] = posData.rangeIndex;
+                            noValidSlavePixPos = false;
+                            continue;
                         }
                     }
 
@@ -951,6 +967,95 @@ public final class BackGeocodingOp extends Operator {
         return false;
     }
 
+    /**
+     * Compute the DEM grid covering a burst with the same padding as used for a tile.
+     *
+     * @return the first DEM line and pixel and the number of DEM lines and pixels
+     */
+    private int[] getMasterGeometryGrid(final int subSwathIndex, final int mBurstIndex) throws Exception {
+
+        final Sentinel1Utils.SubSwathInfo subSwath = mSubSwath[subSwathIndex - 1];
+        final int ymin = mBurstIndex * subSwath.linesPerBurst;
+        final int ymax = ymin + subSwath.linesPerBurst - 1;
+
+        final double[] latLonMinMax = new double[4];
+        computeImageGeoBoundary(subSwathIndex, mBurstIndex, 0, subSwath.numOfSamples - 1, ymin, ymax, latLonMinMax);
+
+        final double delta = Math.max(demSamplingLat, demSamplingLon);
+        final double extralat = 20*delta;
+        final double extralon = 20*delta;
+
+        final PixelPos upperLeft = dem.getIndex(new GeoPos(latLonMinMax[1] + extralat, latLonMinMax[2] - extralon));
+        final PixelPos lowerRight = dem.getIndex(new GeoPos(latLonMinMax[0] - extralat, latLonMinMax[3] + extralon));
+        final int latMaxIdx = (int)Math.floor(upperLeft.getY());
+        final int latMinIdx = (int)Math.ceil(lowerRight.getY());
+        final int lonMinIdx = (int)Math.floor(upperLeft.getX());
+        final int lonMaxIdx = (int)Math.ceil(lowerRight.getX());
+
+        return new int[] {latMaxIdx, lonMinIdx, latMinIdx - latMaxIdx, lonMaxIdx - lonMinIdx};
+    }
+
+    /**
+     * Compute the master geometry of all DEM posts of the grid covering a burst.
+     */
+    private MasterGeometryCache.MasterGeometry computeMasterGeometry(final int subSwathIndex, final int mBurstIndex,
+                                                                     final int[] grid) throws Exception {
+
+        final int latMaxIdx = grid[0];
+        final int lonMinIdx = grid[1];
+        final MasterGeometryCache.MasterGeometry geometry = new MasterGeometryCache.MasterGeometry(
+                latMaxIdx, lonMinIdx, grid[2], grid[3]);
+
+        final PositionData posData = new PositionData();
+        final PixelPos pix = new PixelPos();
+        final double[] latLon = new double[2];
+        int idx = 0;
+        for (int l = 0; l < geometry.numLines; l++) {
+            for (int p = 0; p < geometry.numPixels; p++, idx++) {
+                pix.setLocation(lonMinIdx + p, latMaxIdx + l);
+                final boolean valid = computeMasterPosition(subSwathIndex, mBurstIndex, pix, posData, latLon);
+
+                geometry.lat[idx] = latLon[0];
+                geometry.lon[idx] = latLon[1];
+                if (valid) {
+                    geometry.earthX[idx] = posData.earthPoint.x;
+                    geometry.earthY[idx] = posData.earthPoint.y;
+                    geometry.earthZ[idx] = posData.earthPoint.z;
+                    geometry.azimuthIndex[idx] = posData.azimuthIndex;
+                    geometry.rangeIndex[idx] = posData.rangeIndex;
+                } else {
+                    geometry.azimuthIndex[idx] = invalidIndex;
+                    geometry.rangeIndex[idx] = invalidIndex;
+                }
+            }
+        }
+        return geometry;
+    }
+
+    /**
+     * Compute the earth point and master azimuth/range indices of a DEM post.
+     *
+     * @return false if the post has no elevation or no position in the master burst
+     */
+    private boolean computeMasterPosition(final int subSwathIndex, final int mBurstIndex, final PixelPos pix,
+                                          final PositionData posData, final double[] latLon) throws Exception {
+
+        final GeoPos gp = dem.getGeoPos(pix);
+        latLon[0] = gp.lat;
+        latLon[1] = gp.lon;
+
+        double alt = dem.getElevation(gp);
+        if (Double.compare(alt, demNoDataValue) == 0 && !maskOutAreaWithoutElevation) { // get corrected elevation for 0
+            alt = (double)EarthGravitationalModel96.instance().getEGM(gp.lat, gp.lon);
+        }
+
+        if (Double.compare(alt, demNoDataValue) == 0) {
+            return false;
+        }
+        GeoUtils.geo2xyzWGS84(gp.lat, gp.lon, alt, posData.earthPoint);
+        return getPosition(subSwathIndex, mBurstIndex, mSU, posData);
+    }
+
     /**
      * Compute source image geodetic boundary (minimum/maximum latitude/longitude) from the its corner
      * latitude/longitude.
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sentinel1.gpf;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.esa.snap.runtime.Config;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Byte budgeted cache of the master geometry of the DEM posts covering each burst.
+ * The geometry is computed once per burst and shared by all tiles and slaves of the stack.
+ * <p>
+ * The budget can be set with s1tbx.backgeocoding.masterGeometryCacheSizeMB. A burst grid larger than the
+ * budget is not cached and callers should compute the posts of each tile directly, see {@link #fits}.
+ */
+class MasterGeometryCache {
+
+    private static final long DEFAULT_MAX_BYTES = Config.instance().preferences().getLong(
+            "s1tbx.backgeocoding.masterGeometryCacheSizeMB", 512) * 1024L * 1024L;
+
+    private final long maxBytes;
+    private final Cache<Long, MasterGeometry> cache;
+
+    MasterGeometryCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    MasterGeometryCache(final long maxBytes) {
+        this.maxBytes = maxBytes;
+        // Guava splits the weight limit over the segments, a single segment lets one burst use the whole budget
+        cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(maxBytes)
+                .weigher((Long key, MasterGeometry value) ->
+                                 (int) Math.min(Integer.MAX_VALUE, value.getSizeInBytes()))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param numLines  number of DEM lines of the burst grid
+     * @param numPixels number of DEM pixels of the burst grid
+     * @return true if the geometry of the grid can be kept within the budget
+     */
+    boolean fits(final int numLines, final int numPixels) {
+        return MasterGeometry.getSizeInBytes(numLines, numPixels) <= maxBytes;
+    }
+
+    /**
+     * Returns the geometry of a burst or computes it with the loader. Concurrent requests for the same
+     * burst wait for a single computation.
+     *
+     * @param subSwathIndex the sub-swath index starting at 1
+     * @param burstIndex    the burst index
+     * @param loader        computes the geometry if not cached
+     * @return the master geometry of the burst
+     * @throws Exception if the geometry could not be computed
+     */
+    MasterGeometry get(final int subSwathIndex, final int burstIndex,
+                       final Callable<MasterGeometry> loader) throws Exception {
+        try {
+            return cache.get(((long) subSwathIndex << 32) | burstIndex, loader);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    long size() {
+        return cache.size();
+    }
+
+    /**
+     * @return hit, miss, load and eviction counts
+     */
+    CacheStats getStats() {
+        return cache.stats();
+    }
+
+    String stats() {
+        return cache.stats().toString();
+    }
+
+    void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Latitude, longitude, earth point and master azimuth/range indices of a grid of DEM posts.
+     * The indices are invalidIndex where the post has no elevation or no master position.
+     */
+    static class MasterGeometry {
+
+        final int latMaxIdx;
+        final int lonMinIdx;
+        final int numLines;
+        final int numPixels;
+
+        final double[] lat;
+        final double[] lon;
+        final double[] earthX;
+        final double[] earthY;
+        final double[] earthZ;
+        final double[] azimuthIndex;
+        final double[] rangeIndex;
+
+        MasterGeometry(final int latMaxIdx, final int lonMinIdx, final int numLines, final int numPixels) {
+            this.latMaxIdx = latMaxIdx;
+            this.lonMinIdx = lonMinIdx;
+            this.numLines = Math.max(numLines, 0);
+            this.numPixels = Math.max(numPixels, 0);
+
+            final int size = this.numLines * this.numPixels;
+            lat = new double[size];
+            lon = new double[size];
+            earthX = new double[size];
+            earthY = new double[size];
+            earthZ = new double[size];
+            azimuthIndex = new double[size];
+            rangeIndex = new double[size];
+        }
+
+        /**
+         * @param latIdx DEM line index
+         * @param lonIdx DEM pixel index
+         * @return the index of the post in the arrays or -1 if not covered
+         */
+        int getIndex(final int latIdx, final int lonIdx) {
+            final int l = latIdx - latMaxIdx;
+            final int p = lonIdx - lonMinIdx;
+            if (l < 0 || l >= numLines || p < 0 || p >= numPixels) {
+                return -1;
+            }
+            return l * numPixels + p;
+        }
+
+        long getSizeInBytes() {
+            return getSizeInBytes(numLines, numPixels);
+        }
+
+        static long getSizeInBytes(final int numLines, final int numPixels) {
+            return (long) Math.max(numLines, 0) * Math.max(numPixels, 0) * 7 * 8;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.esa.s1tbx.sentinel1.gpf;
 import com.bc.ceres.core.ProgressMonitor;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
 import org.apache.commons.math3.util.FastMath;
+import org.esa.s1tbx.commons.OperatorExecutor;
 import org.esa.s1tbx.insar.gpf.support.Sentinel1Utils;
 import org.esa.snap.core.datamodel.*;
 import org.esa.snap.core.dataop.downloadable.StatusProgressMonitor;
@@ -36,6 +37,7 @@ import org.esa.snap.engine_utilities.datamodel.Unit;
 import org.esa.snap.engine_utilities.gpf.*;
 import org.jblas.ComplexDoubleMatrix;
 import org.jlinda.core.coregistration.utils.CoregistrationUtils;
+import org.jlinda.core.utils.FFTPlanCache;
 import org.jlinda.core.utils.TileUtilsDoris;
 
 import java.awt.*;
@@ -323,7 +325,7 @@ public class RangeShiftOp extends Operator {
 
             final double[] line = new double[2*w];
             final double[] phase = new double[2*w];
-            final DoubleFFT_1D row_fft = new DoubleFFT_1D(w);
+            final DoubleFFT_1D row_fft = FFTPlanCache.getDoubleFFT_1D(w);
 
             computeShiftPhaseArray(rgOffset, w, phase);
 
@@ -371,13 +373,13 @@ public class RangeShiftOp extends Operator {
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Estimating range offsets... ", numBursts);
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("RangeShiftOp", this::checkForCancellation);
         try {
             for (int i = 0; i < numBursts; i++) {
                 checkForCancellation();
                 final int burstIndex = i;
 
-                final Thread worker = new Thread() {
+                final Runnable worker = new Runnable() {
                     @Override
                     public void run() {
                         try {
@@ -399,11 +401,11 @@ public class RangeShiftOp extends Operator {
                         }
                     }
                 };
-                threadManager.add(worker);
+                executor.execute(worker);
                 status.worked(1);
             }
             status.done();
-            threadManager.finish();
+            executor.finish();
 
             double sumAzOffset = 0.0;
             double sumRgOffset = 0.0;
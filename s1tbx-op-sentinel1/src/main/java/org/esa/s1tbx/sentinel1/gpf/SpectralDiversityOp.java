@@ -18,6 +18,7 @@ package org.esa.s1tbx.sentinel1.gpf;
 import com.bc.ceres.core.ProgressMonitor;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
 import org.apache.commons.math3.util.FastMath;
+import org.esa.s1tbx.commons.OperatorExecutor;
 import org.esa.s1tbx.insar.gpf.support.Sentinel1Utils;
 import org.esa.snap.core.datamodel.*;
 import org.esa.snap.core.dataop.downloadable.StatusProgressMonitor;
@@ -39,6 +40,7 @@ import org.jlinda.core.SLCImage;
 import org.jlinda.core.coregistration.utils.CoregistrationUtils;
 import org.jlinda.core.utils.BandUtilsDoris;
 import org.jlinda.core.utils.CplxContainer;
+import org.jlinda.core.utils.FFTPlanCache;
 import org.jlinda.core.utils.ProductContainer;
 import org.jlinda.core.utils.TileUtilsDoris;
 
@@ -479,7 +481,7 @@ public class SpectralDiversityOp extends Operator {
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Estimating range offsets... ", numBursts);
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("SpectralDiversityOp", this::checkForCancellation);
         try {
             // for each slave and pol combination
             for (String key : targetMap.keySet()) {
@@ -495,7 +497,7 @@ public class SpectralDiversityOp extends Operator {
                     checkForCancellation();
                     final int burstIndex = i;
 
-                    final Thread worker = new Thread() {
+                    final Runnable worker = new Runnable() {
                         @Override
                         public void run() {
                             try {
@@ -514,11 +516,11 @@ public class SpectralDiversityOp extends Operator {
                             }
                         }
                     };
-                    threadManager.add(worker);
+                    executor.execute(worker);
                     status.worked(1);
                 }
                 status.done();
-                threadManager.finish();
+                executor.finish();
 
                 double sumAzOffset = 0.0;
                 double sumRgOffset = 0.0;
@@ -649,7 +651,7 @@ public class SpectralDiversityOp extends Operator {
         final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
         status.beginTask("Estimating azimuth offset... ", numShifts);
 
-        final ThreadManager threadManager = new ThreadManager();
+        final OperatorExecutor executor = new OperatorExecutor("SpectralDiversityOp", this::checkForCancellation);
         try {
             for (String key : targetMap.keySet()) {
 
@@ -690,7 +692,7 @@ public class SpectralDiversityOp extends Operator {
                         final int x0 = x0BurstOne + j * w;
                         final int blockIndex = j;
 
-                        final Thread worker = new Thread() {
+                        final Runnable worker = new Runnable() {
                             @Override
                             public void run() {
                                 try {
@@ -711,13 +713,13 @@ public class SpectralDiversityOp extends Operator {
                                 }
                             }
                         };
-                        threadManager.add(worker);
+                        executor.execute(worker);
                         status.worked(1);
                     }
                 }
 
                 status.done();
-                threadManager.finish();
+                executor.finish();
 
                 // todo The following simple average should be replaced by weighted average using coherence as weight
                 final double[] averagedAzShiftArray = new double[numOverlaps];
@@ -1208,7 +1210,7 @@ public class SpectralDiversityOp extends Operator {
 
         final double[] line = new double[2*w];
         final double[] phaseRg = new double[2*w];
-        final DoubleFFT_1D row_fft = new DoubleFFT_1D(w);
+        final DoubleFFT_1D row_fft = FFTPlanCache.getDoubleFFT_1D(w);
         final double[][] rangeShiftedI = new double[h][w];
         final double[][] rangeShiftedQ = new double[h][w];
 
@@ -1264,7 +1266,7 @@ public class SpectralDiversityOp extends Operator {
 
         final double[] col1 = new double[2 * h];
         final double[] col2 = new double[2 * h];
-        final DoubleFFT_1D col_fft = new DoubleFFT_1D(h);
+        final DoubleFFT_1D col_fft = FFTPlanCache.getDoubleFFT_1D(h);
         for (int c = 0; c < w; c++) {
             final int x = x0 + c;
             for (int r = 0; r < h; r++) {
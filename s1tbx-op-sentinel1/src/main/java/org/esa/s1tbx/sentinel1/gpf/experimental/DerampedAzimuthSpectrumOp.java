@@ -34,6 +34,7 @@ import org.esa.snap.engine_utilities.datamodel.Unit;
 import org.esa.snap.engine_utilities.gpf.InputProductValidator;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
+import org.jlinda.core.utils.FFTPlanCache;
 
 import java.awt.*;
 import java.util.Map;
@@ -364,7 +365,7 @@ public final class DerampedAzimuthSpectrumOp extends Operator {
             final float[] tgtArray  = (float[]) targetTile.getDataBuffer().getElems();
 
             final double[] col = new double[2*h];
-            final DoubleFFT_1D col_fft = new DoubleFFT_1D(h);
+            final DoubleFFT_1D col_fft = FFTPlanCache.getDoubleFFT_1D(h);
             final int h2 = h*h;
 
             for (int c = 0; c < w; c++) {
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017 by Array Systems Computing Inc. http://www.array.ca
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sentinel1.gpf;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for the master geometry cache used by BackGeocodingOp.
+ */
+public class TestMasterGeometryCache {
+
+    @Test
+    public void testComputedOncePerBurst() throws Exception {
+        final MasterGeometryCache cache = new MasterGeometryCache(1024 * 1024);
+        final AtomicInteger numLoads = new AtomicInteger();
+
+        final MasterGeometryCache.MasterGeometry g1 = cache.get(1, 3, () -> {
+            numLoads.incrementAndGet();
+            return new MasterGeometryCache.MasterGeometry(100, 200, 10, 20);
+        });
+        final MasterGeometryCache.MasterGeometry g2 = cache.get(1, 3, () -> {
+            numLoads.incrementAndGet();
+            return new MasterGeometryCache.MasterGeometry(100, 200, 10, 20);
+        });
+        cache.get(2, 3, () -> {
+            numLoads.incrementAndGet();
+            return new MasterGeometryCache.MasterGeometry(100, 200, 10, 20);
+        });
+
+        assertSame(g1, g2);
+        assertEquals(2, numLoads.get());
+        assertEquals(1, cache.getStats().hitCount());
+        assertEquals(2, cache.getStats().missCount());
+    }
+
+    @Test
+    public void testMemoryBound() throws Exception {
+        // each geometry is 100 * 100 * 7 * 8 = 560000 bytes
+        final MasterGeometryCache cache = new MasterGeometryCache(1024 * 1024);
+        for (int burst = 0; burst < 5; ++burst) {
+            cache.get(1, burst, () -> new MasterGeometryCache.MasterGeometry(0, 0, 100, 100));
+        }
+        assertTrue(cache.size() <= 1);
+    }
+
+    @Test
+    public void testLargeEntryIsKept() throws Exception {
+        // one geometry of 200 * 100 * 7 * 8 = 1120000 bytes is more than a quarter of the budget
+        final long maxBytes = 2 * 1024 * 1024;
+        final MasterGeometryCache cache = new MasterGeometryCache(maxBytes);
+        assertTrue(MasterGeometryCache.MasterGeometry.getSizeInBytes(200, 100) > maxBytes / 4);
+        assertTrue(cache.fits(200, 100));
+
+        final AtomicInteger numLoads = new AtomicInteger();
+        for (int i = 0; i < 3; ++i) {
+            cache.get(1, 0, () -> {
+                numLoads.incrementAndGet();
+                return new MasterGeometryCache.MasterGeometry(0, 0, 200, 100);
+            });
+        }
+        assertEquals(1, numLoads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testFits() {
+        final MasterGeometryCache cache = new MasterGeometryCache(1024 * 1024);
+        assertTrue(cache.fits(100, 100));
+        assertFalse(cache.fits(1000, 100));
+
+        // a 1 arc second DEM grid of an IW burst does not overflow
+        assertEquals(1020L * 4320 * 56, MasterGeometryCache.MasterGeometry.getSizeInBytes(1020, 4320));
+    }
+
+    @Test
+    public void testGetIndex() {
+        final MasterGeometryCache.MasterGeometry geometry = new MasterGeometryCache.MasterGeometry(100, 200, 10, 20);
+
+        assertEquals(0, geometry.getIndex(100, 200));
+        assertEquals(20 + 5, geometry.getIndex(101, 205));
+        assertEquals(10 * 20 - 1, geometry.getIndex(109, 219));
+        assertEquals(-1, geometry.getIndex(99, 200));
+        assertEquals(-1, geometry.getIndex(110, 200));
+        assertEquals(-1, geometry.getIndex(100, 220));
+    }
+}
@@ -38,10 +38,10 @@ import org.esa.snap.core.util.io.FileUtils;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Split a product into several tiles
@@ -82,8 +82,6 @@ public class TileWriterOp extends Operator {
     @Parameter(description = "Tile pixel size", label = "Pixel size Y", defaultValue = "200")
     private int pixelSizeY = 200;
 
-    private final Map<MultiLevelImage, List<Point>> todoLists = new HashMap<>();
-
     private boolean productFileWritten;
 
     private SubsetInfo[] subsetInfo = null;
@@ -127,6 +125,7 @@ public class TileWriterOp extends Operator {
                     subsetInfo[n].subsetBuilder = new ProductSubsetBuilder();
                     subsetInfo[n].product = subsetInfo[n].subsetBuilder.readProductNodes(sourceProduct, subsetDef);
                     subsetInfo[n].file = new File(file.getParentFile(), createName(file, n + 1));
+                    subsetInfo[n].region = subsetDef.getRegion();
 
                     subsetInfo[n].productWriter = ProductIO.getProductWriter(formatName);
                     if (subsetInfo[n].productWriter == null) {
@@ -160,19 +159,21 @@ public class TileWriterOp extends Operator {
                 if (!productFileWritten) {
                     for (SubsetInfo info : subsetInfo) {
                         info.productWriter.writeProductNodes(info.product, info.file);
+                        initTodoList(info);
                     }
                     productFileWritten = true;
                 }
             }
             final Rectangle rect = targetTile.getRectangle();
+            final MultiLevelImage sourceImage = targetBand.getSourceImage();
+            final Point tileIndex = new Point(sourceImage.XToTileX(rect.x), sourceImage.YToTileY(rect.y));
 
             for (SubsetInfo info : subsetInfo) {
-                final Rectangle trgRect = info.subsetBuilder.getSubsetDef().getRegion();
-                if (rect.intersects(trgRect)) {
-                    writeTile(info, targetBand.getName(), trgRect);
+                final Rectangle intersection = rect.intersection(info.region);
+                if (!intersection.isEmpty()) {
+                    writeTile(info, targetBand.getName(), intersection, tileIndex);
                 }
             }
-            markTileDone(targetBand, targetTile);
         } catch (Exception e) {
             if (e instanceof OperatorException) {
                 throw (OperatorException) e;
@@ -182,43 +183,67 @@ public class TileWriterOp extends Operator {
         }
     }
 
-    private synchronized void writeTile(final SubsetInfo info, final String bandName, final Rectangle trgRect)
-            throws IOException {
-
-        final Tile sourceTile = getSourceTile(sourceProduct.getBand(bandName), trgRect);
-        final ProductData rawSamples = sourceTile.getRawSamples();
+    /**
+     * Writes the part of a tile within a subset. Subsets are locked separately, so different subsets are written
+     * concurrently, and a subset is closed as soon as its last tile is written.
+     */
+    private void writeTile(final SubsetInfo info, final String bandName, final Rectangle intersection,
+                           final Point tileIndex) throws IOException {
 
         final Band trgBand = info.product.getBand(bandName);
-        info.productWriter.writeBandRasterData(trgBand,
-                0, 0, trgBand.getRasterWidth(), trgBand.getRasterHeight(), rawSamples, ProgressMonitor.NULL);
-    }
+        if (trgBand == null || !info.productWriter.shouldWrite(trgBand)) {
+            return;
+        }
 
-    private void markTileDone(Band targetBand, Tile targetTile) throws IOException {
-        boolean done;
-        synchronized (todoLists) {
-            MultiLevelImage sourceImage = targetBand.getSourceImage();
+        final Tile sourceTile = getSourceTile(sourceProduct.getBand(bandName), intersection);
+        final ProductData rawSamples = sourceTile.getRawSamples();
 
-            final List<Point> currentTodoList = getTodoList(sourceImage);
-            currentTodoList.remove(new Point(sourceImage.XToTileX(targetTile.getMinX()),
-                    sourceImage.YToTileY(targetTile.getMinY())));
+        synchronized (info) {
+            if (info.closed) {
+                // the tile has been computed again after the subset was completed
+                return;
+            }
+            info.productWriter.writeBandRasterData(trgBand,
+                    intersection.x - info.region.x, intersection.y - info.region.y,
+                    intersection.width, intersection.height, rawSamples, ProgressMonitor.NULL);
 
-            done = isDone();
+            final Set<Point> todoList = info.todoLists.get(bandName);
+            if (todoList != null) {
+                todoList.remove(tileIndex);
+            }
+            if (isDone(info)) {
+                close(info);
+            }
         }
-        if (done) {
-            // If we get here all tiles are written
-            for (SubsetInfo info : subsetInfo) {
-                if (info.productWriter instanceof DimapProductWriter) {
-                    // if we can update the header (only DIMAP) rewrite it!
-                    synchronized (info.productWriter) {
-                        info.productWriter.writeProductNodes(info.product, info.file);
+    }
+
+    private void initTodoList(final SubsetInfo info) throws IOException {
+        for (Band trgBand : info.product.getBands()) {
+            if (!info.productWriter.shouldWrite(trgBand)) {
+                continue;
+            }
+            final MultiLevelImage sourceImage = sourceProduct.getBand(trgBand.getName()).getSourceImage();
+            final Set<Point> todoList = new HashSet<>();
+            for (int y = 0; y < sourceImage.getNumYTiles(); y++) {
+                for (int x = 0; x < sourceImage.getNumXTiles(); x++) {
+                    final int tileX = sourceImage.getMinTileX() + x;
+                    final int tileY = sourceImage.getMinTileY() + y;
+                    if (sourceImage.getTileRect(tileX, tileY).intersects(info.region)) {
+                        todoList.add(new Point(tileX, tileY));
                     }
                 }
             }
+            info.todoLists.put(trgBand.getName(), todoList);
+        }
+        synchronized (info) {
+            if (isDone(info)) {
+                close(info);
+            }
         }
     }
 
-    private boolean isDone() {
-        for (List<Point> todoList : todoLists.values()) {
+    private static boolean isDone(final SubsetInfo info) {
+        for (Set<Point> todoList : info.todoLists.values()) {
             if (!todoList.isEmpty()) {
                 return false;
             }
@@ -226,31 +251,28 @@ public class TileWriterOp extends Operator {
         return true;
     }
 
-    private List<Point> getTodoList(MultiLevelImage sourceImage) {
-        List<Point> todoList = todoLists.get(sourceImage);
-        if (todoList == null) {
-            final int numXTiles = sourceImage.getNumXTiles();
-            final int numYTiles = sourceImage.getNumYTiles();
-            todoList = new ArrayList<>(numXTiles * numYTiles);
-            for (int y = 0; y < numYTiles; y++) {
-                for (int x = 0; x < numXTiles; x++) {
-                    todoList.add(new Point(x, y));
-                }
-            }
-            todoLists.put(sourceImage, todoList);
+    private static void close(final SubsetInfo info) throws IOException {
+        if (info.productWriter instanceof DimapProductWriter) {
+            // if we can update the header (only DIMAP) rewrite it!
+            info.productWriter.writeProductNodes(info.product, info.file);
         }
-        return todoList;
+        info.productWriter.close();
+        info.closed = true;
     }
 
     @Override
     public void dispose() {
         try {
             for (SubsetInfo info : subsetInfo) {
-                info.productWriter.close();
+                synchronized (info) {
+                    if (!info.closed) {
+                        info.productWriter.close();
+                        info.closed = true;
+                    }
+                }
             }
         } catch (IOException ignore) {
         }
-        todoLists.clear();
         super.dispose();
     }
 
@@ -259,6 +281,10 @@ public class TileWriterOp extends Operator {
         ProductSubsetBuilder subsetBuilder;
         File file;
         ProductWriter productWriter;
+        Rectangle region;
+        // tiles still to be written per band
+        final Map<String, Set<Point>> todoLists = new HashMap<>();
+        boolean closed;
     }
 
     public static class Spi extends OperatorSpi {